@@ -3,10 +3,12 @@ package com.ctrip.framework.apollo.adminservice.controller;
 import com.ctrip.framework.apollo.biz.entity.Commit;
 import com.ctrip.framework.apollo.biz.service.CommitService;
 import com.ctrip.framework.apollo.common.dto.CommitDTO;
+import com.ctrip.framework.apollo.common.dto.CursorPageDTO;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -29,4 +31,19 @@ public class CommitController {
     return BeanUtils.batchTransform(CommitDTO.class, commits);
   }
 
+  /**
+   * keyset 分页版本，cursor 为上一页最后一条 commit 的 id ，不传时从最新的开始
+   */
+  @GetMapping("/apps/{appId}/clusters/{clusterName}/namespaces/{namespaceName}/commit/cursor")
+  public CursorPageDTO<CommitDTO> findWithCursor(@PathVariable String appId, @PathVariable String clusterName,
+      @PathVariable String namespaceName,
+      @RequestParam(value = "cursor", defaultValue = "0") long cursor,
+      @RequestParam(value = "size", defaultValue = "20") int size) {
+
+    List<Commit> commits = commitService.findBefore(appId, clusterName, namespaceName, cursor, size);
+    long nextCursor = commits.isEmpty() ? cursor : commits.get(commits.size() - 1).getId();
+
+    return new CursorPageDTO<>(BeanUtils.batchTransform(CommitDTO.class, commits), size, nextCursor);
+  }
+
 }
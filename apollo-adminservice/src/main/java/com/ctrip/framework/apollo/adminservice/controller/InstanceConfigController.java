@@ -5,6 +5,7 @@ import com.ctrip.framework.apollo.biz.entity.InstanceConfig;
 import com.ctrip.framework.apollo.biz.entity.Release;
 import com.ctrip.framework.apollo.biz.service.InstanceService;
 import com.ctrip.framework.apollo.biz.service.ReleaseService;
+import com.ctrip.framework.apollo.common.dto.CursorPageDTO;
 import com.ctrip.framework.apollo.common.dto.InstanceConfigDTO;
 import com.ctrip.framework.apollo.common.dto.InstanceDTO;
 import com.ctrip.framework.apollo.common.dto.PageDTO;
@@ -62,40 +63,72 @@ public class InstanceConfigController {
     List<InstanceDTO> instanceDTOs = Collections.emptyList();
 
     if (instanceConfigsPage.hasContent()) {
-      Multimap<Long, InstanceConfig> instanceConfigMap = HashMultimap.create();
-      Set<String> otherReleaseKeys = Sets.newHashSet();
-
-      for (InstanceConfig instanceConfig : instanceConfigsPage.getContent()) {
-        instanceConfigMap.put(instanceConfig.getInstanceId(), instanceConfig);
-        otherReleaseKeys.add(instanceConfig.getReleaseKey());
-      }
-
-      Set<Long> instanceIds = instanceConfigMap.keySet();
-
-      List<Instance> instances = instanceService.findInstancesByIds(instanceIds);
-
-      if (!CollectionUtils.isEmpty(instances)) {
-        instanceDTOs = BeanUtils.batchTransform(InstanceDTO.class, instances);
-      }
-
-      for (InstanceDTO instanceDTO : instanceDTOs) {
-        Collection<InstanceConfig> configs = instanceConfigMap.get(instanceDTO.getId());
-        List<InstanceConfigDTO> configDTOs = configs.stream().map(instanceConfig -> {
-          InstanceConfigDTO instanceConfigDTO = new InstanceConfigDTO();
-          //to save some space
-          instanceConfigDTO.setRelease(null);
-          instanceConfigDTO.setReleaseDeliveryTime(instanceConfig.getReleaseDeliveryTime());
-          instanceConfigDTO.setDataChangeLastModifiedTime(instanceConfig
-              .getDataChangeLastModifiedTime());
-          return instanceConfigDTO;
-        }).collect(Collectors.toList());
-        instanceDTO.setConfigs(configDTOs);
-      }
+      instanceDTOs = transformInstanceConfigs(instanceConfigsPage.getContent());
     }
 
     return new PageDTO<>(instanceDTOs, pageable, instanceConfigsPage.getTotalElements());
   }
 
+  /**
+   * keyset 分页版本的 by-release ，cursor 为上一页最后一条 InstanceConfig 的 id
+   */
+  @GetMapping("/by-release/cursor")
+  public CursorPageDTO<InstanceDTO> getByReleaseWithCursor(@RequestParam("releaseId") long releaseId,
+      @RequestParam(value = "cursor", defaultValue = "0") long cursor,
+      @RequestParam(value = "size", defaultValue = "20") int size) {
+    Release release = releaseService.findOne(releaseId);
+    if (release == null) {
+      throw new NotFoundException(String.format("release not found for %s", releaseId));
+    }
+    List<InstanceConfig> instanceConfigs = instanceService
+        .findActiveInstanceConfigsByReleaseKey(release.getReleaseKey(), cursor, size);
+
+    return transform2CursorPageDTO(instanceConfigs, size, cursor);
+  }
+
+  private List<InstanceDTO> transformInstanceConfigs(List<InstanceConfig> instanceConfigs) {
+    Multimap<Long, InstanceConfig> instanceConfigMap = HashMultimap.create();
+
+    for (InstanceConfig instanceConfig : instanceConfigs) {
+      instanceConfigMap.put(instanceConfig.getInstanceId(), instanceConfig);
+    }
+
+    Set<Long> instanceIds = instanceConfigMap.keySet();
+
+    List<Instance> instances = instanceService.findInstancesByIds(instanceIds);
+
+    if (CollectionUtils.isEmpty(instances)) {
+      return Collections.emptyList();
+    }
+
+    List<InstanceDTO> instanceDTOs = BeanUtils.batchTransform(InstanceDTO.class, instances);
+
+    for (InstanceDTO instanceDTO : instanceDTOs) {
+      Collection<InstanceConfig> configs = instanceConfigMap.get(instanceDTO.getId());
+      List<InstanceConfigDTO> configDTOs = configs.stream().map(instanceConfig -> {
+        InstanceConfigDTO instanceConfigDTO = new InstanceConfigDTO();
+        //to save some space
+        instanceConfigDTO.setRelease(null);
+        instanceConfigDTO.setReleaseDeliveryTime(instanceConfig.getReleaseDeliveryTime());
+        instanceConfigDTO.setDataChangeLastModifiedTime(instanceConfig
+            .getDataChangeLastModifiedTime());
+        return instanceConfigDTO;
+      }).collect(Collectors.toList());
+      instanceDTO.setConfigs(configDTOs);
+    }
+
+    return instanceDTOs;
+  }
+
+  private CursorPageDTO<InstanceDTO> transform2CursorPageDTO(List<InstanceConfig> instanceConfigs, int size,
+                                                             long cursor) {
+    if (instanceConfigs.isEmpty()) {
+      return new CursorPageDTO<>(Collections.emptyList(), size, cursor);
+    }
+    long nextCursor = instanceConfigs.get(instanceConfigs.size() - 1).getId();
+    return new CursorPageDTO<>(transformInstanceConfigs(instanceConfigs), size, nextCursor);
+  }
+
   @GetMapping("/by-namespace-and-releases-not-in")
   public List<InstanceDTO> getByReleasesNotIn(@RequestParam("appId") String appId,
                                               @RequestParam("clusterName") String clusterName,
@@ -178,6 +211,22 @@ public class InstanceConfigController {
     return new PageDTO<>(instanceDTOs, pageable, instances.getTotalElements());
   }
 
+  /**
+   * keyset 分页版本的 by-namespace ，cursor 为上一页最后一条 InstanceConfig 的 id
+   */
+  @GetMapping("/by-namespace/cursor")
+  public CursorPageDTO<InstanceDTO> getInstancesByNamespaceWithCursor(
+      @RequestParam("appId") String appId, @RequestParam("clusterName") String clusterName,
+      @RequestParam("namespaceName") String namespaceName,
+      @RequestParam(value = "instanceAppId", required = false) String instanceAppId,
+      @RequestParam(value = "cursor", defaultValue = "0") long cursor,
+      @RequestParam(value = "size", defaultValue = "20") int size) {
+    List<InstanceConfig> instanceConfigs = instanceService.findActiveInstanceConfigsByNamespace(instanceAppId,
+        appId, clusterName, namespaceName, cursor, size);
+
+    return transform2CursorPageDTO(instanceConfigs, size, cursor);
+  }
+
   @GetMapping("/by-namespace/count")
   public long getInstancesCountByNamespace(@RequestParam("appId") String appId,
                                           @RequestParam("clusterName") String clusterName,
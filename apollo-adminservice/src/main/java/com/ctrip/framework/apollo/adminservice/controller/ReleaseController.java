@@ -10,13 +10,18 @@ import com.ctrip.framework.apollo.biz.service.NamespaceService;
 import com.ctrip.framework.apollo.biz.service.ReleaseService;
 import com.ctrip.framework.apollo.biz.utils.ReleaseMessageKeyGenerator;
 import com.ctrip.framework.apollo.common.constants.NamespaceBranchStatus;
+import com.ctrip.framework.apollo.common.dto.BatchReleaseDTO;
 import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
+import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
+import com.ctrip.framework.apollo.common.utils.RequestPrecondition;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Lists;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -138,6 +143,50 @@ public class ReleaseController {
   }
 
 
+  /**
+   * 批量发布多个 Namespace ，在同一事务内完成，Release 消息一次性发送
+   *
+   * @return 与请求顺序一致的 Release 集合
+   */
+  @Transactional
+  @PostMapping("/releases/batch")
+  public List<ReleaseDTO> batchPublish(@RequestBody BatchReleaseDTO batchRelease) {
+    RequestPrecondition.checkArguments(!CollectionUtils.isEmpty(batchRelease.getNamespaces()),
+                                       "namespaces can not be empty");
+
+    List<Release> releases = Lists.newArrayListWithCapacity(batchRelease.getNamespaces().size());
+    List<String> messages = Lists.newArrayListWithCapacity(batchRelease.getNamespaces().size());
+    for (NamespaceDTO namespaceDTO : batchRelease.getNamespaces()) {
+      Namespace namespace = namespaceService.findOne(namespaceDTO.getAppId(), namespaceDTO.getClusterName(),
+                                                     namespaceDTO.getNamespaceName());
+      if (namespace == null) {
+        throw new NotFoundException(String.format("Could not find namespace for %s %s %s", namespaceDTO.getAppId(),
+                                                  namespaceDTO.getClusterName(), namespaceDTO.getNamespaceName()));
+      }
+      releases.add(releaseService.publish(namespace, batchRelease.getReleaseName(), batchRelease.getReleaseComment(),
+                                          batchRelease.getOperator(), batchRelease.isEmergencyPublish()));
+      messages.add(releaseMessage(namespace));
+    }
+
+    // 批量发送 Release 消息
+    messageSender.sendMessages(messages, Topics.APOLLO_RELEASE_TOPIC);
+
+    return BeanUtils.batchTransform(ReleaseDTO.class, releases);
+  }
+
+  /**
+   * 生成 Namespace 发布后的 Release 消息
+   *
+   * 若有父 Namespace 对象，说明是子 Namespace ( 灰度发布 )，则使用父 Namespace 的 Cluster 名字。
+   * 因为，客户端即使在灰度发布的情况下，也是使用 父 Namespace 的 Cluster 名字。
+   * 也就说，灰度发布，对客户端是透明无感知的
+   */
+  private String releaseMessage(Namespace namespace) {
+    Namespace parentNamespace = namespaceService.findParentNamespace(namespace);
+    String messageCluster = parentNamespace != null ? parentNamespace.getClusterName() : namespace.getClusterName();
+    return ReleaseMessageKeyGenerator.generate(namespace.getAppId(), messageCluster, namespace.getNamespaceName());
+  }
+
   /**
    * merge branch items to master and publish master
    * 合并子namespace变更的配置Map到父namespace,并进行一次release
@@ -2,6 +2,7 @@ package com.ctrip.framework.apollo.adminservice.controller;
 
 import com.ctrip.framework.apollo.biz.entity.ReleaseHistory;
 import com.ctrip.framework.apollo.biz.service.ReleaseHistoryService;
+import com.ctrip.framework.apollo.common.dto.CursorPageDTO;
 import com.ctrip.framework.apollo.common.dto.PageDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseHistoryDTO;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
@@ -47,6 +48,28 @@ public class ReleaseHistoryController {
   }
 
 
+  /**
+   * keyset 分页版本，cursor 为上一页最后一条发布历史的 id ，不传时从最新的开始
+   */
+  @GetMapping("/apps/{appId}/clusters/{clusterName}/namespaces/{namespaceName}/releases/histories/cursor")
+  public CursorPageDTO<ReleaseHistoryDTO> findReleaseHistoriesByNamespaceWithCursor(
+      @PathVariable String appId, @PathVariable String clusterName,
+      @PathVariable String namespaceName,
+      @RequestParam(value = "cursor", defaultValue = "0") long cursor,
+      @RequestParam(value = "size", defaultValue = "20") int size) {
+
+    List<ReleaseHistory> releaseHistories = releaseHistoryService
+        .findReleaseHistoriesByNamespaceBefore(appId, clusterName, namespaceName, cursor, size);
+
+    List<ReleaseHistoryDTO> releaseHistoryDTOs = new ArrayList<>(releaseHistories.size());
+    for (ReleaseHistory releaseHistory : releaseHistories) {
+      releaseHistoryDTOs.add(transformReleaseHistory2DTO(releaseHistory));
+    }
+    long nextCursor = releaseHistories.isEmpty() ? cursor : releaseHistories.get(releaseHistories.size() - 1).getId();
+
+    return new CursorPageDTO<>(releaseHistoryDTOs, size, nextCursor);
+  }
+
   @GetMapping("/releases/histories/by_release_id_and_operation")
   public PageDTO<ReleaseHistoryDTO> findReleaseHistoryByReleaseIdAndOperation(
       @RequestParam("releaseId") long releaseId,
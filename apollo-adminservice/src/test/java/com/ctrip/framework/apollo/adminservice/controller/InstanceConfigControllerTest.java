@@ -5,6 +5,7 @@ import com.ctrip.framework.apollo.biz.entity.InstanceConfig;
 import com.ctrip.framework.apollo.biz.entity.Release;
 import com.ctrip.framework.apollo.biz.service.InstanceService;
 import com.ctrip.framework.apollo.biz.service.ReleaseService;
+import com.ctrip.framework.apollo.common.dto.CursorPageDTO;
 import com.ctrip.framework.apollo.common.dto.InstanceDTO;
 import com.ctrip.framework.apollo.common.dto.PageDTO;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
@@ -27,6 +28,8 @@ import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -129,6 +132,76 @@ public class InstanceConfigControllerTest {
     instanceConfigController.getByRelease(someReleaseIdNotExists, pageable);
   }
 
+  @Test
+  public void testGetByReleaseWithCursor() throws Exception {
+    long someReleaseId = 1;
+    long someInstanceId = 1;
+    long anotherInstanceId = 2;
+    long someInstanceConfigId = 10;
+    long anotherInstanceConfigId = 11;
+    long someCursor = 9;
+    int someSize = 2;
+    String someReleaseKey = "someKey";
+    Release someRelease = new Release();
+    someRelease.setReleaseKey(someReleaseKey);
+    String someAppId = "someAppId";
+    String someCluster = "someCluster";
+    String someDataCenter = "someDC";
+    String someConfigAppId = "someConfigAppId";
+    String someConfigNamespace = "someNamespace";
+    String someIp = "someIp";
+    Date someReleaseDeliveryTime = new Date();
+
+    when(releaseService.findOne(someReleaseId)).thenReturn(someRelease);
+
+    InstanceConfig someInstanceConfig = assembleInstanceConfig(someInstanceId, someConfigAppId,
+        someConfigNamespace, someReleaseKey, someReleaseDeliveryTime);
+    someInstanceConfig.setId(someInstanceConfigId);
+    InstanceConfig anotherInstanceConfig = assembleInstanceConfig(anotherInstanceId,
+        someConfigAppId, someConfigNamespace, someReleaseKey, someReleaseDeliveryTime);
+    anotherInstanceConfig.setId(anotherInstanceConfigId);
+
+    when(instanceService.findActiveInstanceConfigsByReleaseKey(someReleaseKey, someCursor, someSize))
+        .thenReturn(Lists.newArrayList(someInstanceConfig, anotherInstanceConfig));
+
+    Instance someInstance = assembleInstance(someInstanceId, someAppId,
+        someCluster, someDataCenter, someIp);
+    Instance anotherInstance = assembleInstance(anotherInstanceId, someAppId,
+        someCluster, someDataCenter, someIp);
+    when(instanceService.findInstancesByIds(Sets.newHashSet(someInstanceId, anotherInstanceId)))
+        .thenReturn(Lists.newArrayList(someInstance, anotherInstance));
+
+    CursorPageDTO<InstanceDTO> result = instanceConfigController.getByReleaseWithCursor(someReleaseId,
+        someCursor, someSize);
+
+    assertEquals(2, result.getContent().size());
+    assertEquals(anotherInstanceConfigId, result.getCursor());
+    assertTrue(result.hasMore());
+    for (InstanceDTO instanceDTO : result.getContent()) {
+      assertEquals(1, instanceDTO.getConfigs().size());
+      assertEquals(someReleaseDeliveryTime, instanceDTO.getConfigs().get(0).getReleaseDeliveryTime());
+    }
+  }
+
+  @Test
+  public void testGetInstancesByNamespaceWithCursorWhenNoMoreInstances() throws Exception {
+    String someAppId = "someAppId";
+    String someClusterName = "someClusterName";
+    String someNamespaceName = "someNamespaceName";
+    long someCursor = 100;
+    int someSize = 2;
+
+    when(instanceService.findActiveInstanceConfigsByNamespace(null, someAppId, someClusterName,
+        someNamespaceName, someCursor, someSize)).thenReturn(Collections.emptyList());
+
+    CursorPageDTO<InstanceDTO> result = instanceConfigController.getInstancesByNamespaceWithCursor(someAppId,
+        someClusterName, someNamespaceName, null, someCursor, someSize);
+
+    assertFalse(result.hasContent());
+    assertFalse(result.hasMore());
+    assertEquals(someCursor, result.getCursor());
+  }
+
   @Test
   public void testGetByReleasesNotIn() throws Exception {
     String someConfigAppId = "someConfigAppId";
@@ -72,6 +72,9 @@ public class ItemSetControllerTest extends AbstractControllerTest {
     Assert.assertEquals("created_value_0", item0.getValue());
     Assert.assertEquals("created", item0.getDataChangeCreatedBy());
     Assert.assertNotNull(item0.getDataChangeCreatedTime());
+    for (int i = 0; i < createdSize; i++) {
+      Assert.assertEquals(i + 1, items.get(i).getLineNum().intValue());
+    }
   }
 
   @Test
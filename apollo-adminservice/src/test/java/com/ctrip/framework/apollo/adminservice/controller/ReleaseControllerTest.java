@@ -7,12 +7,14 @@ import com.ctrip.framework.apollo.biz.repository.ReleaseRepository;
 import com.ctrip.framework.apollo.biz.service.NamespaceService;
 import com.ctrip.framework.apollo.biz.service.ReleaseService;
 import com.ctrip.framework.apollo.common.dto.AppDTO;
+import com.ctrip.framework.apollo.common.dto.BatchReleaseDTO;
 import com.ctrip.framework.apollo.common.dto.ClusterDTO;
 import com.ctrip.framework.apollo.common.dto.ItemDTO;
 import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import org.junit.Assert;
 import org.junit.Test;
@@ -28,6 +30,7 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.mockito.Mockito.*;
@@ -120,4 +123,59 @@ public class ReleaseControllerTest extends AbstractControllerTest {
             Topics.APOLLO_RELEASE_TOPIC);
 
   }
+
+  @Test
+  public void testMessagesSendAfterBatchRelease() throws Exception {
+    String someAppId = "someAppId";
+    String someNamespaceName = "someNamespace";
+    String someCluster = "someCluster";
+    String anotherCluster = "anotherCluster";
+    String someName = "someName";
+    String someComment = "someComment";
+    String someUserName = "someUser";
+
+    NamespaceService someNamespaceService = mock(NamespaceService.class);
+    ReleaseService someReleaseService = mock(ReleaseService.class);
+    MessageSender someMessageSender = mock(MessageSender.class);
+    Namespace someNamespace = mockNamespace(someAppId, someCluster, someNamespaceName);
+    Namespace anotherNamespace = mockNamespace(someAppId, anotherCluster, someNamespaceName);
+
+    ReleaseController releaseController = new ReleaseController(someReleaseService, someNamespaceService, someMessageSender, null);
+
+    when(someNamespaceService.findOne(someAppId, someCluster, someNamespaceName)).thenReturn(someNamespace);
+    when(someNamespaceService.findOne(someAppId, anotherCluster, someNamespaceName)).thenReturn(anotherNamespace);
+
+    BatchReleaseDTO batchRelease = new BatchReleaseDTO();
+    batchRelease.setReleaseName(someName);
+    batchRelease.setReleaseComment(someComment);
+    batchRelease.setOperator(someUserName);
+    batchRelease.setNamespaces(Lists.newArrayList(namespaceDTO(someAppId, someCluster, someNamespaceName),
+        namespaceDTO(someAppId, anotherCluster, someNamespaceName)));
+
+    releaseController.batchPublish(batchRelease);
+
+    verify(someReleaseService, times(1)).publish(someNamespace, someName, someComment, someUserName, false);
+    verify(someReleaseService, times(1)).publish(anotherNamespace, someName, someComment, someUserName, false);
+    List<String> expectedMessages = Lists.newArrayList(
+        Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR).join(someAppId, someCluster, someNamespaceName),
+        Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR).join(someAppId, anotherCluster, someNamespaceName));
+    verify(someMessageSender, times(1)).sendMessages(expectedMessages, Topics.APOLLO_RELEASE_TOPIC);
+    verify(someMessageSender, never()).sendMessage(anyString(), anyString());
+  }
+
+  private Namespace mockNamespace(String appId, String clusterName, String namespaceName) {
+    Namespace namespace = mock(Namespace.class);
+    when(namespace.getAppId()).thenReturn(appId);
+    when(namespace.getClusterName()).thenReturn(clusterName);
+    when(namespace.getNamespaceName()).thenReturn(namespaceName);
+    return namespace;
+  }
+
+  private NamespaceDTO namespaceDTO(String appId, String clusterName, String namespaceName) {
+    NamespaceDTO namespace = new NamespaceDTO();
+    namespace.setAppId(appId);
+    namespace.setClusterName(clusterName);
+    namespace.setNamespaceName(namespaceName);
+    return namespace;
+  }
 }
@@ -4,7 +4,6 @@ import com.ctrip.framework.apollo.biz.service.BizDBPropertySource;
 import com.ctrip.framework.apollo.common.config.RefreshableConfig;
 import com.ctrip.framework.apollo.common.config.RefreshablePropertySource;
 import com.google.common.base.Strings;
-import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
@@ -29,16 +28,26 @@ public class BizConfig extends RefreshableConfig {
   private static final int DEFAULT_RELEASE_MESSAGE_NOTIFICATION_BATCH = 100;
   private static final int DEFAULT_RELEASE_MESSAGE_NOTIFICATION_BATCH_INTERVAL_IN_MILLI = 100;//100ms
   private static final int DEFAULT_LONG_POLLING_TIMEOUT = 60; //60s
+  private static final int DEFAULT_INSTANCE_RETENTION_DAYS = 30;
+  private static final int DEFAULT_INSTANCE_RETENTION_SCAN_INTERVAL = 60; //60min
+  private static final int DEFAULT_INSTANCE_RETENTION_BATCH = 500;
+  private static final int DEFAULT_INSTANCE_RETENTION_BATCH_INTERVAL_IN_MILLI = 100;//100ms
 
   private Gson gson = new Gson();
   private static final Type namespaceValueLengthOverrideTypeReference =
       new TypeToken<Map<Long, Integer>>() {
       }.getType();
 
+  private static final String NAMESPACE_VALUE_LENGTH_LIMIT_OVERRIDE = "namespace.value.length.limit.override";
+
   private final BizDBPropertySource propertySource;
+  private volatile Map<Long, Integer> namespaceValueLengthOverride;
 
   public BizConfig(final BizDBPropertySource propertySource) {
     this.propertySource = propertySource;
+    //parse the override once per change instead of on every item validation
+    propertySource.addChangeListener(NAMESPACE_VALUE_LENGTH_LIMIT_OVERRIDE,
+        (key, oldValue, newValue) -> invalidateNamespaceValueLengthLimitOverride());
   }
 
   @Override
@@ -77,14 +86,26 @@ public class BizConfig extends RefreshableConfig {
   }
 
   public Map<Long, Integer> namespaceValueLengthLimitOverride() {
-    String namespaceValueLengthOverrideString = getValue("namespace.value.length.limit.override");
-    Map<Long, Integer> namespaceValueLengthOverride = Maps.newHashMap();
-    if (!Strings.isNullOrEmpty(namespaceValueLengthOverrideString)) {
-      namespaceValueLengthOverride =
-          gson.fromJson(namespaceValueLengthOverrideString, namespaceValueLengthOverrideTypeReference);
+    Map<Long, Integer> override = namespaceValueLengthOverride;
+    if (override != null) {
+      return override;
+    }
+    synchronized (this) {
+      if (namespaceValueLengthOverride == null) {
+        String namespaceValueLengthOverrideString = getValue(NAMESPACE_VALUE_LENGTH_LIMIT_OVERRIDE);
+        override = null;
+        if (!Strings.isNullOrEmpty(namespaceValueLengthOverrideString)) {
+          override = gson.fromJson(namespaceValueLengthOverrideString, namespaceValueLengthOverrideTypeReference);
+        }
+        namespaceValueLengthOverride =
+            override == null ? Collections.emptyMap() : Collections.unmodifiableMap(override);
+      }
+      return namespaceValueLengthOverride;
     }
+  }
 
-    return namespaceValueLengthOverride;
+  private synchronized void invalidateNamespaceValueLengthLimitOverride() {
+    namespaceValueLengthOverride = null;
   }
 
   public boolean isNamespaceLockSwitchOff() {
@@ -166,6 +187,37 @@ public class BizConfig extends RefreshableConfig {
     return getBooleanProperty("config-service.cache.enabled", false);
   }
 
+  public boolean isInstanceRetentionEnabled() {
+    return getBooleanProperty("apollo.instance-retention.enabled", false);
+  }
+
+  /**
+   * Instance 和 InstanceConfig 的保留天数。客户端每天至少刷新一次 InstanceConfig ，因此不少于 2 天
+   */
+  public int instanceRetentionDays() {
+    int days = getIntProperty("apollo.instance-retention.days", DEFAULT_INSTANCE_RETENTION_DAYS);
+    return checkInt(days, 2, Integer.MAX_VALUE, DEFAULT_INSTANCE_RETENTION_DAYS);
+  }
+
+  public int instanceRetentionScanInterval() {
+    int interval = getIntProperty("apollo.instance-retention.scan.interval", DEFAULT_INSTANCE_RETENTION_SCAN_INTERVAL);
+    return checkInt(interval, 1, Integer.MAX_VALUE, DEFAULT_INSTANCE_RETENTION_SCAN_INTERVAL);
+  }
+
+  public TimeUnit instanceRetentionScanIntervalTimeUnit() {
+    return TimeUnit.MINUTES;
+  }
+
+  public int instanceRetentionBatch() {
+    int batch = getIntProperty("apollo.instance-retention.batch", DEFAULT_INSTANCE_RETENTION_BATCH);
+    return checkInt(batch, 1, 10000, DEFAULT_INSTANCE_RETENTION_BATCH);
+  }
+
+  public int instanceRetentionBatchIntervalInMilli() {
+    int interval = getIntProperty("apollo.instance-retention.batch.interval", DEFAULT_INSTANCE_RETENTION_BATCH_INTERVAL_IN_MILLI);
+    return checkInt(interval, 0, Integer.MAX_VALUE, DEFAULT_INSTANCE_RETENTION_BATCH_INTERVAL_IN_MILLI);
+  }
+
   int checkInt(int value, int min, int max, int defaultValue) {
     if (value >= min && value <= max) {
       return value;
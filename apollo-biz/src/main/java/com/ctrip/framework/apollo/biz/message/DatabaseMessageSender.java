@@ -5,13 +5,16 @@ import com.ctrip.framework.apollo.biz.repository.ReleaseMessageRepository;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.BlockingQueue;
@@ -87,6 +90,40 @@ public class DatabaseMessageSender implements MessageSender {
     }
   }
 
+  @Override
+  @Transactional
+  public void sendMessages(Collection<String> messages, String channel) {
+    logger.info("Sending {} messages to channel {}", messages.size(), channel);
+    if (!Objects.equals(channel, Topics.APOLLO_RELEASE_TOPIC)) {
+      logger.warn("Channel {} not supported by DatabaseMessageSender!", channel);
+      return;
+    }
+    if (messages.isEmpty()) {
+      return;
+    }
+
+    Transaction transaction = Tracer.newTransaction("Apollo.AdminService", "sendMessages");
+    try {
+      // 相同内容的消息只需保存一条
+      List<ReleaseMessage> toSave = Lists.newArrayListWithCapacity(messages.size());
+      for (String message : Sets.newLinkedHashSet(messages)) {
+        Tracer.logEvent("Apollo.AdminService.ReleaseMessage", message);
+        toSave.add(new ReleaseMessage(message));
+      }
+      // 一次性保存所有 ReleaseMessage 对象
+      for (ReleaseMessage newMessage : releaseMessageRepository.saveAll(toSave)) {
+        toClean.offer(newMessage.getId());
+      }
+      transaction.setStatus(Transaction.SUCCESS);
+    } catch (Throwable ex) {
+      logger.error("Sending messages to database failed", ex);
+      transaction.setStatus(ex);
+      throw ex;
+    } finally {
+      transaction.complete();
+    }
+  }
+
   /**
    * 通知spring调用，初始化清理releasemessage任务
    */
@@ -1,5 +1,7 @@
 package com.ctrip.framework.apollo.biz.message;
 
+import java.util.Collection;
+
 /**
  * @author Jason Song(song_s@ctrip.com)
  */
@@ -10,4 +12,11 @@ public interface MessageSender {
    * @param channel 通道（主题）
    */
   void sendMessage(String message, String channel);
+
+  /**
+   * 批量发送message，在同一事务内完成
+   * @param messages 消息集合
+   * @param channel 通道（主题）
+   */
+  void sendMessages(Collection<String> messages, String channel);
 }
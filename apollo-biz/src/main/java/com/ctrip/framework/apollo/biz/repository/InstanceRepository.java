@@ -2,8 +2,27 @@ package com.ctrip.framework.apollo.biz.repository;
 
 import com.ctrip.framework.apollo.biz.entity.Instance;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
 public interface InstanceRepository extends PagingAndSortingRepository<Instance, Long> {
   Instance findByAppIdAndClusterNameAndDataCenterAndIp(String appId, String clusterName, String dataCenter, String ip);
+
+  /**
+   * 按编号从 lastId 之后查询过期且不再有 InstanceConfig 关联的 Instance 编号，沿主键顺序扫描，不回扫已处理的行
+   */
+  @Query("select i.id from Instance i where i.id > ?1 and i.dataChangeLastModifiedTime < ?2 and not exists "
+      + "(select c.id from InstanceConfig c where c.instanceId = i.id) order by i.id")
+  List<Long> findOrphanIdsByIdGreaterThanAndDataChangeLastModifiedTimeBefore(long lastId, Date expireDate,
+      Pageable pageable);
+
+  @Modifying
+  @Query("delete from Instance where id in ?1")
+  int deleteByIds(Collection<Long> ids);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -25,4 +26,8 @@ public interface ItemRepository extends PagingAndSortingRepository<Item, Long> {
   @Query("update Item set isdeleted=1,DataChange_LastModifiedBy = ?2 where namespaceId = ?1")
   int deleteByNamespaceId(long namespaceId, String operator);
 
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Item set isDeleted = true, dataChangeLastModifiedBy = ?2, dataChangeLastModifiedTime = ?3 where id in ?1")
+  int deleteByIds(Collection<Long> ids, String operator, Date modifiedTime);
+
 }
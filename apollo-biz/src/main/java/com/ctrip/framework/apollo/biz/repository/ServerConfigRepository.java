@@ -4,9 +4,14 @@ import com.ctrip.framework.apollo.biz.entity.ServerConfig;
 
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.Date;
+import java.util.List;
+
 /**
  * @author Jason Song(song_s@ctrip.com)
  */
 public interface ServerConfigRepository extends PagingAndSortingRepository<ServerConfig, Long> {
   ServerConfig findTopByKeyAndCluster(String key, String cluster);
+
+  List<ServerConfig> findByDataChangeLastModifiedTimeGreaterThanEqual(Date date);
 }
@@ -0,0 +1,142 @@
+package com.ctrip.framework.apollo.biz.retention;
+
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.service.InstanceService;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定期清理过期的 InstanceConfig 和 Instance 记录
+ *
+ * InstanceConfigAuditUtil 会持续写入 Instance 和 InstanceConfig ，客户端下线后记录不会被删除。
+ * 按 DataChange_LastTime 判断是否过期，每批删除 apollo.instance-retention.batch 条，批次之间暂停
+ * apollo.instance-retention.batch.interval 毫秒，避免长事务和对数据库的冲击。
+ * 每批从上一批的最后一个编号之后沿主键继续扫描，一轮清理只扫描一遍表。
+ * 先删除过期的 InstanceConfig ，再删除过期且已没有 InstanceConfig 的 Instance 。
+ */
+@Component
+public class InstanceRetentionCleaner implements InitializingBean, DisposableBean {
+  private static final Logger logger = LoggerFactory.getLogger(InstanceRetentionCleaner.class);
+
+  private final InstanceService instanceService;
+  private final BizConfig bizConfig;
+  private final ScheduledExecutorService executorService;
+
+  public InstanceRetentionCleaner(
+      final InstanceService instanceService,
+      final BizConfig bizConfig) {
+    this.instanceService = instanceService;
+    this.bizConfig = bizConfig;
+    executorService = Executors.newScheduledThreadPool(1, ApolloThreadFactory
+        .create("InstanceRetentionCleaner", true));
+  }
+
+  @Override
+  public void afterPropertiesSet() throws Exception {
+    int interval = bizConfig.instanceRetentionScanInterval();
+    executorService.scheduleWithFixedDelay(this::periodicPurge, interval, interval,
+        bizConfig.instanceRetentionScanIntervalTimeUnit());
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    executorService.shutdownNow();
+  }
+
+  private void periodicPurge() {
+    if (!bizConfig.isInstanceRetentionEnabled()) {
+      return;
+    }
+    Transaction transaction = Tracer.newTransaction("Apollo.InstanceRetentionCleaner", "purge");
+    try {
+      purge();
+      transaction.setStatus(Transaction.SUCCESS);
+    } catch (Throwable ex) {
+      transaction.setStatus(ex);
+      logger.error("Purge expired instances failed", ex);
+    } finally {
+      transaction.complete();
+    }
+  }
+
+  void purge() {
+    Date expireDate = expireDate(bizConfig.instanceRetentionDays());
+    long start = System.currentTimeMillis();
+
+    int instanceConfigsPurged = purgeInstanceConfigs(expireDate);
+    int instancesPurged = purgeInstances(expireDate);
+
+    long costInMillis = System.currentTimeMillis() - start;
+    Tracer.logEvent("Apollo.InstanceRetentionCleaner.InstanceConfig", String.valueOf(instanceConfigsPurged));
+    Tracer.logEvent("Apollo.InstanceRetentionCleaner.Instance", String.valueOf(instancesPurged));
+    logger.info("Purged {} instance configs and {} instances last modified before {} in {} ms",
+        instanceConfigsPurged, instancesPurged, expireDate, costInMillis);
+  }
+
+  int purgeInstanceConfigs(Date expireDate) {
+    int batchSize = bizConfig.instanceRetentionBatch();
+    int total = 0;
+    long lastId = 0;
+    List<Long> purgedIds;
+    do {
+      purgedIds = instanceService.purgeInstanceConfigs(expireDate, lastId, batchSize);
+      total += purgedIds.size();
+      if (!purgedIds.isEmpty()) {
+        lastId = purgedIds.get(purgedIds.size() - 1);
+      }
+    } while (purgedIds.size() == batchSize && pauseBetweenBatches());
+    return total;
+  }
+
+  int purgeInstances(Date expireDate) {
+    int batchSize = bizConfig.instanceRetentionBatch();
+    int total = 0;
+    long lastId = 0;
+    List<Long> purgedIds;
+    do {
+      purgedIds = instanceService.purgeInstances(expireDate, lastId, batchSize);
+      total += purgedIds.size();
+      if (!purgedIds.isEmpty()) {
+        lastId = purgedIds.get(purgedIds.size() - 1);
+      }
+    } while (purgedIds.size() == batchSize && pauseBetweenBatches());
+    return total;
+  }
+
+  /**
+   * 批次之间暂停，限制删除速率
+   *
+   * @return 是否继续下一批
+   */
+  private boolean pauseBetweenBatches() {
+    if (Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    try {
+      TimeUnit.MILLISECONDS.sleep(bizConfig.instanceRetentionBatchIntervalInMilli());
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private Date expireDate(int retentionDays) {
+    Calendar cal = Calendar.getInstance();
+    cal.add(Calendar.DATE, -retentionDays);
+    return cal.getTime();
+  }
+}
@@ -5,6 +5,8 @@ import com.ctrip.framework.apollo.biz.repository.AuditRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -34,6 +36,23 @@ public class AuditService {
     auditRepository.save(audit);
   }
 
+  /**
+   * 批量记录 Audit ，每个实体编号一条，一次性保存
+   */
+  @Transactional
+  void batchAudit(String entityName, Collection<Long> entityIds, Audit.OP op, String owner) {
+    List<Audit> audits = new ArrayList<>(entityIds.size());
+    for (Long entityId : entityIds) {
+      Audit audit = new Audit();
+      audit.setEntityName(entityName);
+      audit.setEntityId(entityId);
+      audit.setOpName(op.name());
+      audit.setDataChangeCreatedBy(owner);
+      audits.add(audit);
+    }
+    auditRepository.saveAll(audits);
+  }
+
   @Transactional
   void audit(Audit audit){
     auditRepository.save(audit);
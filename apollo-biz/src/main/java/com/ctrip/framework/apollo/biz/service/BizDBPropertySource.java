@@ -9,11 +9,10 @@ import com.ctrip.framework.apollo.common.config.RefreshablePropertySource;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.foundation.Foundation;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -23,11 +22,19 @@ import java.util.Objects;
 @Component
 public class BizDBPropertySource extends RefreshablePropertySource {
 
-  private static final Logger logger = LoggerFactory.getLogger(BizDBPropertySource.class);
+  //priority of the config's cluster, the higher one wins
+  private static final int DEFAULT_CLUSTER_PRIORITY = 0;
+  private static final int DATA_CENTER_PRIORITY = 1;
+  private static final int CLUSTER_PRIORITY = 2;
 
   @Autowired
   private ServerConfigRepository serverConfigRepository;
 
+  /**
+   * key -> values indexed by cluster priority, only configs of the clusters that apply to current server
+   */
+  private Map<String, Object[]> clusterConfigs = Maps.newHashMap();
+
   public BizDBPropertySource(String name, Map<String, Object> source) {
     super(name, source);
   }
@@ -42,50 +49,89 @@ public class BizDBPropertySource extends RefreshablePropertySource {
 
   @Override
   protected void refresh() {
-    Iterable<ServerConfig> dbConfigs = serverConfigRepository.findAll();
-
-    Map<String, Object> newConfigs = Maps.newHashMap();
-    //default cluster's configs
-    for (ServerConfig config : dbConfigs) {
-      if (Objects.equals(ConfigConsts.CLUSTER_NAME_DEFAULT, config.getCluster())) {
-        newConfigs.put(config.getKey(), config.getValue());
-      }
+    if (isFullRefreshDue()) {
+      fullRefresh();
+    } else {
+      incrementalRefresh();
     }
+  }
 
-    //data center's configs
+  private void fullRefresh() {
+    Iterable<ServerConfig> dbConfigs = serverConfigRepository.findAll();
+
+    Map<String, Object[]> newClusterConfigs = Maps.newHashMap();
     String dataCenter = getCurrentDataCenter();
+    String cluster = System.getProperty(ConfigConsts.APOLLO_CLUSTER_KEY);
     for (ServerConfig config : dbConfigs) {
-      if (Objects.equals(dataCenter, config.getCluster())) {
-        newConfigs.put(config.getKey(), config.getValue());
-      }
+      advanceWatermark(config.getDataChangeLastModifiedTime());
+      putClusterConfig(newClusterConfigs, config, dataCenter, cluster);
     }
+    clusterConfigs = newClusterConfigs;
 
-    //cluster's config
-    if (!Strings.isNullOrEmpty(System.getProperty(ConfigConsts.APOLLO_CLUSTER_KEY))) {
-      String cluster = System.getProperty(ConfigConsts.APOLLO_CLUSTER_KEY);
-      for (ServerConfig config : dbConfigs) {
-        if (Objects.equals(cluster, config.getCluster())) {
-          newConfigs.put(config.getKey(), config.getValue());
-        }
-      }
+    Map<String, Object> newConfigs = Maps.newHashMapWithExpectedSize(newClusterConfigs.size());
+    for (Map.Entry<String, Object[]> entry : newClusterConfigs.entrySet()) {
+      newConfigs.put(entry.getKey(), effectiveValue(entry.getValue()));
     }
 
     //put to environment
-    for (Map.Entry<String, Object> config: newConfigs.entrySet()){
-      String key = config.getKey();
-      Object value = config.getValue();
-
-      if (this.source.get(key) == null) {
-        logger.info("Load config from DB : {} = {}", key, value);
-      } else if (!Objects.equals(this.source.get(key), value)) {
-        logger.info("Load config from DB : {} = {}. Old value = {}", key,
-                    value, this.source.get(key));
+    reconcile(newConfigs);
+  }
+
+  private void incrementalRefresh() {
+    List<ServerConfig> changedConfigs = serverConfigRepository
+        .findByDataChangeLastModifiedTimeGreaterThanEqual(getWatermark());
+    if (changedConfigs.isEmpty()) {
+      return;
+    }
+
+    String dataCenter = getCurrentDataCenter();
+    String cluster = System.getProperty(ConfigConsts.APOLLO_CLUSTER_KEY);
+    for (ServerConfig config : changedConfigs) {
+      advanceWatermark(config.getDataChangeLastModifiedTime());
+      Object[] values = putClusterConfig(clusterConfigs, config, dataCenter, cluster);
+      if (values != null) {
+        updateProperty(config.getKey(), effectiveValue(values));
       }
+    }
+  }
 
-      this.source.put(key, value);
+  /**
+   * @return the values of the config's key, or null if the config's cluster doesn't apply
+   */
+  private Object[] putClusterConfig(Map<String, Object[]> configs, ServerConfig config, String dataCenter,
+                                    String cluster) {
+    int priority = priorityOf(config.getCluster(), dataCenter, cluster);
+    if (priority < 0) {
+      return null;
+    }
+    Object[] values = configs.computeIfAbsent(config.getKey(), key -> new Object[CLUSTER_PRIORITY + 1]);
+    values[priority] = config.getValue();
+    return values;
+  }
 
+  private int priorityOf(String configCluster, String dataCenter, String cluster) {
+    //cluster's config
+    if (!Strings.isNullOrEmpty(cluster) && Objects.equals(cluster, configCluster)) {
+      return CLUSTER_PRIORITY;
     }
+    //data center's configs
+    if (Objects.equals(dataCenter, configCluster)) {
+      return DATA_CENTER_PRIORITY;
+    }
+    //default cluster's configs
+    if (Objects.equals(ConfigConsts.CLUSTER_NAME_DEFAULT, configCluster)) {
+      return DEFAULT_CLUSTER_PRIORITY;
+    }
+    return -1;
+  }
 
+  private Object effectiveValue(Object[] values) {
+    for (int i = values.length - 1; i >= 0; i--) {
+      if (values[i] != null) {
+        return values[i];
+      }
+    }
+    return null;
   }
 
 }
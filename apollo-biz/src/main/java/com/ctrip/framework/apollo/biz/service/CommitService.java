@@ -2,6 +2,7 @@ package com.ctrip.framework.apollo.biz.service;
 
 import com.ctrip.framework.apollo.biz.entity.Commit;
 import com.ctrip.framework.apollo.biz.repository.CommitRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +28,15 @@ public class CommitService {
     return commitRepository.findByAppIdAndClusterNameAndNamespaceNameOrderByIdDesc(appId, clusterName, namespaceName, page);
   }
 
+  /**
+   * 按 id 倒序查询 id 小于 lastId 的 commit ，lastId 不大于 0 时从最新的开始
+   */
+  public List<Commit> findBefore(String appId, String clusterName, String namespaceName, long lastId, int size) {
+    long id = lastId > 0 ? lastId : Long.MAX_VALUE;
+    return commitRepository.findByAppIdAndClusterNameAndNamespaceNameAndIdLessThanOrderByIdDesc(appId, clusterName,
+        namespaceName, id, PageRequest.of(0, size));
+  }
+
   @Transactional
   public int batchDelete(String appId, String clusterName, String namespaceName, String operator){
     return commitRepository.batchDelete(appId, clusterName, namespaceName, operator);
@@ -5,10 +5,12 @@ import com.ctrip.framework.apollo.biz.entity.InstanceConfig;
 import com.ctrip.framework.apollo.biz.repository.InstanceConfigRepository;
 import com.ctrip.framework.apollo.biz.repository.InstanceRepository;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import java.util.Objects;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -72,6 +74,30 @@ public class InstanceService {
     return instanceConfigs;
   }
 
+  /**
+   * 按 id 升序查询 id 大于 lastId 的有效 InstanceConfig
+   */
+  public List<InstanceConfig> findActiveInstanceConfigsByReleaseKey(String releaseKey, long lastId, int size) {
+    return instanceConfigRepository.findByReleaseKeyAndDataChangeLastModifiedTimeAfterAndIdGreaterThanOrderByIdAsc(
+        releaseKey, getValidInstanceConfigDate(), lastId, PageRequest.of(0, size));
+  }
+
+  /**
+   * 按 id 升序查询 namespace 下 id 大于 lastId 的有效 InstanceConfig ，instanceAppId 不为空时只查该应用的实例
+   */
+  public List<InstanceConfig> findActiveInstanceConfigsByNamespace(String instanceAppId, String appId,
+                                                                   String clusterName, String namespaceName,
+                                                                   long lastId, int size) {
+    Pageable pageable = PageRequest.of(0, size);
+    if (Strings.isNullOrEmpty(instanceAppId)) {
+      return instanceConfigRepository
+          .findByConfigAppIdAndConfigClusterNameAndConfigNamespaceNameAndDataChangeLastModifiedTimeAfterAndIdGreaterThanOrderByIdAsc(
+              appId, clusterName, namespaceName, getValidInstanceConfigDate(), lastId, pageable);
+    }
+    return instanceConfigRepository.findByNamespaceAndInstanceAppIdAndIdGreaterThan(instanceAppId, appId,
+        clusterName, namespaceName, getValidInstanceConfigDate(), lastId, pageable);
+  }
+
   public Page<Instance> findInstancesByNamespace(String appId, String clusterName, String
       namespaceName, Pageable pageable) {
     Page<InstanceConfig> instanceConfigs = instanceConfigRepository.
@@ -178,4 +204,35 @@ public class InstanceService {
   public int batchDeleteInstanceConfig(String configAppId, String configClusterName, String configNamespaceName){
     return instanceConfigRepository.batchDelete(configAppId, configClusterName, configNamespaceName);
   }
+
+  /**
+   * 删除编号大于 lastId 的一批最后修改时间早于 expireDate 的 InstanceConfig
+   *
+   * @return 删除的编号，升序，最后一个即下一批的 lastId
+   */
+  @Transactional
+  public List<Long> purgeInstanceConfigs(Date expireDate, long lastId, int batchSize) {
+    List<Long> ids = instanceConfigRepository
+        .findIdsByIdGreaterThanAndDataChangeLastModifiedTimeBefore(lastId, expireDate, PageRequest.of(0, batchSize));
+    if (!ids.isEmpty()) {
+      instanceConfigRepository.deleteByIds(ids);
+    }
+    return ids;
+  }
+
+  /**
+   * 删除编号大于 lastId 的一批最后修改时间早于 expireDate ，且已没有 InstanceConfig 的 Instance
+   *
+   * @return 删除的编号，升序，最后一个即下一批的 lastId
+   */
+  @Transactional
+  public List<Long> purgeInstances(Date expireDate, long lastId, int batchSize) {
+    List<Long> ids = instanceRepository
+        .findOrphanIdsByIdGreaterThanAndDataChangeLastModifiedTimeBefore(lastId, expireDate,
+            PageRequest.of(0, batchSize));
+    if (!ids.isEmpty()) {
+      instanceRepository.deleteByIds(ids);
+    }
+    return ids;
+  }
 }
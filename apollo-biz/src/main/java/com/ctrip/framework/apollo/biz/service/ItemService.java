@@ -14,6 +14,10 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -54,6 +58,34 @@ public class ItemService {
     return deletedItem;
   }
 
+  /**
+   * 批量删除 Item ，一次查询校验存在性，一条 SQL 完成逻辑删除，审计记录一次性保存
+   *
+   * @return 删除前的 Item 集合（已标记为删除）
+   */
+  @Transactional
+  public List<Item> batchDelete(Collection<Long> ids, String operator) {
+    Map<Long, Item> managedItems = findByIds(ids);
+    for (Long id : ids) {
+      if (!managedItems.containsKey(id)) {
+        throw new IllegalArgumentException("item not exist. ID:" + id);
+      }
+    }
+
+    itemRepository.deleteByIds(managedItems.keySet(), operator, new Date());
+
+    // 批量更新后持久化上下文已被清空，此处修改的是游离对象，仅用于返回
+    List<Item> deletedItems = Lists.newArrayListWithCapacity(managedItems.size());
+    for (Item item : managedItems.values()) {
+      item.setDeleted(true);
+      item.setDataChangeLastModifiedBy(operator);
+      deletedItems.add(item);
+    }
+
+    auditService.batchAudit(Item.class.getSimpleName(), managedItems.keySet(), Audit.OP.DELETE, operator);
+    return deletedItems;
+  }
+
   @Transactional
   public int batchDelete(long namespaceId, String operator) {
     return itemRepository.deleteByNamespaceId(namespaceId, operator);
@@ -88,6 +120,22 @@ public class ItemService {
     return item;
   }
 
+  /**
+   * 根据编号批量查询 Item ，一次查询完成
+   *
+   * @return 编号到 Item 的映射，不存在的编号不包含在内
+   */
+  public Map<Long, Item> findByIds(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<Long, Item> items = Maps.newLinkedHashMap();
+    for (Item item : itemRepository.findAllById(ids)) {
+      items.put(item.getId(), item);
+    }
+    return items;
+  }
+
   public List<Item> findItemsWithoutOrdered(Long namespaceId) {
     List<Item> items = itemRepository.findByNamespaceId(namespaceId);
     if (items == null) {
@@ -150,6 +198,67 @@ public class ItemService {
     return item;
   }
 
+  /**
+   * 批量保存 Item ，行号基于 Namespace 下的最大行号只查询一次，审计记录一次性保存
+   */
+  @Transactional
+  public List<Item> batchSave(List<Item> entities) {
+    if (entities.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<Long, Integer> lastLineNums = Maps.newHashMap();
+    for (Item entity : entities) {
+      checkItemKeyLength(entity.getKey());
+      checkItemValueLength(entity.getNamespaceId(), entity.getValue());
+
+      entity.setId(0);//protection
+
+      Integer lastLineNum = lastLineNums.get(entity.getNamespaceId());
+      if (lastLineNum == null) {
+        Item lastItem = findLastOne(entity.getNamespaceId());
+        lastLineNum = lastItem == null ? 0 : lastItem.getLineNum();
+      }
+      if (entity.getLineNum() == null || entity.getLineNum() == 0) {
+        entity.setLineNum(lastLineNum + 1);
+      }
+      lastLineNums.put(entity.getNamespaceId(), Math.max(lastLineNum, entity.getLineNum()));
+    }
+
+    List<Item> items = Lists.newArrayList(itemRepository.saveAll(entities));
+
+    List<Long> ids = Lists.newArrayListWithCapacity(items.size());
+    for (Item item : items) {
+      ids.add(item.getId());
+    }
+    auditService.batchAudit(Item.class.getSimpleName(), ids, Audit.OP.INSERT,
+                       items.get(0).getDataChangeCreatedBy());
+
+    return items;
+  }
+
+  /**
+   * 批量更新已被管理的 Item ，依赖 Hibernate JDBC batch 合并 UPDATE 语句，审计记录一次性保存
+   */
+  @Transactional
+  public List<Item> batchUpdate(List<Item> managedItems, String operator) {
+    if (managedItems.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<Long> ids = Lists.newArrayListWithCapacity(managedItems.size());
+    for (Item item : managedItems) {
+      checkItemValueLength(item.getNamespaceId(), item.getValue());
+      ids.add(item.getId());
+    }
+
+    List<Item> items = Lists.newArrayList(itemRepository.saveAll(managedItems));
+
+    auditService.batchAudit(Item.class.getSimpleName(), ids, Audit.OP.UPDATE, operator);
+
+    return items;
+  }
+
   @Transactional
   public Item update(Item item) {
     checkItemValueLength(item.getNamespaceId(), item.getValue());
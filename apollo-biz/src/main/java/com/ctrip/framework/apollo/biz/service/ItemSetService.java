@@ -9,10 +9,16 @@ import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
 import com.ctrip.framework.apollo.common.dto.ItemDTO;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
 import com.ctrip.framework.apollo.common.utils.BeanUtils;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 
 @Service
 public class ItemSetService {
@@ -41,14 +47,15 @@ public class ItemSetService {
     String operator = changeSet.getDataChangeLastModifiedBy();
     ConfigChangeContentBuilder configChangeContentBuilder = new ConfigChangeContentBuilder();
 
-    // 保存 Item
+    // 批量保存 Item
     if (!CollectionUtils.isEmpty(changeSet.getCreateItems())) {
-      for (ItemDTO item : changeSet.getCreateItems()) {
-        Item entity = BeanUtils.transform(Item.class, item);
+      List<Item> entities = BeanUtils.batchTransform(Item.class, changeSet.getCreateItems());
+      for (Item entity : entities) {
         entity.setDataChangeCreatedBy(operator);
         entity.setDataChangeLastModifiedBy(operator);
-        // 保存 Item
-        Item createdItem = itemService.save(entity);
+      }
+      // 保存 Item
+      for (Item createdItem : itemService.batchSave(entities)) {
         // 添加到 ConfigChangeContentBuilder 中
         configChangeContentBuilder.createItem(createdItem);
       }
@@ -56,38 +63,47 @@ public class ItemSetService {
       auditService.audit("ItemSet", null, Audit.OP.INSERT, operator);
     }
 
-    // // 更新 Item
+    // 批量更新 Item
     if (!CollectionUtils.isEmpty(changeSet.getUpdateItems())) {
+      // 一次查询校验所有待更新 Item 的存在性
+      Set<Long> ids = Sets.newLinkedHashSet();
       for (ItemDTO item : changeSet.getUpdateItems()) {
-        Item entity = BeanUtils.transform(Item.class, item);
+        ids.add(item.getId());
+      }
+      Map<Long, Item> managedItems = itemService.findByIds(ids);
 
-        Item managedItem = itemService.findOne(entity.getId());
+      List<Item> toUpdateItems = Lists.newArrayListWithCapacity(changeSet.getUpdateItems().size());
+      for (ItemDTO item : changeSet.getUpdateItems()) {
+        Item managedItem = managedItems.get(item.getId());
         if (managedItem == null) {
-          throw new NotFoundException(String.format("item not found.(key=%s)", entity.getKey()));
+          throw new NotFoundException(String.format("item not found.(key=%s)", item.getKey()));
         }
         Item beforeUpdateItem = BeanUtils.transform(Item.class, managedItem);
 
         //protect. only value,comment,lastModifiedBy,lineNum can be modified
-        managedItem.setValue(entity.getValue());
-        managedItem.setComment(entity.getComment());
-        managedItem.setLineNum(entity.getLineNum());
+        managedItem.setValue(item.getValue());
+        managedItem.setComment(item.getComment());
+        managedItem.setLineNum(item.getLineNum());
         managedItem.setDataChangeLastModifiedBy(operator);
 
-        // 更新 Item
-        Item updatedItem = itemService.update(managedItem);
         // 添加到 ConfigChangeContentBuilder 中
-        configChangeContentBuilder.updateItem(beforeUpdateItem, updatedItem);
-
+        configChangeContentBuilder.updateItem(beforeUpdateItem, managedItem);
+        toUpdateItems.add(managedItem);
       }
+      // 更新 Item
+      itemService.batchUpdate(toUpdateItems, operator);
       // 记录 Audit 到数据库中
       auditService.audit("ItemSet", null, Audit.OP.UPDATE, operator);
     }
 
-    // 删除 Item
+    // 批量删除 Item
     if (!CollectionUtils.isEmpty(changeSet.getDeleteItems())) {
+      Set<Long> ids = Sets.newLinkedHashSet();
       for (ItemDTO item : changeSet.getDeleteItems()) {
-        // 删除 Item
-        Item deletedItem = itemService.delete(item.getId(), operator);
+        ids.add(item.getId());
+      }
+      // 删除 Item
+      for (Item deletedItem : itemService.batchDelete(ids, operator)) {
         // 添加到 ConfigChangeContentBuilder 中
         configChangeContentBuilder.deleteItem(deletedItem);
       }
@@ -5,11 +5,13 @@ import com.ctrip.framework.apollo.biz.entity.ReleaseHistory;
 import com.ctrip.framework.apollo.biz.repository.ReleaseHistoryRepository;
 import com.google.gson.Gson;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,6 +40,16 @@ public class ReleaseHistoryService {
                                                                                            namespaceName, pageable);
   }
 
+  /**
+   * 按 id 倒序查询 id 小于 lastId 的发布历史，lastId 不大于 0 时从最新的开始
+   */
+  public List<ReleaseHistory> findReleaseHistoriesByNamespaceBefore(String appId, String clusterName,
+                                                                    String namespaceName, long lastId, int size) {
+    long id = lastId > 0 ? lastId : Long.MAX_VALUE;
+    return releaseHistoryRepository.findByAppIdAndClusterNameAndNamespaceNameAndIdLessThanOrderByIdDesc(appId,
+        clusterName, namespaceName, id, PageRequest.of(0, size));
+  }
+
   public Page<ReleaseHistory> findByReleaseIdAndOperation(long releaseId, int operation, Pageable page) {
     return releaseHistoryRepository.findByReleaseIdAndOperationOrderByIdDesc(releaseId, operation, page);
   }
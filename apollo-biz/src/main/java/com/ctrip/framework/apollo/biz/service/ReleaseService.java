@@ -17,6 +17,9 @@ import com.ctrip.framework.apollo.common.exception.BadRequestException;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
 import com.ctrip.framework.apollo.common.utils.GrayReleaseRuleItemTransformer;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -32,6 +35,7 @@ import org.springframework.util.CollectionUtils;
 
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
@@ -46,6 +50,11 @@ public class ReleaseService {
           ReleaseOperation.MATER_ROLLBACK_MERGE_TO_GRAY);
   private static final Pageable FIRST_ITEM = PageRequest.of(0, 1);
   private static final Type OPERATION_CONTEXT_TYPE_REFERENCE = new TypeToken<Map<String, Object>>() { }.getType();
+  /**
+   * 解析后的 Release 配置缓存的最大权重，以 configurations 字符串长度计
+   */
+  private static final long MAX_CONFIGURATIONS_CACHE_WEIGHT = 50 * 1024 * 1024;//50M chars
+  private static final long CONFIGURATIONS_CACHE_EXPIRE_AFTER_ACCESS = 60;//60 minutes
 
   private final ReleaseRepository releaseRepository;
   private final ItemService itemService;
@@ -55,6 +64,10 @@ public class ReleaseService {
   private final NamespaceBranchService namespaceBranchService;
   private final ReleaseHistoryService releaseHistoryService;
   private final ItemSetService itemSetService;
+  /**
+   * Release 的配置内容不可变，按 Release 编号缓存解析后的只读配置 Map ，供发布、合并、回滚流程共享
+   */
+  private final Cache<Long, Map<String, String>> configurationsCache;
 
   public ReleaseService(
       final ReleaseRepository releaseRepository,
@@ -73,6 +86,11 @@ public class ReleaseService {
     this.namespaceBranchService = namespaceBranchService;
     this.releaseHistoryService = releaseHistoryService;
     this.itemSetService = itemSetService;
+    this.configurationsCache = CacheBuilder.newBuilder()
+        .expireAfterAccess(CONFIGURATIONS_CACHE_EXPIRE_AFTER_ACCESS, TimeUnit.MINUTES)
+        .weigher((Weigher<Long, Map<String, String>>) (releaseId, configurations) -> configurationsWeight(configurations))
+        .maximumWeight(MAX_CONFIGURATIONS_CACHE_WEIGHT)
+        .build();
   }
 
   public Release findOne(long releaseId) {
@@ -272,8 +290,7 @@ public class ReleaseService {
     Release parentLatestRelease = findLatestActiveRelease(parentNamespace);
     //获取父namespace的配置项
     Map<String, String> parentConfigurations = parentLatestRelease != null ?
-            gson.fromJson(parentLatestRelease.getConfigurations(),
-                    GsonType.CONFIG) : new LinkedHashMap<>();
+            getConfigurations(parentLatestRelease) : new LinkedHashMap<>();
     long baseReleaseId = parentLatestRelease == null ? 0 : parentLatestRelease.getId();
 
     //合并父namespace和子namespace的配置项，
@@ -332,7 +349,7 @@ public class ReleaseService {
     Map<String, String> childReleaseConfiguration;
     Collection<String> branchReleaseKeys;
     if (childNamespaceLatestActiveRelease != null) {
-      childReleaseConfiguration = gson.fromJson(childNamespaceLatestActiveRelease.getConfigurations(), GsonType.CONFIG);
+      childReleaseConfiguration = getConfigurations(childNamespaceLatestActiveRelease);
       branchReleaseKeys = getBranchReleaseKeys(childNamespaceLatestActiveRelease.getId());
     } else {
       childReleaseConfiguration = Collections.emptyMap();
@@ -340,8 +357,7 @@ public class ReleaseService {
     }
 
     Map<String, String> parentNamespaceOldConfiguration = masterPreviousRelease == null ?
-                                                          null : gson.fromJson(masterPreviousRelease.getConfigurations(),
-                                                                        GsonType.CONFIG);
+                                                          null : getConfigurations(masterPreviousRelease);
 
     Map<String, String> childNamespaceToPublishConfigs =
         calculateChildNamespaceToPublishConfiguration(parentNamespaceOldConfiguration, parentNamespaceItems,
@@ -486,6 +502,37 @@ public class ReleaseService {
     return configurations;
   }
 
+  /**
+   * 获得 Release 解析后的只读配置 Map ，优先从缓存中读取
+   */
+  Map<String, String> getConfigurations(Release release) {
+    if (release.getId() <= 0) {
+      return parseConfigurations(release);
+    }
+    Map<String, String> configurations = configurationsCache.getIfPresent(release.getId());
+    if (configurations == null) {
+      configurations = parseConfigurations(release);
+      configurationsCache.put(release.getId(), configurations);
+    }
+    return configurations;
+  }
+
+  private Map<String, String> parseConfigurations(Release release) {
+    Map<String, String> configurations = gson.fromJson(release.getConfigurations(), GsonType.CONFIG);
+    if (configurations == null) {
+      return Collections.emptyMap();
+    }
+    return Collections.unmodifiableMap(configurations);
+  }
+
+  private static int configurationsWeight(Map<String, String> configurations) {
+    int weight = 0;
+    for (Map.Entry<String, String> entry : configurations.entrySet()) {
+      weight += entry.getKey().length() + (entry.getValue() == null ? 0 : entry.getValue().length());
+    }
+    return weight;
+  }
+
   /**
    * 创建 Release 对象，并保存
    * @param namespace
@@ -609,7 +656,7 @@ public class ReleaseService {
     Map<String, String> childReleaseConfiguration;
     Collection<String> branchReleaseKeys;
     if (childNamespaceLatestActiveRelease != null) {
-      childReleaseConfiguration = gson.fromJson(childNamespaceLatestActiveRelease.getConfigurations(), GsonType.CONFIG);
+      childReleaseConfiguration = getConfigurations(childNamespaceLatestActiveRelease);
       branchReleaseKeys = getBranchReleaseKeys(childNamespaceLatestActiveRelease.getId());
     } else {
       childReleaseConfiguration = Collections.emptyMap();
@@ -619,12 +666,11 @@ public class ReleaseService {
     Release abandonedRelease = parentNamespaceTwoLatestActiveRelease.get(0);
     Release parentNamespaceNewLatestRelease = parentNamespaceTwoLatestActiveRelease.get(1);
 
-    Map<String, String> parentNamespaceAbandonedConfiguration = gson.fromJson(abandonedRelease.getConfigurations(),
-                                                                              GsonType.CONFIG);
+    Map<String, String> parentNamespaceAbandonedConfiguration = getConfigurations(abandonedRelease);
 
     Map<String, String>
         parentNamespaceNewLatestConfiguration =
-        gson.fromJson(parentNamespaceNewLatestRelease.getConfigurations(), GsonType.CONFIG);
+        getConfigurations(parentNamespaceNewLatestRelease);
 
     Map<String, String>
         childNamespaceNewConfiguration =
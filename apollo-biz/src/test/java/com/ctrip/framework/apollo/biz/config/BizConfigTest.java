@@ -9,7 +9,10 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.when;
 
 /**
@@ -22,10 +25,12 @@ public class BizConfigTest {
   private ConfigurableEnvironment environment;
 
   private BizConfig bizConfig;
+  private BizDBPropertySource propertySource;
 
   @Before
   public void setUp() throws Exception {
-    bizConfig = new BizConfig(new BizDBPropertySource());
+    propertySource = new BizDBPropertySource();
+    bizConfig = new BizConfig(propertySource);
     ReflectionTestUtils.setField(bizConfig, "environment", environment);
   }
 
@@ -62,6 +67,23 @@ public class BizConfigTest {
     assertEquals(defaultBatch, bizConfig.releaseMessageNotificationBatch());
   }
 
+  @Test
+  public void testNamespaceValueLengthLimitOverrideIsReloadedOnChange() throws Exception {
+    String someKey = "namespace.value.length.limit.override";
+    when(environment.getProperty(someKey)).thenReturn("{\"1\":200}");
+
+    Map<Long, Integer> someOverride = bizConfig.namespaceValueLengthLimitOverride();
+
+    when(environment.getProperty(someKey)).thenReturn("{\"1\":300}");
+
+    assertSame(someOverride, bizConfig.namespaceValueLengthLimitOverride());
+    assertEquals(200, (int) someOverride.get(1L));
+
+    ReflectionTestUtils.invokeMethod(propertySource, "updateProperty", someKey, "{\"1\":300}");
+
+    assertEquals(300, (int) bizConfig.namespaceValueLengthLimitOverride().get(1L));
+  }
+
   @Test
   public void testCheckInt() throws Exception {
     int someInvalidValue = 1;
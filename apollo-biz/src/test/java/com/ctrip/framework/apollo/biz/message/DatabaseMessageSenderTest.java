@@ -3,6 +3,8 @@ package com.ctrip.framework.apollo.biz.message;
 import com.ctrip.framework.apollo.biz.AbstractUnitTest;
 import com.ctrip.framework.apollo.biz.entity.ReleaseMessage;
 import com.ctrip.framework.apollo.biz.repository.ReleaseMessageRepository;
+import com.google.common.collect.Lists;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -57,4 +59,37 @@ public class DatabaseMessageSenderTest extends AbstractUnitTest{
 
     messageSender.sendMessage(someMessage, Topics.APOLLO_RELEASE_TOPIC);
   }
+
+  @Test
+  public void testSendMessages() throws Exception {
+    String someMessage = "some-message";
+    String anotherMessage = "another-message";
+    ReleaseMessage someReleaseMessage = mock(ReleaseMessage.class);
+    ReleaseMessage anotherReleaseMessage = mock(ReleaseMessage.class);
+    when(someReleaseMessage.getId()).thenReturn(1L);
+    when(anotherReleaseMessage.getId()).thenReturn(2L);
+    when(releaseMessageRepository.saveAll(anyIterable()))
+        .thenReturn(Lists.newArrayList(someReleaseMessage, anotherReleaseMessage));
+
+    ArgumentCaptor<Iterable> captor = ArgumentCaptor.forClass(Iterable.class);
+
+    messageSender.sendMessages(Lists.newArrayList(someMessage, anotherMessage, someMessage),
+        Topics.APOLLO_RELEASE_TOPIC);
+
+    verify(releaseMessageRepository, times(1)).saveAll(captor.capture());
+    verify(releaseMessageRepository, never()).save(any(ReleaseMessage.class));
+    List<ReleaseMessage> savedMessages = Lists.newArrayList((Iterable<ReleaseMessage>) captor.getValue());
+    assertEquals(2, savedMessages.size());
+    assertEquals(someMessage, savedMessages.get(0).getMessage());
+    assertEquals(anotherMessage, savedMessages.get(1).getMessage());
+  }
+
+  @Test
+  public void testSendUnsupportedMessages() throws Exception {
+    String someUnsupportedTopic = "some-invalid-topic";
+
+    messageSender.sendMessages(Lists.newArrayList("some-message"), someUnsupportedTopic);
+
+    verify(releaseMessageRepository, never()).saveAll(anyIterable());
+  }
 }
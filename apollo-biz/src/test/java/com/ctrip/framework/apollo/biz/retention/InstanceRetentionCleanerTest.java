@@ -0,0 +1,88 @@
+package com.ctrip.framework.apollo.biz.retention;
+
+import com.ctrip.framework.apollo.biz.AbstractUnitTest;
+import com.ctrip.framework.apollo.biz.config.BizConfig;
+import com.ctrip.framework.apollo.biz.service.InstanceService;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class InstanceRetentionCleanerTest extends AbstractUnitTest {
+  private InstanceRetentionCleaner instanceRetentionCleaner;
+  @Mock
+  private InstanceService instanceService;
+  @Mock
+  private BizConfig bizConfig;
+  private int someBatchSize;
+
+  @Before
+  public void setUp() throws Exception {
+    someBatchSize = 2;
+    when(bizConfig.instanceRetentionDays()).thenReturn(7);
+    when(bizConfig.instanceRetentionBatch()).thenReturn(someBatchSize);
+    when(bizConfig.instanceRetentionBatchIntervalInMilli()).thenReturn(0);
+
+    instanceRetentionCleaner = new InstanceRetentionCleaner(instanceService, bizConfig);
+  }
+
+  @Test
+  public void testPurgeInBatches() throws Exception {
+    when(instanceService.purgeInstanceConfigs(any(Date.class), eq(0L), eq(someBatchSize)))
+        .thenReturn(Lists.newArrayList(1L, 2L));
+    when(instanceService.purgeInstanceConfigs(any(Date.class), eq(2L), eq(someBatchSize)))
+        .thenReturn(Lists.newArrayList(5L, 6L));
+    when(instanceService.purgeInstanceConfigs(any(Date.class), eq(6L), eq(someBatchSize)))
+        .thenReturn(Lists.newArrayList(7L));
+    when(instanceService.purgeInstances(any(Date.class), eq(0L), eq(someBatchSize)))
+        .thenReturn(Lists.newArrayList(3L, 4L));
+    when(instanceService.purgeInstances(any(Date.class), eq(4L), eq(someBatchSize)))
+        .thenReturn(Collections.<Long>emptyList());
+
+    instanceRetentionCleaner.purge();
+
+    verify(instanceService, times(3)).purgeInstanceConfigs(any(Date.class), anyLong(), eq(someBatchSize));
+    verify(instanceService, times(2)).purgeInstances(any(Date.class), anyLong(), eq(someBatchSize));
+  }
+
+  @Test
+  public void testPurgeReturnsTotal() throws Exception {
+    Date someExpireDate = new Date();
+    when(instanceService.purgeInstanceConfigs(someExpireDate, 0L, someBatchSize))
+        .thenReturn(Lists.newArrayList(1L, 2L));
+    when(instanceService.purgeInstanceConfigs(someExpireDate, 2L, someBatchSize))
+        .thenReturn(Lists.newArrayList(3L));
+
+    assertEquals(someBatchSize + 1, instanceRetentionCleaner.purgeInstanceConfigs(someExpireDate));
+  }
+
+  @Test
+  public void testPurgeStopsWhenInterrupted() throws Exception {
+    when(instanceService.purgeInstances(any(Date.class), anyLong(), anyInt()))
+        .thenReturn(Lists.newArrayList(1L, 2L));
+
+    Thread.currentThread().interrupt();
+    try {
+      assertEquals(someBatchSize, instanceRetentionCleaner.purgeInstances(new Date()));
+    } finally {
+      Thread.interrupted();
+    }
+
+    verify(instanceService, times(1)).purgeInstances(any(Date.class), anyLong(), anyInt());
+    verify(instanceService, never()).purgeInstanceConfigs(any(Date.class), anyLong(), anyInt());
+  }
+}
@@ -6,6 +6,7 @@ import com.ctrip.framework.apollo.biz.AbstractUnitTest;
 import com.ctrip.framework.apollo.biz.MockBeanFactory;
 import com.ctrip.framework.apollo.biz.entity.ServerConfig;
 import com.ctrip.framework.apollo.biz.repository.ServerConfigRepository;
+import com.ctrip.framework.apollo.common.config.RefreshablePropertySource;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 
 import org.junit.After;
@@ -14,11 +15,14 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Date;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -29,6 +33,7 @@ public class BizDBPropertySourceTest extends AbstractUnitTest {
   @Mock
   private ServerConfigRepository serverConfigRepository;
   private BizDBPropertySource propertySource;
+  private List<ServerConfig> configs;
 
   private String clusterConfigKey = "clusterKey";
   private String clusterConfigValue = "clusterValue";
@@ -42,7 +47,7 @@ public class BizDBPropertySourceTest extends AbstractUnitTest {
     propertySource = spy(new BizDBPropertySource());
     ReflectionTestUtils.setField(propertySource, "serverConfigRepository", serverConfigRepository);
 
-    List<ServerConfig> configs = Lists.newLinkedList();
+    configs = Lists.newLinkedList();
 
     //cluster config
     String cluster = "cluster";
@@ -100,5 +105,66 @@ public class BizDBPropertySourceTest extends AbstractUnitTest {
     assertNull(propertySource.getProperty("noKey"));
   }
 
+  @Test
+  public void testIncrementalRefresh() {
+    Date someLastModifiedTime = new Date(1000);
+    Date anotherLastModifiedTime = new Date(2000);
+    for (ServerConfig config : configs) {
+      config.setDataChangeLastModifiedTime(someLastModifiedTime);
+    }
+    propertySource.refresh();
+
+    String someNewValue = "someNewValue";
+    ServerConfig changedConfig = MockBeanFactory.mockServerConfig(defaultKey, someNewValue,
+        ConfigConsts.CLUSTER_NAME_DEFAULT);
+    changedConfig.setDataChangeLastModifiedTime(anotherLastModifiedTime);
+    ServerConfig shadowedConfig = MockBeanFactory.mockServerConfig(clusterConfigKey, someNewValue,
+        ConfigConsts.CLUSTER_NAME_DEFAULT);
+    shadowedConfig.setDataChangeLastModifiedTime(anotherLastModifiedTime);
+    when(serverConfigRepository.findByDataChangeLastModifiedTimeGreaterThanEqual(someLastModifiedTime))
+        .thenReturn(Lists.newArrayList(changedConfig, shadowedConfig));
+
+    propertySource.refresh();
+
+    assertEquals(someNewValue, propertySource.getProperty(defaultKey));
+    //cluster config has higher priority than default cluster's
+    assertEquals(clusterConfigValue, propertySource.getProperty(clusterConfigKey));
+    verify(serverConfigRepository, times(1)).findAll();
+
+    propertySource.refresh();
+
+    verify(serverConfigRepository, times(1))
+        .findByDataChangeLastModifiedTimeGreaterThanEqual(anotherLastModifiedTime);
+  }
+
+  @Test
+  public void testFullRefreshRemovesDeletedConfigs() {
+    propertySource.refresh();
+    assertEquals(defaultValue, propertySource.getProperty(defaultKey));
+
+    configs.removeIf(config -> defaultKey.equals(config.getKey()));
+    for (int i = 1; i < RefreshablePropertySource.FULL_REFRESH_INTERVAL_IN_TICKS; i++) {
+      propertySource.refresh();
+    }
+    assertEquals(defaultValue, propertySource.getProperty(defaultKey));
+
+    propertySource.refresh();
+
+    assertNull(propertySource.getProperty(defaultKey));
+    verify(serverConfigRepository, times(2)).findAll();
+  }
+
+  @Test
+  public void testChangeListener() {
+    List<Object> newValues = Lists.newArrayList();
+    propertySource.addChangeListener(defaultKey, (key, oldValue, newValue) -> newValues.add(newValue));
+    propertySource.addChangeListener("noKey", (key, oldValue, newValue) -> newValues.add(newValue));
+
+    propertySource.refresh();
+    propertySource.refresh();
+
+    assertEquals(Lists.newArrayList(defaultValue), newValues);
+  }
+
 
 }
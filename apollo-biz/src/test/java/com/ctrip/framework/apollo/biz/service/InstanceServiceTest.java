@@ -23,6 +23,7 @@ import java.util.stream.Collectors;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
@@ -237,6 +238,102 @@ public class InstanceServiceTest extends AbstractIntegrationTest {
     assertEquals(Lists.newArrayList(someInstanceConfig, anotherInstanceConfig), instanceConfigs);
   }
 
+  @Test
+  @Rollback
+  public void testPurgeInstanceConfigsAndInstances() throws Exception {
+    String someAppId = "someAppId";
+    String someClusterName = "someClusterName";
+    String someDataCenter = "someDataCenter";
+    String someIp = "someIp";
+    String anotherIp = "anotherIp";
+    String someConfigAppId = "someConfigAppId";
+    String someConfigClusterName = "someConfigClusterName";
+    String someConfigNamespaceName = "someConfigNamespaceName";
+    String someReleaseKey = "someReleaseKey";
+
+    Calendar calendar = Calendar.getInstance();
+    calendar.add(Calendar.DATE, -1);
+    Date expireDate = calendar.getTime();
+    calendar.add(Calendar.DATE, -1);
+    Date staleDate = calendar.getTime();
+    Date freshDate = new Date();
+
+    Instance staleInstance = assembleInstance(someAppId, someClusterName, someDataCenter, someIp);
+    staleInstance.setDataChangeCreatedTime(staleDate);
+    staleInstance.setDataChangeLastModifiedTime(staleDate);
+    staleInstance = instanceService.createInstance(staleInstance);
+    Instance freshInstance = instanceService.createInstance(assembleInstance(someAppId,
+        someClusterName, someDataCenter, anotherIp));
+
+    prepareInstanceConfigForInstance(staleInstance.getId(), someConfigAppId,
+        someConfigClusterName, someConfigNamespaceName, someReleaseKey, staleDate);
+    InstanceConfig freshInstanceConfig = prepareInstanceConfigForInstance(freshInstance.getId(),
+        someConfigAppId, someConfigClusterName, someConfigNamespaceName, someReleaseKey, freshDate);
+
+    //stale instance still has a config, so it is kept
+    assertTrue(instanceService.purgeInstances(expireDate, 0, 10).isEmpty());
+
+    List<Long> purgedInstanceConfigIds = instanceService.purgeInstanceConfigs(expireDate, 0, 10);
+    assertEquals(1, purgedInstanceConfigIds.size());
+    assertTrue(instanceService.purgeInstanceConfigs(expireDate, 0, 10).isEmpty());
+
+    //the cursor skips the ids already scanned
+    assertTrue(instanceService.purgeInstances(expireDate, staleInstance.getId(), 10).isEmpty());
+    assertEquals(Lists.newArrayList(staleInstance.getId()), instanceService.purgeInstances(expireDate, 0, 10));
+    assertTrue(instanceService.purgeInstances(expireDate, 0, 10).isEmpty());
+
+    assertNull(instanceService.findInstance(someAppId, someClusterName, someDataCenter, someIp));
+    assertEquals(freshInstance.getId(), instanceService.findInstance(someAppId, someClusterName,
+        someDataCenter, anotherIp).getId());
+    assertEquals(freshInstanceConfig.getId(), instanceService.findInstanceConfig(freshInstance
+        .getId(), someConfigAppId, someConfigNamespaceName).getId());
+  }
+
+  @Test
+  @Rollback
+  public void testFindActiveInstanceConfigsByNamespaceWithCursor() throws Exception {
+    String someConfigAppId = "someConfigAppId";
+    String someConfigClusterName = "someConfigClusterName";
+    String someConfigNamespaceName = "someConfigNamespaceName";
+    String someReleaseKey = "someReleaseKey";
+    String someInstanceAppId = "someInstanceAppId";
+    String anotherInstanceAppId = "anotherInstanceAppId";
+    Date someValidDate = new Date();
+
+    Instance someInstance = instanceService.createInstance(assembleInstance(someInstanceAppId,
+        "someCluster", "someDC", "someIp"));
+    Instance anotherInstance = instanceService.createInstance(assembleInstance(someInstanceAppId,
+        "someCluster", "someDC", "anotherIp"));
+    Instance yetAnotherInstance = instanceService.createInstance(assembleInstance(anotherInstanceAppId,
+        "someCluster", "someDC", "someIp"));
+
+    InstanceConfig someInstanceConfig = prepareInstanceConfigForInstance(someInstance.getId(),
+        someConfigAppId, someConfigClusterName, someConfigNamespaceName, someReleaseKey, someValidDate);
+    InstanceConfig anotherInstanceConfig = prepareInstanceConfigForInstance(anotherInstance.getId(),
+        someConfigAppId, someConfigClusterName, someConfigNamespaceName, someReleaseKey, someValidDate);
+    InstanceConfig yetAnotherInstanceConfig = prepareInstanceConfigForInstance(yetAnotherInstance.getId(),
+        someConfigAppId, someConfigClusterName, someConfigNamespaceName, someReleaseKey, someValidDate);
+
+    List<InstanceConfig> firstPage = instanceService.findActiveInstanceConfigsByNamespace(null,
+        someConfigAppId, someConfigClusterName, someConfigNamespaceName, 0, 2);
+    List<InstanceConfig> secondPage = instanceService.findActiveInstanceConfigsByNamespace(null,
+        someConfigAppId, someConfigClusterName, someConfigNamespaceName, firstPage.get(1).getId(), 2);
+
+    assertEquals(Lists.newArrayList(someInstanceConfig, anotherInstanceConfig), firstPage);
+    assertEquals(Lists.newArrayList(yetAnotherInstanceConfig), secondPage);
+
+    List<InstanceConfig> byInstanceAppId = instanceService.findActiveInstanceConfigsByNamespace(
+        someInstanceAppId, someConfigAppId, someConfigClusterName, someConfigNamespaceName,
+        someInstanceConfig.getId(), 2);
+
+    assertEquals(Lists.newArrayList(anotherInstanceConfig), byInstanceAppId);
+
+    List<InstanceConfig> byReleaseKey = instanceService.findActiveInstanceConfigsByReleaseKey(
+        someReleaseKey, anotherInstanceConfig.getId(), 2);
+
+    assertEquals(Lists.newArrayList(yetAnotherInstanceConfig), byReleaseKey);
+  }
+
   private InstanceConfig prepareInstanceConfigForInstance(long instanceId, String configAppId,
                                                           String configClusterName, String
                                                               configNamespace, String releaseKey,
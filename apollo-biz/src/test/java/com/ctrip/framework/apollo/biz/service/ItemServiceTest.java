@@ -0,0 +1,94 @@
+package com.ctrip.framework.apollo.biz.service;
+
+import com.ctrip.framework.apollo.biz.AbstractIntegrationTest;
+import com.ctrip.framework.apollo.biz.entity.Audit;
+import com.ctrip.framework.apollo.biz.entity.Item;
+import com.ctrip.framework.apollo.biz.repository.AuditRepository;
+import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ItemServiceTest extends AbstractIntegrationTest {
+
+  @Autowired
+  private ItemService itemService;
+  @Autowired
+  private ItemSetService itemSetService;
+  @Autowired
+  private AuditRepository auditRepository;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private String testApp = "testApp";
+  private String testCluster = "default";
+  private String testNamespace = "application";
+  private String testUser = "itemSetUser";
+
+  @Test
+  @Sql(scripts = "/sql/item-test.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+  @Sql(scripts = "/sql/clean.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+  public void testUpdateSet() {
+    Date before = new Date(System.currentTimeMillis() - 1000);
+    //loaded into the persistence context before the bulk delete
+    assertNotNull(itemService.findOne(1002));
+
+    ItemChangeSets changeSets = new ItemChangeSets();
+    changeSets.setDataChangeLastModifiedBy(testUser);
+    ItemDTO createItem = new ItemDTO("k3", "v3", "", 0);
+    createItem.setNamespaceId(1);
+    changeSets.addCreateItem(createItem);
+    ItemDTO updateItem = new ItemDTO("k1", "v1-new", "new comment", 1);
+    updateItem.setId(1001);
+    updateItem.setNamespaceId(1);
+    changeSets.addUpdateItem(updateItem);
+    ItemDTO deleteItem = new ItemDTO("k2", "v2", "", 2);
+    deleteItem.setId(1002);
+    deleteItem.setNamespaceId(1);
+    changeSets.addDeleteItem(deleteItem);
+
+    itemSetService.updateSet(testApp, testCluster, testNamespace, changeSets);
+
+    //the update is flushed before the bulk delete clears the persistence context
+    Item updatedItem = itemService.findOne(1001);
+    assertEquals("v1-new", updatedItem.getValue());
+    assertEquals("new comment", updatedItem.getComment());
+    assertEquals(testUser, updatedItem.getDataChangeLastModifiedBy());
+
+    //the deleted item is not served from the persistence context
+    assertNull(itemService.findOne(1002));
+    Map<String, Object> deletedRow = jdbcTemplate.queryForMap(
+        "SELECT `IsDeleted`, `DataChange_LastModifiedBy`, `DataChange_LastTime` FROM `Item` WHERE `Id` = 1002");
+    assertEquals(Boolean.TRUE, deletedRow.get("IsDeleted"));
+    assertEquals(testUser, deletedRow.get("DataChange_LastModifiedBy"));
+    assertTrue(((Date) deletedRow.get("DataChange_LastTime")).after(before));
+
+    Item createdItem = itemService.findOne(testApp, testCluster, testNamespace, "k3");
+    assertEquals(3, createdItem.getLineNum().intValue());
+
+    assertItemAudit(Audit.OP.INSERT, createdItem.getId());
+    assertItemAudit(Audit.OP.UPDATE, 1001);
+    assertItemAudit(Audit.OP.DELETE, 1002);
+    assertEquals(1, auditRepository.findAudits(testUser, "ItemSet", Audit.OP.INSERT.name()).size());
+    assertEquals(1, auditRepository.findAudits(testUser, "ItemSet", Audit.OP.UPDATE.name()).size());
+    assertEquals(1, auditRepository.findAudits(testUser, "ItemSet", Audit.OP.DELETE.name()).size());
+  }
+
+  private void assertItemAudit(Audit.OP op, long itemId) {
+    List<Audit> audits = auditRepository.findAudits(testUser, Item.class.getSimpleName(), op.name());
+    assertEquals(1, audits.size());
+    assertEquals(itemId, audits.get(0).getEntityId().longValue());
+  }
+}
@@ -20,10 +20,12 @@ import org.springframework.data.domain.PageRequest;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -223,5 +225,25 @@ public class ReleaseServiceTest extends AbstractUnitTest {
     assertEquals(someReleases, result);
   }
 
+  @Test
+  public void testGetConfigurationsIsCachedByReleaseId() throws Exception {
+    Release someRelease = new Release();
+    someRelease.setId(releaseId);
+    someRelease.setConfigurations("{\"k1\":\"v1\",\"k2\":\"v2\"}");
+
+    Map<String, String> configurations = releaseService.getConfigurations(someRelease);
+
+    assertEquals(2, configurations.size());
+    assertEquals("v1", configurations.get("k1"));
+    assertSame(configurations, releaseService.getConfigurations(someRelease));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetConfigurationsIsImmutable() throws Exception {
+    Release someRelease = new Release();
+    someRelease.setId(releaseId);
+    someRelease.setConfigurations("{\"k1\":\"v1\"}");
 
+    releaseService.getConfigurations(someRelease).put("k2", "v2");
+  }
 }
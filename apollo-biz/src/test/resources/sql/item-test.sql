@@ -0,0 +1,10 @@
+INSERT INTO `app` ( `AppId`, `Name`, `OrgId`, `OrgName`, `OwnerName`, `OwnerEmail`, `IsDeleted`, `DataChange_CreatedBy`, `DataChange_LastModifiedBy`)VALUES('testApp', 'test', 'default', 'default', 'default', 'default', 0, 'default', 'default');
+
+INSERT INTO `cluster` (`ID`, `Name`, `AppId`, `ParentClusterId`, `IsDeleted`, `DataChange_CreatedBy`, `DataChange_LastModifiedBy`) VALUES (1, 'default', 'testApp', 0, 0, 'default', 'default');
+
+INSERT INTO `appnamespace` (`Name`, `AppId`, `Format`, `IsPublic`) VALUES ( 'application', 'testApp', 'properties', 0);
+
+INSERT INTO `namespace` (`ID`, `AppId`, `ClusterName`, `NamespaceName`, `IsDeleted`, `DataChange_CreatedBy`, `DataChange_LastModifiedBy`)VALUES(1,'testApp', 'default', 'application', 0, 'apollo', 'apollo');
+
+INSERT INTO `item` (`ID`, `NamespaceId`, `Key`, `Value`, `Comment`, `LineNum`, `DataChange_CreatedBy`, `DataChange_LastModifiedBy`, `DataChange_LastTime`)VALUES(1001, 1, 'k1', 'v1', '', 1, 'apollo', 'apollo', '2020-01-01 00:00:00');
+INSERT INTO `item` (`ID`, `NamespaceId`, `Key`, `Value`, `Comment`, `LineNum`, `DataChange_CreatedBy`, `DataChange_LastModifiedBy`, `DataChange_LastTime`)VALUES(1002, 1, 'k2', 'v2', '', 2, 'apollo', 'apollo', '2020-01-01 00:00:00');
@@ -0,0 +1,34 @@
+package com.ctrip.framework.apollo.handle;
+
+import com.ctrip.framework.apollo.Config;
+
+/**
+ * A property bound to a config. The value is resolved once per config change and read without any lookup.
+ *
+ * <p>Handles are created by {@link PropertyHandles}, which registers them with the config for refresh. Calls with
+ * the same key, default value and parser instance return the same handle. The config only keeps its handles weakly,
+ * so keep a handle (e.g. in a field) as long as it is read, and a handle dropped by its callers stops being
+ * refreshed.</p>
+ */
+public abstract class AbstractPropertyHandle {
+  private final String key;
+
+  protected AbstractPropertyHandle(String key) {
+    this.key = key;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Resolve the value from the given config again. Called by the owning config whenever its properties change.
+   *
+   * <p>Synchronized so that the first resolution cannot overwrite a newer value from a concurrent change.</p>
+   */
+  public final synchronized void refresh(Config config) {
+    doRefresh(config);
+  }
+
+  protected abstract void doRefresh(Config config);
+}
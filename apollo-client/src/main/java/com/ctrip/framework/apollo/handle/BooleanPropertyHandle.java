@@ -0,0 +1,30 @@
+package com.ctrip.framework.apollo.handle;
+
+import com.ctrip.framework.apollo.Config;
+
+/**
+ * A boolean property bound to a config, see {@link PropertyHandles#booleanHandle(Config, String, boolean)}.
+ */
+public class BooleanPropertyHandle extends AbstractPropertyHandle {
+  private final boolean defaultValue;
+  private volatile boolean value;
+
+  public BooleanPropertyHandle(String key, boolean defaultValue) {
+    super(key);
+    this.defaultValue = defaultValue;
+    this.value = defaultValue;
+  }
+
+  /**
+   * @return the property value of the current config version, or the default value if the key doesn't exist or
+   * can't be parsed
+   */
+  public boolean get() {
+    return value;
+  }
+
+  @Override
+  protected void doRefresh(Config config) {
+    value = config.getBooleanProperty(getKey(), defaultValue);
+  }
+}
@@ -0,0 +1,30 @@
+package com.ctrip.framework.apollo.handle;
+
+import com.ctrip.framework.apollo.Config;
+
+/**
+ * A double property bound to a config, see {@link PropertyHandles#doubleHandle(Config, String, double)}.
+ */
+public class DoublePropertyHandle extends AbstractPropertyHandle {
+  private final double defaultValue;
+  private volatile double value;
+
+  public DoublePropertyHandle(String key, double defaultValue) {
+    super(key);
+    this.defaultValue = defaultValue;
+    this.value = defaultValue;
+  }
+
+  /**
+   * @return the property value of the current config version, or the default value if the key doesn't exist or
+   * can't be parsed
+   */
+  public double get() {
+    return value;
+  }
+
+  @Override
+  protected void doRefresh(Config config) {
+    value = config.getDoubleProperty(getKey(), defaultValue);
+  }
+}
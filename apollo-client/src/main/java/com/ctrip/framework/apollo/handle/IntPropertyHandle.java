@@ -0,0 +1,30 @@
+package com.ctrip.framework.apollo.handle;
+
+import com.ctrip.framework.apollo.Config;
+
+/**
+ * A int property bound to a config, see {@link PropertyHandles#intHandle(Config, String, int)}.
+ */
+public class IntPropertyHandle extends AbstractPropertyHandle {
+  private final int defaultValue;
+  private volatile int value;
+
+  public IntPropertyHandle(String key, int defaultValue) {
+    super(key);
+    this.defaultValue = defaultValue;
+    this.value = defaultValue;
+  }
+
+  /**
+   * @return the property value of the current config version, or the default value if the key doesn't exist or
+   * can't be parsed
+   */
+  public int get() {
+    return value;
+  }
+
+  @Override
+  protected void doRefresh(Config config) {
+    value = config.getIntProperty(getKey(), defaultValue);
+  }
+}
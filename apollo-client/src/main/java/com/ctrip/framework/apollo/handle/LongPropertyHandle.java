@@ -0,0 +1,30 @@
+package com.ctrip.framework.apollo.handle;
+
+import com.ctrip.framework.apollo.Config;
+
+/**
+ * A long property bound to a config, see {@link PropertyHandles#longHandle(Config, String, long)}.
+ */
+public class LongPropertyHandle extends AbstractPropertyHandle {
+  private final long defaultValue;
+  private volatile long value;
+
+  public LongPropertyHandle(String key, long defaultValue) {
+    super(key);
+    this.defaultValue = defaultValue;
+    this.value = defaultValue;
+  }
+
+  /**
+   * @return the property value of the current config version, or the default value if the key doesn't exist or
+   * can't be parsed
+   */
+  public long get() {
+    return value;
+  }
+
+  @Override
+  protected void doRefresh(Config config) {
+    value = config.getLongProperty(getKey(), defaultValue);
+  }
+}
@@ -0,0 +1,35 @@
+package com.ctrip.framework.apollo.handle;
+
+import com.ctrip.framework.apollo.Config;
+import com.google.common.base.Function;
+
+/**
+ * A property of any type bound to a config, see {@link PropertyHandles#handle(Config, String, Function, Object)}.
+ *
+ * @param <T> the property type
+ */
+public class PropertyHandle<T> extends AbstractPropertyHandle {
+  private final Function<String, T> parser;
+  private final T defaultValue;
+  private volatile T value;
+
+  public PropertyHandle(String key, Function<String, T> parser, T defaultValue) {
+    super(key);
+    this.parser = parser;
+    this.defaultValue = defaultValue;
+    this.value = defaultValue;
+  }
+
+  /**
+   * @return the property value of the current config version, or the default value if the key doesn't exist or
+   * can't be parsed
+   */
+  public T get() {
+    return value;
+  }
+
+  @Override
+  protected void doRefresh(Config config) {
+    value = config.getProperty(getKey(), parser, defaultValue);
+  }
+}
@@ -0,0 +1,90 @@
+package com.ctrip.framework.apollo.handle;
+
+import com.ctrip.framework.apollo.Config;
+import com.ctrip.framework.apollo.internals.AbstractConfig;
+import com.google.common.base.Function;
+
+/**
+ * Creates the property handles of the configs returned by {@link com.ctrip.framework.apollo.ConfigService}.
+ *
+ * <p>The handles are not part of {@link Config}, so that other implementations of it keep compiling. Configs not
+ * extending {@link AbstractConfig} are rejected, as they have no way of refreshing a handle.</p>
+ *
+ * @since 1.7.0
+ */
+public final class PropertyHandles {
+  private PropertyHandles() {
+  }
+
+  /**
+   * Return a handle of the integer property with the given key. The handle is refreshed whenever the config changes,
+   * so {@link IntPropertyHandle#get()} needs no lookup, parsing or boxing. Calls with the same config, key and default
+   * value return the same handle as long as it is referenced.
+   *
+   * @param config       the config to bind the handle to
+   * @param key          the property name
+   * @param defaultValue the default value when key is not found or any error occurred
+   * @return the property handle, to be kept and reused
+   * @throws IllegalArgumentException if the config does not support handles
+   */
+  public static IntPropertyHandle intHandle(Config config, String key, int defaultValue) {
+    return supporting(config).intHandle(key, defaultValue);
+  }
+
+  /**
+   * Return a handle of the long property with the given key, see {@link #intHandle(Config, String, int)}.
+   */
+  public static LongPropertyHandle longHandle(Config config, String key, long defaultValue) {
+    return supporting(config).longHandle(key, defaultValue);
+  }
+
+  /**
+   * Return a handle of the boolean property with the given key, see {@link #intHandle(Config, String, int)}.
+   */
+  public static BooleanPropertyHandle booleanHandle(Config config, String key, boolean defaultValue) {
+    return supporting(config).booleanHandle(key, defaultValue);
+  }
+
+  /**
+   * Return a handle of the double property with the given key, see {@link #intHandle(Config, String, int)}.
+   */
+  public static DoublePropertyHandle doubleHandle(Config config, String key, double defaultValue) {
+    return supporting(config).doubleHandle(key, defaultValue);
+  }
+
+  /**
+   * Return a handle of the property with the given key, see {@link #intHandle(Config, String, int)}.
+   */
+  public static PropertyHandle<String> stringHandle(Config config, String key, String defaultValue) {
+    return supporting(config).stringHandle(key, defaultValue);
+  }
+
+  /**
+   * Return a handle of the array property with the given key, see {@link #intHandle(Config, String, int)} and
+   * {@link Config#getArrayProperty(String, String, String[])}.
+   */
+  public static PropertyHandle<String[]> arrayHandle(Config config, String key, String delimiter,
+      String[] defaultValue) {
+    return supporting(config).arrayHandle(key, delimiter, defaultValue);
+  }
+
+  /**
+   * Return a handle of the user-defined property with the given key, see {@link #intHandle(Config, String, int)} and
+   * {@link Config#getProperty(String, Function, Object)}.
+   *
+   * <p>Handles are shared by parser instance, so pass a shared parser, e.g. a static final field. A parser created
+   * per call, such as an anonymous class in the calling method, registers a new handle on every call.</p>
+   */
+  public static <T> PropertyHandle<T> handle(Config config, String key, Function<String, T> parser,
+      T defaultValue) {
+    return supporting(config).handle(key, parser, defaultValue);
+  }
+
+  private static AbstractConfig supporting(Config config) {
+    if (!(config instanceof AbstractConfig)) {
+      throw new IllegalArgumentException(String.format("Property handles are not supported by %s",
+          config == null ? null : config.getClass().getName()));
+    }
+    return (AbstractConfig) config;
+  }
+}
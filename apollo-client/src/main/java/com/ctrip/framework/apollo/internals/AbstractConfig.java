@@ -3,21 +3,27 @@ package com.ctrip.framework.apollo.internals;
 import com.ctrip.framework.apollo.Config;
 import com.ctrip.framework.apollo.ConfigChangeListener;
 import com.ctrip.framework.apollo.build.ApolloInjector;
-import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.enums.PropertyChangeType;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.handle.AbstractPropertyHandle;
+import com.ctrip.framework.apollo.handle.BooleanPropertyHandle;
+import com.ctrip.framework.apollo.handle.DoublePropertyHandle;
+import com.ctrip.framework.apollo.handle.IntPropertyHandle;
+import com.ctrip.framework.apollo.handle.LongPropertyHandle;
+import com.ctrip.framework.apollo.handle.PropertyHandle;
+import com.ctrip.framework.apollo.handle.PropertyHandles;
+import com.ctrip.framework.apollo.internals.PropertyHandleRegistry.HandleKey;
+import com.ctrip.framework.apollo.metrics.Counter;
+import com.ctrip.framework.apollo.metrics.MetricsRegistry;
 import com.ctrip.framework.apollo.model.ConfigChange;
 import com.ctrip.framework.apollo.model.ConfigChangeEvent;
 import com.ctrip.framework.apollo.tracer.Tracer;
-import com.ctrip.framework.apollo.tracer.spi.Transaction;
 import com.ctrip.framework.apollo.util.ConfigUtil;
 import com.ctrip.framework.apollo.util.factory.PropertiesFactory;
 import com.ctrip.framework.apollo.util.function.Functions;
 import com.ctrip.framework.apollo.util.parser.Parsers;
 import com.google.common.base.Function;
 import com.google.common.base.Objects;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -30,9 +36,6 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
@@ -40,38 +43,28 @@ import java.util.concurrent.atomic.AtomicLong;
 public abstract class AbstractConfig implements Config {
   private static final Logger logger = LoggerFactory.getLogger(AbstractConfig.class);
 
-  private static final ExecutorService m_executorService;
-
   private final List<ConfigChangeListener> m_listeners = Lists.newCopyOnWriteArrayList();
+  private final ConfigChangeListenerDispatcher m_listenerDispatcher = new ConfigChangeListenerDispatcher();
   private final Map<ConfigChangeListener, Set<String>> m_interestedKeys = Maps.newConcurrentMap();
   private final Map<ConfigChangeListener, Set<String>> m_interestedKeyPrefixes = Maps.newConcurrentMap();
+  //rebuilt from the above on every listener change
+  private volatile ConfigChangeListenerIndex m_listenerIndex = ConfigChangeListenerIndex.empty();
+  private final PropertyHandleRegistry m_propertyHandles = new PropertyHandleRegistry();
   private final ConfigUtil m_configUtil;
-  private volatile Cache<String, Integer> m_integerCache;
-  private volatile Cache<String, Long> m_longCache;
-  private volatile Cache<String, Short> m_shortCache;
-  private volatile Cache<String, Float> m_floatCache;
-  private volatile Cache<String, Double> m_doubleCache;
-  private volatile Cache<String, Byte> m_byteCache;
-  private volatile Cache<String, Boolean> m_booleanCache;
-  private volatile Cache<String, Date> m_dateCache;
-  private volatile Cache<String, Long> m_durationCache;
-  private final Map<String, Cache<String, String[]>> m_arrayCache;
-  private final List<Cache> allCaches;
-  private final AtomicLong m_configVersion; //indicate config version
+  //parsed values of current config version, replaced as a whole when config changes
+  private volatile TypedValueSnapshot m_typedValues;
+  private final Counter m_typedValueHitCounter;
+  private final Counter m_typedValueMissCounter;
 
   protected PropertiesFactory propertiesFactory;
 
-  static {
-    m_executorService = Executors.newCachedThreadPool(ApolloThreadFactory
-        .create("Config", true));
-  }
-
   public AbstractConfig() {
     m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
-    m_configVersion = new AtomicLong();
-    m_arrayCache = Maps.newConcurrentMap();
-    allCaches = Lists.newArrayList();
+    m_typedValues = newTypedValueSnapshot();
     propertiesFactory = ApolloInjector.getInstance(PropertiesFactory.class);
+    MetricsRegistry metrics = ApolloInjector.getInstance(MetricsRegistry.class);
+    m_typedValueHitCounter = metrics.counter("typedCache.hit");
+    m_typedValueMissCounter = metrics.counter("typedCache.miss");
   }
 
   @Override
@@ -85,7 +78,8 @@ public abstract class AbstractConfig implements Config {
   }
 
   @Override
-  public void addChangeListener(ConfigChangeListener listener, Set<String> interestedKeys, Set<String> interestedKeyPrefixes) {
+  public synchronized void addChangeListener(ConfigChangeListener listener, Set<String> interestedKeys,
+      Set<String> interestedKeyPrefixes) {
     if (!m_listeners.contains(listener)) {
       m_listeners.add(listener);
       if (interestedKeys != null && !interestedKeys.isEmpty()) {
@@ -94,28 +88,28 @@ public abstract class AbstractConfig implements Config {
       if (interestedKeyPrefixes != null && !interestedKeyPrefixes.isEmpty()) {
         m_interestedKeyPrefixes.put(listener, Sets.newHashSet(interestedKeyPrefixes));
       }
+      rebuildListenerIndex();
     }
   }
 
   @Override
-  public boolean removeChangeListener(ConfigChangeListener listener) {
+  public synchronized boolean removeChangeListener(ConfigChangeListener listener) {
     m_interestedKeys.remove(listener);
     m_interestedKeyPrefixes.remove(listener);
-    return m_listeners.remove(listener);
+    boolean removed = m_listeners.remove(listener);
+    rebuildListenerIndex();
+    m_listenerDispatcher.remove(listener);
+    return removed;
+  }
+
+  private void rebuildListenerIndex() {
+    m_listenerIndex = ConfigChangeListenerIndex.build(m_listeners, m_interestedKeys, m_interestedKeyPrefixes);
   }
 
   @Override
   public Integer getIntProperty(String key, Integer defaultValue) {
     try {
-      if (m_integerCache == null) {
-        synchronized (this) {
-          if (m_integerCache == null) {
-            m_integerCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_INT_FUNCTION, m_integerCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_INT_FUNCTION, TypedValueSnapshot.INTEGER, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getIntProperty for %s failed, return default value %d", key,
@@ -127,15 +121,7 @@ public abstract class AbstractConfig implements Config {
   @Override
   public Long getLongProperty(String key, Long defaultValue) {
     try {
-      if (m_longCache == null) {
-        synchronized (this) {
-          if (m_longCache == null) {
-            m_longCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_LONG_FUNCTION, m_longCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_LONG_FUNCTION, TypedValueSnapshot.LONG, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getLongProperty for %s failed, return default value %d", key,
@@ -147,15 +133,7 @@ public abstract class AbstractConfig implements Config {
   @Override
   public Short getShortProperty(String key, Short defaultValue) {
     try {
-      if (m_shortCache == null) {
-        synchronized (this) {
-          if (m_shortCache == null) {
-            m_shortCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_SHORT_FUNCTION, m_shortCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_SHORT_FUNCTION, TypedValueSnapshot.SHORT, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getShortProperty for %s failed, return default value %d", key,
@@ -167,15 +145,7 @@ public abstract class AbstractConfig implements Config {
   @Override
   public Float getFloatProperty(String key, Float defaultValue) {
     try {
-      if (m_floatCache == null) {
-        synchronized (this) {
-          if (m_floatCache == null) {
-            m_floatCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_FLOAT_FUNCTION, m_floatCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_FLOAT_FUNCTION, TypedValueSnapshot.FLOAT, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getFloatProperty for %s failed, return default value %f", key,
@@ -187,15 +157,7 @@ public abstract class AbstractConfig implements Config {
   @Override
   public Double getDoubleProperty(String key, Double defaultValue) {
     try {
-      if (m_doubleCache == null) {
-        synchronized (this) {
-          if (m_doubleCache == null) {
-            m_doubleCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_DOUBLE_FUNCTION, m_doubleCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_DOUBLE_FUNCTION, TypedValueSnapshot.DOUBLE, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getDoubleProperty for %s failed, return default value %f", key,
@@ -207,15 +169,7 @@ public abstract class AbstractConfig implements Config {
   @Override
   public Byte getByteProperty(String key, Byte defaultValue) {
     try {
-      if (m_byteCache == null) {
-        synchronized (this) {
-          if (m_byteCache == null) {
-            m_byteCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_BYTE_FUNCTION, m_byteCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_BYTE_FUNCTION, TypedValueSnapshot.BYTE, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getByteProperty for %s failed, return default value %d", key,
@@ -227,15 +181,7 @@ public abstract class AbstractConfig implements Config {
   @Override
   public Boolean getBooleanProperty(String key, Boolean defaultValue) {
     try {
-      if (m_booleanCache == null) {
-        synchronized (this) {
-          if (m_booleanCache == null) {
-            m_booleanCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_BOOLEAN_FUNCTION, m_booleanCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_BOOLEAN_FUNCTION, TypedValueSnapshot.BOOLEAN, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getBooleanProperty for %s failed, return default value %b", key,
@@ -247,20 +193,14 @@ public abstract class AbstractConfig implements Config {
   @Override
   public String[] getArrayProperty(String key, final String delimiter, String[] defaultValue) {
     try {
-      if (!m_arrayCache.containsKey(delimiter)) {
-        synchronized (this) {
-          if (!m_arrayCache.containsKey(delimiter)) {
-            m_arrayCache.put(delimiter, this.<String[]>newCache());
-          }
-        }
-      }
-
-      Cache<String, String[]> cache = m_arrayCache.get(delimiter);
-      String[] result = cache.getIfPresent(key);
+      TypedValueSnapshot.ValueCache cache = m_typedValues.arrayCache(delimiter);
+      String[] result = (String[]) cache.get(key);
 
       if (result != null) {
+        m_typedValueHitCounter.inc();
         return result;
       }
+      m_typedValueMissCounter.inc();
 
       return getValueAndStoreToCache(key, new Function<String, String[]>() {
         @Override
@@ -295,15 +235,7 @@ public abstract class AbstractConfig implements Config {
   @Override
   public Date getDateProperty(String key, Date defaultValue) {
     try {
-      if (m_dateCache == null) {
-        synchronized (this) {
-          if (m_dateCache == null) {
-            m_dateCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_DATE_FUNCTION, m_dateCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_DATE_FUNCTION, TypedValueSnapshot.DATE, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getDateProperty for %s failed, return default value %s", key,
@@ -350,15 +282,7 @@ public abstract class AbstractConfig implements Config {
   @Override
   public long getDurationProperty(String key, long defaultValue) {
     try {
-      if (m_durationCache == null) {
-        synchronized (this) {
-          if (m_durationCache == null) {
-            m_durationCache = newCache();
-          }
-        }
-      }
-
-      return getValueFromCache(key, Functions.TO_DURATION_FUNCTION, m_durationCache, defaultValue);
+      return getValueFromCache(key, Functions.TO_DURATION_FUNCTION, TypedValueSnapshot.DURATION, defaultValue);
     } catch (Throwable ex) {
       Tracer.logError(new ApolloConfigException(
           String.format("getDurationProperty for %s failed, return default value %d", key,
@@ -385,29 +309,125 @@ public abstract class AbstractConfig implements Config {
     return defaultValue;
   }
 
-  private <T> T getValueFromCache(String key, Function<String, T> parser, Cache<String, T> cache, T defaultValue) {
-    T result = cache.getIfPresent(key);
+  /**
+   * Return a handle of the integer property with the given key, see {@link PropertyHandles#intHandle(Config, String,
+   * int)}.
+   */
+  public IntPropertyHandle intHandle(String key, int defaultValue) {
+    return registerHandle(new HandleKey("int", key, defaultValue), new IntPropertyHandle(key, defaultValue));
+  }
+
+  /**
+   * Return a handle of the long property with the given key, see {@link PropertyHandles#intHandle(Config, String,
+   * int)}.
+   */
+  public LongPropertyHandle longHandle(String key, long defaultValue) {
+    return registerHandle(new HandleKey("long", key, defaultValue), new LongPropertyHandle(key, defaultValue));
+  }
+
+  /**
+   * Return a handle of the boolean property with the given key, see {@link PropertyHandles#intHandle(Config, String,
+   * int)}.
+   */
+  public BooleanPropertyHandle booleanHandle(String key, boolean defaultValue) {
+    return registerHandle(new HandleKey("boolean", key, defaultValue),
+        new BooleanPropertyHandle(key, defaultValue));
+  }
+
+  /**
+   * Return a handle of the double property with the given key, see {@link PropertyHandles#intHandle(Config, String,
+   * int)}.
+   */
+  public DoublePropertyHandle doubleHandle(String key, double defaultValue) {
+    return registerHandle(new HandleKey("double", key, defaultValue), new DoublePropertyHandle(key, defaultValue));
+  }
+
+  /**
+   * Return a handle of the property with the given key, see {@link PropertyHandles#intHandle(Config, String, int)}.
+   */
+  public PropertyHandle<String> stringHandle(String key, String defaultValue) {
+    return handle(key, com.google.common.base.Functions.<String>identity(), defaultValue);
+  }
+
+  /**
+   * Return a handle of the array property with the given key, see {@link PropertyHandles#arrayHandle(Config, String,
+   * String, String[])}.
+   */
+  public PropertyHandle<String[]> arrayHandle(String key, final String delimiter, String[] defaultValue) {
+    return registerHandle(new HandleKey("array", key, delimiter, defaultValue),
+        new PropertyHandle<>(key, new Function<String, String[]>() {
+          @Override
+          public String[] apply(String input) {
+            return input.split(delimiter);
+          }
+        }, defaultValue));
+  }
+
+  /**
+   * Return a handle of the user-defined property with the given key, see {@link PropertyHandles#handle(Config,
+   * String, Function, Object)}.
+   */
+  public <T> PropertyHandle<T> handle(String key, Function<String, T> parser, T defaultValue) {
+    return registerHandle(new HandleKey("handle", key, parser, defaultValue),
+        new PropertyHandle<>(key, parser, defaultValue));
+  }
+
+  private <H extends AbstractPropertyHandle> H registerHandle(HandleKey handleKey, H handle) {
+    //resolved before it is published, so no caller ever reads the default value of a stale handle
+    handle.refresh(this);
+    H registered = m_propertyHandles.register(handleKey, handle);
+    if (registered == handle) {
+      //again, in case a change was applied to the registered handles between the refresh and the registration
+      handle.refresh(this);
+    }
+    return registered;
+  }
+
+  int getPropertyHandleCount() {
+    return m_propertyHandles.size();
+  }
+
+  /**
+   * Resolve all property handles again, should be called after the config properties and cache are updated
+   */
+  protected void refreshPropertyHandles() {
+    for (AbstractPropertyHandle handle : m_propertyHandles.handles()) {
+      try {
+        handle.refresh(this);
+      } catch (Throwable ex) {
+        Tracer.logError(new ApolloConfigException(
+            String.format("Refresh property handle for %s failed", handle.getKey()), ex));
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T getValueFromCache(String key, Function<String, T> parser, int type, T defaultValue) {
+    TypedValueSnapshot.ValueCache cache = m_typedValues.cache(type);
+    T result = (T) cache.get(key);
 
     if (result != null) {
+      m_typedValueHitCounter.inc();
       return result;
     }
+    m_typedValueMissCounter.inc();
 
     return getValueAndStoreToCache(key, parser, cache, defaultValue);
   }
 
-  private <T> T getValueAndStoreToCache(String key, Function<String, T> parser, Cache<String, T> cache, T defaultValue) {
-    long currentConfigVersion = m_configVersion.get();
+  /**
+   * The value is stored to the snapshot read before loading it. If the config changes meanwhile, that snapshot is
+   * already replaced and the value is dropped with it, so no lock is needed to keep stale values out.
+   */
+  private <T> T getValueAndStoreToCache(String key, Function<String, T> parser, TypedValueSnapshot.ValueCache cache,
+      T defaultValue) {
     String value = getProperty(key, null);
 
     if (value != null) {
       T result = parser.apply(value);
 
       if (result != null) {
-        synchronized (this) {
-          if (m_configVersion.get() == currentConfigVersion) {
-            cache.put(key, result);
-          }
-        }
+        cache.put(key, result);
         return result;
       }
     }
@@ -415,85 +435,25 @@ public abstract class AbstractConfig implements Config {
     return defaultValue;
   }
 
-  private <T> Cache<String, T> newCache() {
-    Cache<String, T> cache = CacheBuilder.newBuilder()
-        .maximumSize(m_configUtil.getMaxConfigCacheSize())
-        .expireAfterAccess(m_configUtil.getConfigCacheExpireTime(), m_configUtil.getConfigCacheExpireTimeUnit())
-        .build();
-    allCaches.add(cache);
-    return cache;
+  private TypedValueSnapshot newTypedValueSnapshot() {
+    return new TypedValueSnapshot(m_configUtil.getMaxConfigCacheSize(), m_configUtil.getConfigCacheExpireTime(),
+        m_configUtil.getConfigCacheExpireTimeUnit());
   }
 
   /**
    * Clear config cache
    */
   protected void clearConfigCache() {
-    synchronized (this) {
-      for (Cache c : allCaches) {
-        if (c != null) {
-          c.invalidateAll();
-        }
-      }
-      m_configVersion.incrementAndGet();
-    }
+    m_typedValues = newTypedValueSnapshot();
   }
 
-  protected void fireConfigChange(final ConfigChangeEvent changeEvent) {
-    for (final ConfigChangeListener listener : m_listeners) {
-      // check whether the listener is interested in this change event
-      if (!isConfigChangeListenerInterested(listener, changeEvent)) {
-        continue;
-      }
-      m_executorService.submit(new Runnable() {
-        @Override
-        public void run() {
-          String listenerName = listener.getClass().getName();
-          Transaction transaction = Tracer.newTransaction("Apollo.ConfigChangeListener", listenerName);
-          try {
-            listener.onChange(changeEvent);
-            transaction.setStatus(Transaction.SUCCESS);
-          } catch (Throwable ex) {
-            transaction.setStatus(ex);
-            Tracer.logError(ex);
-            logger.error("Failed to invoke config change listener {}", listenerName, ex);
-          } finally {
-            transaction.complete();
-          }
-        }
-      });
+  protected void fireConfigChange(ConfigChangeEvent changeEvent) {
+    // only the listeners interested in this change event
+    for (ConfigChangeListener listener : m_listenerIndex.getInterestedListeners(changeEvent)) {
+      m_listenerDispatcher.dispatch(listener, changeEvent);
     }
   }
 
-  private boolean isConfigChangeListenerInterested(ConfigChangeListener configChangeListener, ConfigChangeEvent configChangeEvent) {
-    Set<String> interestedKeys = m_interestedKeys.get(configChangeListener);
-    Set<String> interestedKeyPrefixes = m_interestedKeyPrefixes.get(configChangeListener);
-
-    if ((interestedKeys == null || interestedKeys.isEmpty())
-        && (interestedKeyPrefixes == null || interestedKeyPrefixes.isEmpty())) {
-      return true; // no interested keys means interested in all keys
-    }
-
-    if (interestedKeys != null) {
-      for (String interestedKey : interestedKeys) {
-        if (configChangeEvent.isChanged(interestedKey)) {
-          return true;
-        }
-      }
-    }
-
-    if (interestedKeyPrefixes != null) {
-      for (String prefix : interestedKeyPrefixes) {
-        for (final String changedKey : configChangeEvent.changedKeys()) {
-          if (changedKey.startsWith(prefix)) {
-            return true;
-          }
-        }
-      }
-    }
-
-    return false;
-  }
-
   List<ConfigChange> calcPropertyChanges(String namespace, Properties previous,
                                          Properties current) {
     if (previous == null) {
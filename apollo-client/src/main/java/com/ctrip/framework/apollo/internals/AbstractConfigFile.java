@@ -5,8 +5,6 @@ import com.ctrip.framework.apollo.enums.ConfigSourceType;
 import com.ctrip.framework.apollo.util.factory.PropertiesFactory;
 import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -14,11 +12,9 @@ import org.slf4j.LoggerFactory;
 
 import com.ctrip.framework.apollo.ConfigFile;
 import com.ctrip.framework.apollo.ConfigFileChangeListener;
-import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.enums.PropertyChangeType;
 import com.ctrip.framework.apollo.model.ConfigFileChangeEvent;
 import com.ctrip.framework.apollo.tracer.Tracer;
-import com.ctrip.framework.apollo.tracer.spi.Transaction;
 import com.ctrip.framework.apollo.util.ExceptionUtil;
 import com.google.common.collect.Lists;
 
@@ -27,20 +23,15 @@ import com.google.common.collect.Lists;
  */
 public abstract class AbstractConfigFile implements ConfigFile, RepositoryChangeListener {
   private static final Logger logger = LoggerFactory.getLogger(AbstractConfigFile.class);
-  private static ExecutorService m_executorService;
   protected final ConfigRepository m_configRepository;
   protected final String m_namespace;
   protected final AtomicReference<Properties> m_configProperties;
   private final List<ConfigFileChangeListener> m_listeners = Lists.newCopyOnWriteArrayList();
+  private final ConfigFileChangeListenerDispatcher m_listenerDispatcher = new ConfigFileChangeListenerDispatcher();
   protected final PropertiesFactory propertiesFactory;
 
   private volatile ConfigSourceType m_sourceType = ConfigSourceType.NONE;
 
-  static {
-    m_executorService = Executors.newCachedThreadPool(ApolloThreadFactory
-        .create("ConfigFile", true));
-  }
-
   public AbstractConfigFile(String namespace, ConfigRepository configRepository) {
     m_configRepository = configRepository;
     m_namespace = namespace;
@@ -108,6 +99,7 @@ public abstract class AbstractConfigFile implements ConfigFile, RepositoryChange
 
   @Override
   public boolean removeChangeListener(ConfigFileChangeListener listener) {
+    m_listenerDispatcher.remove(listener);
     return m_listeners.remove(listener);
   }
 
@@ -118,23 +110,7 @@ public abstract class AbstractConfigFile implements ConfigFile, RepositoryChange
 
   private void fireConfigChange(final ConfigFileChangeEvent changeEvent) {
     for (final ConfigFileChangeListener listener : m_listeners) {
-      m_executorService.submit(new Runnable() {
-        @Override
-        public void run() {
-          String listenerName = listener.getClass().getName();
-          Transaction transaction = Tracer.newTransaction("Apollo.ConfigFileChangeListener", listenerName);
-          try {
-            listener.onChange(changeEvent);
-            transaction.setStatus(Transaction.SUCCESS);
-          } catch (Throwable ex) {
-            transaction.setStatus(ex);
-            Tracer.logError(ex);
-            logger.error("Failed to invoke config file change listener {}", listenerName, ex);
-          } finally {
-            transaction.complete();
-          }
-        }
-      });
+      m_listenerDispatcher.dispatch(listener, changeEvent);
     }
   }
 }
@@ -1,6 +1,7 @@
 package com.ctrip.framework.apollo.internals;
 
 import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.util.ImmutableProperties;
 import com.ctrip.framework.apollo.util.factory.PropertiesFactory;
 import java.util.List;
 import java.util.Properties;
@@ -49,6 +50,40 @@ public abstract class AbstractConfigRepository implements ConfigRepository {
    */
   protected abstract void sync();
 
+  /**
+   * 获得只读的配置，由本客户端的 Repository 和 Config 按引用共享，{@link #getConfig()} 返回的是它的可修改副本
+   *
+   * @return 只读的配置，Repository 不保存只读配置时返回 null
+   */
+  ImmutableProperties getImmutableConfig() {
+    return null;
+  }
+
+  /**
+   * 获得 Repository 的配置，保存只读配置的 Repository 直接共享它，其他 Repository 照旧调用 {@link #getConfig()}
+   */
+  static Properties sharedConfigOf(ConfigRepository repository) {
+    if (repository instanceof AbstractConfigRepository) {
+      ImmutableProperties properties = ((AbstractConfigRepository) repository).getImmutableConfig();
+      if (properties != null) {
+        return properties;
+      }
+    }
+    return repository.getConfig();
+  }
+
+  /**
+   * 复制为可修改的 Properties ，交给 {@link #getConfig()} 的调用方和本客户端以外的监听器
+   */
+  protected Properties mutableCopyOf(Properties properties) {
+    if (properties == null) {
+      return null;
+    }
+    Properties result = propertiesFactory.getPropertiesInstance();
+    result.putAll(properties);
+    return result;
+  }
+
   @Override
   public void addChangeListener(RepositoryChangeListener listener) {
     if (!m_listeners.contains(listener)) {
@@ -67,10 +102,13 @@ public abstract class AbstractConfigRepository implements ConfigRepository {
    * @param newProperties
    */
   protected void fireRepositoryChange(String namespace, Properties newProperties) {
+    // 只读配置由本客户端的只读监听器共享，其他监听器各自得到一份可修改的副本
+    boolean immutable = newProperties instanceof ImmutableProperties;
     for (RepositoryChangeListener listener : m_listeners) {
       try {
         // 触发监听器
-        listener.onRepositoryChange(namespace, newProperties);
+        listener.onRepositoryChange(namespace,
+            !immutable || listener instanceof ImmutablePropertiesListener ? newProperties : mutableCopyOf(newProperties));
       } catch (Throwable ex) {
         Tracer.logError(ex);
         logger.error("Failed to invoke repository change listener {}", listener.getClass(), ex);
@@ -0,0 +1,227 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.google.common.collect.MapMaker;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers change events to the listeners of one config or config file.
+ *
+ * <p>All dispatchers share one bounded thread pool. Each listener gets its events one at a time and in order, and
+ * the events queued while it is still busy are merged into one, so a slow listener sees a single up to date event
+ * instead of a backlog, and never holds more than one pool task.</p>
+ *
+ * @param <L> the listener type
+ * @param <E> the event type
+ */
+public abstract class ChangeListenerDispatcher<L, E> {
+  private static final Logger logger = LoggerFactory.getLogger(ChangeListenerDispatcher.class);
+
+  private static final AtomicInteger s_backlog = new AtomicInteger();
+  private static final AtomicLong s_dispatchedCount = new AtomicLong();
+  private static final AtomicLong s_coalescedCount = new AtomicLong();
+  private static final AtomicLong s_deliveredCount = new AtomicLong();
+  private static final AtomicLong s_failedCount = new AtomicLong();
+  private static final AtomicLong s_totalLatencyNanos = new AtomicLong();
+  private static final AtomicLong s_maxLatencyNanos = new AtomicLong();
+
+  private final String m_transactionType;
+  private final String m_listenerDescription;
+  //weak keys, so a listener dropped without being removed does not stay here, the queue only holds it weakly too;
+  //compared by identity like the listener lists
+  private final ConcurrentMap<L, ListenerQueue> m_queues = new MapMaker().weakKeys().makeMap();
+
+  /**
+   * @param transactionType     the tracer transaction type of the listener invocations
+   * @param listenerDescription what the listeners are, for the error log
+   */
+  protected ChangeListenerDispatcher(String transactionType, String listenerDescription) {
+    m_transactionType = transactionType;
+    m_listenerDescription = listenerDescription;
+  }
+
+  /**
+   * Queue the event for the listener, merging it into the event already queued for it if any.
+   */
+  public void dispatch(L listener, E event) {
+    s_dispatchedCount.incrementAndGet();
+    ListenerQueue queue = m_queues.get(listener);
+    if (queue == null) {
+      ListenerQueue newQueue = new ListenerQueue(listener);
+      queue = m_queues.putIfAbsent(listener, newQueue);
+      if (queue == null) {
+        queue = newQueue;
+      }
+    }
+    queue.offer(event);
+  }
+
+  /**
+   * Forget the listener, e.g. once it is removed from the config. An event already being delivered to it completes.
+   */
+  public void remove(L listener) {
+    m_queues.remove(listener);
+  }
+
+  /**
+   * @return whether the dispatcher keeps a queue for the listener
+   */
+  boolean hasQueue(L listener) {
+    return m_queues.containsKey(listener);
+  }
+
+  /**
+   * Merge two events queued for the same listener.
+   *
+   * @param previous the earlier event
+   * @param next     the later event
+   * @return the merged event, or null if the two cancel out
+   */
+  protected abstract E merge(E previous, E next);
+
+  protected abstract void onChange(L listener, E event);
+
+  /**
+   * @return the number of listeners with events waiting or being delivered
+   */
+  public static int getBacklog() {
+    return s_backlog.get();
+  }
+
+  public static long getDispatchedCount() {
+    return s_dispatchedCount.get();
+  }
+
+  /**
+   * @return the number of events merged into an event already queued
+   */
+  public static long getCoalescedCount() {
+    return s_coalescedCount.get();
+  }
+
+  public static long getDeliveredCount() {
+    return s_deliveredCount.get();
+  }
+
+  public static long getFailedCount() {
+    return s_failedCount.get();
+  }
+
+  /**
+   * @return the time spent in listeners, in nanoseconds
+   */
+  public static long getTotalLatencyNanos() {
+    return s_totalLatencyNanos.get();
+  }
+
+  /**
+   * @return the longest time spent in one listener invocation, in nanoseconds
+   */
+  public static long getMaxLatencyNanos() {
+    return s_maxLatencyNanos.get();
+  }
+
+  private final class ListenerQueue implements Runnable {
+    private final WeakReference<L> m_listener;
+    private final String m_listenerName;
+    private E m_pending;
+    private boolean m_scheduled;
+
+    private ListenerQueue(L listener) {
+      m_listener = new WeakReference<>(listener);
+      m_listenerName = listener.getClass().getName();
+    }
+
+    void offer(E event) {
+      synchronized (this) {
+        if (m_pending == null) {
+          m_pending = event;
+        } else {
+          s_coalescedCount.incrementAndGet();
+          //the two events may cancel out, e.g. a key added then deleted
+          m_pending = merge(m_pending, event);
+        }
+        if (m_pending == null || m_scheduled) {
+          return;
+        }
+        m_scheduled = true;
+      }
+      s_backlog.incrementAndGet();
+      ExecutorHolder.EXECUTOR.execute(this);
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        E event;
+        synchronized (this) {
+          event = m_pending;
+          m_pending = null;
+          if (event == null) {
+            m_scheduled = false;
+            s_backlog.decrementAndGet();
+            return;
+          }
+        }
+        deliver(event);
+      }
+    }
+
+    private void deliver(E event) {
+      L listener = m_listener.get();
+      if (listener == null) {
+        return;
+      }
+      Transaction transaction = Tracer.newTransaction(m_transactionType, m_listenerName);
+      long start = System.nanoTime();
+      try {
+        onChange(listener, event);
+        transaction.setStatus(Transaction.SUCCESS);
+      } catch (Throwable ex) {
+        s_failedCount.incrementAndGet();
+        transaction.setStatus(ex);
+        Tracer.logError(ex);
+        logger.error("Failed to invoke {} {}", m_listenerDescription, m_listenerName, ex);
+      } finally {
+        transaction.complete();
+        recordLatency(System.nanoTime() - start);
+      }
+    }
+  }
+
+  private static void recordLatency(long latencyNanos) {
+    s_deliveredCount.incrementAndGet();
+    s_totalLatencyNanos.addAndGet(latencyNanos);
+    long max;
+    while (latencyNanos > (max = s_maxLatencyNanos.get())) {
+      if (s_maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+        break;
+      }
+    }
+  }
+
+  private static class ExecutorHolder {
+    private static final Executor EXECUTOR = createExecutor();
+
+    private static Executor createExecutor() {
+      int threads = ApolloInjector.getInstance(ConfigUtil.class).getChangeListenerThreads();
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), ApolloThreadFactory.create("ConfigChangeListener", true));
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+}
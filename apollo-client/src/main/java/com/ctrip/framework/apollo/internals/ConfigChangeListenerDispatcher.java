@@ -0,0 +1,60 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.ConfigChangeListener;
+import com.ctrip.framework.apollo.enums.PropertyChangeType;
+import com.ctrip.framework.apollo.model.ConfigChange;
+import com.ctrip.framework.apollo.model.ConfigChangeEvent;
+import com.google.common.base.Objects;
+import com.google.common.collect.Maps;
+import java.util.Map;
+
+/**
+ * Dispatches the {@link ConfigChangeEvent}s of one namespace.
+ */
+class ConfigChangeListenerDispatcher extends ChangeListenerDispatcher<ConfigChangeListener, ConfigChangeEvent> {
+
+  ConfigChangeListenerDispatcher() {
+    super("Apollo.ConfigChangeListener", "config change listener");
+  }
+
+  /**
+   * Each key keeps the old value of the first event and the new value of the last one, keys changed back to their
+   * old value are dropped.
+   */
+  @Override
+  protected ConfigChangeEvent merge(ConfigChangeEvent previous, ConfigChangeEvent next) {
+    Map<String, ConfigChange> changes = Maps.newLinkedHashMap();
+    for (String key : previous.changedKeys()) {
+      changes.put(key, previous.getChange(key));
+    }
+    for (String key : next.changedKeys()) {
+      ConfigChange nextChange = next.getChange(key);
+      ConfigChange previousChange = changes.get(key);
+      if (previousChange == null) {
+        changes.put(key, nextChange);
+        continue;
+      }
+      String oldValue = previousChange.getOldValue();
+      String newValue = nextChange.getNewValue();
+      if (Objects.equal(oldValue, newValue)) {
+        changes.remove(key);
+        continue;
+      }
+      changes.put(key, new ConfigChange(next.getNamespace(), key, oldValue, newValue,
+          changeType(oldValue, newValue)));
+    }
+    return changes.isEmpty() ? null : new ConfigChangeEvent(next.getNamespace(), changes);
+  }
+
+  @Override
+  protected void onChange(ConfigChangeListener listener, ConfigChangeEvent event) {
+    listener.onChange(event);
+  }
+
+  static PropertyChangeType changeType(String oldValue, String newValue) {
+    if (oldValue == null) {
+      return PropertyChangeType.ADDED;
+    }
+    return newValue == null ? PropertyChangeType.DELETED : PropertyChangeType.MODIFIED;
+  }
+}
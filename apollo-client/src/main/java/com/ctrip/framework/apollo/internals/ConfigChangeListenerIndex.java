@@ -0,0 +1,201 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.ConfigChangeListener;
+import com.ctrip.framework.apollo.model.ConfigChangeEvent;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the listeners of one config interested in a change event.
+ *
+ * <p>Interested keys are kept in a hash map and interested key prefixes in a trie, so routing an event costs one
+ * lookup and one trie walk per changed key, whatever the number of listeners and prefixes. The index is immutable and
+ * rebuilt when a listener is added or removed.</p>
+ */
+final class ConfigChangeListenerIndex {
+  private static final int[] NO_ORDERS = new int[0];
+  private static final ConfigChangeListenerIndex EMPTY = build(Collections.<ConfigChangeListener>emptyList(),
+      Collections.<ConfigChangeListener, Set<String>>emptyMap(),
+      Collections.<ConfigChangeListener, Set<String>>emptyMap());
+
+  //listeners by registration order
+  private final ConfigChangeListener[] m_listeners;
+  private final boolean[] m_interestedInAllKeys;
+  private final List<ConfigChangeListener> m_allKeysListeners;
+  //key -> orders of the listeners interested in it
+  private final Map<String, int[]> m_keyListeners;
+  private final PrefixNode m_prefixRoot;
+
+  private ConfigChangeListenerIndex(ConfigChangeListener[] listeners, boolean[] interestedInAllKeys,
+      List<ConfigChangeListener> allKeysListeners, Map<String, int[]> keyListeners, PrefixNode prefixRoot) {
+    m_listeners = listeners;
+    m_interestedInAllKeys = interestedInAllKeys;
+    m_allKeysListeners = allKeysListeners;
+    m_keyListeners = keyListeners;
+    m_prefixRoot = prefixRoot;
+  }
+
+  static ConfigChangeListenerIndex empty() {
+    return EMPTY;
+  }
+
+  static ConfigChangeListenerIndex build(List<ConfigChangeListener> listeners,
+      Map<ConfigChangeListener, Set<String>> interestedKeys,
+      Map<ConfigChangeListener, Set<String>> interestedKeyPrefixes) {
+    ConfigChangeListener[] listenerArray = listeners.toArray(new ConfigChangeListener[0]);
+    boolean[] interestedInAllKeys = new boolean[listenerArray.length];
+    List<ConfigChangeListener> allKeysListeners = Lists.newArrayList();
+    Map<String, List<Integer>> keyListeners = Maps.newHashMap();
+    PrefixNodeBuilder prefixRoot = new PrefixNodeBuilder();
+
+    for (int order = 0; order < listenerArray.length; order++) {
+      ConfigChangeListener listener = listenerArray[order];
+      Set<String> keys = interestedKeys.get(listener);
+      Set<String> prefixes = interestedKeyPrefixes.get(listener);
+      if ((keys == null || keys.isEmpty()) && (prefixes == null || prefixes.isEmpty())) {
+        // no interested keys means interested in all keys
+        interestedInAllKeys[order] = true;
+        allKeysListeners.add(listener);
+        continue;
+      }
+      if (keys != null) {
+        for (String key : keys) {
+          List<Integer> orders = keyListeners.get(key);
+          if (orders == null) {
+            orders = Lists.newArrayList();
+            keyListeners.put(key, orders);
+          }
+          orders.add(order);
+        }
+      }
+      if (prefixes != null) {
+        for (String prefix : prefixes) {
+          prefixRoot.insert(prefix, order);
+        }
+      }
+    }
+
+    Map<String, int[]> keyListenerArrays = Maps.newHashMapWithExpectedSize(keyListeners.size());
+    for (Map.Entry<String, List<Integer>> entry : keyListeners.entrySet()) {
+      keyListenerArrays.put(entry.getKey(), toArray(entry.getValue()));
+    }
+
+    return new ConfigChangeListenerIndex(listenerArray, interestedInAllKeys,
+        Collections.unmodifiableList(allKeysListeners), keyListenerArrays, prefixRoot.build());
+  }
+
+  /**
+   * @return the listeners interested in any of the changed keys, in registration order
+   */
+  List<ConfigChangeListener> getInterestedListeners(ConfigChangeEvent changeEvent) {
+    if (m_allKeysListeners.size() == m_listeners.length) {
+      return m_allKeysListeners;
+    }
+    boolean[] matched = null;
+    for (String changedKey : changeEvent.changedKeys()) {
+      int[] orders = m_keyListeners.get(changedKey);
+      if (orders != null) {
+        matched = mark(matched, orders);
+      }
+      PrefixNode node = m_prefixRoot;
+      int i = 0;
+      while (node != null) {
+        if (node.orders.length > 0) {
+          matched = mark(matched, node.orders);
+        }
+        node = i < changedKey.length() ? node.child(changedKey.charAt(i++)) : null;
+      }
+    }
+    if (matched == null) {
+      return m_allKeysListeners;
+    }
+
+    List<ConfigChangeListener> interested = Lists.newArrayList();
+    for (int order = 0; order < m_listeners.length; order++) {
+      if (matched[order] || m_interestedInAllKeys[order]) {
+        interested.add(m_listeners[order]);
+      }
+    }
+    return interested;
+  }
+
+  private boolean[] mark(boolean[] matched, int[] orders) {
+    if (matched == null) {
+      matched = new boolean[m_listeners.length];
+    }
+    for (int order : orders) {
+      matched[order] = true;
+    }
+    return matched;
+  }
+
+  private static int[] toArray(List<Integer> values) {
+    if (values == null || values.isEmpty()) {
+      return NO_ORDERS;
+    }
+    int[] array = new int[values.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = values.get(i);
+    }
+    return array;
+  }
+
+  /**
+   * A trie node with its child chars sorted, so a lookup is a binary search on a char array.
+   */
+  private static final class PrefixNode {
+    private final char[] chars;
+    private final PrefixNode[] children;
+    //orders of the listeners interested in the prefix ending at this node
+    private final int[] orders;
+
+    private PrefixNode(char[] chars, PrefixNode[] children, int[] orders) {
+      this.chars = chars;
+      this.children = children;
+      this.orders = orders;
+    }
+
+    PrefixNode child(char c) {
+      int index = Arrays.binarySearch(chars, c);
+      return index < 0 ? null : children[index];
+    }
+  }
+
+  private static final class PrefixNodeBuilder {
+    private final Map<Character, PrefixNodeBuilder> children = Maps.newTreeMap();
+    private List<Integer> orders;
+
+    void insert(String prefix, int order) {
+      PrefixNodeBuilder node = this;
+      for (int i = 0; i < prefix.length(); i++) {
+        PrefixNodeBuilder child = node.children.get(prefix.charAt(i));
+        if (child == null) {
+          child = new PrefixNodeBuilder();
+          node.children.put(prefix.charAt(i), child);
+        }
+        node = child;
+      }
+      if (node.orders == null) {
+        node.orders = Lists.newArrayList();
+      }
+      node.orders.add(order);
+    }
+
+    PrefixNode build() {
+      char[] chars = new char[children.size()];
+      PrefixNode[] childNodes = new PrefixNode[children.size()];
+      int i = 0;
+      for (Map.Entry<Character, PrefixNodeBuilder> entry : children.entrySet()) {
+        chars[i] = entry.getKey();
+        childNodes[i] = entry.getValue().build();
+        i++;
+      }
+      return new PrefixNode(chars, childNodes, toArray(orders));
+    }
+  }
+}
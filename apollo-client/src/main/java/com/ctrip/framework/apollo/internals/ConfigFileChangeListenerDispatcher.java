@@ -0,0 +1,35 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.ConfigFileChangeListener;
+import com.ctrip.framework.apollo.model.ConfigFileChangeEvent;
+import com.google.common.base.Objects;
+
+/**
+ * Dispatches the {@link ConfigFileChangeEvent}s of one config file.
+ */
+class ConfigFileChangeListenerDispatcher
+    extends ChangeListenerDispatcher<ConfigFileChangeListener, ConfigFileChangeEvent> {
+
+  ConfigFileChangeListenerDispatcher() {
+    super("Apollo.ConfigFileChangeListener", "config file change listener");
+  }
+
+  /**
+   * Keeps the old content of the first event and the new content of the last one.
+   */
+  @Override
+  protected ConfigFileChangeEvent merge(ConfigFileChangeEvent previous, ConfigFileChangeEvent next) {
+    String oldValue = previous.getOldValue();
+    String newValue = next.getNewValue();
+    if (Objects.equal(oldValue, newValue)) {
+      return null;
+    }
+    return new ConfigFileChangeEvent(next.getNamespace(), oldValue, newValue,
+        ConfigChangeListenerDispatcher.changeType(oldValue, newValue));
+  }
+
+  @Override
+  protected void onChange(ConfigFileChangeListener listener, ConfigFileChangeEvent event) {
+    listener.onChange(event);
+  }
+}
@@ -3,10 +3,15 @@ package com.ctrip.framework.apollo.internals;
 import com.ctrip.framework.apollo.core.ServiceNameConsts;
 import com.ctrip.framework.foundation.Foundation;
 import java.lang.reflect.Type;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -16,6 +21,8 @@ import com.ctrip.framework.apollo.build.ApolloInjector;
 import com.ctrip.framework.apollo.core.dto.ServiceDTO;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.metrics.MetricSet;
+import com.ctrip.framework.apollo.metrics.MetricsRegistry;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
 import com.ctrip.framework.apollo.util.ConfigUtil;
@@ -27,6 +34,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.escape.Escaper;
 import com.google.common.net.UrlEscapers;
 import com.google.gson.reflect.TypeToken;
@@ -36,6 +44,7 @@ public class ConfigServiceLocator {
   private HttpUtil m_httpUtil;
   private ConfigUtil m_configUtil;
   private AtomicReference<List<ServiceDTO>> m_configServices;
+  private final ConcurrentMap<String, ConfigServiceScore> m_serviceScores;
   private Type m_responseType;
   private ScheduledExecutorService m_executorService;
   private static final Joiner.MapJoiner MAP_JOINER = Joiner.on("&").withKeyValueSeparator("=");
@@ -47,12 +56,14 @@ public class ConfigServiceLocator {
   public ConfigServiceLocator() {
     List<ServiceDTO> initial = Lists.newArrayList();
     m_configServices = new AtomicReference<>(initial);
+    m_serviceScores = new ConcurrentHashMap<>();
     m_responseType = new TypeToken<List<ServiceDTO>>() {
     }.getType();
     m_httpUtil = ApolloInjector.getInstance(HttpUtil.class);
     m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
     this.m_executorService = Executors.newScheduledThreadPool(1,
         ApolloThreadFactory.create("ConfigServiceLocator", true));
+    ApolloInjector.getInstance(MetricsRegistry.class).register(new ServiceScoreMetrics());
     initConfigServices();
   }
 
@@ -117,6 +128,111 @@ public class ConfigServiceLocator {
     return m_configServices.get();
   }
 
+  /**
+   * Order the config services for one request: the first one is the better scored of two random picks
+   * (power of two choices), the others follow in random order as fallbacks.
+   *
+   * @param services the services, usually from {@link #getConfigServices()}
+   * @return a new list
+   */
+  public List<ServiceDTO> rankConfigServices(List<ServiceDTO> services) {
+    List<ServiceDTO> ranked = Lists.newArrayList(services);
+    Collections.shuffle(ranked, ThreadLocalRandom.current());
+    if (ranked.size() > 1 && costOf(ranked.get(1)) < costOf(ranked.get(0))) {
+      Collections.swap(ranked, 0, 1);
+    }
+    return ranked;
+  }
+
+  /**
+   * Choose one config service by power of two choices.
+   *
+   * @param services the services, usually from {@link #getConfigServices()}
+   * @return the better scored of two random services
+   */
+  public ServiceDTO chooseConfigService(List<ServiceDTO> services) {
+    int size = services.size();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int firstIndex = random.nextInt(size);
+    if (size == 1) {
+      return services.get(firstIndex);
+    }
+    int secondIndex = random.nextInt(size - 1);
+    if (secondIndex >= firstIndex) {
+      secondIndex++;
+    }
+    ServiceDTO first = services.get(firstIndex);
+    ServiceDTO second = services.get(secondIndex);
+    return costOf(second) < costOf(first) ? second : first;
+  }
+
+  /**
+   * Record a completed request and its latency.
+   */
+  public void recordLatency(ServiceDTO service, long latencyNanos) {
+    scoreOf(service).recordLatency(latencyNanos);
+  }
+
+  /**
+   * Record a completed request whose latency says nothing about the service, e.g. a long poll.
+   */
+  public void recordSuccess(ServiceDTO service) {
+    scoreOf(service).recordSuccess();
+  }
+
+  /**
+   * Record a failed request.
+   */
+  public void recordFailure(ServiceDTO service) {
+    scoreOf(service).recordFailure();
+  }
+
+  /**
+   * @return the delay after which a second request may be sent to another service, i.e. the recent p95 latency of the
+   * given service, or -1 if there are not enough samples yet
+   */
+  public long getHedgeDelayNanos(ServiceDTO service) {
+    return scoreOf(service).getLatencyP95Nanos();
+  }
+
+  /**
+   * @return the scores of the known config services, keyed by homepage url
+   */
+  public Map<String, ConfigServiceScore> getServiceScores() {
+    return Collections.<String, ConfigServiceScore>unmodifiableMap(m_serviceScores);
+  }
+
+  private double costOf(ServiceDTO service) {
+    ConfigServiceScore score = scoreOf(service);
+    if (score.getLatencyNanos() >= 0) {
+      return score.cost(0);
+    }
+    //an unmeasured service is assumed to be as fast as the measured ones on average
+    double totalLatencyNanos = 0;
+    int measured = 0;
+    for (ConfigServiceScore other : m_serviceScores.values()) {
+      double latencyNanos = other.getLatencyNanos();
+      if (latencyNanos >= 0) {
+        totalLatencyNanos += latencyNanos;
+        measured++;
+      }
+    }
+    return score.cost(measured == 0 ? 0 : totalLatencyNanos / measured);
+  }
+
+  private ConfigServiceScore scoreOf(ServiceDTO service) {
+    String key = service.getHomepageUrl();
+    ConfigServiceScore score = m_serviceScores.get(key);
+    if (score == null) {
+      ConfigServiceScore newScore = new ConfigServiceScore();
+      score = m_serviceScores.putIfAbsent(key, newScore);
+      if (score == null) {
+        score = newScore;
+      }
+    }
+    return score;
+  }
+
   private boolean tryUpdateConfigServices() {
     try {
       updateConfigServices();
@@ -181,6 +297,11 @@ public class ConfigServiceLocator {
 
   private void setConfigServices(List<ServiceDTO> services) {
     m_configServices.set(services);
+    Set<String> homepageUrls = Sets.newHashSet();
+    for (ServiceDTO service : services) {
+      homepageUrls.add(service.getHomepageUrl());
+    }
+    m_serviceScores.keySet().retainAll(homepageUrls);
     logConfigServices(services);
   }
 
@@ -207,4 +328,19 @@ public class ConfigServiceLocator {
   private void logConfigService(String serviceUrl) {
     Tracer.logEvent("Apollo.Config.Services", serviceUrl);
   }
+
+  private class ServiceScoreMetrics implements MetricSet {
+    @Override
+    public Map<String, Number> getMetrics() {
+      Map<String, Number> metrics = Maps.newHashMap();
+      for (Map.Entry<String, ConfigServiceScore> entry : m_serviceScores.entrySet()) {
+        String prefix = "configService." + entry.getKey();
+        ConfigServiceScore score = entry.getValue();
+        metrics.put(prefix + ".latencyMillis", score.getLatencyMillis());
+        metrics.put(prefix + ".latencyP95Millis", score.getLatencyP95Millis());
+        metrics.put(prefix + ".errorRate", score.getErrorRate());
+      }
+      return metrics;
+    }
+  }
 }
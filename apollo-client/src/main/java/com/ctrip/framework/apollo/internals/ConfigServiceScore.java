@@ -0,0 +1,104 @@
+package com.ctrip.framework.apollo.internals;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and error score of one config service, kept by {@link ConfigServiceLocator}.
+ *
+ * <p>Latency and error rate are exponentially weighted moving averages, so a node that slows down or starts failing
+ * loses its share of traffic within a few requests. The recent latencies are also kept to estimate the p95 used as the
+ * hedging delay.</p>
+ */
+public final class ConfigServiceScore {
+  private static final double ALPHA = 0.2;
+  private static final int SAMPLE_SIZE = 64;
+  private static final int MIN_SAMPLES_FOR_PERCENTILE = 16;
+  /**
+   * an error counts as much as this much extra latency when comparing services
+   */
+  private static final double ERROR_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private volatile double m_latencyNanos = -1;//-1 means no sample yet
+  private volatile double m_errorRate = 0;
+  private final long[] m_samples = new long[SAMPLE_SIZE];
+  private int m_sampleCount = 0;
+  private int m_sampleIndex = 0;
+
+  synchronized void recordLatency(long latencyNanos) {
+    m_latencyNanos = m_latencyNanos < 0 ? latencyNanos : ALPHA * latencyNanos + (1 - ALPHA) * m_latencyNanos;
+    m_errorRate = (1 - ALPHA) * m_errorRate;
+    m_samples[m_sampleIndex] = latencyNanos;
+    m_sampleIndex = (m_sampleIndex + 1) % SAMPLE_SIZE;
+    if (m_sampleCount < SAMPLE_SIZE) {
+      m_sampleCount++;
+    }
+  }
+
+  synchronized void recordSuccess() {
+    m_errorRate = (1 - ALPHA) * m_errorRate;
+  }
+
+  synchronized void recordFailure() {
+    m_errorRate = ALPHA + (1 - ALPHA) * m_errorRate;
+  }
+
+  /**
+   * Lower is better.
+   *
+   * @param unmeasuredLatencyNanos the latency assumed when there is no sample yet, e.g. the mean of the other services,
+   * so that a service only reached by long polls is neither always preferred nor never tried
+   */
+  double cost(double unmeasuredLatencyNanos) {
+    double latencyNanos = m_latencyNanos;
+    return (latencyNanos < 0 ? unmeasuredLatencyNanos : latencyNanos) + m_errorRate * ERROR_PENALTY_NANOS;
+  }
+
+  /**
+   * @return the moving average latency in nanoseconds, or -1 if no request has completed yet
+   */
+  double getLatencyNanos() {
+    return m_latencyNanos;
+  }
+
+  /**
+   * @return the 95th percentile of the recent latencies, or -1 if there are not enough samples
+   */
+  synchronized long getLatencyP95Nanos() {
+    if (m_sampleCount < MIN_SAMPLES_FOR_PERCENTILE) {
+      return -1;
+    }
+    long[] sorted = Arrays.copyOf(m_samples, m_sampleCount);
+    Arrays.sort(sorted);
+    return sorted[(int) Math.ceil(0.95 * m_sampleCount) - 1];
+  }
+
+  /**
+   * @return the moving average latency in milliseconds, or -1 if no request has completed yet
+   */
+  public double getLatencyMillis() {
+    double latencyNanos = m_latencyNanos;
+    return latencyNanos < 0 ? -1 : latencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * @return the 95th percentile of the recent latencies in milliseconds, or -1 if there are not enough samples
+   */
+  public double getLatencyP95Millis() {
+    long p95 = getLatencyP95Nanos();
+    return p95 < 0 ? -1 : (double) p95 / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * @return the moving average error rate, between 0 and 1
+   */
+  public double getErrorRate() {
+    return m_errorRate;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ConfigServiceScore{latencyMillis=%.2f, latencyP95Millis=%.2f, errorRate=%.3f}",
+        getLatencyMillis(), getLatencyP95Millis(), getErrorRate());
+  }
+}
@@ -4,6 +4,7 @@ import com.ctrip.framework.apollo.enums.ConfigSourceType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,12 +16,15 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.ctrip.framework.apollo.build.ApolloInjector;
 import com.ctrip.framework.apollo.core.utils.ClassLoaderUtil;
 import com.ctrip.framework.apollo.enums.PropertyChangeType;
 import com.ctrip.framework.apollo.model.ConfigChange;
 import com.ctrip.framework.apollo.model.ConfigChangeEvent;
 import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.util.ConfigUtil;
 import com.ctrip.framework.apollo.util.ExceptionUtil;
+import com.ctrip.framework.apollo.util.ImmutableProperties;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.RateLimiter;
 
@@ -28,13 +32,18 @@ import com.google.common.util.concurrent.RateLimiter;
 /**
  * @author Jason Song(song_s@ctrip.com)
  */
-public class DefaultConfig extends AbstractConfig implements RepositoryChangeListener {
+public class DefaultConfig extends AbstractConfig implements RepositoryChangeListener,
+    ImmutablePropertiesListener {
   private static final Logger logger = LoggerFactory.getLogger(DefaultConfig.class);
   private final String m_namespace;
   private final Properties m_resourceProperties;
   private final AtomicReference<Properties> m_configProperties;
   private final ConfigRepository m_configRepository;
   private final RateLimiter m_warnLogRateLimiter;
+  private final boolean m_precomputedLookup;
+  private final boolean m_liveSystemProperties;
+  //all sources merged for the current config version, only used when precomputed lookup is enabled
+  private volatile Map<String, String> m_lookupTable;
 
   private volatile ConfigSourceType m_sourceType = ConfigSourceType.NONE;
 
@@ -50,12 +59,16 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
     m_configRepository = configRepository;
     m_configProperties = new AtomicReference<>();
     m_warnLogRateLimiter = RateLimiter.create(0.017); // 1 warning log output per minute
+    ConfigUtil configUtil = ApolloInjector.getInstance(ConfigUtil.class);
+    m_precomputedLookup = configUtil.isPrecomputedLookupEnabled();
+    m_liveSystemProperties = configUtil.isPrecomputedLookupLiveSystemPropertiesEnabled();
     initialize();
   }
 
   private void initialize() {
     try {
-      updateConfig(m_configRepository.getConfig(), m_configRepository.getSourceType());
+      updateConfig(AbstractConfigRepository.sharedConfigOf(m_configRepository),
+          m_configRepository.getSourceType());
     } catch (Throwable ex) {
       Tracer.logError(ex);
       logger.warn("Init Apollo Local Config failed - namespace: {}, reason: {}.",
@@ -69,6 +82,25 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
 
   @Override
   public String getProperty(String key, String defaultValue) {
+    String value;
+    Map<String, String> lookupTable = m_lookupTable;
+    if (lookupTable != null) {
+      value = m_liveSystemProperties ? System.getProperty(key) : null;
+      if (value == null) {
+        value = lookupTable.get(key);
+      }
+    } else {
+      value = getPropertyFromSources(key);
+    }
+
+    if (value == null && m_configProperties.get() == null && m_warnLogRateLimiter.tryAcquire()) {
+      logger.warn("Could not load config for namespace {} from Apollo, please check whether the configs are released in Apollo! Return default value now!", m_namespace);
+    }
+
+    return value == null ? defaultValue : value;
+  }
+
+  private String getPropertyFromSources(String key) {
     // step 1: check system properties, i.e. -Dkey=value
     String value = System.getProperty(key);
 
@@ -91,11 +123,29 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
       value = m_resourceProperties.getProperty(key);
     }
 
-    if (value == null && m_configProperties.get() == null && m_warnLogRateLimiter.tryAcquire()) {
-      logger.warn("Could not load config for namespace {} from Apollo, please check whether the configs are released in Apollo! Return default value now!", m_namespace);
-    }
+    return value;
+  }
 
-    return value == null ? defaultValue : value;
+  /**
+   * Merge the sources in reverse order of precedence, so each key ends up with the value getPropertyFromSources
+   * would return at this moment.
+   */
+  private Map<String, String> buildLookupTable(Properties configProperties) {
+    Map<String, String> lookupTable = new HashMap<>();
+    putAll(lookupTable, m_resourceProperties);
+    lookupTable.putAll(System.getenv());
+    putAll(lookupTable, configProperties);
+    putAll(lookupTable, System.getProperties());
+    return ImmutableMap.copyOf(lookupTable);
+  }
+
+  private void putAll(Map<String, String> lookupTable, Properties properties) {
+    if (properties == null) {
+      return;
+    }
+    for (String name : properties.stringPropertyNames()) {
+      lookupTable.put(name, properties.getProperty(name));
+    }
   }
 
   @Override
@@ -133,8 +183,7 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
     }
 
     ConfigSourceType sourceType = m_configRepository.getSourceType();
-    Properties newConfigProperties = propertiesFactory.getPropertiesInstance();
-    newConfigProperties.putAll(newProperties);
+    Properties newConfigProperties = ImmutableProperties.copyOf(newProperties);
 
     Map<String, ConfigChange> actualChanges = updateAndCalcConfigChanges(newConfigProperties, sourceType);
 
@@ -150,6 +199,9 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
 
   private void updateConfig(Properties newConfigProperties, ConfigSourceType sourceType) {
     m_configProperties.set(newConfigProperties);
+    if (m_precomputedLookup) {
+      m_lookupTable = buildLookupTable(newConfigProperties);
+    }
     m_sourceType = sourceType;
   }
 
@@ -171,6 +223,7 @@ public class DefaultConfig extends AbstractConfig implements RepositoryChangeLis
     //2. update m_configProperties
     updateConfig(newConfigProperties, sourceType);
     clearConfigCache();
+    refreshPropertyHandles();
 
     //3. use getProperty to update configChange's new value and calc the final changes
     for (ConfigChange change : configChanges) {
@@ -0,0 +1,10 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.util.ImmutableProperties;
+
+/**
+ * A {@link RepositoryChangeListener} of this client that only reads the properties it is given, so the repository
+ * hands it the shared {@link ImmutableProperties} of the release instead of a mutable copy.
+ */
+interface ImmutablePropertiesListener {
+}
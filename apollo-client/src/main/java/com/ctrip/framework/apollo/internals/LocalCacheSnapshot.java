@@ -0,0 +1,157 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.util.ImmutableProperties;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Binary local cache of one namespace, the opt-in replacement of the .properties cache file.
+ *
+ * <p>Layout, big endian, strings are an int byte length (-1 for null) followed by UTF-8 bytes:</p>
+ * <pre>
+ * int magic, int version,
+ * int entryCount, (string key, string value) * entryCount,
+ * long crc32 of all the bytes before
+ * </pre>
+ *
+ * <p>The file is written to a temp file and renamed over the old one, so a reader sees either the old or the new
+ * snapshot. It is read into a heap buffer, not mapped, so the file is never held open and can be replaced at any time
+ * on every platform, and decoded straight into {@link ImmutableProperties}.</p>
+ */
+final class LocalCacheSnapshot {
+  private static final int MAGIC = 0x41504f4c;//APOL
+  //version 1 also had the persist time, release key and notification ids, which were never read back
+  private static final int VERSION = 2;
+  private static final int CRC_BUFFER_SIZE = 8192;
+
+  private final ImmutableProperties m_properties;
+
+  LocalCacheSnapshot(ImmutableProperties properties) {
+    m_properties = properties;
+  }
+
+  ImmutableProperties getProperties() {
+    return m_properties;
+  }
+
+  /**
+   * Write this snapshot to the file atomically.
+   *
+   * @param sortKeys whether to write the entries sorted by key instead of in the properties' order
+   */
+  void writeTo(File file, boolean sortKeys) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    String[] keys = m_properties.stringPropertyNames().toArray(new String[0]);
+    if (sortKeys) {
+      Arrays.sort(keys);
+    }
+    out.writeInt(keys.length);
+    for (String key : keys) {
+      writeString(out, key);
+      writeString(out, m_properties.getProperty(key));
+    }
+    CRC32 crc = new CRC32();
+    crc.update(bytes.toByteArray());
+    out.writeLong(crc.getValue());
+    out.flush();
+
+    File tmpFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+    try {
+      try (FileOutputStream fileOut = new FileOutputStream(tmpFile)) {
+        bytes.writeTo(fileOut);
+        fileOut.getChannel().force(true);
+      }
+      try {
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException ex) {
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmpFile.toPath());
+    }
+  }
+
+  /**
+   * Read a snapshot from the file.
+   *
+   * @throws IOException if the file could not be read, or is not a complete snapshot
+   */
+  static LocalCacheSnapshot readFrom(File file) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    try {
+      return decode(buffer);
+    } catch (BufferUnderflowException | IllegalArgumentException | NullPointerException ex) {
+      throw new IOException(String.format("Corrupted local cache snapshot %s", file.getAbsolutePath()), ex);
+    }
+  }
+
+  private static LocalCacheSnapshot decode(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 8 + 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      throw new IOException("Not a local cache snapshot of version " + VERSION);
+    }
+    checkCrc(buffer.duplicate());
+
+    byte[] scratch = new byte[256];
+    int entryCount = buffer.getInt();
+    ImmutableProperties.Builder properties = new ImmutableProperties.Builder(entryCount);
+    for (int i = 0; i < entryCount; i++) {
+      properties.put(readString(buffer, scratch), readString(buffer, scratch));
+    }
+    return new LocalCacheSnapshot(properties.build());
+  }
+
+  private static void checkCrc(ByteBuffer buffer) throws IOException {
+    //through Buffer, as the covariant overrides of JDK 9+ do not exist on JDK 7 and 8
+    ((Buffer) buffer).rewind();
+    int length = buffer.limit() - 8;
+    if (length < 0) {
+      throw new IOException("Truncated local cache snapshot");
+    }
+    CRC32 crc = new CRC32();
+    byte[] chunk = new byte[CRC_BUFFER_SIZE];
+    while (buffer.position() < length) {
+      int size = Math.min(chunk.length, length - buffer.position());
+      buffer.get(chunk, 0, size);
+      crc.update(chunk, 0, size);
+    }
+    if (crc.getValue() != buffer.getLong()) {
+      throw new IOException("Local cache snapshot checksum mismatch");
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer, byte[] scratch) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+    buffer.get(bytes, 0, length);
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+}
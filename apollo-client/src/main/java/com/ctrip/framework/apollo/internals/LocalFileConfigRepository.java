@@ -11,18 +11,25 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.ctrip.framework.apollo.build.ApolloInjector;
 import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.core.utils.ClassLoaderUtil;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.metrics.Counter;
+import com.ctrip.framework.apollo.metrics.MetricsRegistry;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
 import com.ctrip.framework.apollo.util.ConfigUtil;
 import com.ctrip.framework.apollo.util.ExceptionUtil;
+import com.ctrip.framework.apollo.util.ImmutableProperties;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 
@@ -30,17 +37,34 @@ import com.google.common.base.Preconditions;
  * @author Jason Song(song_s@ctrip.com)
  */
 public class LocalFileConfigRepository extends AbstractConfigRepository
-    implements RepositoryChangeListener {
+    implements RepositoryChangeListener, ImmutablePropertiesListener {
   private static final Logger logger = LoggerFactory.getLogger(LocalFileConfigRepository.class);
   private static final String CONFIG_DIR = "/config-cache";
+  private static final ExecutorService m_persistExecutorService;
   private final String m_namespace;
   private File m_baseDir;
   private final ConfigUtil m_configUtil;
-  private volatile Properties m_fileProperties;
+  private final boolean m_binaryCacheEnabled;
+  //times the config is served from the local cache file because the upstream failed
+  private final Counter m_localCacheFallbackCounter;
+  /**
+   * the latest snapshot not yet written by the persist thread, older ones are skipped
+   */
+  private final AtomicReference<LocalCacheSnapshot> m_pendingSnapshot = new AtomicReference<>();
+  private volatile ImmutableProperties m_fileProperties;
+  /**
+   * when the loaded local cache was last written or confirmed by the upstream
+   */
+  private volatile long m_localCacheTimestamp;
   private volatile ConfigRepository m_upstream;
 
   private volatile ConfigSourceType m_sourceType = ConfigSourceType.LOCAL;
 
+  static {
+    m_persistExecutorService = Executors.newSingleThreadExecutor(
+        ApolloThreadFactory.create("LocalFileConfigRepository-Persist", true));
+  }
+
   /**
    * Constructor.
    *
@@ -53,6 +77,8 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
   public LocalFileConfigRepository(String namespace, ConfigRepository upstream) {
     m_namespace = namespace;
     m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
+    m_binaryCacheEnabled = m_configUtil.isBinaryLocalCacheEnabled();
+    m_localCacheFallbackCounter = ApolloInjector.getInstance(MetricsRegistry.class).counter("localCache.fallback");
     this.setLocalCacheDir(findLocalCacheDir(), false);
     this.setUpstreamRepository(upstream);
     this.trySync();
@@ -85,12 +111,15 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
 
   @Override
   public Properties getConfig() {
+    return mutableCopyOf(getImmutableConfig());
+  }
+
+  @Override
+  ImmutableProperties getImmutableConfig() {
     if (m_fileProperties == null) {
       sync();
     }
-    Properties result = propertiesFactory.getPropertiesInstance();
-    result.putAll(m_fileProperties);
-    return result;
+    return m_fileProperties;
   }
 
   @Override
@@ -103,8 +132,22 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
       m_upstream.removeChangeListener(this);
     }
     m_upstream = upstreamConfigRepository;
-    trySyncFromUpstream();
+    //listen first so that a change loaded in background between the two calls is not missed
     upstreamConfigRepository.addChangeListener(this);
+    trySyncFromUpstream();
+  }
+
+  /**
+   * Whether the config was loaded from a local cache which is fresh enough to be served while the upstream is still
+   * loading.
+   *
+   * @param maxStalenessMillis how long ago the cache may have been last confirmed by the upstream, 0 means no limit
+   */
+  public boolean hasLocalCache(long maxStalenessMillis) {
+    if (m_fileProperties == null || m_sourceType != ConfigSourceType.LOCAL) {
+      return false;
+    }
+    return maxStalenessMillis <= 0 || System.currentTimeMillis() - m_localCacheTimestamp <= maxStalenessMillis;
   }
 
   @Override
@@ -115,12 +158,12 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
   @Override
   public void onRepositoryChange(String namespace, Properties newProperties) {
     if (newProperties.equals(m_fileProperties)) {
+      updateFileProperties(newProperties, m_upstream.getSourceType());
       return;
     }
-    Properties newFileProperties = propertiesFactory.getPropertiesInstance();
-    newFileProperties.putAll(newProperties);
+    ImmutableProperties newFileProperties = ImmutableProperties.copyOf(newProperties);
     updateFileProperties(newFileProperties, m_upstream.getSourceType());
-    this.fireRepositoryChange(namespace, newProperties);
+    this.fireRepositoryChange(namespace, newFileProperties);
   }
 
   @Override
@@ -138,6 +181,7 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
       transaction.addData("Basedir", m_baseDir.getAbsolutePath());
       m_fileProperties = this.loadFromLocalCacheFile(m_baseDir, m_namespace);
       m_sourceType = ConfigSourceType.LOCAL;
+      m_localCacheFallbackCounter.inc();
       transaction.setStatus(Transaction.SUCCESS);
     } catch (Throwable ex) {
       Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
@@ -160,7 +204,7 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
       return false;
     }
     try {
-      updateFileProperties(m_upstream.getConfig(), m_upstream.getSourceType());
+      updateFileProperties(sharedConfigOf(m_upstream), m_upstream.getSourceType());
       return true;
     } catch (Throwable ex) {
       Tracer.logError(ex);
@@ -174,15 +218,39 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
   private synchronized void updateFileProperties(Properties newProperties, ConfigSourceType sourceType) {
     this.m_sourceType = sourceType;
     if (newProperties.equals(m_fileProperties)) {
+      if (m_configUtil.isStaleWhileRevalidateEnabled()) {
+        touchLocalCacheFile(m_baseDir, m_namespace);
+      }
       return;
     }
-    this.m_fileProperties = newProperties;
-    persistLocalCacheFile(m_baseDir, m_namespace);
+    this.m_fileProperties = ImmutableProperties.copyOf(newProperties);
+    if (m_binaryCacheEnabled) {
+      persistLocalCacheSnapshotAsync(m_baseDir, m_namespace);
+    } else {
+      persistLocalCacheFile(m_baseDir, m_namespace);
+    }
   }
 
-  private Properties loadFromLocalCacheFile(File baseDir, String namespace) throws IOException {
+  private ImmutableProperties loadFromLocalCacheFile(File baseDir, String namespace) throws IOException {
     Preconditions.checkNotNull(baseDir, "Basedir cannot be null");
 
+    if (m_binaryCacheEnabled) {
+      File snapshotFile = assembleLocalCacheSnapshotFile(baseDir, namespace);
+      if (snapshotFile.isFile()) {
+        try {
+          LocalCacheSnapshot snapshot = LocalCacheSnapshot.readFrom(snapshotFile);
+          m_localCacheTimestamp = snapshotFile.lastModified();
+          logger.debug("Loading local config snapshot {} successfully!", snapshotFile.getAbsolutePath());
+          return snapshot.getProperties();
+        } catch (IOException ex) {
+          // fall back to the properties file, e.g. a corrupted snapshot
+          Tracer.logError(ex);
+          logger.warn("Loading local config snapshot {} failed, reason: {}", snapshotFile.getAbsolutePath(),
+              ExceptionUtil.getDetailMessage(ex));
+        }
+      }
+    }
+
     File file = assembleLocalCacheFile(baseDir, namespace);
     Properties properties = null;
 
@@ -193,6 +261,7 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
         in = new FileInputStream(file);
         properties = propertiesFactory.getPropertiesInstance();
         properties.load(in);
+        m_localCacheTimestamp = file.lastModified();
         logger.debug("Loading local config file {} successfully!", file.getAbsolutePath());
       } catch (IOException ex) {
         Tracer.logError(ex);
@@ -212,7 +281,7 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
           String.format("Cannot read from local cache file %s", file.getAbsolutePath()));
     }
 
-    return properties;
+    return ImmutableProperties.copyOf(properties);
   }
 
   void persistLocalCacheFile(File baseDir, String namespace) {
@@ -249,6 +318,66 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
     }
   }
 
+  /**
+   * Persist the current properties as a {@link LocalCacheSnapshot} on the persist thread, so the caller never waits
+   * for the disk. If several changes arrive before the thread gets to it, only the latest one is written.
+   */
+  void persistLocalCacheSnapshotAsync(final File baseDir, final String namespace) {
+    if (baseDir == null) {
+      return;
+    }
+    if (m_pendingSnapshot.getAndSet(new LocalCacheSnapshot(m_fileProperties)) != null) {
+      //a persist task is already queued and will pick up this snapshot
+      return;
+    }
+    m_persistExecutorService.submit(new Runnable() {
+      @Override
+      public void run() {
+        persistLocalCacheSnapshot(baseDir, namespace, m_pendingSnapshot.getAndSet(null));
+      }
+    });
+  }
+
+  private void persistLocalCacheSnapshot(File baseDir, String namespace, LocalCacheSnapshot snapshot) {
+    if (snapshot == null) {
+      return;
+    }
+    File file = assembleLocalCacheSnapshotFile(baseDir, namespace);
+
+    Transaction transaction = Tracer.newTransaction("Apollo.ConfigService", "persistLocalConfigSnapshot");
+    transaction.addData("LocalConfigFile", file.getAbsolutePath());
+    try {
+      snapshot.writeTo(file, !m_configUtil.isPropertiesOrderEnabled());
+      //the properties file is the fallback of an unreadable snapshot, an older release must not be served from it
+      Files.deleteIfExists(assembleLocalCacheFile(baseDir, namespace).toPath());
+      transaction.setStatus(Transaction.SUCCESS);
+    } catch (IOException ex) {
+      ApolloConfigException exception =
+          new ApolloConfigException(
+              String.format("Persist local cache snapshot %s failed", file.getAbsolutePath()), ex);
+      Tracer.logError(exception);
+      transaction.setStatus(exception);
+      logger.warn("Persist local cache snapshot {} failed, reason: {}.", file.getAbsolutePath(),
+          ExceptionUtil.getDetailMessage(ex));
+    } finally {
+      transaction.complete();
+    }
+  }
+
+  /**
+   * Mark the local cache as confirmed by the upstream, its modified time is what the staleness is counted from
+   */
+  private void touchLocalCacheFile(File baseDir, String namespace) {
+    if (baseDir == null) {
+      return;
+    }
+    File file = m_binaryCacheEnabled ? assembleLocalCacheSnapshotFile(baseDir, namespace)
+        : assembleLocalCacheFile(baseDir, namespace);
+    if (file.isFile() && !file.setLastModified(System.currentTimeMillis())) {
+      logger.debug("Touch local cache file {} failed", file.getAbsolutePath());
+    }
+  }
+
   private void checkLocalConfigCacheDir(File baseDir) {
     if (baseDir.exists()) {
       return;
@@ -279,4 +408,11 @@ public class LocalFileConfigRepository extends AbstractConfigRepository
             .join(m_configUtil.getAppId(), m_configUtil.getCluster(), namespace));
     return new File(baseDir, fileName);
   }
+
+  File assembleLocalCacheSnapshotFile(File baseDir, String namespace) {
+    String fileName =
+        String.format("%s.snapshot", Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR)
+            .join(m_configUtil.getAppId(), m_configUtil.getCluster(), namespace));
+    return new File(baseDir, fileName);
+  }
 }
@@ -0,0 +1,114 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.handle.AbstractPropertyHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The property handles of one config.
+ *
+ * <p>A handle is shared by all callers asking for the same type, key, default value and parser, and is only
+ * referenced weakly, so a handle that is no longer used by anyone is dropped instead of being refreshed forever.</p>
+ */
+final class PropertyHandleRegistry {
+  private final ConcurrentMap<HandleKey, HandleReference> m_handles = new ConcurrentHashMap<>();
+  private final ReferenceQueue<AbstractPropertyHandle> m_queue = new ReferenceQueue<>();
+
+  /**
+   * @param handle the handle to register if there is no live handle of the given identity
+   * @return the live handle of the given identity, which is the given handle if it was registered
+   */
+  @SuppressWarnings("unchecked")
+  <H extends AbstractPropertyHandle> H register(HandleKey key, H handle) {
+    purge();
+    HandleReference reference = new HandleReference(key, handle, m_queue);
+    while (true) {
+      HandleReference existing = m_handles.putIfAbsent(key, reference);
+      if (existing == null) {
+        return handle;
+      }
+      AbstractPropertyHandle existingHandle = existing.get();
+      if (existingHandle != null) {
+        return (H) existingHandle;
+      }
+      if (m_handles.replace(key, existing, reference)) {
+        return handle;
+      }
+    }
+  }
+
+  /**
+   * @return the live handles, in no particular order
+   */
+  List<AbstractPropertyHandle> handles() {
+    purge();
+    List<AbstractPropertyHandle> handles = new ArrayList<>(m_handles.size());
+    for (HandleReference reference : m_handles.values()) {
+      AbstractPropertyHandle handle = reference.get();
+      if (handle != null) {
+        handles.add(handle);
+      }
+    }
+    return handles;
+  }
+
+  int size() {
+    purge();
+    return m_handles.size();
+  }
+
+  private void purge() {
+    Reference<? extends AbstractPropertyHandle> reference;
+    while ((reference = m_queue.poll()) != null) {
+      HandleReference handleReference = (HandleReference) reference;
+      m_handles.remove(handleReference.key, handleReference);
+    }
+  }
+
+  /**
+   * Identity of a handle, the parts are compared with {@link Arrays#deepEquals(Object[], Object[])} so array default
+   * values work too.
+   */
+  static final class HandleKey {
+    private final Object[] parts;
+    private final int hashCode;
+
+    HandleKey(Object... parts) {
+      this.parts = parts;
+      this.hashCode = Arrays.deepHashCode(parts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof HandleKey)) {
+        return false;
+      }
+      HandleKey other = (HandleKey) o;
+      return hashCode == other.hashCode && Arrays.deepEquals(parts, other.parts);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class HandleReference extends WeakReference<AbstractPropertyHandle> {
+    private final HandleKey key;
+
+    private HandleReference(HandleKey key, AbstractPropertyHandle handle,
+        ReferenceQueue<AbstractPropertyHandle> queue) {
+      super(handle, queue);
+      this.key = key;
+    }
+  }
+}
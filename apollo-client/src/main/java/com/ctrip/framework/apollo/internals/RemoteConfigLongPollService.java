@@ -12,6 +12,9 @@ import com.ctrip.framework.apollo.core.signature.Signature;
 import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.metrics.Counter;
+import com.ctrip.framework.apollo.metrics.MetricsRegistry;
+import com.ctrip.framework.apollo.metrics.Timer;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
 import com.ctrip.framework.apollo.util.ConfigUtil;
@@ -101,6 +104,13 @@ public class RemoteConfigLongPollService {
   private ConfigUtil m_configUtil;
   private HttpUtil m_httpUtil;
   private ConfigServiceLocator m_serviceLocator;
+  /**
+   * 长轮询的往返耗时，以及 304 、有通知、失败的次数
+   */
+  private Timer m_longPollTimer;
+  private Counter m_longPollNotModifiedCounter;
+  private Counter m_longPollNotifiedCounter;
+  private Counter m_longPollFailureCounter;
 
   /**
    * Constructor.
@@ -123,6 +133,11 @@ public class RemoteConfigLongPollService {
     m_httpUtil = ApolloInjector.getInstance(HttpUtil.class);
     m_serviceLocator = ApolloInjector.getInstance(ConfigServiceLocator.class);
     m_longPollRateLimiter = RateLimiter.create(m_configUtil.getLongPollQPS());
+    MetricsRegistry metrics = ApolloInjector.getInstance(MetricsRegistry.class);
+    m_longPollTimer = metrics.timer("longPoll");
+    m_longPollNotModifiedCounter = metrics.counter("longPoll.notModified");
+    m_longPollNotifiedCounter = metrics.counter("longPoll.notified");
+    m_longPollFailureCounter = metrics.counter("longPoll.failure");
   }
 
   /**
@@ -143,6 +158,21 @@ public class RemoteConfigLongPollService {
     return added;
   }
 
+  /**
+   * 从长轮询任务中移除 RemoteConfigRepository ，Namespace 已无其他 RemoteConfigRepository 时，不再长轮询该 Namespace
+   * @param namespace
+   * @param remoteConfigRepository
+   */
+  void remove(String namespace, RemoteConfigRepository remoteConfigRepository) {
+    synchronized (m_longPollNamespaces) {
+      m_longPollNamespaces.remove(namespace, remoteConfigRepository);
+      if (!m_longPollNamespaces.containsKey(namespace)) {
+        m_notifications.remove(namespace);
+        m_remoteNotificationMessages.remove(namespace);
+      }
+    }
+  }
+
   /**
    * 启动长轮询任务
    */
@@ -218,7 +248,7 @@ public class RemoteConfigLongPollService {
         if (lastServiceDto == null) {
           // 获得所有的 Config Service 的地址
           List<ServiceDTO> configServices = getConfigServices();
-          lastServiceDto = configServices.get(random.nextInt(configServices.size()));
+          lastServiceDto = m_serviceLocator.chooseConfigService(configServices);
         }
 
         // 组装长轮询通知变更的地址
@@ -239,12 +269,17 @@ public class RemoteConfigLongPollService {
         transaction.addData("Url", url);
 
         // 发起请求，返回 HttpResponse 对象
+        long start = System.nanoTime();
         final HttpResponse<List<ApolloConfigNotification>> response =
             m_httpUtil.doGet(request, m_responseType);
+        m_longPollTimer.recordSince(start);
 
         logger.debug("Long polling response: {}, url: {}", response.getStatusCode(), url);
+        // 长轮询的耗时取决于是否有配置变更，不作为延迟样本
+        m_serviceLocator.recordSuccess(lastServiceDto);
         // 有新的通知，刷新本地的缓存
         if (response.getStatusCode() == 200 && response.getBody() != null) {
+          m_longPollNotifiedCounter.inc();
           // 更新 m_notifications
           updateNotifications(response.getBody());
           // 更新 m_remoteNotificationMessages
@@ -256,8 +291,11 @@ public class RemoteConfigLongPollService {
 
         // 无新的通知，重置连接的 Config Service 的地址，下次请求不同的 Config Service ，实现负载均衡。
         //try to load balance
-        if (response.getStatusCode() == 304 && random.nextBoolean()) {
-          lastServiceDto = null;
+        if (response.getStatusCode() == 304) {
+          m_longPollNotModifiedCounter.inc();
+          if (random.nextBoolean()) {
+            lastServiceDto = null;
+          }
         }
 
         // 标记成功
@@ -265,6 +303,10 @@ public class RemoteConfigLongPollService {
         transaction.addData("StatusCode", response.getStatusCode());
         transaction.setStatus(Transaction.SUCCESS);
       } catch (Throwable ex) {
+        m_longPollFailureCounter.inc();
+        if (lastServiceDto != null) {
+          m_serviceLocator.recordFailure(lastServiceDto);
+        }
         // 重置连接的 Config Service 的地址，下次请求不同的 Config Service
         lastServiceDto = null;
         Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
@@ -14,29 +14,46 @@ import com.ctrip.framework.apollo.core.utils.StringUtils;
 import com.ctrip.framework.apollo.enums.ConfigSourceType;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigStatusCodeException;
+import com.ctrip.framework.apollo.metrics.Counter;
+import com.ctrip.framework.apollo.metrics.MetricsRegistry;
+import com.ctrip.framework.apollo.metrics.Timer;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.tracer.spi.Transaction;
 import com.ctrip.framework.apollo.util.ConfigUtil;
 import com.ctrip.framework.apollo.util.ExceptionUtil;
+import com.ctrip.framework.apollo.util.ImmutableProperties;
 import com.ctrip.framework.apollo.util.http.HttpRequest;
 import com.ctrip.framework.apollo.util.http.HttpResponse;
 import com.ctrip.framework.apollo.util.http.HttpUtil;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.escape.Escaper;
 import com.google.common.net.UrlEscapers;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.gson.Gson;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +81,10 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
    * 指向 ApolloConfig 的 AtomicReference ，缓存配置
    */
   private volatile AtomicReference<ApolloConfig> m_configCache;
+  /**
+   * m_configCache 对应的只读 Properties ，每个 release 只构建一次，按引用传递给下游
+   */
+  private volatile ImmutableProperties m_configProperties;
   /**
    * Namespace 名字
    */
@@ -72,6 +93,26 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
    * ScheduledExecutorService 对象
    */
   private final static ScheduledExecutorService m_executorService;
+  /**
+   * 启动期限内的首次同步在此线程池中执行，超时后继续在后台加载
+   */
+  private final static ExecutorService m_initialSyncExecutorService;
+  /**
+   * 对冲请求在此线程池中执行
+   */
+  private final static ListeningExecutorService m_hedgeExecutorService;
+  /**
+   * 超过启动期限仍未完成的首次同步
+   */
+  private volatile Future<?> m_initialSync;
+  /**
+   * 定时刷新配置的任务
+   */
+  private volatile ScheduledFuture<?> m_periodicRefresh;
+  /**
+   * 是否已停止定时刷新和长轮询
+   */
+  private volatile boolean m_stopped;
   /**
    * 指向 ServiceDTO( Config Service 信息) 的 AtomicReference
    */
@@ -90,16 +131,32 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
    * 为 true 的原因，RemoteConfigRepository 知道 Config Service 有配置刷新
    */
   private final AtomicBoolean m_configNeedForceRefresh;
+  /**
+   * 最近一次从 Config Service 同步成功（含 304）的时间
+   */
+  private volatile long m_lastSyncTimeMillis;
   /**
    * 失败定时重试策略，使用 {@link ExponentialSchedulePolicy}
    */
   private final SchedulePolicy m_loadConfigFailSchedulePolicy;
   private final Gson gson;
+  /**
+   * 拉取配置的耗时，以及 304 、失败、对冲请求的次数
+   */
+  private final Timer m_fetchTimer;
+  private final Counter m_fetchNotModifiedCounter;
+  private final Counter m_fetchFailureCounter;
+  private final Counter m_fetchNotFoundCounter;
+  private final Counter m_fetchHedgedCounter;
 
   static {
     // 单线程池
     m_executorService = Executors.newScheduledThreadPool(1,
         ApolloThreadFactory.create("RemoteConfigRepository", true));
+    m_initialSyncExecutorService = Executors.newCachedThreadPool(
+        ApolloThreadFactory.create("RemoteConfigRepository-InitialSync", true));
+    m_hedgeExecutorService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool(
+        ApolloThreadFactory.create("RemoteConfigRepository-Hedge", true)));
   }
 
   /**
@@ -108,6 +165,17 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
    * @param namespace the namespace
    */
   public RemoteConfigRepository(String namespace) {
+    this(namespace, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param namespace             the namespace
+   * @param backgroundInitialSync whether to load the config in background instead of waiting for it, until then
+   *                              {@link #getConfig()} throws so the downstream serves its local cache
+   */
+  public RemoteConfigRepository(String namespace, boolean backgroundInitialSync) {
     m_namespace = namespace;
     m_configCache = new AtomicReference<>();
     m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
@@ -122,8 +190,14 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     m_loadConfigFailSchedulePolicy = new ExponentialSchedulePolicy(m_configUtil.getOnErrorRetryInterval(),
         m_configUtil.getOnErrorRetryInterval() * 8);
     gson = new Gson();
+    MetricsRegistry metrics = ApolloInjector.getInstance(MetricsRegistry.class);
+    m_fetchTimer = metrics.timer("config.fetch");
+    m_fetchNotModifiedCounter = metrics.counter("config.fetch.notModified");
+    m_fetchFailureCounter = metrics.counter("config.fetch.failure");
+    m_fetchNotFoundCounter = metrics.counter("config.fetch.notFound");
+    m_fetchHedgedCounter = metrics.counter("config.fetch.hedged");
     // 尝试同步配置，作为初次的配置缓存初始化
-    this.trySync();
+    this.initialSync(backgroundInitialSync);
     // 初始化定时刷新配置的任务
     this.schedulePeriodicRefresh();
     // 注册自己到 RemoteConfigLongPollService 中，实现配置更新的实时通知
@@ -132,12 +206,22 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
 
   @Override
   public Properties getConfig() {
+    return mutableCopyOf(getImmutableConfig());
+  }
+
+  @Override
+  ImmutableProperties getImmutableConfig() {
     // 如果缓存为空，强制从 Config Service 拉取配置
     if (m_configCache.get() == null) {
+      Future<?> initialSync = m_initialSync;
+      // 首次同步在后台进行中（超过启动期限或 stale-while-revalidate 启动），不再阻塞等待，由下游降级到本地缓存
+      if (initialSync != null && !initialSync.isDone()) {
+        throw new ApolloConfigException(String.format(
+            "Config for namespace %s is still loading in background", m_namespace));
+      }
       this.sync();
     }
-    // 转换成 Properties 对象，并返回
-    return transformApolloConfigToProperties(m_configCache.get());
+    return m_configProperties;
   }
 
   @Override
@@ -150,6 +234,42 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     return ConfigSourceType.REMOTE;
   }
 
+  /**
+   * 首次同步配置，若设置了启动期限，最多等待到期限，之后在后台继续同步并通过 fireRepositoryChange 通知下游
+   */
+  private void initialSync(boolean inBackground) {
+    long remainingMillis = m_configUtil.getStartupRemainingMillis();
+    if (!inBackground && remainingMillis <= 0) {
+      this.trySync();
+      return;
+    }
+    Future<?> initialSync = m_initialSyncExecutorService.submit(new Runnable() {
+      @Override
+      public void run() {
+        trySync();
+      }
+    });
+    // 后台同步，不等待
+    if (inBackground) {
+      m_initialSync = initialSync;
+      return;
+    }
+    try {
+      initialSync.get(remainingMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      m_initialSync = initialSync;
+      Tracer.logEvent("Apollo.Client.StartupDeadlineExceeded", m_namespace);
+      logger.warn("Load config for namespace {} is not finished before the startup deadline, will keep loading in background",
+          m_namespace);
+    } catch (InterruptedException ex) {
+      m_initialSync = initialSync;
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      //trySync never throws
+      Tracer.logError(ex);
+    }
+  }
+
   /**
    * 初始化定时刷新配置的任务
    */
@@ -157,7 +277,7 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     logger.debug("Schedule periodic refresh with interval: {} {}",
         m_configUtil.getRefreshInterval(), m_configUtil.getRefreshIntervalTimeUnit());
     // 创建定时任务，定时刷新配置
-    m_executorService.scheduleAtFixedRate(
+    m_periodicRefresh = m_executorService.scheduleAtFixedRate(
         new Runnable() {
           @Override
           public void run() {
@@ -183,15 +303,17 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
       ApolloConfig previous = m_configCache.get();
       // 从 Config Service 加载 ApolloConfig 对象
       ApolloConfig current = loadApolloConfig();
+      m_lastSyncTimeMillis = System.currentTimeMillis();
 
       //reference equals means HTTP 304
       // 若不相等，说明更新了，设置到缓存中
       if (previous != current) {
         logger.debug("Remote Config refreshed!");
-        // 设置到缓存
+        // 设置到缓存，先设置 Properties ，保证读到新 ApolloConfig 时 Properties 也已就绪
+        m_configProperties = transformApolloConfigToProperties(current);
         m_configCache.set(current);
         // 发布 Repository 的配置发生变化，触发对应的监听器们
-        this.fireRepositoryChange(m_namespace, this.getConfig());
+        this.fireRepositoryChange(m_namespace, m_configProperties);
       }
 
       if (current != null) {
@@ -208,10 +330,11 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     }
   }
 
-  private Properties transformApolloConfigToProperties(ApolloConfig apolloConfig) {
-    Properties result = propertiesFactory.getPropertiesInstance();
-    result.putAll(apolloConfig.getConfigurations());
-    return result;
+  private ImmutableProperties transformApolloConfigToProperties(ApolloConfig apolloConfig) {
+    if (apolloConfig == null) {
+      return null;
+    }
+    return ImmutableProperties.copyOf(apolloConfig.getConfigurations());
   }
 
   /**
@@ -244,9 +367,8 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     // 循环读取配置重试次数直到成功。每一次，都会循环所有的 ServiceDTO 数组。
     retryLoopLabel:
     for (int i = 0; i < maxRetries; i++) {
-      // 随机所有的 Config Service 的地址
-      List<ServiceDTO> randomConfigServices = Lists.newLinkedList(configServices);
-      Collections.shuffle(randomConfigServices);
+      // 按延迟和错误评分排序所有的 Config Service 的地址，首个为两个随机地址中评分较好的一个
+      List<ServiceDTO> randomConfigServices = m_serviceLocator.rankConfigServices(configServices);
       // 优先访问通知配置变更的 Config Service 的地址。并且，获取到时，需要置空，避免重复优先访问
       //Access the server which notifies the client first
       if (m_longPollServiceDto.get() != null) {
@@ -254,7 +376,10 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
       }
 
       // 循环所有的 Config Service 的地址
-      for (ServiceDTO configService : randomConfigServices) {
+      for (int j = 0; j < randomConfigServices.size(); j++) {
+        ServiceDTO configService = randomConfigServices.get(j);
+        // 对冲请求的目标为下一个 Config Service
+        ServiceDTO hedgeService = j + 1 < randomConfigServices.size() ? randomConfigServices.get(j + 1) : null;
         // sleep 等待，下次从 Config Service 拉取配置
         if (onErrorSleepTime > 0) {
           logger.warn(
@@ -274,21 +399,29 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
         logger.debug("Loading config from {}", url);
 
         // 创建 HttpRequest 对象
-        HttpRequest request = new HttpRequest(url);
-        if (!StringUtils.isBlank(secret)) {
-          Map<String, String> headers = Signature.buildHttpHeaders(url, appId, secret);
-          request.setHeaders(headers);
-        }
+        HttpRequest request = assembleQueryConfigRequest(url, appId, secret);
 
         Transaction transaction = Tracer.newTransaction("Apollo.ConfigService", "queryConfig");
         transaction.addData("Url", url);
+        long start = System.nanoTime();
         try {
           // 发起请求，返回 HttpResponse 对象
-          HttpResponse<ApolloConfig> response = m_httpUtil.doGet(request, ApolloConfig.class);
+          HttpResponse<ApolloConfig> response;
+          long hedgeDelayNanos = hedgeService == null || !m_configUtil.isHedgedRequestEnabled() ? -1
+              : m_serviceLocator.getHedgeDelayNanos(configService);
+          if (hedgeDelayNanos > 0) {
+            String hedgeUrl = assembleQueryConfigUrl(hedgeService.getHomepageUrl(), appId, cluster, m_namespace,
+                dataCenter, m_remoteMessages.get(), m_configCache.get());
+            response = doGetHedged(configService, request, hedgeService,
+                assembleQueryConfigRequest(hedgeUrl, appId, secret), hedgeDelayNanos);
+          } else {
+            response = doGet(configService, request);
+          }
           // 设置 m_configNeedForceRefresh = false
           m_configNeedForceRefresh.set(false);
           // 标记成功
           m_loadConfigFailSchedulePolicy.success();
+          m_fetchTimer.recordSince(start);
 
           transaction.addData("StatusCode", response.getStatusCode());
           transaction.setStatus(Transaction.SUCCESS);
@@ -296,6 +429,7 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
           // 无新的配置，直接返回缓存的 ApolloConfig 对象
           if (response.getStatusCode() == 304) {
             logger.debug("Config server responds with 304 HTTP status code.");
+            m_fetchNotModifiedCounter.inc();
             return m_configCache.get();
           }
 
@@ -306,6 +440,12 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
 
           return result;
         } catch (ApolloConfigStatusCodeException ex) {
+          // 404 是 Namespace 未发布，不计为失败
+          if (ex.getStatusCode() == 404) {
+            m_fetchNotFoundCounter.inc();
+          } else {
+            m_fetchFailureCounter.inc();
+          }
           ApolloConfigStatusCodeException statusCodeException = ex;
           // 若返回的状态码是 404 ，说明查询配置的 Config Service 不存在该 Namespace
           //config not found
@@ -325,6 +465,7 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
             break retryLoopLabel;
           }
         } catch (Throwable ex) {
+          m_fetchFailureCounter.inc();
           Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
           transaction.setStatus(ex);
           // 设置最终的异常
@@ -347,6 +488,110 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     throw new ApolloConfigException(message, exception);
   }
 
+  private HttpRequest assembleQueryConfigRequest(String url, String appId, String secret) {
+    HttpRequest request = new HttpRequest(url);
+    if (!StringUtils.isBlank(secret)) {
+      Map<String, String> headers = Signature.buildHttpHeaders(url, appId, secret);
+      request.setHeaders(headers);
+    }
+    return request;
+  }
+
+  /**
+   * 向 Config Service 发起请求，并将延迟或失败记录到 ConfigServiceLocator 的评分中
+   */
+  private HttpResponse<ApolloConfig> doGet(ServiceDTO configService, HttpRequest request) {
+    long start = System.nanoTime();
+    try {
+      HttpResponse<ApolloConfig> response = m_httpUtil.doGet(request, ApolloConfig.class);
+      m_serviceLocator.recordLatency(configService, System.nanoTime() - start);
+      return response;
+    } catch (ApolloConfigStatusCodeException ex) {
+      // 404 说明 Config Service 正常响应，只是不存在该 Namespace
+      if (ex.getStatusCode() == 404) {
+        m_serviceLocator.recordLatency(configService, System.nanoTime() - start);
+      } else if (!request.isAborted()) {
+        m_serviceLocator.recordFailure(configService);
+      }
+      throw ex;
+    } catch (RuntimeException ex) {
+      // 被取消的对冲请求失败，不代表 Config Service 出错
+      if (!request.isAborted()) {
+        m_serviceLocator.recordFailure(configService);
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * 对冲请求：若 configService 在 hedgeDelayNanos 内未返回，则同时向 hedgeService 发起请求，返回先成功的结果，并断开另一个请求。
+   * 两者都失败时，抛出后失败的异常
+   */
+  private HttpResponse<ApolloConfig> doGetHedged(ServiceDTO configService, HttpRequest request,
+      ServiceDTO hedgeService, HttpRequest hedgeRequest, long hedgeDelayNanos) {
+    ListenableFuture<HttpResponse<ApolloConfig>> primary = submitGet(configService, request);
+    try {
+      return primary.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException ex) {
+      //send the hedged request below
+    } catch (ExecutionException ex) {
+      throw Throwables.propagate(ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      request.abort();
+      throw new ApolloConfigException("Interrupted while loading config", ex);
+    }
+
+    Tracer.logEvent("Apollo.ConfigService", String.format("hedgedQueryConfig: %s", m_namespace));
+    m_fetchHedgedCounter.inc();
+    ListenableFuture<HttpResponse<ApolloConfig>> hedge = submitGet(hedgeService, hedgeRequest);
+
+    final SettableFuture<HttpResponse<ApolloConfig>> result = SettableFuture.create();
+    final AtomicInteger pending = new AtomicInteger(2);
+    FutureCallback<HttpResponse<ApolloConfig>> callback = new FutureCallback<HttpResponse<ApolloConfig>>() {
+      @Override
+      public void onSuccess(HttpResponse<ApolloConfig> response) {
+        result.set(response);
+      }
+
+      @Override
+      public void onFailure(Throwable ex) {
+        if (pending.decrementAndGet() == 0) {
+          result.setException(ex);
+        }
+      }
+    };
+    Futures.addCallback(primary, callback);
+    Futures.addCallback(hedge, callback);
+
+    try {
+      return result.get();
+    } catch (ExecutionException ex) {
+      throw Throwables.propagate(ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ApolloConfigException("Interrupted while loading config", ex);
+    } finally {
+      // 断开未完成的请求，不再占用连接和线程
+      if (!primary.isDone()) {
+        request.abort();
+      }
+      if (!hedge.isDone()) {
+        hedgeRequest.abort();
+      }
+    }
+  }
+
+  private ListenableFuture<HttpResponse<ApolloConfig>> submitGet(final ServiceDTO configService,
+      final HttpRequest request) {
+    return m_hedgeExecutorService.submit(new Callable<HttpResponse<ApolloConfig>>() {
+      @Override
+      public HttpResponse<ApolloConfig> call() {
+        return doGet(configService, request);
+      }
+    });
+  }
+
   /**
    * 组装轮询 Config Service 的配置读取
    * /configs/{appId}/{clusterName}/{namespace:.+} 接口的 URL
@@ -408,12 +653,28 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     remoteConfigLongPollService.submit(m_namespace, this);
   }
 
+  /**
+   * 停止定时刷新和长轮询，已加载的配置仍可读取
+   */
+  void stop() {
+    m_stopped = true;
+    ScheduledFuture<?> periodicRefresh = m_periodicRefresh;
+    if (periodicRefresh != null) {
+      periodicRefresh.cancel(false);
+    }
+    remoteConfigLongPollService.remove(m_namespace, this);
+  }
+
   /**
    * 当长轮询到配置更新时，发起同步配置的任务
    * @param longPollNotifiedServiceDto
    * @param remoteMessages
    */
   public void onLongPollNotified(ServiceDTO longPollNotifiedServiceDto, ApolloNotificationMessages remoteMessages) {
+    // 已停止，不再同步
+    if (m_stopped) {
+      return;
+    }
     // 设置长轮询到配置更新的 Config Service 。下次同步配置时，优先读取该服务
     m_longPollServiceDto.set(longPollNotifiedServiceDto);
     // 设置 m_remoteMessages
@@ -430,6 +691,13 @@ public class RemoteConfigRepository extends AbstractConfigRepository {
     });
   }
 
+  /**
+   * @return 最近一次从 Config Service 同步成功的时间，尚未成功时为 0
+   */
+  long getLastSyncTimeMillis() {
+    return m_lastSyncTimeMillis;
+  }
+
   /**
    * 获得所有 Config Service 信息
    * @return
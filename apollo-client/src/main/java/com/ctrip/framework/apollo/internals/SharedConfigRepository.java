@@ -0,0 +1,626 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.enums.ConfigSourceType;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.tracer.spi.Transaction;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.ctrip.framework.apollo.util.ExceptionUtil;
+import com.ctrip.framework.apollo.util.ImmutableProperties;
+import com.google.common.base.Joiner;
+import com.google.common.base.Objects;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares one namespace among the JVMs of a host through a directory, usually on tmpfs, so that only one of them long
+ * polls and fetches it from the config service.
+ *
+ * <p>The files of a namespace are named after the app id, cluster, data center and namespace, in a subdirectory
+ * per env, so JVMs only share what they would have loaded themselves. The JVM holding the lock on the namespace's
+ * .lock file is the publisher: it loads the config through a {@link RemoteConfigRepository} and writes every release
+ * to the namespace's {@link LocalCacheSnapshot} file. The other JVMs watch that file, read it when it
+ * changes, and try to take the lock over at each check, which they get as soon as the publisher exits.</p>
+ *
+ * <p>The publisher sets the modified time of the namespace's .heartbeat file to its last successful sync with the
+ * config service. Once it is older than two refresh intervals the watchers alert and load the namespace from the
+ * config service themselves, until the publisher syncs again, so a publisher that is alive but no longer refreshes
+ * does not leave them with an old release. A publisher whose .lock file is deleted or replaced stops its upstream and
+ * watches like the others. On POSIX file systems the directories are owner only, and a directory owned by another
+ * user is refused, since whoever can write it can feed config to every JVM.</p>
+ */
+public class SharedConfigRepository extends AbstractConfigRepository implements RepositoryChangeListener,
+    ImmutablePropertiesListener {
+  private static final Logger logger = LoggerFactory.getLogger(SharedConfigRepository.class);
+  private static final Joiner STRING_JOINER = Joiner.on(ConfigConsts.CLUSTER_NAMESPACE_SEPARATOR).useForNull("");
+  private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+  private static final ScheduledExecutorService m_executorService;
+  //takes over the publishing off the check thread, as creating the upstream fetches the config
+  private static final ExecutorService m_takeOverExecutorService;
+  private static volatile UserPrincipal s_currentUser;
+
+  private final String m_namespace;
+  private final ConfigUtil m_configUtil;
+  private final File m_snapshotFile;
+  private final File m_lockFile;
+  private final File m_heartbeatFile;
+  private final long m_staleThresholdMillis;
+  private volatile FileLock m_lock;
+  //the lock file locked, to tell when it is deleted or replaced
+  private volatile Object m_lockFileKey;
+  private volatile ConfigRepository m_upstream;
+  //loads the namespace while the publisher is stale
+  private volatile ConfigRepository m_fallback;
+  //a take over or fallback is being started off the check thread
+  private volatile boolean m_startPending;
+  private volatile boolean m_published;
+  private final Object m_publishLock = new Object();
+  private volatile ImmutableProperties m_properties;
+  //identifies the snapshot file last read, so a new one is read only once
+  private volatile Object m_snapshotVersion;
+  private volatile long m_lastHeartbeatMillis;
+  //alert once per stale episode
+  private volatile boolean m_publisherStale;
+
+  static {
+    m_executorService = Executors.newScheduledThreadPool(1,
+        ApolloThreadFactory.create("SharedConfigRepository", true));
+    m_takeOverExecutorService = Executors.newCachedThreadPool(
+        ApolloThreadFactory.create("SharedConfigRepository-TakeOver", true));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param namespace the namespace
+   */
+  public SharedConfigRepository(String namespace) {
+    m_namespace = namespace;
+    m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
+    File sharedDir = new File(m_configUtil.getSharedCacheDir());
+    File baseDir = new File(sharedDir, m_configUtil.getApolloEnv().name());
+    String fileName = STRING_JOINER.join(m_configUtil.getAppId(), m_configUtil.getCluster(),
+        m_configUtil.getDataCenter(), namespace);
+    m_snapshotFile = new File(baseDir, fileName + ".snapshot");
+    m_lockFile = new File(baseDir, fileName + ".lock");
+    m_heartbeatFile = new File(baseDir, fileName + ".heartbeat");
+    m_staleThresholdMillis = 2 * m_configUtil.getRefreshIntervalTimeUnit().toMillis(m_configUtil.getRefreshInterval())
+        + m_configUtil.getSharedCachePollIntervalInMillis();
+    prepareDirectory(sharedDir);
+    prepareDirectory(baseDir);
+    if (this.tryAcquireLock()) {
+      this.becomePublisher();
+    }
+    this.trySync();
+    this.schedulePeriodicCheck();
+  }
+
+  @Override
+  public Properties getConfig() {
+    return mutableCopyOf(getImmutableConfig());
+  }
+
+  @Override
+  ImmutableProperties getImmutableConfig() {
+    if (m_properties == null) {
+      if (m_upstream == null) {
+        //outside the lock, so neither the check thread nor the other callers wait too
+        waitForSnapshot();
+      }
+      this.sync();
+    }
+    return m_properties;
+  }
+
+  @Override
+  public void setUpstreamRepository(ConfigRepository upstreamConfigRepository) {
+    //the upstream is created when this repository becomes the publisher
+  }
+
+  @Override
+  public ConfigSourceType getSourceType() {
+    if (m_upstream != null || m_fallback != null) {
+      return ConfigSourceType.REMOTE;
+    }
+    return m_properties != null ? ConfigSourceType.LOCAL : ConfigSourceType.NONE;
+  }
+
+  /**
+   * @return whether this JVM loads the namespace from the config service and publishes it to the others
+   */
+  public boolean isPublisher() {
+    return m_upstream != null;
+  }
+
+  @Override
+  protected void sync() {
+    ConfigRepository upstream = m_upstream;
+    if (upstream != null) {
+      //later releases are published by onRepositoryChange
+      if (!m_published) {
+        publish(sharedConfigOf(upstream));
+      }
+      return;
+    }
+    //the fallback's releases are applied by onRepositoryChange
+    if (m_fallback == null) {
+      synchronized (this) {
+        readSnapshotIfChanged();
+      }
+    }
+    if (m_properties == null) {
+      throw new ApolloConfigException(String.format(
+          "Shared config for namespace %s is not published yet in %s", m_namespace, m_snapshotFile.getParent()));
+    }
+  }
+
+  @Override
+  public void onRepositoryChange(String namespace, Properties newProperties) {
+    if (m_upstream != null) {
+      publish(newProperties);
+    } else if (m_fallback != null) {
+      updateProperties(ImmutableProperties.copyOf(newProperties));
+    }
+  }
+
+  /**
+   * @return whether the publisher has not synced with the config service for more than two refresh intervals
+   */
+  boolean isPublisherStale() {
+    //0 if not written yet
+    long heartbeat = m_heartbeatFile.lastModified();
+    return heartbeat > 0 && System.currentTimeMillis() - heartbeat > m_staleThresholdMillis;
+  }
+
+  /**
+   * Lock the namespace if the lock is free, which makes this JVM its publisher.
+   *
+   * @return whether the lock was acquired
+   */
+  private synchronized boolean tryAcquireLock() {
+    if (m_lock != null) {
+      return false;
+    }
+    FileChannel channel = null;
+    try {
+      channel = FileChannel.open(m_lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      Object lockFileKey = lockFileKey();
+      FileLock lock = channel.tryLock();
+      if (lock == null) {
+        channel.close();
+        return false;
+      }
+      //the channel stays open, the lock is released when this JVM exits
+      m_lock = lock;
+      m_lockFileKey = lockFileKey;
+      return true;
+    } catch (OverlappingFileLockException ex) {
+      //another repository of this JVM publishes the namespace
+      closeQuietly(channel);
+      return false;
+    } catch (IOException ex) {
+      closeQuietly(channel);
+      Tracer.logError(ex);
+      logger.warn("Lock shared config file {} failed, reason: {}", m_lockFile.getAbsolutePath(),
+          ExceptionUtil.getDetailMessage(ex));
+      return false;
+    }
+  }
+
+  /**
+   * Create the upstream once the lock is acquired, or take over the fallback, or release the lock for another JVM if
+   * that fails.
+   *
+   * @return whether this JVM is the publisher
+   */
+  private boolean becomePublisher() {
+    ConfigRepository upstream = m_fallback;
+    m_fallback = null;
+    try {
+      if (upstream == null) {
+        upstream = createUpstreamRepository();
+      }
+      synchronized (m_publishLock) {
+        if (m_lock == null) {
+          //lost while the upstream was created
+          releaseUpstream(upstream);
+          return false;
+        }
+        //before listening, so the first change is published
+        m_upstream = upstream;
+        m_published = false;
+      }
+      upstream.addChangeListener(this);
+    } catch (Throwable ex) {
+      m_upstream = null;
+      if (upstream != null) {
+        releaseUpstream(upstream);
+      }
+      releaseLock();
+      Tracer.logError(ex);
+      logger.warn("Publish config of namespace {} to {} failed, reason: {}", m_namespace,
+          m_snapshotFile.getParent(), ExceptionUtil.getDetailMessage(ex));
+      return false;
+    }
+    Tracer.logEvent("Apollo.Client.SharedConfigPublisher", m_namespace);
+    logger.info("Publishing config of namespace {} to {} for the other JVMs on this host", m_namespace,
+        m_snapshotFile.getParent());
+    return true;
+  }
+
+  private synchronized void releaseLock() {
+    FileLock lock = m_lock;
+    if (lock == null) {
+      return;
+    }
+    try {
+      lock.release();
+    } catch (IOException ex) {
+      //closing the channel releases it too
+    }
+    closeQuietly(lock.channel());
+    m_lock = null;
+    m_lockFileKey = null;
+  }
+
+  /**
+   * Stop publishing once the lock file is deleted or replaced, as another JVM may lock the new one.
+   */
+  private void loseLock() {
+    ConfigRepository upstream;
+    synchronized (m_publishLock) {
+      upstream = m_upstream;
+      m_upstream = null;
+      m_published = false;
+      releaseLock();
+    }
+    if (upstream != null) {
+      releaseUpstream(upstream);
+    }
+    //read the snapshot of the next publisher even if it has not changed yet
+    m_snapshotVersion = null;
+    Tracer.logEvent("Apollo.Client.SharedConfigLockLost", m_namespace);
+    logger.warn("Shared config lock file {} was deleted or replaced, stop publishing namespace {}",
+        m_lockFile.getAbsolutePath(), m_namespace);
+  }
+
+  private boolean isLockLost() {
+    FileLock lock = m_lock;
+    if (lock == null) {
+      return false;
+    }
+    if (!lock.isValid()) {
+      return true;
+    }
+    Object lockFileKey = m_lockFileKey;
+    try {
+      return lockFileKey != null && !lockFileKey.equals(lockFileKey());
+    } catch (NoSuchFileException ex) {
+      return true;
+    } catch (IOException ex) {
+      //keep publishing, checked again at the next check
+      return false;
+    }
+  }
+
+  private Object lockFileKey() throws IOException {
+    return Files.readAttributes(m_lockFile.toPath(), BasicFileAttributes.class).fileKey();
+  }
+
+  /**
+   * Stop the listening and, for a {@link RemoteConfigRepository}, the refreshing and long polling of an upstream no
+   * longer used.
+   */
+  private void releaseUpstream(ConfigRepository upstream) {
+    upstream.removeChangeListener(this);
+    if (upstream instanceof RemoteConfigRepository) {
+      ((RemoteConfigRepository) upstream).stop();
+    }
+  }
+
+  ConfigRepository createUpstreamRepository() {
+    return new RemoteConfigRepository(m_namespace);
+  }
+
+  private void schedulePeriodicCheck() {
+    long interval = m_configUtil.getSharedCachePollIntervalInMillis();
+    m_executorService.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        if (m_startPending) {
+          return;
+        }
+        if (m_lock != null) {
+          if (!isLockLost()) {
+            writeHeartbeat();
+            return;
+          }
+          loseLock();
+        }
+        if (tryAcquireLock()) {
+          //the first fetch must not hold up the checks of the other namespaces
+          startOffCheckThread(new Runnable() {
+            @Override
+            public void run() {
+              if (becomePublisher()) {
+                //publishes the first release
+                trySync();
+              }
+            }
+          });
+          return;
+        }
+        checkPublisherHeartbeat();
+        trySync();
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  private void startOffCheckThread(final Runnable task) {
+    m_startPending = true;
+    m_takeOverExecutorService.submit(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          task.run();
+        } finally {
+          m_startPending = false;
+        }
+      }
+    });
+  }
+
+  private void publish(Properties properties) {
+    synchronized (m_publishLock) {
+      if (m_upstream == null) {
+        //the lock is lost
+        return;
+      }
+      doPublish(ImmutableProperties.copyOf(properties));
+      m_published = true;
+    }
+  }
+
+  private void doPublish(ImmutableProperties newProperties) {
+    Transaction transaction = Tracer.newTransaction("Apollo.ConfigService", "publishSharedConfig");
+    transaction.addData("SharedConfigFile", m_snapshotFile.getAbsolutePath());
+    try {
+      new LocalCacheSnapshot(newProperties).writeTo(m_snapshotFile, !m_configUtil.isPropertiesOrderEnabled());
+      writeHeartbeat();
+      transaction.setStatus(Transaction.SUCCESS);
+    } catch (IOException ex) {
+      //the watchers keep the previous release, this JVM goes on with the new one
+      ApolloConfigException exception =
+          new ApolloConfigException("Publish shared config failed for namespace " + m_namespace, ex);
+      Tracer.logError(exception);
+      transaction.setStatus(exception);
+      logger.warn("Publish shared config file {} failed, reason: {}", m_snapshotFile.getAbsolutePath(),
+          ExceptionUtil.getDetailMessage(ex));
+    } finally {
+      transaction.complete();
+    }
+    updateProperties(newProperties);
+  }
+
+  private void writeHeartbeat() {
+    if (m_upstream == null) {
+      //taking over
+      return;
+    }
+    long heartbeat = System.currentTimeMillis();
+    if (m_upstream instanceof RemoteConfigRepository) {
+      heartbeat = ((RemoteConfigRepository) m_upstream).getLastSyncTimeMillis();
+    }
+    //not synced yet, or already written
+    if (heartbeat == 0 || heartbeat == m_lastHeartbeatMillis) {
+      return;
+    }
+    Path path = m_heartbeatFile.toPath();
+    try {
+      try {
+        Files.createFile(path);
+      } catch (FileAlreadyExistsException ex) {
+        //written by this or a previous publisher
+      }
+      Files.setLastModifiedTime(path, FileTime.fromMillis(heartbeat));
+      m_lastHeartbeatMillis = heartbeat;
+    } catch (IOException ex) {
+      logger.warn("Write shared config heartbeat {} failed, reason: {}", m_heartbeatFile.getAbsolutePath(),
+          ExceptionUtil.getDetailMessage(ex));
+    }
+  }
+
+  private void checkPublisherHeartbeat() {
+    boolean stale = isPublisherStale();
+    if (stale && !m_publisherStale) {
+      Tracer.logEvent("Apollo.Client.SharedConfigStale", m_namespace);
+      logger.warn("Shared config of namespace {} in {} is not synced with the config service by its publisher "
+              + "for more than {} ms, loading it from the config service until the publisher syncs again",
+          m_namespace, m_snapshotFile.getParent(), m_staleThresholdMillis);
+    }
+    m_publisherStale = stale;
+    if (stale && m_fallback == null) {
+      startOffCheckThread(new Runnable() {
+        @Override
+        public void run() {
+          startFallback();
+        }
+      });
+    } else if (!stale && m_fallback != null) {
+      stopFallback();
+    }
+  }
+
+  private void startFallback() {
+    ConfigRepository fallback;
+    try {
+      fallback = createUpstreamRepository();
+    } catch (Throwable ex) {
+      //tried again at the next check
+      Tracer.logError(ex);
+      logger.warn("Load config of namespace {} from the config service failed, reason: {}", m_namespace,
+          ExceptionUtil.getDetailMessage(ex));
+      return;
+    }
+    //before listening, so the first change is applied
+    m_fallback = fallback;
+    fallback.addChangeListener(this);
+    try {
+      updateProperties(ImmutableProperties.copyOf(sharedConfigOf(fallback)));
+    } catch (Throwable ex) {
+      //not loaded yet, applied once it is
+      logger.debug("Config of namespace {} is not loaded from the config service yet, reason: {}", m_namespace,
+          ExceptionUtil.getDetailMessage(ex));
+    }
+  }
+
+  private void stopFallback() {
+    ConfigRepository fallback = m_fallback;
+    m_fallback = null;
+    releaseUpstream(fallback);
+    //read the snapshot again even if it has not changed meanwhile
+    m_snapshotVersion = null;
+    logger.info("Shared config of namespace {} in {} is synced by its publisher again", m_namespace,
+        m_snapshotFile.getParent());
+  }
+
+  private void waitForSnapshot() {
+    long deadline = System.currentTimeMillis() + m_configUtil.getSharedCacheInitialWaitInMillis();
+    long interval = Math.min(m_configUtil.getSharedCachePollIntervalInMillis(), 100);
+    while (m_properties == null && m_upstream == null && !m_snapshotFile.isFile()
+        && System.currentTimeMillis() < deadline) {
+      try {
+        TimeUnit.MILLISECONDS.sleep(interval);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void readSnapshotIfChanged() {
+    Object version;
+    try {
+      version = snapshotVersion();
+    } catch (IOException ex) {
+      //not published yet
+      return;
+    }
+    if (Objects.equal(version, m_snapshotVersion)) {
+      return;
+    }
+    Transaction transaction = Tracer.newTransaction("Apollo.ConfigService", "readSharedConfig");
+    transaction.addData("SharedConfigFile", m_snapshotFile.getAbsolutePath());
+    try {
+      LocalCacheSnapshot snapshot = LocalCacheSnapshot.readFrom(m_snapshotFile);
+      m_snapshotVersion = version;
+      updateProperties(snapshot.getProperties());
+      transaction.setStatus(Transaction.SUCCESS);
+    } catch (IOException ex) {
+      //a file being replaced, or left corrupted by a crashed publisher, is read again at the next check
+      Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
+      transaction.setStatus(ex);
+    } finally {
+      transaction.complete();
+    }
+  }
+
+  /**
+   * The file key changes when the publisher renames a new snapshot over the old one, the modified time and size
+   * cover the file systems without file keys.
+   */
+  private Object snapshotVersion() throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(m_snapshotFile.toPath(), BasicFileAttributes.class);
+    return Joiner.on('|').useForNull("").join(attributes.fileKey(), attributes.lastModifiedTime(),
+        attributes.size());
+  }
+
+  private void updateProperties(ImmutableProperties newProperties) {
+    ImmutableProperties previous = m_properties;
+    if (newProperties.equals(previous)) {
+      return;
+    }
+    m_properties = newProperties;
+    this.fireRepositoryChange(m_namespace, newProperties);
+  }
+
+  /**
+   * Create the directory owner only, or check that an existing one is owned by the user of this JVM and tighten its
+   * permissions. Only the creation applies on non POSIX file systems.
+   */
+  private static void prepareDirectory(File dir) {
+    Path path = dir.toPath();
+    try {
+      if (!FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+        Files.createDirectories(path);
+        return;
+      }
+      if (!Files.isDirectory(path)) {
+        Files.createDirectories(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+      }
+      UserPrincipal owner = Files.getOwner(path);
+      if (!owner.equals(currentUser())) {
+        throw new ApolloConfigException(String.format(
+            "Shared config dir %s is owned by %s, not by the user of this JVM", dir.getAbsolutePath(),
+            owner.getName()));
+      }
+      if (!Files.getPosixFilePermissions(path).equals(OWNER_ONLY)) {
+        Files.setPosixFilePermissions(path, OWNER_ONLY);
+      }
+    } catch (IOException ex) {
+      throw new ApolloConfigException(
+          String.format("Unable to create shared config dir %s", dir.getAbsolutePath()), ex);
+    }
+  }
+
+  /**
+   * The owner of a file created by this JVM, as the user name of a process may have no entry to look it up by.
+   */
+  private static UserPrincipal currentUser() throws IOException {
+    if (s_currentUser == null) {
+      Path probe = Files.createTempFile("apollo-shared-config", ".probe");
+      try {
+        s_currentUser = Files.getOwner(probe);
+      } finally {
+        Files.deleteIfExists(probe);
+      }
+    }
+    return s_currentUser;
+  }
+
+  private static void closeQuietly(FileChannel channel) {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException ex) {
+      //ignore
+    }
+  }
+}
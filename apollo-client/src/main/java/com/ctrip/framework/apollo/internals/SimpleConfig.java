@@ -14,13 +14,15 @@ import com.ctrip.framework.apollo.model.ConfigChange;
 import com.ctrip.framework.apollo.model.ConfigChangeEvent;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.util.ExceptionUtil;
+import com.ctrip.framework.apollo.util.ImmutableProperties;
 import com.google.common.base.Function;
 import com.google.common.collect.Maps;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
  */
-public class SimpleConfig extends AbstractConfig implements RepositoryChangeListener {
+public class SimpleConfig extends AbstractConfig implements RepositoryChangeListener,
+    ImmutablePropertiesListener {
   private static final Logger logger = LoggerFactory.getLogger(SimpleConfig.class);
   private final String m_namespace;
   private final ConfigRepository m_configRepository;
@@ -41,7 +43,8 @@ public class SimpleConfig extends AbstractConfig implements RepositoryChangeList
 
   private void initialize() {
     try {
-      updateConfig(m_configRepository.getConfig(), m_configRepository.getSourceType());
+      updateConfig(AbstractConfigRepository.sharedConfigOf(m_configRepository),
+          m_configRepository.getSourceType());
     } catch (Throwable ex) {
       Tracer.logError(ex);
       logger.warn("Init Apollo Simple Config failed - namespace: {}, reason: {}", m_namespace,
@@ -81,8 +84,7 @@ public class SimpleConfig extends AbstractConfig implements RepositoryChangeList
     if (newProperties.equals(m_configProperties)) {
       return;
     }
-    Properties newConfigProperties = propertiesFactory.getPropertiesInstance();
-    newConfigProperties.putAll(newProperties);
+    Properties newConfigProperties = ImmutableProperties.copyOf(newProperties);
 
     List<ConfigChange> changes = calcPropertyChanges(namespace, m_configProperties, newConfigProperties);
     Map<String, ConfigChange> changeMap = Maps.uniqueIndex(changes,
@@ -95,6 +97,7 @@ public class SimpleConfig extends AbstractConfig implements RepositoryChangeList
 
     updateConfig(newConfigProperties, m_configRepository.getSourceType());
     clearConfigCache();
+    refreshPropertyHandles();
 
     this.fireConfigChange(new ConfigChangeEvent(m_namespace, changeMap));
 
@@ -0,0 +1,102 @@
+package com.ctrip.framework.apollo.internals;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsed typed values of one config version.
+ *
+ * <p>A config change publishes a new snapshot instead of invalidating this one, so readers never lock: a hit is a
+ * {@link ConcurrentHashMap} lookup plus an expiry check and allocates nothing.</p>
+ */
+final class TypedValueSnapshot {
+  static final int INTEGER = 0;
+  static final int LONG = 1;
+  static final int SHORT = 2;
+  static final int FLOAT = 3;
+  static final int DOUBLE = 4;
+  static final int BYTE = 5;
+  static final int BOOLEAN = 6;
+  static final int DATE = 7;
+  static final int DURATION = 8;
+  private static final int TYPE_COUNT = 9;
+
+  private final ValueCache[] m_caches;
+  private final ConcurrentMap<String, ValueCache> m_arrayCaches;
+  private final long m_maxSize;
+  private final long m_expireNanos;
+
+  TypedValueSnapshot(long maxSize, long expireTime, TimeUnit expireTimeUnit) {
+    m_maxSize = maxSize;
+    m_expireNanos = expireTimeUnit.toNanos(expireTime);
+    m_caches = new ValueCache[TYPE_COUNT];
+    for (int i = 0; i < TYPE_COUNT; i++) {
+      m_caches[i] = new ValueCache();
+    }
+    m_arrayCaches = new ConcurrentHashMap<>();
+  }
+
+  ValueCache cache(int type) {
+    return m_caches[type];
+  }
+
+  ValueCache arrayCache(String delimiter) {
+    ValueCache cache = m_arrayCaches.get(delimiter);
+    if (cache == null) {
+      ValueCache newCache = new ValueCache();
+      cache = m_arrayCaches.putIfAbsent(delimiter, newCache);
+      if (cache == null) {
+        cache = newCache;
+      }
+    }
+    return cache;
+  }
+
+  final class ValueCache {
+    private final ConcurrentHashMap<String, Entry> m_entries = new ConcurrentHashMap<>();
+
+    /**
+     * @return the cached value, or null if absent or expired
+     */
+    Object get(String key) {
+      Entry entry = m_entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (System.nanoTime() - entry.expireAt > 0) {
+        m_entries.remove(key, entry);
+        return null;
+      }
+      return entry.value;
+    }
+
+    void put(String key, Object value) {
+      if (m_maxSize <= 0) {
+        return;
+      }
+      if (m_entries.size() >= m_maxSize && !m_entries.containsKey(key)) {
+        evictOne();
+      }
+      m_entries.put(key, new Entry(value, System.nanoTime() + m_expireNanos));
+    }
+
+    private void evictOne() {
+      Iterator<String> iterator = m_entries.keySet().iterator();
+      if (iterator.hasNext()) {
+        m_entries.remove(iterator.next());
+      }
+    }
+  }
+
+  private static final class Entry {
+    private final Object value;
+    private final long expireAt;
+
+    private Entry(Object value, long expireAt) {
+      this.value = value;
+      this.expireAt = expireAt;
+    }
+  }
+}
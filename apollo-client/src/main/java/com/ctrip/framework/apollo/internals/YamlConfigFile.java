@@ -12,17 +12,17 @@ import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.ctrip.framework.apollo.util.yaml.YamlParser;
+import com.google.common.base.Objects;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
  */
 public class YamlConfigFile extends PlainTextConfigFile implements PropertiesCompatibleConfigFile {
   private static final Logger logger = LoggerFactory.getLogger(YamlConfigFile.class);
-  private volatile Properties cachedProperties;
+  private volatile CachedProperties cachedProperties;
 
   public YamlConfigFile(String namespace, ConfigRepository configRepository) {
     super(namespace, configRepository);
-    tryTransformToProperties();
   }
 
   @Override
@@ -30,42 +30,50 @@ public class YamlConfigFile extends PlainTextConfigFile implements PropertiesCom
     return ConfigFileFormat.YAML;
   }
 
-  @Override
-  protected void update(Properties newProperties) {
-    super.update(newProperties);
-    tryTransformToProperties();
-  }
-
+  /**
+   * The content is transformed lazily, on the first call after it changed.
+   */
   @Override
   public Properties asProperties() {
-    if (cachedProperties == null) {
-      transformToProperties();
+    String content = getContent();
+    CachedProperties cached = cachedProperties;
+    if (cached == null || cached.content != content) {
+      cached = transformToProperties(content);
     }
-    return cachedProperties;
+    return cached.properties;
   }
 
-  private boolean tryTransformToProperties() {
+  private synchronized CachedProperties transformToProperties(String content) {
+    CachedProperties cached = cachedProperties;
+    if (cached != null && cached.content == content) {
+      return cached;
+    }
+    if (cached != null && Objects.equal(cached.content, content)) {
+      // same content, keep the same properties so that no change is fired
+      cachedProperties = new CachedProperties(content, cached.properties);
+      return cachedProperties;
+    }
     try {
-      transformToProperties();
-      return true;
+      cachedProperties = new CachedProperties(content, toProperties(content));
     } catch (Throwable ex) {
+      if (cached == null) {
+        throw ex;
+      }
+      // keep the last transformed properties
       Tracer.logEvent("ApolloConfigException", ExceptionUtil.getDetailMessage(ex));
       logger.warn("yaml to properties failed, reason: {}", ExceptionUtil.getDetailMessage(ex));
+      cachedProperties = new CachedProperties(content, cached.properties);
     }
-    return false;
-  }
-
-  private synchronized void transformToProperties() {
-    cachedProperties = toProperties();
+    return cachedProperties;
   }
 
-  private Properties toProperties() {
-    if (!this.hasContent()) {
+  private Properties toProperties(String content) {
+    if (content == null) {
       return propertiesFactory.getPropertiesInstance();
     }
 
     try {
-      return ApolloInjector.getInstance(YamlParser.class).yamlToProperties(getContent());
+      return ApolloInjector.getInstance(YamlParser.class).yamlToProperties(content);
     } catch (Throwable ex) {
       ApolloConfigException exception = new ApolloConfigException(
           "Parse yaml file content failed for namespace: " + m_namespace, ex);
@@ -73,4 +81,14 @@ public class YamlConfigFile extends PlainTextConfigFile implements PropertiesCom
       throw exception;
     }
   }
+
+  private static class CachedProperties {
+    private final String content;
+    private final Properties properties;
+
+    private CachedProperties(String content, Properties properties) {
+      this.content = content;
+      this.properties = properties;
+    }
+  }
 }
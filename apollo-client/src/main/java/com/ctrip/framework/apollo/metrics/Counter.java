@@ -0,0 +1,45 @@
+package com.ctrip.framework.apollo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A monotonically increasing count, kept in a few cells picked by thread so that threads updating it concurrently
+ * rarely contend on the same cache line. Reading it sums the cells.
+ */
+public final class Counter {
+  //longs per cell, a cell takes one cache line
+  private static final int PADDING = 8;
+  private static final int CELLS = cellCount();
+
+  private final AtomicLongArray m_cells = new AtomicLongArray(CELLS * PADDING);
+
+  public void inc() {
+    add(1);
+  }
+
+  public void add(long delta) {
+    m_cells.getAndAdd(cellIndex(), delta);
+  }
+
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < CELLS; i++) {
+      count += m_cells.get(i * PADDING);
+    }
+    return count;
+  }
+
+  private static int cellIndex() {
+    long threadId = Thread.currentThread().getId();
+    return (int) ((threadId ^ (threadId >>> 16)) & (CELLS - 1)) * PADDING;
+  }
+
+  private static int cellCount() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int cells = 1;
+    while (cells < processors && cells < 16) {
+      cells <<= 1;
+    }
+    return cells;
+  }
+}
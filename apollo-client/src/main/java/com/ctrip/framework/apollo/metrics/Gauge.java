@@ -0,0 +1,11 @@
+package com.ctrip.framework.apollo.metrics;
+
+/**
+ * A metric whose value is read when the metrics are collected.
+ */
+public interface Gauge {
+  /**
+   * @return the current value
+   */
+  Number getValue();
+}
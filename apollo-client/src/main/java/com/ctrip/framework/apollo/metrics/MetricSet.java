@@ -0,0 +1,13 @@
+package com.ctrip.framework.apollo.metrics;
+
+import java.util.Map;
+
+/**
+ * A group of metrics whose names are only known when they are collected, e.g. one per config service.
+ */
+public interface MetricSet {
+  /**
+   * @return the current values, keyed by metric name
+   */
+  Map<String, Number> getMetrics();
+}
@@ -0,0 +1,77 @@
+package com.ctrip.framework.apollo.metrics;
+
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanConstructorInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Exposes every metric of a {@link MetricsRegistry} as a read-only attribute. The attributes are listed anew on each
+ * {@link #getMBeanInfo()}, as metrics show up while the client runs. {@link #getAttribute(String)} reads only the
+ * requested metric and {@link #getAttributes(String[])} collects the metrics once, so reading them all one by one or
+ * at once costs about the same as one collection.
+ */
+class MetricsMBean implements DynamicMBean {
+  private final MetricsRegistry m_registry;
+
+  MetricsMBean(MetricsRegistry registry) {
+    m_registry = registry;
+  }
+
+  @Override
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    Number value = m_registry.getMetric(attribute);
+    if (value == null) {
+      throw new AttributeNotFoundException(attribute);
+    }
+    return value;
+  }
+
+  @Override
+  public AttributeList getAttributes(String[] attributes) {
+    Map<String, Number> metrics = m_registry.getMetrics();
+    AttributeList result = new AttributeList();
+    for (String attribute : attributes) {
+      Number value = metrics.get(attribute);
+      if (value != null) {
+        result.add(new Attribute(attribute, value));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+    throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+  }
+
+  @Override
+  public AttributeList setAttributes(AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  @Override
+  public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+    throw new ReflectionException(new NoSuchMethodException(actionName));
+  }
+
+  @Override
+  public MBeanInfo getMBeanInfo() {
+    Map<String, Number> metrics = m_registry.getMetrics();
+    MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[metrics.size()];
+    int i = 0;
+    for (Map.Entry<String, Number> entry : metrics.entrySet()) {
+      attributes[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+          entry.getKey(), true, false, false);
+    }
+    return new MBeanInfo(MetricsRegistry.class.getName(), "Apollo client metrics", attributes,
+        new MBeanConstructorInfo[0], new MBeanOperationInfo[0], new MBeanNotificationInfo[0]);
+  }
+}
@@ -0,0 +1,287 @@
+package com.ctrip.framework.apollo.metrics;
+
+import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
+import com.ctrip.framework.apollo.internals.ChangeListenerDispatcher;
+import com.ctrip.framework.apollo.metrics.spi.MetricsExporter;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.ctrip.framework.apollo.util.ExceptionUtil;
+import com.ctrip.framework.foundation.internals.ServiceBootstrap;
+import com.google.common.collect.Lists;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The metrics of the apollo client: fetch and long polling round trips, typed value cache hits, change listener
+ * deliveries, local cache fallbacks and the config service scores.
+ *
+ * <p>Counters and timers are striped, so updating them on hot paths costs about one uncontended atomic add. The
+ * metrics are exposed as the attributes of a {@value #OBJECT_NAME_PREFIX} MBean, and pushed to the
+ * {@link MetricsExporter}s found on the classpath.</p>
+ *
+ * <p>The MBean name carries the app id and the class loader of this client, so the copies of the client bundled in
+ * several web apps of one container each get their own MBean. A web app should call {@link #close()} when it is
+ * undeployed, since the registered MBean otherwise keeps its class loader reachable.</p>
+ */
+public class MetricsRegistry {
+  private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+  public static final String OBJECT_NAME_PREFIX = "com.ctrip.framework.apollo:type=ClientMetrics";
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final ConcurrentMap<String, Counter> m_counters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Timer> m_timers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Gauge> m_gauges = new ConcurrentHashMap<>();
+  private final List<MetricSet> m_metricSets = Lists.newCopyOnWriteArrayList();
+  private final ConfigUtil m_configUtil;
+  private volatile ObjectName m_objectName;
+  private volatile ScheduledExecutorService m_exportExecutorService;
+
+  public MetricsRegistry() {
+    m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
+    register(new ChangeListenerMetrics());
+    if (m_configUtil.isMetricsJmxEnabled()) {
+      registerMBean();
+    }
+    scheduleExport();
+  }
+
+  public Counter counter(String name) {
+    Counter counter = m_counters.get(name);
+    if (counter == null) {
+      Counter newCounter = new Counter();
+      counter = m_counters.putIfAbsent(name, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+      }
+    }
+    return counter;
+  }
+
+  public Timer timer(String name) {
+    Timer timer = m_timers.get(name);
+    if (timer == null) {
+      Timer newTimer = new Timer();
+      timer = m_timers.putIfAbsent(name, newTimer);
+      if (timer == null) {
+        timer = newTimer;
+      }
+    }
+    return timer;
+  }
+
+  /**
+   * Register a gauge, replacing the one previously registered with the same name.
+   */
+  public void register(String name, Gauge gauge) {
+    m_gauges.put(name, gauge);
+  }
+
+  public void register(MetricSet metricSet) {
+    m_metricSets.add(metricSet);
+  }
+
+  /**
+   * @return the current values of all metrics, sorted by name. A timer named x is reported as x.count,
+   * x.totalMillis and x.maxMillis.
+   */
+  public SortedMap<String, Number> getMetrics() {
+    SortedMap<String, Number> metrics = new TreeMap<>();
+    for (Map.Entry<String, Counter> entry : m_counters.entrySet()) {
+      metrics.put(entry.getKey(), entry.getValue().getCount());
+    }
+    for (Map.Entry<String, Timer> entry : m_timers.entrySet()) {
+      Timer timer = entry.getValue();
+      metrics.put(entry.getKey() + ".count", timer.getCount());
+      metrics.put(entry.getKey() + ".totalMillis", toMillis(timer.getTotalNanos()));
+      metrics.put(entry.getKey() + ".maxMillis", toMillis(timer.getMaxNanos()));
+    }
+    for (Map.Entry<String, Gauge> entry : m_gauges.entrySet()) {
+      putIfNotNull(metrics, entry.getKey(), readGauge(entry.getKey(), entry.getValue()));
+    }
+    for (MetricSet metricSet : m_metricSets) {
+      for (Map.Entry<String, Number> entry : readMetricSet(metricSet).entrySet()) {
+        putIfNotNull(metrics, entry.getKey(), entry.getValue());
+      }
+    }
+    return metrics;
+  }
+
+  /**
+   * @return the current value of one metric as reported by {@link #getMetrics()}, or null if there is none by that
+   * name. Only that metric is read, or the metric sets until one has it.
+   */
+  public Number getMetric(String name) {
+    Counter counter = m_counters.get(name);
+    if (counter != null) {
+      return counter.getCount();
+    }
+    Gauge gauge = m_gauges.get(name);
+    if (gauge != null) {
+      return readGauge(name, gauge);
+    }
+    int dot = name.lastIndexOf('.');
+    Timer timer = dot > 0 ? m_timers.get(name.substring(0, dot)) : null;
+    if (timer != null) {
+      switch (name.substring(dot + 1)) {
+        case "count":
+          return timer.getCount();
+        case "totalMillis":
+          return toMillis(timer.getTotalNanos());
+        case "maxMillis":
+          return toMillis(timer.getMaxNanos());
+        default:
+          break;
+      }
+    }
+    for (MetricSet metricSet : m_metricSets) {
+      Number value = readMetricSet(metricSet).get(name);
+      if (value != null) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  public static double toMillis(long nanos) {
+    return nanos / NANOS_PER_MILLI;
+  }
+
+  private Number readGauge(String name, Gauge gauge) {
+    try {
+      return gauge.getValue();
+    } catch (Throwable ex) {
+      logger.warn("Read gauge {} failed, reason: {}", name, ExceptionUtil.getDetailMessage(ex));
+      return null;
+    }
+  }
+
+  private Map<String, Number> readMetricSet(MetricSet metricSet) {
+    try {
+      return metricSet.getMetrics();
+    } catch (Throwable ex) {
+      logger.warn("Collect metrics from {} failed, reason: {}", metricSet, ExceptionUtil.getDetailMessage(ex));
+      return Collections.emptyMap();
+    }
+  }
+
+  private void putIfNotNull(Map<String, Number> metrics, String name, Number value) {
+    if (value != null) {
+      metrics.put(name, value);
+    }
+  }
+
+  /**
+   * @return the name the MBean is registered with, or null if it is not registered
+   */
+  public ObjectName getObjectName() {
+    return m_objectName;
+  }
+
+  /**
+   * Unregister the MBean and stop exporting, e.g. when the web app bundling this client is undeployed.
+   */
+  public synchronized void close() {
+    ObjectName objectName = m_objectName;
+    if (objectName != null) {
+      m_objectName = null;
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (Throwable ex) {
+        logger.warn("Unregister apollo client metrics mbean failed, reason: {}",
+            ExceptionUtil.getDetailMessage(ex));
+      }
+    }
+    ScheduledExecutorService executorService = m_exportExecutorService;
+    if (executorService != null) {
+      m_exportExecutorService = null;
+      executorService.shutdown();
+    }
+  }
+
+  private synchronized void registerMBean() {
+    try {
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      ObjectName objectName = new ObjectName(String.format("%s,appId=%s,classLoader=%s", OBJECT_NAME_PREFIX,
+          ObjectName.quote(String.valueOf(m_configUtil.getAppId())),
+          Integer.toHexString(System.identityHashCode(MetricsRegistry.class.getClassLoader()))));
+      MetricsMBean mBean = new MetricsMBean(this);
+      try {
+        mBeanServer.registerMBean(mBean, objectName);
+      } catch (InstanceAlreadyExistsException ex) {
+        //the name can only be taken by this same copy of the client, e.g. when the injector is recreated
+        mBeanServer.unregisterMBean(objectName);
+        mBeanServer.registerMBean(mBean, objectName);
+      }
+      m_objectName = objectName;
+    } catch (Throwable ex) {
+      Tracer.logError(ex);
+      logger.warn("Register apollo client metrics mbean failed, reason: {}", ExceptionUtil.getDetailMessage(ex));
+    }
+  }
+
+  private void scheduleExport() {
+    final List<MetricsExporter> exporters;
+    try {
+      exporters = Lists.newArrayList(ServiceBootstrap.loadAll(MetricsExporter.class));
+    } catch (Throwable ex) {
+      Tracer.logError(ex);
+      logger.warn("Load metrics exporters failed, reason: {}", ExceptionUtil.getDetailMessage(ex));
+      return;
+    }
+    long interval = m_configUtil.getMetricsExportIntervalInSeconds();
+    if (exporters.isEmpty() || interval <= 0) {
+      return;
+    }
+    ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(
+        ApolloThreadFactory.create("MetricsExporter", true));
+    executorService.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        export(exporters);
+      }
+    }, interval, interval, TimeUnit.SECONDS);
+    m_exportExecutorService = executorService;
+  }
+
+  void export(List<MetricsExporter> exporters) {
+    Map<String, Number> metrics = Collections.unmodifiableMap(getMetrics());
+    for (MetricsExporter exporter : exporters) {
+      try {
+        exporter.export(metrics);
+      } catch (Throwable ex) {
+        logger.warn("Export metrics with {} failed, reason: {}", exporter.getClass(),
+            ExceptionUtil.getDetailMessage(ex));
+      }
+    }
+  }
+
+  private static class ChangeListenerMetrics implements MetricSet {
+    @Override
+    public Map<String, Number> getMetrics() {
+      Map<String, Number> metrics = new TreeMap<>();
+      metrics.put("listener.backlog", ChangeListenerDispatcher.getBacklog());
+      metrics.put("listener.dispatched", ChangeListenerDispatcher.getDispatchedCount());
+      metrics.put("listener.coalesced", ChangeListenerDispatcher.getCoalescedCount());
+      metrics.put("listener.delivered", ChangeListenerDispatcher.getDeliveredCount());
+      metrics.put("listener.failed", ChangeListenerDispatcher.getFailedCount());
+      metrics.put("listener.totalMillis", toMillis(ChangeListenerDispatcher.getTotalLatencyNanos()));
+      metrics.put("listener.maxMillis", toMillis(ChangeListenerDispatcher.getMaxLatencyNanos()));
+      return metrics;
+    }
+  }
+}
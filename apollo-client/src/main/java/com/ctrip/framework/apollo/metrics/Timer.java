@@ -0,0 +1,40 @@
+package com.ctrip.framework.apollo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Count, total and max of the durations of an operation.
+ */
+public final class Timer {
+  private final Counter m_count = new Counter();
+  private final Counter m_totalNanos = new Counter();
+  private final AtomicLong m_maxNanos = new AtomicLong();
+
+  public void record(long nanos) {
+    m_count.inc();
+    m_totalNanos.add(nanos);
+    long max = m_maxNanos.get();
+    while (nanos > max && !m_maxNanos.compareAndSet(max, nanos)) {
+      max = m_maxNanos.get();
+    }
+  }
+
+  /**
+   * Record the time elapsed since the given {@link System#nanoTime()}.
+   */
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public long getCount() {
+    return m_count.getCount();
+  }
+
+  public long getTotalNanos() {
+    return m_totalNanos.getCount();
+  }
+
+  public long getMaxNanos() {
+    return m_maxNanos.get();
+  }
+}
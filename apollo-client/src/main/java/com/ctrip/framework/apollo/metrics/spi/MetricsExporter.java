@@ -0,0 +1,17 @@
+package com.ctrip.framework.apollo.metrics.spi;
+
+import java.util.Map;
+
+/**
+ * Publishes the client metrics to a monitoring system. Implementations are loaded from
+ * /META-INF/services/com.ctrip.framework.apollo.metrics.spi.MetricsExporter and called every
+ * apollo.metrics.export.intervalInSeconds.
+ */
+public interface MetricsExporter {
+  /**
+   * Called on the metrics export thread, should not block for long.
+   *
+   * @param metrics the current values of all client metrics, keyed by metric name
+   */
+  void export(Map<String, Number> metrics);
+}
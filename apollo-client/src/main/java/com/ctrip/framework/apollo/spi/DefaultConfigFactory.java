@@ -4,6 +4,9 @@ import com.ctrip.framework.apollo.ConfigService;
 import com.ctrip.framework.apollo.PropertiesCompatibleConfigFile;
 import com.ctrip.framework.apollo.internals.PropertiesCompatibleFileConfigRepository;
 import com.ctrip.framework.apollo.internals.TxtConfigFile;
+import com.ctrip.framework.apollo.tracer.Tracer;
+import com.google.common.base.Strings;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,16 +14,19 @@ import com.ctrip.framework.apollo.Config;
 import com.ctrip.framework.apollo.ConfigFile;
 import com.ctrip.framework.apollo.build.ApolloInjector;
 import com.ctrip.framework.apollo.core.enums.ConfigFileFormat;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
 import com.ctrip.framework.apollo.internals.ConfigRepository;
 import com.ctrip.framework.apollo.internals.DefaultConfig;
 import com.ctrip.framework.apollo.internals.JsonConfigFile;
 import com.ctrip.framework.apollo.internals.LocalFileConfigRepository;
 import com.ctrip.framework.apollo.internals.PropertiesConfigFile;
 import com.ctrip.framework.apollo.internals.RemoteConfigRepository;
+import com.ctrip.framework.apollo.internals.SharedConfigRepository;
 import com.ctrip.framework.apollo.internals.XmlConfigFile;
 import com.ctrip.framework.apollo.internals.YamlConfigFile;
 import com.ctrip.framework.apollo.internals.YmlConfigFile;
 import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.ctrip.framework.apollo.util.ExceptionUtil;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
@@ -70,13 +76,48 @@ public class DefaultConfigFactory implements ConfigFactory {
           namespace);
       return new LocalFileConfigRepository(namespace);
     }
+    if (!Strings.isNullOrEmpty(m_configUtil.getSharedCacheDir())) {
+      return new LocalFileConfigRepository(namespace, createSharedConfigRepository(namespace));
+    }
+    if (isStaleWhileRevalidate(namespace)) {
+      LocalFileConfigRepository localFileConfigRepository = new LocalFileConfigRepository(namespace);
+      long maxStalenessMillis = TimeUnit.SECONDS.toMillis(m_configUtil.getStaleWhileRevalidateMaxStalenessInSeconds());
+      boolean serveLocalCache = localFileConfigRepository.hasLocalCache(maxStalenessMillis);
+      if (serveLocalCache) {
+        Tracer.logEvent("Apollo.Client.StaleWhileRevalidate", namespace);
+        logger.info("Serving local cache for namespace {} while loading it from remote in background", namespace);
+      }
+      localFileConfigRepository.setUpstreamRepository(createRemoteConfigRepository(namespace, serveLocalCache));
+      return localFileConfigRepository;
+    }
     return new LocalFileConfigRepository(namespace, createRemoteConfigRepository(namespace));
   }
 
+  private boolean isStaleWhileRevalidate(String namespace) {
+    return m_configUtil.isStaleWhileRevalidateEnabled()
+        && !m_configUtil.getStaleWhileRevalidateFreshNamespaces().contains(namespace);
+  }
+
+  ConfigRepository createSharedConfigRepository(String namespace) {
+    try {
+      return new SharedConfigRepository(namespace);
+    } catch (ApolloConfigException ex) {
+      //e.g. a shared dir owned by another user, this JVM loads the namespace on its own
+      Tracer.logError(ex);
+      logger.warn("Share config of namespace {} failed, loading it from remote directly, reason: {}", namespace,
+          ExceptionUtil.getDetailMessage(ex));
+      return createRemoteConfigRepository(namespace);
+    }
+  }
+
   RemoteConfigRepository createRemoteConfigRepository(String namespace) {
     return new RemoteConfigRepository(namespace);
   }
 
+  RemoteConfigRepository createRemoteConfigRepository(String namespace, boolean backgroundInitialSync) {
+    return new RemoteConfigRepository(namespace, backgroundInitialSync);
+  }
+
   PropertiesCompatibleFileConfigRepository createPropertiesCompatibleFileConfigRepository(String namespace,
       ConfigFileFormat format) {
     String actualNamespaceName = trimNamespaceFormat(namespace, format);
@@ -1,13 +1,13 @@
 package com.ctrip.framework.apollo.spring.annotation;
 
 import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.spring.property.JsonValueParser;
 import com.ctrip.framework.apollo.spring.property.PlaceholderHelper;
 import com.ctrip.framework.apollo.spring.property.SpringValue;
 import com.ctrip.framework.apollo.spring.property.SpringValueRegistry;
 import com.ctrip.framework.apollo.spring.util.SpringInjector;
 import com.ctrip.framework.apollo.util.ConfigUtil;
 import com.google.common.base.Preconditions;
-import com.google.gson.Gson;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -27,17 +27,18 @@ import org.springframework.util.ReflectionUtils;
 public class ApolloJsonValueProcessor extends ApolloProcessor implements BeanFactoryAware {
 
   private static final Logger logger = LoggerFactory.getLogger(ApolloJsonValueProcessor.class);
-  private static final Gson gson = new Gson();
 
   private final ConfigUtil configUtil;
   private final PlaceholderHelper placeholderHelper;
   private final SpringValueRegistry springValueRegistry;
+  private final JsonValueParser jsonValueParser;
   private ConfigurableBeanFactory beanFactory;
 
   public ApolloJsonValueProcessor() {
     configUtil = ApolloInjector.getInstance(ConfigUtil.class);
     placeholderHelper = SpringInjector.getInstance(PlaceholderHelper.class);
     springValueRegistry = SpringInjector.getInstance(SpringValueRegistry.class);
+    jsonValueParser = SpringInjector.getInstance(JsonValueParser.class);
   }
 
   @Override
@@ -58,7 +59,7 @@ public class ApolloJsonValueProcessor extends ApolloProcessor implements BeanFac
     boolean accessible = field.isAccessible();
     field.setAccessible(true);
     ReflectionUtils
-        .setField(field, bean, parseJsonValue((String)propertyValue, field.getGenericType()));
+        .setField(field, bean, jsonValueParser.parse(placeholder, (String) propertyValue, field.getGenericType()));
     field.setAccessible(accessible);
 
     if (configUtil.isAutoUpdateInjectedSpringPropertiesEnabled()) {
@@ -94,7 +95,7 @@ public class ApolloJsonValueProcessor extends ApolloProcessor implements BeanFac
 
     boolean accessible = method.isAccessible();
     method.setAccessible(true);
-    ReflectionUtils.invokeMethod(method, bean, parseJsonValue((String)propertyValue, types[0]));
+    ReflectionUtils.invokeMethod(method, bean, jsonValueParser.parse(placeHolder, (String) propertyValue, types[0]));
     method.setAccessible(accessible);
 
     if (configUtil.isAutoUpdateInjectedSpringPropertiesEnabled()) {
@@ -108,15 +109,6 @@ public class ApolloJsonValueProcessor extends ApolloProcessor implements BeanFac
     }
   }
 
-  private Object parseJsonValue(String json, Type targetType) {
-    try {
-      return gson.fromJson(json, targetType);
-    } catch (Throwable ex) {
-      logger.error("Parsing json '{}' to type {} failed!", json, targetType, ex);
-      throw ex;
-    }
-  }
-
   @Override
   public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
     this.beanFactory = (ConfigurableBeanFactory) beanFactory;
@@ -9,7 +9,11 @@ import com.ctrip.framework.apollo.spring.util.SpringInjector;
 import com.ctrip.framework.apollo.util.factory.PropertiesFactory;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
@@ -99,9 +103,12 @@ public class ApolloApplicationContextInitializer implements
     logger.debug("Apollo bootstrap namespaces: {}", namespaces);
     List<String> namespaceList = NAMESPACE_SPLITTER.splitToList(namespaces);
 
+    //load all namespaces in parallel
+    Map<String, ListenableFuture<Config>> configs = ConfigService.getConfigsAsync(Sets.newLinkedHashSet(namespaceList));
+
     CompositePropertySource composite = new CompositePropertySource(PropertySourcesConstants.APOLLO_BOOTSTRAP_PROPERTY_SOURCE_NAME);
     for (String namespace : namespaceList) {
-      Config config = ConfigService.getConfig(namespace);
+      Config config = Futures.getUnchecked(configs.get(namespace));
 
       composite.addPropertySource(configPropertySourceFactory.getConfigPropertySource(namespace, config));
     }
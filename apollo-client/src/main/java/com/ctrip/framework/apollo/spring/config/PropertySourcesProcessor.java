@@ -12,7 +12,10 @@ import com.ctrip.framework.apollo.Config;
 import com.ctrip.framework.apollo.ConfigService;
 
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
@@ -74,12 +77,16 @@ public class PropertySourcesProcessor implements BeanFactoryPostProcessor, Envir
 
     //sort by order asc
     ImmutableSortedSet<Integer> orders = ImmutableSortedSet.copyOf(NAMESPACE_NAMES.keySet());
+
+    //load all namespaces in parallel
+    Map<String, ListenableFuture<Config>> configs = ConfigService.getConfigsAsync(Sets.newLinkedHashSet(NAMESPACE_NAMES.values()));
+
     Iterator<Integer> iterator = orders.iterator();
 
     while (iterator.hasNext()) {
       int order = iterator.next();
       for (String namespace : NAMESPACE_NAMES.get(order)) {
-        Config config = ConfigService.getConfig(namespace);
+        Config config = Futures.getUnchecked(configs.get(namespace));
 
         composite.addPropertySource(configPropertySourceFactory.getConfigPropertySource(namespace, config));
       }
@@ -5,10 +5,10 @@ import com.ctrip.framework.apollo.enums.PropertyChangeType;
 import com.ctrip.framework.apollo.model.ConfigChange;
 import com.ctrip.framework.apollo.model.ConfigChangeEvent;
 import com.ctrip.framework.apollo.spring.util.SpringInjector;
-import com.google.gson.Gson;
+import com.google.common.collect.Sets;
 import java.lang.reflect.Field;
-import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
 import org.slf4j.Logger;
@@ -16,6 +16,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.TypeConverter;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.util.CollectionUtils;
 
@@ -31,7 +32,11 @@ public class AutoUpdateConfigChangeListener implements ConfigChangeListener{
   private final TypeConverter typeConverter;
   private final PlaceholderHelper placeholderHelper;
   private final SpringValueRegistry springValueRegistry;
-  private final Gson gson;
+  //null if the environment is not configurable, then only the keys in the placeholders are tracked
+  private final SpringValueDependencyIndex dependencyIndex;
+  //the spring values registered since the last change, still to be traced by the dependency index
+  private final Set<SpringValue> newSpringValues;
+  private final JsonValueParser jsonValueParser;
 
   public AutoUpdateConfigChangeListener(Environment environment, ConfigurableListableBeanFactory beanFactory){
     this.typeConverterHasConvertIfNecessaryWithFieldParameter = testTypeConverterHasConvertIfNecessaryWithFieldParameter();
@@ -40,25 +45,38 @@ public class AutoUpdateConfigChangeListener implements ConfigChangeListener{
     this.environment = environment;
     this.placeholderHelper = SpringInjector.getInstance(PlaceholderHelper.class);
     this.springValueRegistry = SpringInjector.getInstance(SpringValueRegistry.class);
-    this.gson = new Gson();
+    this.dependencyIndex = environment instanceof ConfigurableEnvironment ? new SpringValueDependencyIndex(
+        ((ConfigurableEnvironment) environment).getPropertySources(), placeholderHelper) : null;
+    this.newSpringValues = dependencyIndex != null ? springValueRegistry.watch(beanFactory)
+        : Collections.<SpringValue>emptySet();
+    this.jsonValueParser = SpringInjector.getInstance(JsonValueParser.class);
   }
 
   @Override
-  public void onChange(ConfigChangeEvent changeEvent) {
+  public synchronized void onChange(ConfigChangeEvent changeEvent) {
     Set<String> keys = changeEvent.changedKeys();
     if (CollectionUtils.isEmpty(keys)) {
       return;
     }
+
+    // 1. find the spring values reading any changed key, a spring value reading several is found once
+    Set<SpringValue> targetValues = Sets.newLinkedHashSet();
     for (String key : keys) {
-      // 1. check whether the changed key is relevant
-      Collection<SpringValue> targetValues = springValueRegistry.get(beanFactory, key);
-      if (targetValues == null || targetValues.isEmpty()) {
-        continue;
+      Collection<SpringValue> springValues = springValueRegistry.get(beanFactory, key);
+      if (springValues != null) {
+        targetValues.addAll(springValues);
       }
+    }
+    if (dependencyIndex != null) {
+      dependencyIndex.track(newSpringValues);
+      targetValues.addAll(dependencyIndex.getDependents(keys));
+    }
 
-      // 2. update the value
-      for (SpringValue val : targetValues) {
-        updateSpringValue(val);
+    // 2. update each value once
+    for (SpringValue val : targetValues) {
+      updateSpringValue(val);
+      if (dependencyIndex != null) {
+        dependencyIndex.retrack(val);
       }
     }
   }
@@ -85,7 +103,8 @@ public class AutoUpdateConfigChangeListener implements ConfigChangeListener{
         .resolvePropertyValue(beanFactory, springValue.getBeanName(), springValue.getPlaceholder());
 
     if (springValue.isJson()) {
-      value = parseJsonValue((String)value, springValue.getGenericType());
+      value = jsonValueParser.parse(springValue.getPlaceholder(), (String) value,
+          springValue.getGenericType());
     } else {
       if (springValue.isField()) {
         // org.springframework.beans.TypeConverter#convertIfNecessary(java.lang.Object, java.lang.Class, java.lang.reflect.Field) is available from Spring 3.2.0+
@@ -104,15 +123,6 @@ public class AutoUpdateConfigChangeListener implements ConfigChangeListener{
     return value;
   }
 
-  private Object parseJsonValue(String json, Type targetType) {
-    try {
-      return gson.fromJson(json, targetType);
-    } catch (Throwable ex) {
-      logger.error("Parsing json '{}' to type {} failed!", json, targetType, ex);
-      throw ex;
-    }
-  }
-
   private boolean testTypeConverterHasConvertIfNecessaryWithFieldParameter() {
     try {
       TypeConverter.class.getMethod("convertIfNecessary", Object.class, Class.class, Field.class);
@@ -0,0 +1,164 @@
+package com.ctrip.framework.apollo.spring.property;
+
+import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.metrics.MetricSet;
+import com.ctrip.framework.apollo.metrics.MetricsRegistry;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parses @ApolloJsonValue values, sharing the work among the targets injected with the same json.
+ *
+ * <p>Each json text is parsed once into a tree, and every target gets its own object deserialized from the tree. With
+ * apollo.jsonValue.sharedInstance.enabled the targets of the same type get the same object instead, so they must not
+ * modify it.</p>
+ *
+ * <p>Only the current json of each placeholder is kept, so an old version is dropped as soon as the config changes,
+ * and the parsed values are softly referenced so that large json values never cause an out of memory error.</p>
+ */
+public class JsonValueParser {
+  private static final Logger logger = LoggerFactory.getLogger(JsonValueParser.class);
+  private final Gson gson = new Gson();
+  private final boolean sharedInstance;
+  //placeholder -> its current json tree
+  private final Cache<String, ParsedJson> jsonTrees;
+  //placeholder and type -> its current value
+  private final Cache<CacheKey, ParsedJson> sharedValues;
+  private final AtomicLong parseCount = new AtomicLong();
+  private final AtomicLong parseTimeNanos = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+
+  public JsonValueParser() {
+    sharedInstance = ApolloInjector.getInstance(ConfigUtil.class).isJsonValueSharedInstanceEnabled();
+    jsonTrees = CacheBuilder.newBuilder().softValues().build();
+    sharedValues = CacheBuilder.newBuilder().softValues().build();
+    ApolloInjector.getInstance(MetricsRegistry.class).register(new MetricSet() {
+      @Override
+      public Map<String, Number> getMetrics() {
+        Map<String, Number> metrics = new TreeMap<>();
+        metrics.put("jsonValue.parse.count", getParseCount());
+        metrics.put("jsonValue.parse.totalMillis", MetricsRegistry.toMillis(getParseTimeNanos()));
+        metrics.put("jsonValue.cache.hit", getHitCount());
+        return metrics;
+      }
+    });
+  }
+
+  /**
+   * @param placeholder the placeholder the json is resolved from, the cache keeps the latest json of each placeholder
+   * @param json        the json resolved from the placeholder
+   * @param targetType  the type to deserialize the json to
+   */
+  public Object parse(String placeholder, String json, Type targetType) {
+    try {
+      return sharedInstance ? parseSharedValue(placeholder, json, targetType)
+          : gson.fromJson(parseJsonTree(placeholder, json), targetType);
+    } catch (Throwable ex) {
+      logger.error("Parsing json '{}' to type {} failed!", json, targetType, ex);
+      throw ex;
+    }
+  }
+
+  private Object parseSharedValue(String placeholder, String json, Type targetType) {
+    CacheKey key = new CacheKey(placeholder, targetType);
+    ParsedJson parsed = sharedValues.getIfPresent(key);
+    if (parsed != null && parsed.json.equals(json)) {
+      hitCount.incrementAndGet();
+      return parsed.value;
+    }
+    long start = System.nanoTime();
+    Object value = gson.fromJson(json, targetType);
+    recordParse(start);
+    if (value != null) {
+      sharedValues.put(key, new ParsedJson(json, value));
+    }
+    return value;
+  }
+
+  private JsonElement parseJsonTree(String placeholder, String json) {
+    ParsedJson parsed = jsonTrees.getIfPresent(placeholder);
+    if (parsed != null && parsed.json.equals(json)) {
+      hitCount.incrementAndGet();
+      return (JsonElement) parsed.value;
+    }
+    long start = System.nanoTime();
+    JsonElement jsonTree = new JsonParser().parse(json);
+    recordParse(start);
+    jsonTrees.put(placeholder, new ParsedJson(json, jsonTree));
+    return jsonTree;
+  }
+
+  private void recordParse(long start) {
+    parseCount.incrementAndGet();
+    parseTimeNanos.addAndGet(System.nanoTime() - start);
+  }
+
+  /**
+   * @return the number of json texts parsed
+   */
+  public long getParseCount() {
+    return parseCount.get();
+  }
+
+  /**
+   * @return the time spent parsing json texts, in nanoseconds
+   */
+  public long getParseTimeNanos() {
+    return parseTimeNanos.get();
+  }
+
+  /**
+   * @return the number of parses saved by the cache
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  private static final class ParsedJson {
+    private final String json;
+    private final Object value;
+
+    private ParsedJson(String json, Object value) {
+      this.json = json;
+      this.value = value;
+    }
+  }
+
+  private static final class CacheKey {
+    private final String placeholder;
+    private final Type type;
+
+    private CacheKey(String placeholder, Type type) {
+      this.placeholder = placeholder;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey cacheKey = (CacheKey) o;
+      return type.equals(cacheKey.type) && placeholder.equals(cacheKey.placeholder);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(placeholder, type);
+    }
+  }
+}
@@ -10,6 +10,10 @@ import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanExpressionContext;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.Scope;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.PropertySources;
+import org.springframework.util.PropertyPlaceholderHelper;
+import org.springframework.util.PropertyPlaceholderHelper.PlaceholderResolver;
 import org.springframework.util.StringUtils;
 
 /**
@@ -23,6 +27,8 @@ public class PlaceholderHelper {
   private static final String SIMPLE_PLACEHOLDER_PREFIX = "{";
   private static final String EXPRESSION_PREFIX = "#{";
   private static final String EXPRESSION_SUFFIX = "}";
+  private static final PropertyPlaceholderHelper KEY_TRACKING_HELPER =
+      new PropertyPlaceholderHelper(PLACEHOLDER_PREFIX, PLACEHOLDER_SUFFIX, VALUE_SEPARATOR, true);
 
   /**
    * Resolve placeholder property values, e.g.
@@ -119,6 +125,36 @@ public class PlaceholderHelper {
     return placeholderKeys;
   }
 
+  /**
+   * Extract the keys read when resolving the placeholder against the property sources, which besides the keys in the
+   * placeholder include e.g.
+   * <ul>
+   * <li>${${some.key}.suffix} => "some.key", "someValue.suffix"</li>
+   * <li>${some.key} with some.key=${another.key} => "some.key", "another.key"</li>
+   * </ul>
+   */
+  public Set<String> extractResolvedPlaceholderKeys(final PropertySources propertySources, String placeholder) {
+    final Set<String> placeholderKeys = Sets.newHashSet();
+    try {
+      KEY_TRACKING_HELPER.replacePlaceholders(placeholder, new PlaceholderResolver() {
+        @Override
+        public String resolvePlaceholder(String placeholderName) {
+          placeholderKeys.add(placeholderName);
+          for (PropertySource<?> propertySource : propertySources) {
+            Object value = propertySource.getProperty(placeholderName);
+            if (value != null) {
+              return value.toString();
+            }
+          }
+          return null;
+        }
+      });
+    } catch (IllegalArgumentException ex) {
+      // circular placeholder reference, the keys read so far are still relevant
+    }
+    return placeholderKeys;
+  }
+
   private boolean isNormalizedPlaceholder(String propertyString) {
     return propertyString.startsWith(PLACEHOLDER_PREFIX) && propertyString.contains(PLACEHOLDER_SUFFIX);
   }
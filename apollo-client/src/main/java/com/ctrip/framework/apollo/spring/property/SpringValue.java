@@ -112,8 +112,8 @@ public class SpringValue {
     return isJson;
   }
 
-  boolean isTargetBeanValid() {
-    return beanRef.get() != null;
+  Object getTargetBean() {
+    return beanRef.get();
   }
 
   @Override
@@ -0,0 +1,130 @@
+package com.ctrip.framework.apollo.spring.property;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.core.env.PropertySources;
+
+/**
+ * Reverse index from keys to the spring values whose placeholder reads them when resolved, directly, through a nested
+ * placeholder, or through the value of another property.
+ *
+ * <p>The keys of a spring value are traced once against the property sources, and again after each update since the
+ * update may change them. A key read before a change is always caught: either it did not change and is read again,
+ * or an earlier key on the way to it changed. A key is dropped once no spring value reads it any more, be it retraced
+ * to other keys or collected with its bean. Not thread safe.</p>
+ */
+class SpringValueDependencyIndex {
+  private final PropertySources propertySources;
+  private final PlaceholderHelper placeholderHelper;
+  //weak keys, spring values are dropped from the registry once their bean is collected
+  private final Map<SpringValue, Set<String>> dependencies = new MapMaker().weakKeys().makeMap();
+  private final Map<String, Set<SpringValue>> dependents = Maps.newHashMap();
+
+  SpringValueDependencyIndex(PropertySources propertySources, PlaceholderHelper placeholderHelper) {
+    this.propertySources = propertySources;
+    this.placeholderHelper = placeholderHelper;
+  }
+
+  /**
+   * Trace the new spring values, removing them from the given collection.
+   */
+  void track(Collection<SpringValue> newSpringValues) {
+    if (newSpringValues.isEmpty()) {
+      return;
+    }
+    //new beans come with the spring values of collected ones gone, e.g. prototype beans
+    prune();
+    Iterator<SpringValue> iterator = newSpringValues.iterator();
+    while (iterator.hasNext()) {
+      SpringValue springValue = iterator.next();
+      iterator.remove();
+      if (!dependencies.containsKey(springValue)) {
+        retrack(springValue);
+      }
+    }
+  }
+
+  /**
+   * Trace the spring value again, e.g. after its keys changed.
+   */
+  void retrack(SpringValue springValue) {
+    Set<String> oldKeys = dependencies.get(springValue);
+    if (oldKeys != null) {
+      for (String key : oldKeys) {
+        Set<SpringValue> springValues = dependents.get(key);
+        if (springValues != null) {
+          springValues.remove(springValue);
+          if (isEmpty(springValues)) {
+            dependents.remove(key);
+          }
+        }
+      }
+    }
+
+    Set<String> keys = placeholderHelper.extractResolvedPlaceholderKeys(propertySources,
+        springValue.getPlaceholder());
+    for (String key : keys) {
+      Set<SpringValue> springValues = dependents.get(key);
+      if (springValues == null) {
+        springValues = Collections.newSetFromMap(new MapMaker().weakKeys().<SpringValue, Boolean>makeMap());
+        dependents.put(key, springValues);
+      }
+      springValues.add(springValue);
+    }
+    dependencies.put(springValue, keys);
+  }
+
+  /**
+   * @return the spring values reading any of the keys
+   */
+  Set<SpringValue> getDependents(Set<String> keys) {
+    Set<SpringValue> result = Sets.newLinkedHashSet();
+    for (String key : keys) {
+      Set<SpringValue> springValues = dependents.get(key);
+      if (springValues == null) {
+        continue;
+      }
+      boolean empty = true;
+      for (SpringValue springValue : springValues) {
+        result.add(springValue);
+        empty = false;
+      }
+      if (empty) {
+        dependents.remove(key);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the keys read by any spring value
+   */
+  Set<String> getKeys() {
+    return Collections.unmodifiableSet(dependents.keySet());
+  }
+
+  /**
+   * Drop the keys whose spring values have all been collected.
+   */
+  private void prune() {
+    Iterator<Set<SpringValue>> iterator = dependents.values().iterator();
+    while (iterator.hasNext()) {
+      if (isEmpty(iterator.next())) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * The size of a weak set still counts the collected entries until it cleans up, iterating skips them.
+   */
+  private static boolean isEmpty(Set<SpringValue> springValues) {
+    return !springValues.iterator().hasNext();
+  }
+}
@@ -1,77 +1,134 @@
 package com.ctrip.framework.apollo.spring.property;
 
-import com.ctrip.framework.apollo.core.utils.ApolloThreadFactory;
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-
-import com.google.common.collect.Multimaps;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
 import org.springframework.beans.factory.BeanFactory;
 
+/**
+ * The spring values of each bean factory, indexed by key.
+ *
+ * <p>Lookups take no lock, and registering or dropping a spring value costs the same however many share its key,
+ * which matters for prototype and request scoped beans. The target beans are tracked with weak references enqueued
+ * when they are collected, and their spring values are dropped on the next register or lookup, so there is no
+ * periodic scan of the whole registry.</p>
+ */
 public class SpringValueRegistry {
-  private static final long CLEAN_INTERVAL_IN_SECONDS = 5;
-  private final Map<BeanFactory, Multimap<String, SpringValue>> registry = Maps.newConcurrentMap();
-  private final AtomicBoolean initialized = new AtomicBoolean(false);
-  private final Object LOCK = new Object();
+  //weak keys, a bean factory is dropped along with its context
+  private final ConcurrentMap<BeanFactory, BeanFactorySpringValues> registry = new MapMaker().weakKeys().makeMap();
+  private final ReferenceQueue<Object> collectedBeans = new ReferenceQueue<>();
+  //a reference must stay reachable to be enqueued
+  private final Set<TargetBeanReference> targetBeanReferences = Sets.newConcurrentHashSet();
 
   public void register(BeanFactory beanFactory, String key, SpringValue springValue) {
-    if (!registry.containsKey(beanFactory)) {
-      synchronized (LOCK) {
-        if (!registry.containsKey(beanFactory)) {
-          registry.put(beanFactory, Multimaps.synchronizedListMultimap(LinkedListMultimap.<String, SpringValue>create()));
-        }
-      }
+    cleanUp();
+
+    Object bean = springValue.getTargetBean();
+    if (bean == null) {
+      return;
     }
 
-    registry.get(beanFactory).put(key, springValue);
+    BeanFactorySpringValues beanFactorySpringValues = getOrCreate(beanFactory);
+    Set<SpringValue> springValues = beanFactorySpringValues.byKey.get(key);
+    if (springValues == null) {
+      Set<SpringValue> newSpringValues = Sets.newConcurrentHashSet();
+      springValues = beanFactorySpringValues.byKey.putIfAbsent(key, newSpringValues);
+      if (springValues == null) {
+        springValues = newSpringValues;
+      }
+    }
 
-    // lazy initialize
-    if (initialized.compareAndSet(false, true)) {
-      initialize();
+    springValues.add(springValue);
+    targetBeanReferences.add(new TargetBeanReference(bean, collectedBeans, springValues, springValue));
+    for (Set<SpringValue> watcher : beanFactorySpringValues.watchers) {
+      watcher.add(springValue);
     }
   }
 
   public Collection<SpringValue> get(BeanFactory beanFactory, String key) {
-    Multimap<String, SpringValue> beanFactorySpringValues = registry.get(beanFactory);
+    cleanUp();
+
+    BeanFactorySpringValues beanFactorySpringValues = registry.get(beanFactory);
     if (beanFactorySpringValues == null) {
       return null;
     }
-    return beanFactorySpringValues.get(key);
+    return beanFactorySpringValues.byKey.get(key);
   }
 
-  private void initialize() {
-    Executors.newSingleThreadScheduledExecutor(ApolloThreadFactory.create("SpringValueRegistry", true)).scheduleAtFixedRate(
-        new Runnable() {
-          @Override
-          public void run() {
-            try {
-              scanAndClean();
-            } catch (Throwable ex) {
-              ex.printStackTrace();
-            }
-          }
-        }, CLEAN_INTERVAL_IN_SECONDS, CLEAN_INTERVAL_IN_SECONDS, TimeUnit.SECONDS);
+  /**
+   * Start collecting the spring values registered to the bean factory, so a watcher handles each new value once
+   * instead of scanning the whole registry.
+   *
+   * @return the spring values registered so far, then the ones registered later as they come. The watcher removes
+   * the values it has handled. The set holds them weakly, so values never handled do not pile up once their bean is
+   * gone.
+   */
+  public Set<SpringValue> watch(BeanFactory beanFactory) {
+    cleanUp();
+
+    Set<SpringValue> watcher = Collections.newSetFromMap(new MapMaker().weakKeys().<SpringValue, Boolean>makeMap());
+    BeanFactorySpringValues beanFactorySpringValues = getOrCreate(beanFactory);
+    //add the watcher first, a value registered meanwhile is added twice at worst
+    beanFactorySpringValues.watchers.add(watcher);
+    for (Set<SpringValue> keySpringValues : beanFactorySpringValues.byKey.values()) {
+      watcher.addAll(keySpringValues);
+    }
+    return watcher;
   }
 
-  private void scanAndClean() {
-    Iterator<Multimap<String, SpringValue>> iterator = registry.values().iterator();
-    while (!Thread.currentThread().isInterrupted() && iterator.hasNext()) {
-      Multimap<String, SpringValue> springValues = iterator.next();
-      Iterator<Entry<String, SpringValue>> springValueIterator = springValues.entries().iterator();
-      while (springValueIterator.hasNext()) {
-        Entry<String, SpringValue> springValue = springValueIterator.next();
-        if (!springValue.getValue().isTargetBeanValid()) {
-          // clear unused spring values
-          springValueIterator.remove();
-        }
+  private BeanFactorySpringValues getOrCreate(BeanFactory beanFactory) {
+    BeanFactorySpringValues beanFactorySpringValues = registry.get(beanFactory);
+    if (beanFactorySpringValues == null) {
+      BeanFactorySpringValues newSpringValues = new BeanFactorySpringValues();
+      beanFactorySpringValues = registry.putIfAbsent(beanFactory, newSpringValues);
+      if (beanFactorySpringValues == null) {
+        beanFactorySpringValues = newSpringValues;
       }
     }
+    return beanFactorySpringValues;
+  }
+
+  private void cleanUp() {
+    Reference<?> reference;
+    while ((reference = collectedBeans.poll()) != null) {
+      // clear unused spring values
+      TargetBeanReference targetBeanReference = (TargetBeanReference) reference;
+      targetBeanReferences.remove(targetBeanReference);
+      targetBeanReference.removeSpringValue();
+    }
+  }
+
+  private static class BeanFactorySpringValues {
+    private final ConcurrentMap<String, Set<SpringValue>> byKey = new MapMaker().makeMap();
+    //one per auto update listener of the bean factory, so there are very few
+    private final List<Set<SpringValue>> watchers = Lists.newCopyOnWriteArrayList();
+  }
+
+  /**
+   * Enqueued once the target bean of a spring value is collected.
+   */
+  private static class TargetBeanReference extends WeakReference<Object> {
+    private final Set<SpringValue> springValues;
+    private final SpringValue springValue;
+
+    TargetBeanReference(Object bean, ReferenceQueue<Object> queue, Set<SpringValue> springValues,
+        SpringValue springValue) {
+      super(bean, queue);
+      this.springValues = springValues;
+      this.springValue = springValue;
+    }
+
+    void removeSpringValue() {
+      springValues.remove(springValue);
+    }
   }
 }
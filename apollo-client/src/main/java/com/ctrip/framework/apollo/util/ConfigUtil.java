@@ -4,6 +4,8 @@ import static com.ctrip.framework.apollo.util.factory.PropertiesFactory.APOLLO_P
 
 import com.google.common.util.concurrent.RateLimiter;
 import java.io.File;
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -14,7 +16,9 @@ import com.ctrip.framework.apollo.core.MetaDomainConsts;
 import com.ctrip.framework.apollo.core.enums.Env;
 import com.ctrip.framework.apollo.core.enums.EnvUtils;
 import com.ctrip.framework.foundation.Foundation;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * @author Jason Song(song_s@ctrip.com)
@@ -40,6 +44,22 @@ public class ConfigUtil {
   private boolean autoUpdateInjectedSpringProperties = true;
   private final RateLimiter warnLogRateLimiter;
   private boolean propertiesOrdered = false;
+  private boolean precomputedLookup = false;
+  private boolean precomputedLookupLiveSystemProperties = false;
+  private long startupDeadline = 0;//0 means no deadline
+  private boolean pooledHttpTransport = false;
+  private boolean hedgedRequest = false;
+  private boolean binaryLocalCache = false;
+  private boolean staleWhileRevalidate = false;
+  private long staleWhileRevalidateMaxStalenessInSeconds = 0;//0 means no limit
+  private Set<String> staleWhileRevalidateFreshNamespaces = Collections.emptySet();
+  private boolean jsonValueSharedInstance = false;
+  private int changeListenerThreads = Math.max(Runtime.getRuntime().availableProcessors(), 4);
+  private boolean metricsJmxEnabled = true;
+  private long metricsExportIntervalInSeconds = 60;
+  private String sharedCacheDir;
+  private long sharedCachePollIntervalInMillis = 1000;
+  private long sharedCacheInitialWaitInMillis = 5000;
 
   public ConfigUtil() {
     warnLogRateLimiter = RateLimiter.create(0.017); // 1 warning log output per minute
@@ -52,6 +72,17 @@ public class ConfigUtil {
     initLongPollingInitialDelayInMills();
     initAutoUpdateInjectedSpringProperties();
     initPropertiesOrdered();
+    initPrecomputedLookup();
+    initStartupDeadline();
+    pooledHttpTransport = getBooleanProperty("apollo.pooledHttpTransport.enabled", pooledHttpTransport);
+    hedgedRequest = getBooleanProperty("apollo.hedgedRequest.enabled", hedgedRequest);
+    binaryLocalCache = getBooleanProperty("apollo.localCache.binary.enabled", binaryLocalCache);
+    initStaleWhileRevalidate();
+    initChangeListenerThreads();
+    jsonValueSharedInstance = getBooleanProperty("apollo.jsonValue.sharedInstance.enabled", jsonValueSharedInstance);
+    metricsJmxEnabled = getBooleanProperty("apollo.metrics.jmx.enabled", metricsJmxEnabled);
+    initMetricsExportInterval();
+    initSharedCache();
   }
 
   /**
@@ -339,4 +370,251 @@ public class ConfigUtil {
   public boolean isPropertiesOrderEnabled() {
     return propertiesOrdered;
   }
+
+  private void initPrecomputedLookup() {
+    precomputedLookup = getBooleanProperty("apollo.precomputedLookup.enabled", precomputedLookup);
+    precomputedLookupLiveSystemProperties = getBooleanProperty("apollo.precomputedLookup.liveSystemProperties",
+        precomputedLookupLiveSystemProperties);
+  }
+
+  private void initStartupDeadline() {
+    String customizedStartupTimeout = System.getProperty("apollo.startupTimeoutInMillis");
+    if (Strings.isNullOrEmpty(customizedStartupTimeout)) {
+      customizedStartupTimeout = Foundation.app().getProperty("apollo.startupTimeoutInMillis", null);
+    }
+    if (!Strings.isNullOrEmpty(customizedStartupTimeout)) {
+      try {
+        long startupTimeout = Long.parseLong(customizedStartupTimeout.trim());
+        if (startupTimeout > 0) {
+          startupDeadline = System.currentTimeMillis() + startupTimeout;
+        }
+      } catch (Throwable ex) {
+        logger.error("Config for apollo.startupTimeoutInMillis is invalid: {}", customizedStartupTimeout);
+      }
+    }
+  }
+
+  /**
+   * The time left before the startup deadline set by apollo.startupTimeoutInMillis, counted from the client start.
+   * Remote configs not loaded by then fall back to the local cache and keep loading in background.
+   *
+   * @return the remaining milliseconds, or 0 if no deadline is set or it has passed
+   */
+  public long getStartupRemainingMillis() {
+    if (startupDeadline <= 0) {
+      return 0;
+    }
+    return Math.max(startupDeadline - System.currentTimeMillis(), 0);
+  }
+
+  private boolean getBooleanProperty(String key, boolean defaultValue) {
+    String value = getCustomizedProperty(key);
+    if (Strings.isNullOrEmpty(value)) {
+      return defaultValue;
+    }
+    return Boolean.parseBoolean(value.trim());
+  }
+
+  private String getCustomizedProperty(String key) {
+    // 1. Get from System Property
+    String value = System.getProperty(key);
+    if (Strings.isNullOrEmpty(value)) {
+      // 2. Get from app.properties
+      value = Foundation.app().getProperty(key, null);
+    }
+    return value;
+  }
+
+  private void initStaleWhileRevalidate() {
+    staleWhileRevalidate = getBooleanProperty("apollo.staleWhileRevalidate.enabled", staleWhileRevalidate);
+
+    String customizedMaxStaleness = getCustomizedProperty("apollo.staleWhileRevalidate.maxStalenessInSeconds");
+    if (!Strings.isNullOrEmpty(customizedMaxStaleness)) {
+      try {
+        staleWhileRevalidateMaxStalenessInSeconds = Long.parseLong(customizedMaxStaleness.trim());
+      } catch (Throwable ex) {
+        logger.error("Config for apollo.staleWhileRevalidate.maxStalenessInSeconds is invalid: {}",
+            customizedMaxStaleness);
+      }
+    }
+
+    String customizedFreshNamespaces = getCustomizedProperty("apollo.staleWhileRevalidate.freshNamespaces");
+    if (!Strings.isNullOrEmpty(customizedFreshNamespaces)) {
+      staleWhileRevalidateFreshNamespaces = ImmutableSet
+          .copyOf(Splitter.on(',').omitEmptyStrings().trimResults().split(customizedFreshNamespaces));
+    }
+  }
+
+  /**
+   * Whether to boot from the local cache when one exists, loading the remote config in background and firing the
+   * usual change events when it arrives, instead of waiting for the config service.
+   */
+  public boolean isStaleWhileRevalidateEnabled() {
+    return staleWhileRevalidate;
+  }
+
+  /**
+   * The oldest local cache, counted from the last time the config service confirmed it, that may be served at boot
+   * in stale-while-revalidate mode.
+   *
+   * @return the max staleness in seconds, 0 means no limit
+   */
+  public long getStaleWhileRevalidateMaxStalenessInSeconds() {
+    return staleWhileRevalidateMaxStalenessInSeconds;
+  }
+
+  /**
+   * The namespaces that always wait for the config service at boot, even in stale-while-revalidate mode.
+   */
+  public Set<String> getStaleWhileRevalidateFreshNamespaces() {
+    return staleWhileRevalidateFreshNamespaces;
+  }
+
+  /**
+   * Whether DefaultConfig merges system properties, config, env variables and classpath properties into one lookup
+   * table per config version, instead of checking the four sources on every getProperty call.
+   */
+  public boolean isPrecomputedLookupEnabled() {
+    return precomputedLookup;
+  }
+
+  /**
+   * Whether system properties are still checked on every call when the precomputed lookup is enabled, so that
+   * System.setProperty takes effect before the next config change.
+   */
+  public boolean isPrecomputedLookupLiveSystemPropertiesEnabled() {
+    return precomputedLookupLiveSystemProperties;
+  }
+
+  /**
+   * Whether to talk to config services with {@link com.ctrip.framework.apollo.util.http.PooledHttpTransport}, which
+   * asks for gzip and streams responses, instead of the default transport.
+   */
+  public boolean isPooledHttpTransportEnabled() {
+    return pooledHttpTransport;
+  }
+
+  /**
+   * Whether to send a second config request to another config service when the first one takes longer than the
+   * recent p95 latency of its service.
+   */
+  public boolean isHedgedRequestEnabled() {
+    return hedgedRequest;
+  }
+
+  /**
+   * Whether to keep the local cache as binary snapshots, written in background, instead of .properties files. The
+   * .properties file of a namespace is removed once its snapshot is written.
+   */
+  public boolean isBinaryLocalCacheEnabled() {
+    return binaryLocalCache;
+  }
+
+  private void initChangeListenerThreads() {
+    String customizedThreads = getCustomizedProperty("apollo.changeListener.threads");
+    if (!Strings.isNullOrEmpty(customizedThreads)) {
+      try {
+        int threads = Integer.parseInt(customizedThreads.trim());
+        if (threads > 0) {
+          changeListenerThreads = threads;
+        }
+      } catch (Throwable ex) {
+        logger.error("Config for apollo.changeListener.threads is invalid: {}", customizedThreads);
+      }
+    }
+  }
+
+  /**
+   * The size of the thread pool shared by all config and config file change listeners.
+   */
+  public int getChangeListenerThreads() {
+    return changeListenerThreads;
+  }
+
+  /**
+   * Whether the @ApolloJsonValue targets injected with the same json and type share one parsed instance, instead of
+   * each getting its own copy.
+   */
+  public boolean isJsonValueSharedInstanceEnabled() {
+    return jsonValueSharedInstance;
+  }
+
+  private void initMetricsExportInterval() {
+    String customizedInterval = getCustomizedProperty("apollo.metrics.export.intervalInSeconds");
+    if (!Strings.isNullOrEmpty(customizedInterval)) {
+      try {
+        metricsExportIntervalInSeconds = Long.parseLong(customizedInterval.trim());
+      } catch (Throwable ex) {
+        logger.error("Config for apollo.metrics.export.intervalInSeconds is invalid: {}", customizedInterval);
+      }
+    }
+  }
+
+  /**
+   * Whether the client metrics are exposed as an MBean.
+   */
+  public boolean isMetricsJmxEnabled() {
+    return metricsJmxEnabled;
+  }
+
+  /**
+   * How often the client metrics are pushed to the metrics exporters, 0 or less disables the export.
+   */
+  public long getMetricsExportIntervalInSeconds() {
+    return metricsExportIntervalInSeconds;
+  }
+
+  private void initSharedCache() {
+    sharedCacheDir = getCustomizedProperty("apollo.sharedCache.dir");
+    if (sharedCacheDir != null) {
+      sharedCacheDir = sharedCacheDir.trim();
+    }
+
+    String customizedInterval = getCustomizedProperty("apollo.sharedCache.pollIntervalInMillis");
+    if (!Strings.isNullOrEmpty(customizedInterval)) {
+      try {
+        long interval = Long.parseLong(customizedInterval.trim());
+        if (interval > 0) {
+          sharedCachePollIntervalInMillis = interval;
+        }
+      } catch (Throwable ex) {
+        logger.error("Config for apollo.sharedCache.pollIntervalInMillis is invalid: {}", customizedInterval);
+      }
+    }
+
+    String customizedInitialWait = getCustomizedProperty("apollo.sharedCache.initialWaitInMillis");
+    if (!Strings.isNullOrEmpty(customizedInitialWait)) {
+      try {
+        long initialWait = Long.parseLong(customizedInitialWait.trim());
+        if (initialWait >= 0) {
+          sharedCacheInitialWaitInMillis = initialWait;
+        }
+      } catch (Throwable ex) {
+        logger.error("Config for apollo.sharedCache.initialWaitInMillis is invalid: {}", customizedInitialWait);
+      }
+    }
+  }
+
+  /**
+   * The directory shared by the JVMs of this host, one of them loads each namespace from the config service and the
+   * others read it from there. Null or empty if every JVM loads its own configs.
+   */
+  public String getSharedCacheDir() {
+    return sharedCacheDir;
+  }
+
+  /**
+   * How often the JVMs not publishing a namespace check the shared directory for a new release.
+   */
+  public long getSharedCachePollIntervalInMillis() {
+    return sharedCachePollIntervalInMillis;
+  }
+
+  /**
+   * How long the first read of a namespace waits for its shared snapshot to be published, 0 to fall back to the local
+   * cache at once.
+   */
+  public long getSharedCacheInitialWaitInMillis() {
+    return sharedCacheInitialWaitInMillis;
+  }
 }
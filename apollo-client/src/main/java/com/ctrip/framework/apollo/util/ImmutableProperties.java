@@ -0,0 +1,418 @@
+package com.ctrip.framework.apollo.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * A read-only {@link Properties} holding one config release, meant to be shared by reference between the
+ * repositories and configs instead of being copied at every layer.
+ *
+ * <p>Keys and values are kept in two arrays in insertion order, indexed by an open-addressing hash table, so a lookup
+ * takes no lock and the whole map costs three arrays instead of one {@code Hashtable} entry per key. Equal values are
+ * deduplicated when the map is built.</p>
+ *
+ * <strong>
+ * Warnings: 1. All mutators throw {@link UnsupportedOperationException}. 2. Like {@link OrderedProperties}, the
+ * JDK1.8 default methods other than getOrDefault are not implemented here, they only see the (empty) underlying
+ * {@code Hashtable}.
+ * </strong>
+ */
+public final class ImmutableProperties extends Properties {
+
+  private static final long serialVersionUID = 2850716483719227093L;
+  private static final ImmutableProperties EMPTY = new ImmutableProperties(new String[0], new String[0]);
+
+  private final String[] keys;
+  private final String[] values;
+  /**
+   * slot -> index in keys + 1, 0 means empty slot
+   */
+  private final int[] table;
+  private final int hashCode;
+
+  private ImmutableProperties(String[] keys, String[] values) {
+    this.keys = keys;
+    this.values = values;
+    int capacity = 2;
+    while (capacity < keys.length * 2) {
+      capacity <<= 1;
+    }
+    this.table = new int[capacity];
+    int mask = capacity - 1;
+    int hash = 0;
+    for (int i = 0; i < keys.length; i++) {
+      int slot = spread(keys[i].hashCode()) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i + 1;
+      hash += keys[i].hashCode() ^ values[i].hashCode();
+    }
+    this.hashCode = hash;
+  }
+
+  public static ImmutableProperties empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Copy the string entries of the given map, in its iteration order. Returns the given instance if it is already an
+   * {@link ImmutableProperties}, so passing one along a repository chain costs nothing.
+   */
+  public static ImmutableProperties copyOf(Map<?, ?> source) {
+    if (source instanceof ImmutableProperties) {
+      return (ImmutableProperties) source;
+    }
+    if (source instanceof Properties) {
+      Properties properties = (Properties) source;
+      Builder builder = new Builder(properties.size());
+      for (String key : properties.stringPropertyNames()) {
+        builder.put(key, properties.getProperty(key));
+      }
+      return builder.build();
+    }
+    Builder builder = new Builder(source.size());
+    for (Map.Entry<?, ?> entry : source.entrySet()) {
+      if (entry.getKey() instanceof String && entry.getValue() instanceof String) {
+        builder.put((String) entry.getKey(), (String) entry.getValue());
+      }
+    }
+    return builder.build();
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private int indexOf(Object key) {
+    if (!(key instanceof String)) {
+      return -1;
+    }
+    int mask = table.length - 1;
+    int slot = spread(key.hashCode()) & mask;
+    int index;
+    while ((index = table[slot]) != 0) {
+      if (keys[index - 1].equals(key)) {
+        return index - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  @Override
+  public String getProperty(String key) {
+    int index = indexOf(key);
+    return index < 0 ? null : values[index];
+  }
+
+  @Override
+  public String getProperty(String key, String defaultValue) {
+    int index = indexOf(key);
+    return index < 0 ? defaultValue : values[index];
+  }
+
+  @Override
+  public Object get(Object key) {
+    return getPropertyIfString(key, null);
+  }
+
+  public Object getOrDefault(Object key, Object defaultValue) {
+    return getPropertyIfString(key, defaultValue);
+  }
+
+  private Object getPropertyIfString(Object key, Object defaultValue) {
+    int index = indexOf(key);
+    return index < 0 ? defaultValue : values[index];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public boolean contains(Object value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    for (String v : values) {
+      if (v.equals(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    return contains(value);
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return keys.length == 0;
+  }
+
+  @Override
+  public Enumeration<Object> keys() {
+    return new ArrayEnumeration(keys);
+  }
+
+  @Override
+  public Enumeration<Object> elements() {
+    return new ArrayEnumeration(values);
+  }
+
+  @Override
+  public Enumeration<?> propertyNames() {
+    return keys();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Set<String> stringPropertyNames() {
+    return (Set<String>) (Set<?>) new KeySet();
+  }
+
+  @Override
+  public Set<Object> keySet() {
+    return new KeySet();
+  }
+
+  @Override
+  public Collection<Object> values() {
+    return new AbstractCollection<Object>() {
+      @Override
+      public Iterator<Object> iterator() {
+        return new ArrayIterator<Object>() {
+          @Override
+          Object get(int index) {
+            return values[index];
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return values.length;
+      }
+    };
+  }
+
+  @Override
+  public Set<Map.Entry<Object, Object>> entrySet() {
+    return new AbstractSet<Map.Entry<Object, Object>>() {
+      @Override
+      public Iterator<Map.Entry<Object, Object>> iterator() {
+        return new ArrayIterator<Map.Entry<Object, Object>>() {
+          @Override
+          Map.Entry<Object, Object> get(int index) {
+            return new AbstractMap.SimpleImmutableEntry<Object, Object>(keys[index], values[index]);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+
+  @Override
+  public Object put(Object key, Object value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Object remove(Object key) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void putAll(Map<?, ?> t) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Object clone() {
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof Map)) {
+      return false;
+    }
+    Map<?, ?> other = (Map<?, ?>) o;
+    if (other.size() != keys.length) {
+      return false;
+    }
+    for (int i = 0; i < keys.length; i++) {
+      if (!values[i].equals(other.get(keys[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < keys.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(keys[i]).append('=').append(values[i]);
+    }
+    return sb.append('}').toString();
+  }
+
+  private class KeySet extends AbstractSet<Object> {
+    @Override
+    public Iterator<Object> iterator() {
+      return new ArrayIterator<Object>() {
+        @Override
+        Object get(int index) {
+          return keys[index];
+        }
+      };
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return keys.length;
+    }
+  }
+
+  private abstract class ArrayIterator<E> implements Iterator<E> {
+    private int index;
+
+    abstract E get(int index);
+
+    @Override
+    public boolean hasNext() {
+      return index < keys.length;
+    }
+
+    @Override
+    public E next() {
+      if (index >= keys.length) {
+        throw new NoSuchElementException();
+      }
+      return get(index++);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class ArrayEnumeration implements Enumeration<Object> {
+    private final String[] array;
+    private int index;
+
+    private ArrayEnumeration(String[] array) {
+      this.array = array;
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+      return index < array.length;
+    }
+
+    @Override
+    public Object nextElement() {
+      if (index >= array.length) {
+        throw new NoSuchElementException();
+      }
+      return array[index++];
+    }
+  }
+
+  /**
+   * Collects entries in insertion order; a later value for the same key replaces the earlier one in place.
+   */
+  public static final class Builder {
+    private final Map<String, Integer> indexes;
+    private final Map<String, String> dedupedValues;
+    private String[] keys;
+    private String[] values;
+    private int size;
+
+    public Builder(int expectedSize) {
+      int capacity = Math.max(expectedSize, 4);
+      indexes = new HashMap<>(capacity * 4 / 3 + 1);
+      dedupedValues = new HashMap<>();
+      keys = new String[capacity];
+      values = new String[capacity];
+    }
+
+    public Builder put(String key, String value) {
+      if (key == null || value == null) {
+        throw new NullPointerException();
+      }
+      String value0 = dedupedValues.get(value);
+      if (value0 == null) {
+        dedupedValues.put(value, value);
+        value0 = value;
+      }
+      Integer index = indexes.get(key);
+      if (index != null) {
+        values[index] = value0;
+        return this;
+      }
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      indexes.put(key, size);
+      keys[size] = key;
+      values[size] = value0;
+      size++;
+      return this;
+    }
+
+    public ImmutableProperties build() {
+      if (size == 0) {
+        return EMPTY;
+      }
+      return new ImmutableProperties(Arrays.copyOf(keys, size), Arrays.copyOf(values, size));
+    }
+  }
+}
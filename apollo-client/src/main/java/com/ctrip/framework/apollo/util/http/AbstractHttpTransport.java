@@ -0,0 +1,66 @@
+package com.ctrip.framework.apollo.util.http;
+
+import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Base of the {@link HttpURLConnection} based transports.
+ */
+public abstract class AbstractHttpTransport implements HttpTransport {
+  private final ConfigUtil m_configUtil;
+  protected final Gson gson;
+
+  protected AbstractHttpTransport() {
+    m_configUtil = ApolloInjector.getInstance(ConfigUtil.class);
+    gson = new Gson();
+  }
+
+  /**
+   * Open a GET connection with the request headers and timeouts set, not connected yet.
+   */
+  protected HttpURLConnection openConnection(HttpRequest httpRequest) throws IOException {
+    HttpURLConnection conn = (HttpURLConnection) new URL(httpRequest.getUrl()).openConnection();
+
+    conn.setRequestMethod("GET");
+
+    Map<String, String> headers = httpRequest.getHeaders();
+    if (headers != null && headers.size() > 0) {
+      for (Map.Entry<String, String> entry : headers.entrySet()) {
+        conn.setRequestProperty(entry.getKey(), entry.getValue());
+      }
+    }
+
+    int connectTimeout = httpRequest.getConnectTimeout();
+    if (connectTimeout < 0) {
+      connectTimeout = m_configUtil.getConnectTimeout();
+    }
+
+    int readTimeout = httpRequest.getReadTimeout();
+    if (readTimeout < 0) {
+      readTimeout = m_configUtil.getReadTimeout();
+    }
+
+    conn.setConnectTimeout(connectTimeout);
+    conn.setReadTimeout(readTimeout);
+
+    httpRequest.setConnection(conn);
+
+    return conn;
+  }
+
+  protected static void closeQuietly(InputStream in) {
+    if (in != null) {
+      try {
+        in.close();
+      } catch (IOException ex) {
+        // ignore
+      }
+    }
+  }
+}
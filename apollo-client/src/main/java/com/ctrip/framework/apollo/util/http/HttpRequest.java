@@ -1,5 +1,6 @@
 package com.ctrip.framework.apollo.util.http;
 
+import java.net.HttpURLConnection;
 import java.util.Map;
 
 /**
@@ -10,6 +11,8 @@ public class HttpRequest {
   private Map<String, String> headers;
   private int m_connectTimeout;
   private int m_readTimeout;
+  private volatile HttpURLConnection m_connection;
+  private volatile boolean m_aborted;
 
   /**
    * Create the request for the url.
@@ -48,4 +51,32 @@ public class HttpRequest {
   public void setReadTimeout(int readTimeout) {
     this.m_readTimeout = readTimeout;
   }
+
+  /**
+   * Abort the request, e.g. the losing one of hedged requests: its connection is disconnected, so the thread sending
+   * it stops waiting for the response and fails.
+   */
+  public void abort() {
+    m_aborted = true;
+    disconnectIfAborted();
+  }
+
+  public boolean isAborted() {
+    return m_aborted;
+  }
+
+  /**
+   * Bind the connection sending the request, disconnecting it right away if the request has been aborted.
+   */
+  void setConnection(HttpURLConnection connection) {
+    m_connection = connection;
+    disconnectIfAborted();
+  }
+
+  private void disconnectIfAborted() {
+    HttpURLConnection connection = m_connection;
+    if (m_aborted && connection != null) {
+      connection.disconnect();
+    }
+  }
 }
@@ -0,0 +1,26 @@
+package com.ctrip.framework.apollo.util.http;
+
+import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import java.lang.reflect.Type;
+
+/**
+ * The transport used by {@link HttpUtil} to talk to meta and config services.
+ *
+ * <p>A custom implementation can be registered in
+ * /META-INF/services/com.ctrip.framework.apollo.util.http.HttpTransport, otherwise {@link DefaultHttpTransport} is
+ * used, or {@link PooledHttpTransport} if apollo.pooledHttpTransport.enabled is true.</p>
+ *
+ * @since 1.7.0
+ */
+public interface HttpTransport {
+
+  /**
+   * Do get operation for the http request.
+   *
+   * @param httpRequest  the request
+   * @param responseType the response type
+   * @return the response
+   * @throws ApolloConfigException if any error happened or response code is neither 200 nor 304
+   */
+  <T> HttpResponse<T> doGet(HttpRequest httpRequest, Type responseType);
+}
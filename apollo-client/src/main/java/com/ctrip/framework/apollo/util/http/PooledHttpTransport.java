@@ -0,0 +1,100 @@
+package com.ctrip.framework.apollo.util.http;
+
+import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigStatusCodeException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Keeps connections reusable and avoids buffering the response body. There is no pool of its own: connections are
+ * reused by the JDK keep-alive cache of {@link HttpURLConnection}, which only takes back a connection whose response
+ * was read to the end.
+ *
+ * <ul>
+ *   <li>asks for gzip and inflates it on the fly</li>
+ *   <li>deserializes straight from the response stream, so a large namespace is never held as one String</li>
+ *   <li>always drains and closes the response and error streams, which is what returns the connection to the JDK
+ *   keep-alive cache (sized by the http.maxConnections system property)</li>
+ * </ul>
+ */
+public class PooledHttpTransport extends AbstractHttpTransport {
+  private static final int DRAIN_BUFFER_SIZE = 4096;
+  private static final String GZIP = "gzip";
+
+  @Override
+  public <T> HttpResponse<T> doGet(HttpRequest httpRequest, Type responseType) {
+    InputStream in = null;
+    InputStream gzipIn = null;
+    int statusCode;
+    try {
+      HttpURLConnection conn = openConnection(httpRequest);
+      conn.setRequestProperty("Accept-Encoding", GZIP);
+
+      conn.connect();
+
+      statusCode = conn.getResponseCode();
+
+      try {
+        in = conn.getInputStream();
+      } catch (IOException ex) {
+        drainAndClose(conn.getErrorStream());
+
+        // 200 and 304 should not trigger IOException, thus we must throw the original exception out
+        if (statusCode == 200 || statusCode == 304) {
+          throw ex;
+        }
+        // for status codes like 404, IOException is expected when calling conn.getInputStream()
+        throw new ApolloConfigStatusCodeException(statusCode, ex);
+      }
+
+      if (statusCode == 200) {
+        InputStream body = in;
+        if (GZIP.equalsIgnoreCase(conn.getContentEncoding())) {
+          gzipIn = new GZIPInputStream(in);
+          body = gzipIn;
+        }
+        T result = gson.fromJson(new InputStreamReader(body, StandardCharsets.UTF_8), responseType);
+        return new HttpResponse<>(statusCode, result);
+      }
+
+      if (statusCode == 304) {
+        return new HttpResponse<>(statusCode, null);
+      }
+    } catch (ApolloConfigStatusCodeException ex) {
+      throw ex;
+    } catch (Throwable ex) {
+      throw new ApolloConfigException("Could not complete get operation", ex);
+    } finally {
+      drainAndClose(in);
+      //releases the native Inflater, the raw stream is drained first as closing the wrapper would close it unread
+      closeQuietly(gzipIn);
+    }
+
+    throw new ApolloConfigStatusCodeException(statusCode,
+        String.format("Get operation failed for %s", httpRequest.getUrl()));
+  }
+
+  /**
+   * Read what's left of the raw stream (e.g. the gzip trailer), a partially read stream closes the connection
+   */
+  private static void drainAndClose(InputStream in) {
+    if (in == null) {
+      return;
+    }
+    try {
+      byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+      while (in.read(buffer) >= 0) {
+        // discard
+      }
+    } catch (IOException ex) {
+      // ignore
+    } finally {
+      closeQuietly(in);
+    }
+  }
+}
@@ -2,9 +2,14 @@ package com.ctrip.framework.apollo.util.yaml;
 
 import com.ctrip.framework.apollo.build.ApolloInjector;
 import com.ctrip.framework.apollo.util.factory.PropertiesFactory;
+import java.io.StringReader;
 import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -14,8 +19,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionEndEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
 import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.parser.ParserException;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 import com.ctrip.framework.apollo.core.utils.StringUtils;
 
@@ -28,20 +44,31 @@ public class YamlParser {
   private static final Logger logger = LoggerFactory.getLogger(YamlParser.class);
 
   private PropertiesFactory propertiesFactory = ApolloInjector.getInstance(PropertiesFactory.class);
+  private final Resolver resolver = new Resolver();
 
   /**
    * Transform yaml content to properties
    */
   public Properties yamlToProperties(String yamlContent) {
+    Properties result = propertiesFactory.getPropertiesInstance();
+    try {
+      new StreamingFlattener(result).flatten(yamlContent);
+    } catch (UnsupportedEventException ex) {
+      // fall back to building the object tree, which supports all yaml features
+      result.clear();
+      processWithObjectTree(result, yamlContent);
+    }
+    return result;
+  }
+
+  private void processWithObjectTree(final Properties result, String yamlContent) {
     Yaml yaml = createYaml();
-    final Properties result = propertiesFactory.getPropertiesInstance();
     process(new MatchCallback() {
       @Override
       public void process(Properties properties, Map<String, Object> map) {
         result.putAll(properties);
       }
     }, yaml, yamlContent);
-    return result;
   }
 
   /**
@@ -147,6 +174,156 @@ public class YamlParser {
     void process(Properties properties, Map<String, Object> map);
   }
 
+  /**
+   * Thrown by {@link StreamingFlattener} on yaml features it does not support, e.g. an alias to a collection.
+   */
+  private static class UnsupportedEventException extends RuntimeException {
+    UnsupportedEventException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Flattens yaml content from the parser events, without building the node graph or the object tree, into the same
+   * properties as {@link #processWithObjectTree}.
+   *
+   * <p>Scalars are constructed one by one with the same constructor. Anchored scalars are kept for their aliases.
+   * Aliases to collections, merge keys, complex keys and tagged collections are not supported.</p>
+   */
+  private class StreamingFlattener {
+    private final Properties result;
+    private final StrictMapAppenderConstructor constructor = new StrictMapAppenderConstructor();
+    private final Map<String, Object> anchoredScalars = new HashMap<>();
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    StreamingFlattener(Properties result) {
+      this.result = result;
+    }
+
+    void flatten(String content) {
+      for (Event event : createYaml().parse(new StringReader(content))) {
+        if (event instanceof ScalarEvent) {
+          onValue(constructScalar((ScalarEvent) event), event);
+        } else if (event instanceof AliasEvent) {
+          String anchor = ((AliasEvent) event).getAnchor();
+          if (!anchoredScalars.containsKey(anchor)) {
+            throw new UnsupportedEventException("alias to a collection: " + anchor);
+          }
+          onValue(anchoredScalars.get(anchor), event);
+        } else if (event instanceof CollectionStartEvent) {
+          onCollectionStart((CollectionStartEvent) event);
+        } else if (event instanceof CollectionEndEvent) {
+          frames.pop();
+        }
+      }
+    }
+
+    private Object constructScalar(ScalarEvent event) {
+      String tag = event.getTag();
+      Tag nodeTag;
+      boolean resolved = false;
+      if (tag == null || tag.equals("!")) {
+        nodeTag = resolver.resolve(NodeId.scalar, event.getValue(), event.getImplicit().canOmitTagInPlainScalar());
+        resolved = true;
+      } else {
+        nodeTag = new Tag(tag);
+      }
+      if (Tag.MERGE.equals(nodeTag)) {
+        throw new UnsupportedEventException("merge key");
+      }
+      Object value = constructor.constructScalarValue(new ScalarNode(nodeTag, resolved, event.getValue(),
+          event.getStartMark(), event.getEndMark(), event.getStyle()));
+      if (event.getAnchor() != null) {
+        anchoredScalars.put(event.getAnchor(), value);
+      }
+      return value;
+    }
+
+    private void onCollectionStart(CollectionStartEvent event) {
+      String tag = event.getTag();
+      if (tag != null && !tag.equals("!")) {
+        throw new UnsupportedEventException("tagged collection: " + tag);
+      }
+      boolean mapping = event instanceof MappingStartEvent;
+      Frame parent = frames.peek();
+      if (parent == null) {
+        // A document can be a text literal or a sequence
+        frames.push(new Frame(mapping, mapping ? null : "document", false, event.getStartMark()));
+      } else if (parent.mapping && parent.pendingKey == null) {
+        throw new UnsupportedEventException("complex key");
+      } else {
+        frames.push(new Frame(mapping, parent.nextKey(), parent.inSequence || !parent.mapping,
+            event.getStartMark()));
+      }
+    }
+
+    private void onValue(Object value, Event event) {
+      Frame frame = frames.peek();
+      if (frame == null) {
+        // document root
+        if (value != null) {
+          put("document", value);
+        }
+        return;
+      }
+      if (!frame.mapping) {
+        put(frame.nextKey(), value);
+      } else if (frame.pendingKey == null) {
+        frame.setKey(value, event);
+      } else {
+        put(frame.nextKey(), value);
+      }
+    }
+
+    private void put(String key, Object value) {
+      result.put(key, value instanceof String ? value : (value != null ? value.toString() : ""));
+    }
+  }
+
+  private static class Frame {
+    private final boolean mapping;
+    private final String path;
+    // maps in sequences keep their raw keys in the object tree
+    private final boolean inSequence;
+    private final Mark startMark;
+    private final Set<Object> keys;
+    private String pendingKey;
+    private int index;
+
+    Frame(boolean mapping, String path, boolean inSequence, Mark startMark) {
+      this.mapping = mapping;
+      this.path = path;
+      this.inSequence = inSequence;
+      this.startMark = startMark;
+      this.keys = mapping ? new HashSet<Object>() : null;
+    }
+
+    void setKey(Object key, Event event) {
+      if (key == null || (inSequence && !(key instanceof CharSequence))) {
+        throw new UnsupportedEventException("key not supported: " + key);
+      }
+      if (!keys.add(key)) {
+        throw new ParserException("while parsing MappingNode", startMark, "Duplicate key: " + key,
+            event.getEndMark());
+      }
+      pendingKey = key instanceof CharSequence ? key.toString() : "[" + key.toString() + "]";
+    }
+
+    String nextKey() {
+      String key;
+      if (mapping) {
+        key = pendingKey;
+        pendingKey = null;
+      } else {
+        key = "[" + (index++) + "]";
+      }
+      if (StringUtils.isBlank(path)) {
+        return key;
+      }
+      return key.startsWith("[") ? path + key : path + '.' + key;
+    }
+  }
+
   /**
    * A specialized {@link SafeConstructor} that checks for duplicate keys.
    */
@@ -157,6 +334,10 @@ public class YamlParser {
       super();
     }
 
+    Object constructScalarValue(ScalarNode node) {
+      return getConstructor(node).construct(node);
+    }
+
     @Override
     protected Map<Object, Object> constructMapping(MappingNode node) {
       try {
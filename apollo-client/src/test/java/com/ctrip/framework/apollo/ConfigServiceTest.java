@@ -1,9 +1,15 @@
 package com.ctrip.framework.apollo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import com.ctrip.framework.apollo.enums.ConfigSourceType;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -86,6 +92,25 @@ public class ConfigServiceTest {
     assertEquals(someNamespaceFileName + ":" + someConfigFileFormat.getValue(), configFile.getContent());
   }
 
+  @Test
+  public void testGetConfigsAsync() throws Exception {
+    String someNamespace = "mock";
+    String anotherNamespace = "anotherMock";
+    String someKey = "someKey";
+    MockInjector.setInstance(ConfigFactory.class, someNamespace, new MockConfigFactory());
+    MockInjector.setInstance(ConfigFactory.class, anotherNamespace, new MockConfigFactory());
+
+    Map<String, ListenableFuture<Config>> configs =
+        ConfigService.getConfigsAsync(Sets.newLinkedHashSet(Lists.newArrayList(someNamespace, anotherNamespace)));
+
+    assertEquals(Lists.newArrayList(someNamespace, anotherNamespace), Lists.newArrayList(configs.keySet()));
+    assertEquals(someNamespace + ":" + someKey,
+        configs.get(someNamespace).get(5, TimeUnit.SECONDS).getProperty(someKey, null));
+    assertEquals(anotherNamespace + ":" + someKey,
+        configs.get(anotherNamespace).get(5, TimeUnit.SECONDS).getProperty(someKey, null));
+    assertSame(ConfigService.getConfig(someNamespace), configs.get(someNamespace).get());
+  }
+
   private static class MockConfig extends AbstractConfig {
     private final String m_namespace;
 
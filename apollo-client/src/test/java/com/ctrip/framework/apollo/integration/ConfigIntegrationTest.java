@@ -31,12 +31,14 @@ import com.ctrip.framework.apollo.Config;
 import com.ctrip.framework.apollo.ConfigChangeListener;
 import com.ctrip.framework.apollo.ConfigService;
 import com.ctrip.framework.apollo.build.ApolloInjector;
+import com.ctrip.framework.apollo.build.MockInjector;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 import com.ctrip.framework.apollo.core.dto.ApolloConfig;
 import com.ctrip.framework.apollo.core.dto.ApolloConfigNotification;
 import com.ctrip.framework.apollo.core.utils.ClassLoaderUtil;
 import com.ctrip.framework.apollo.internals.RemoteConfigLongPollService;
 import com.ctrip.framework.apollo.model.ConfigChangeEvent;
+import com.ctrip.framework.apollo.util.ConfigUtil;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
@@ -193,6 +195,58 @@ public class ConfigIntegrationTest extends BaseIntegrationTest {
 
   }
 
+  @Test
+  public void testGetConfigWithLocalFileInStaleWhileRevalidateMode() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtil() {
+      @Override
+      public boolean isStaleWhileRevalidateEnabled() {
+        return true;
+      }
+    });
+    final String someKey = "someKey";
+    final String someValue = "someValue";
+    final String anotherValue = "anotherValue";
+    Properties properties = new Properties();
+    properties.put(someKey, someValue);
+    createLocalCachePropertyFile(properties);
+
+    final SettableFuture<Boolean> serverReady = SettableFuture.create();
+    final ApolloConfig apolloConfig = assembleApolloConfig(ImmutableMap.of(someKey, anotherValue));
+    ContextHandler handler = new ContextHandler("/configs/*");
+    handler.setHandler(new AbstractHandler() {
+      @Override
+      public void handle(String target, Request baseRequest, HttpServletRequest request,
+          HttpServletResponse response) throws IOException, ServletException {
+        try {
+          serverReady.get(5, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+          throw new ServletException(ex);
+        }
+        response.setContentType("application/json;charset=UTF-8");
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.getWriter().println(gson.toJson(apolloConfig));
+        baseRequest.setHandled(true);
+      }
+    });
+    startServerWithHandlers(handler);
+
+    Config config = ConfigService.getAppConfig();
+
+    assertEquals(someValue, config.getProperty(someKey, null));
+
+    final SettableFuture<ConfigChangeEvent> changeEvent = SettableFuture.create();
+    config.addChangeListener(new ConfigChangeListener() {
+      @Override
+      public void onChange(ConfigChangeEvent event) {
+        changeEvent.set(event);
+      }
+    });
+    serverReady.set(true);
+
+    assertEquals(anotherValue, changeEvent.get(5, TimeUnit.SECONDS).getChange(someKey).getNewValue());
+    assertEquals(anotherValue, config.getProperty(someKey, null));
+  }
+
   @Test
   public void testGetConfigWithNoLocalFileAndRemoteConfigError() throws Exception {
     ContextHandler handler =
@@ -0,0 +1,91 @@
+package com.ctrip.framework.apollo.internals;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-threaded reads of cached typed properties, with and without a concurrent config refresh.
+ * Run {@link #main} with the apollo-client test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbstractConfigBenchmark {
+  private static final int KEY_COUNT = 64;
+
+  private String[] intKeys;
+  private String[] booleanKeys;
+  private Properties[] versions;
+  private SimpleConfig config;
+  private int version;
+
+  @Setup
+  public void setUp() {
+    intKeys = new String[KEY_COUNT];
+    booleanKeys = new String[KEY_COUNT];
+    versions = new Properties[2];
+    for (int v = 0; v < versions.length; v++) {
+      versions[v] = new Properties();
+    }
+    for (int i = 0; i < KEY_COUNT; i++) {
+      intKeys[i] = "int.key." + i;
+      booleanKeys[i] = "boolean.key." + i;
+      for (int v = 0; v < versions.length; v++) {
+        versions[v].setProperty(intKeys[i], String.valueOf(i + v));
+        versions[v].setProperty(booleanKeys[i], String.valueOf((i + v) % 2 == 0));
+      }
+    }
+    config = new SimpleConfig("application", new FixedConfigRepository(versions[0]));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public int getIntProperty(ThreadIndex index) {
+    return config.getIntProperty(intKeys[index.next(KEY_COUNT)], -1);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean getBooleanProperty(ThreadIndex index) {
+    return config.getBooleanProperty(booleanKeys[index.next(KEY_COUNT)], false);
+  }
+
+  @Benchmark
+  @Group("refreshing")
+  @GroupThreads(4)
+  public int getIntPropertyWhileRefreshing(ThreadIndex index) {
+    return config.getIntProperty(intKeys[index.next(KEY_COUNT)], -1);
+  }
+
+  @Benchmark
+  @Group("refreshing")
+  @GroupThreads(1)
+  public void refresh() throws InterruptedException {
+    version ^= 1;
+    config.onRepositoryChange("application", versions[version]);
+    TimeUnit.MILLISECONDS.sleep(1);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(AbstractConfigBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,171 @@
+package com.ctrip.framework.apollo.internals;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.ctrip.framework.apollo.ConfigChangeListener;
+import com.ctrip.framework.apollo.enums.PropertyChangeType;
+import com.ctrip.framework.apollo.model.ConfigChange;
+import com.ctrip.framework.apollo.model.ConfigChangeEvent;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.SettableFuture;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConfigChangeListenerDispatcherTest {
+  private static final String someNamespace = "someNamespace";
+  private ConfigChangeListenerDispatcher dispatcher;
+
+  @Before
+  public void setUp() throws Exception {
+    dispatcher = new ConfigChangeListenerDispatcher();
+  }
+
+  @Test
+  public void testMerge() throws Exception {
+    ConfigChangeEvent previous = assembleEvent(
+        new ConfigChange(someNamespace, "a", "a0", "a1", PropertyChangeType.MODIFIED),
+        new ConfigChange(someNamespace, "b", null, "b1", PropertyChangeType.ADDED),
+        new ConfigChange(someNamespace, "c", "c0", "c1", PropertyChangeType.MODIFIED));
+    ConfigChangeEvent next = assembleEvent(
+        new ConfigChange(someNamespace, "a", "a1", "a2", PropertyChangeType.MODIFIED),
+        new ConfigChange(someNamespace, "b", "b1", null, PropertyChangeType.DELETED),
+        new ConfigChange(someNamespace, "d", "d0", null, PropertyChangeType.DELETED));
+
+    ConfigChangeEvent merged = dispatcher.merge(previous, next);
+
+    assertEquals(Sets.newHashSet("a", "c", "d"), merged.changedKeys());
+    assertChange(merged.getChange("a"), "a0", "a2", PropertyChangeType.MODIFIED);
+    assertChange(merged.getChange("c"), "c0", "c1", PropertyChangeType.MODIFIED);
+    assertChange(merged.getChange("d"), "d0", null, PropertyChangeType.DELETED);
+  }
+
+  @Test
+  public void testMergeRevertedChanges() throws Exception {
+    ConfigChangeEvent previous = assembleEvent(
+        new ConfigChange(someNamespace, "a", "a0", "a1", PropertyChangeType.MODIFIED));
+    ConfigChangeEvent next = assembleEvent(
+        new ConfigChange(someNamespace, "a", "a1", "a0", PropertyChangeType.MODIFIED));
+
+    assertNull(dispatcher.merge(previous, next));
+  }
+
+  @Test
+  public void testDispatchCoalescesEventsQueuedForBusyListener() throws Exception {
+    final SettableFuture<Boolean> firstEventBlocker = SettableFuture.create();
+    final CountDownLatch firstEventReceived = new CountDownLatch(1);
+    final CountDownLatch allEventsReceived = new CountDownLatch(2);
+    final AtomicInteger concurrentCalls = new AtomicInteger();
+    final List<ConfigChangeEvent> received = Lists.newCopyOnWriteArrayList();
+    final List<Integer> maxConcurrentCalls = Lists.newCopyOnWriteArrayList();
+
+    ConfigChangeListener someListener = new ConfigChangeListener() {
+      @Override
+      public void onChange(ConfigChangeEvent changeEvent) {
+        maxConcurrentCalls.add(concurrentCalls.incrementAndGet());
+        received.add(changeEvent);
+        firstEventReceived.countDown();
+        try {
+          firstEventBlocker.get(5, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+          throw new RuntimeException(ex);
+        }
+        concurrentCalls.decrementAndGet();
+        allEventsReceived.countDown();
+      }
+    };
+
+    long coalescedBefore = ChangeListenerDispatcher.getCoalescedCount();
+
+    dispatcher.dispatch(someListener, assembleEvent(
+        new ConfigChange(someNamespace, "a", "a0", "a1", PropertyChangeType.MODIFIED)));
+    assertTrue(firstEventReceived.await(5, TimeUnit.SECONDS));
+
+    dispatcher.dispatch(someListener, assembleEvent(
+        new ConfigChange(someNamespace, "a", "a1", "a2", PropertyChangeType.MODIFIED)));
+    dispatcher.dispatch(someListener, assembleEvent(
+        new ConfigChange(someNamespace, "a", "a2", "a3", PropertyChangeType.MODIFIED),
+        new ConfigChange(someNamespace, "b", null, "b1", PropertyChangeType.ADDED)));
+
+    firstEventBlocker.set(true);
+
+    assertTrue(allEventsReceived.await(5, TimeUnit.SECONDS));
+    TimeUnit.MILLISECONDS.sleep(100);
+
+    assertEquals(2, received.size());
+    assertChange(received.get(0).getChange("a"), "a0", "a1", PropertyChangeType.MODIFIED);
+    assertChange(received.get(1).getChange("a"), "a1", "a3", PropertyChangeType.MODIFIED);
+    assertChange(received.get(1).getChange("b"), null, "b1", PropertyChangeType.ADDED);
+    assertFalse(maxConcurrentCalls.contains(2));
+    assertTrue(ChangeListenerDispatcher.getCoalescedCount() - coalescedBefore >= 1);
+  }
+
+  @Test
+  public void testRemoveListener() throws Exception {
+    final CountDownLatch eventReceived = new CountDownLatch(1);
+    ConfigChangeListener someListener = new ConfigChangeListener() {
+      @Override
+      public void onChange(ConfigChangeEvent changeEvent) {
+        eventReceived.countDown();
+      }
+    };
+
+    dispatcher.dispatch(someListener, assembleEvent(
+        new ConfigChange(someNamespace, "a", "a0", "a1", PropertyChangeType.MODIFIED)));
+    assertTrue(eventReceived.await(5, TimeUnit.SECONDS));
+    assertTrue(dispatcher.hasQueue(someListener));
+
+    dispatcher.remove(someListener);
+
+    assertFalse(dispatcher.hasQueue(someListener));
+  }
+
+  @Test
+  public void testDroppedListenerIsCollected() throws Exception {
+    CountDownLatch eventReceived = new CountDownLatch(1);
+    WeakReference<ConfigChangeListener> someListener = dispatchToDroppedListener(eventReceived);
+    assertTrue(eventReceived.await(5, TimeUnit.SECONDS));
+
+    for (int i = 0; i < 50 && someListener.get() != null; i++) {
+      System.gc();
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+
+    assertNull(someListener.get());
+  }
+
+  private WeakReference<ConfigChangeListener> dispatchToDroppedListener(final CountDownLatch eventReceived) {
+    ConfigChangeListener listener = new ConfigChangeListener() {
+      @Override
+      public void onChange(ConfigChangeEvent changeEvent) {
+        eventReceived.countDown();
+      }
+    };
+    dispatcher.dispatch(listener, assembleEvent(
+        new ConfigChange(someNamespace, "a", "a0", "a1", PropertyChangeType.MODIFIED)));
+    return new WeakReference<>(listener);
+  }
+
+  private void assertChange(ConfigChange change, String oldValue, String newValue, PropertyChangeType changeType) {
+    assertEquals(oldValue, change.getOldValue());
+    assertEquals(newValue, change.getNewValue());
+    assertEquals(changeType, change.getChangeType());
+  }
+
+  private ConfigChangeEvent assembleEvent(ConfigChange... changes) {
+    ImmutableMap.Builder<String, ConfigChange> builder = ImmutableMap.builder();
+    for (ConfigChange change : changes) {
+      builder.put(change.getPropertyName(), change);
+    }
+    return new ConfigChangeEvent(someNamespace, builder.build());
+  }
+}
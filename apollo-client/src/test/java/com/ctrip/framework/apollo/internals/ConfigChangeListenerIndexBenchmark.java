@@ -0,0 +1,116 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.ConfigChangeListener;
+import com.ctrip.framework.apollo.enums.PropertyChangeType;
+import com.ctrip.framework.apollo.model.ConfigChange;
+import com.ctrip.framework.apollo.model.ConfigChangeEvent;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Routing one change event to 500 prefix and key listeners, through the index and through the per listener scan it
+ * replaced. Run {@link #main} with the apollo-client test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigChangeListenerIndexBenchmark {
+  private static final int LISTENER_COUNT = 500;
+  private static final int CHANGED_KEY_COUNT = 10;
+
+  private List<ConfigChangeListener> listeners;
+  private Map<ConfigChangeListener, Set<String>> interestedKeys;
+  private Map<ConfigChangeListener, Set<String>> interestedKeyPrefixes;
+  private ConfigChangeListenerIndex index;
+  private ConfigChangeEvent event;
+
+  @Setup
+  public void setUp() {
+    listeners = Lists.newArrayList();
+    interestedKeys = Maps.newHashMap();
+    interestedKeyPrefixes = Maps.newHashMap();
+    for (int i = 0; i < LISTENER_COUNT; i++) {
+      ConfigChangeListener listener = new ConfigChangeListener() {
+        @Override
+        public void onChange(ConfigChangeEvent changeEvent) {
+        }
+      };
+      listeners.add(listener);
+      if (i % 2 == 0) {
+        interestedKeys.put(listener, Sets.newHashSet("module" + i + ".key.a", "module" + i + ".key.b"));
+      } else {
+        interestedKeyPrefixes.put(listener, Sets.newHashSet("module" + i + ".", "shared.module" + i + "."));
+      }
+    }
+    index = ConfigChangeListenerIndex.build(listeners, interestedKeys, interestedKeyPrefixes);
+
+    Map<String, ConfigChange> changes = Maps.newHashMap();
+    for (int i = 0; i < CHANGED_KEY_COUNT; i++) {
+      String key = "module" + (i * 37 % LISTENER_COUNT) + ".key.a";
+      changes.put(key, new ConfigChange("application", key, "old", "new", PropertyChangeType.MODIFIED));
+    }
+    event = new ConfigChangeEvent("application", changes);
+  }
+
+  @Benchmark
+  public List<ConfigChangeListener> index() {
+    return index.getInterestedListeners(event);
+  }
+
+  @Benchmark
+  public List<ConfigChangeListener> scan() {
+    List<ConfigChangeListener> interested = Lists.newArrayList();
+    for (ConfigChangeListener listener : listeners) {
+      if (isInterested(listener)) {
+        interested.add(listener);
+      }
+    }
+    return interested;
+  }
+
+  private boolean isInterested(ConfigChangeListener listener) {
+    Set<String> keys = interestedKeys.get(listener);
+    Set<String> prefixes = interestedKeyPrefixes.get(listener);
+    if (keys != null) {
+      for (String key : keys) {
+        if (event.isChanged(key)) {
+          return true;
+        }
+      }
+    }
+    if (prefixes != null) {
+      for (String prefix : prefixes) {
+        for (String changedKey : event.changedKeys()) {
+          if (changedKey.startsWith(prefix)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(ConfigChangeListenerIndexBenchmark.class.getSimpleName()).build()).run();
+  }
+}
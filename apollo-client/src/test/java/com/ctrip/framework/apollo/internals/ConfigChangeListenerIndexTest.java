@@ -0,0 +1,95 @@
+package com.ctrip.framework.apollo.internals;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.ctrip.framework.apollo.ConfigChangeListener;
+import com.ctrip.framework.apollo.enums.PropertyChangeType;
+import com.ctrip.framework.apollo.model.ConfigChange;
+import com.ctrip.framework.apollo.model.ConfigChangeEvent;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConfigChangeListenerIndexTest {
+  private static final String someNamespace = "someNamespace";
+
+  private ConfigChangeListener allKeysListener;
+  private ConfigChangeListener keyListener;
+  private ConfigChangeListener prefixListener;
+  private ConfigChangeListener emptyPrefixListener;
+  private ConfigChangeListener keyAndPrefixListener;
+  private ConfigChangeListenerIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    allKeysListener = new SomeListener();
+    keyListener = new SomeListener();
+    prefixListener = new SomeListener();
+    emptyPrefixListener = new SomeListener();
+    keyAndPrefixListener = new SomeListener();
+
+    List<ConfigChangeListener> listeners = Lists.newArrayList(keyListener, allKeysListener, prefixListener,
+        emptyPrefixListener, keyAndPrefixListener);
+    Map<ConfigChangeListener, Set<String>> interestedKeys = Maps.newHashMap();
+    Map<ConfigChangeListener, Set<String>> interestedKeyPrefixes = Maps.newHashMap();
+    interestedKeys.put(keyListener, Sets.newHashSet("some.key", "another.key"));
+    interestedKeyPrefixes.put(prefixListener, Sets.newHashSet("some.", "yet.another."));
+    interestedKeyPrefixes.put(emptyPrefixListener, Sets.newHashSet(""));
+    interestedKeys.put(keyAndPrefixListener, Sets.newHashSet("another.key"));
+    interestedKeyPrefixes.put(keyAndPrefixListener, Sets.newHashSet("yet.another.key.suffix"));
+
+    index = ConfigChangeListenerIndex.build(listeners, interestedKeys, interestedKeyPrefixes);
+  }
+
+  @Test
+  public void testInterestedKey() throws Exception {
+    assertEquals(Lists.newArrayList(keyListener, allKeysListener, prefixListener, emptyPrefixListener),
+        index.getInterestedListeners(assembleEvent("some.key")));
+    assertEquals(Lists.newArrayList(keyListener, allKeysListener, emptyPrefixListener, keyAndPrefixListener),
+        index.getInterestedListeners(assembleEvent("another.key")));
+  }
+
+  @Test
+  public void testInterestedKeyPrefix() throws Exception {
+    assertEquals(Lists.newArrayList(allKeysListener, prefixListener, emptyPrefixListener),
+        index.getInterestedListeners(assembleEvent("some.other.key")));
+    assertEquals(Lists.newArrayList(allKeysListener, prefixListener, emptyPrefixListener),
+        index.getInterestedListeners(assembleEvent("yet.another.key")));
+    assertEquals(Lists.newArrayList(allKeysListener, prefixListener, emptyPrefixListener, keyAndPrefixListener),
+        index.getInterestedListeners(assembleEvent("yet.another.key.suffix.more")));
+    assertEquals(Lists.newArrayList(allKeysListener, emptyPrefixListener),
+        index.getInterestedListeners(assembleEvent("some")));
+  }
+
+  @Test
+  public void testMultipleChangedKeys() throws Exception {
+    assertEquals(Lists.newArrayList(keyListener, allKeysListener, prefixListener, emptyPrefixListener),
+        index.getInterestedListeners(assembleEvent("unknown.key", "some.key", "some.other.key")));
+  }
+
+  @Test
+  public void testEmptyIndex() throws Exception {
+    assertTrue(ConfigChangeListenerIndex.empty().getInterestedListeners(assembleEvent("some.key")).isEmpty());
+  }
+
+  private ConfigChangeEvent assembleEvent(String... changedKeys) {
+    ImmutableMap.Builder<String, ConfigChange> changes = ImmutableMap.builder();
+    for (String key : changedKeys) {
+      changes.put(key, new ConfigChange(someNamespace, key, null, "someValue", PropertyChangeType.ADDED));
+    }
+    return new ConfigChangeEvent(someNamespace, changes.build());
+  }
+
+  private static class SomeListener implements ConfigChangeListener {
+    @Override
+    public void onChange(ConfigChangeEvent changeEvent) {
+    }
+  }
+}
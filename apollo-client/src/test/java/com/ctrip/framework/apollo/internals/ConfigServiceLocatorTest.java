@@ -1,9 +1,12 @@
 package com.ctrip.framework.apollo.internals;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import com.ctrip.framework.apollo.core.dto.ServiceDTO;
+import com.google.common.collect.Lists;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Test;
 
@@ -30,4 +33,67 @@ public class ConfigServiceLocatorTest {
     assertEquals(someConfigServiceUrl.trim(), result.get(0).getHomepageUrl());
     assertEquals(anotherConfigServiceUrl.trim(), result.get(1).getHomepageUrl());
   }
+
+  @Test
+  public void testChooseConfigServiceByScore() throws Exception {
+    System.setProperty("apollo.configService", "someConfigServiceUrl,anotherConfigServiceUrl");
+
+    ConfigServiceLocator configServiceLocator = new ConfigServiceLocator();
+    List<ServiceDTO> services = configServiceLocator.getConfigServices();
+    ServiceDTO slowService = services.get(0);
+    ServiceDTO fastService = services.get(1);
+
+    for (int i = 0; i < 20; i++) {
+      configServiceLocator.recordLatency(slowService, TimeUnit.MILLISECONDS.toNanos(100));
+      configServiceLocator.recordLatency(fastService, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    for (int i = 0; i < 10; i++) {
+      assertSame(fastService, configServiceLocator.chooseConfigService(services));
+      assertSame(fastService, configServiceLocator.rankConfigServices(services).get(0));
+    }
+    assertEquals(100, configServiceLocator.getServiceScores().get("someConfigServiceUrl").getLatencyMillis(), 0.01);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), configServiceLocator.getHedgeDelayNanos(slowService));
+
+    for (int i = 0; i < 10; i++) {
+      configServiceLocator.recordFailure(fastService);
+    }
+
+    assertSame(slowService, configServiceLocator.chooseConfigService(services));
+  }
+
+  @Test
+  public void testChooseUnmeasuredConfigServiceByMeanLatency() throws Exception {
+    System.setProperty("apollo.configService", "someConfigServiceUrl,anotherConfigServiceUrl,yetAnotherConfigServiceUrl");
+
+    ConfigServiceLocator configServiceLocator = new ConfigServiceLocator();
+    List<ServiceDTO> services = configServiceLocator.getConfigServices();
+    ServiceDTO slowService = services.get(0);
+    ServiceDTO fastService = services.get(1);
+    ServiceDTO longPollOnlyService = services.get(2);
+
+    for (int i = 0; i < 20; i++) {
+      configServiceLocator.recordLatency(slowService, TimeUnit.MILLISECONDS.toNanos(100));
+      configServiceLocator.recordLatency(fastService, TimeUnit.MILLISECONDS.toNanos(1));
+      configServiceLocator.recordSuccess(longPollOnlyService);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      assertSame(fastService,
+          configServiceLocator.chooseConfigService(Lists.newArrayList(fastService, longPollOnlyService)));
+      assertSame(longPollOnlyService,
+          configServiceLocator.chooseConfigService(Lists.newArrayList(slowService, longPollOnlyService)));
+    }
+  }
+
+  @Test
+  public void testHedgeDelayWithoutEnoughSamples() throws Exception {
+    System.setProperty("apollo.configService", "someConfigServiceUrl");
+
+    ConfigServiceLocator configServiceLocator = new ConfigServiceLocator();
+    ServiceDTO service = configServiceLocator.getConfigServices().get(0);
+    configServiceLocator.recordLatency(service, TimeUnit.MILLISECONDS.toNanos(100));
+
+    assertEquals(-1, configServiceLocator.getHedgeDelayNanos(service));
+  }
 }
@@ -0,0 +1,85 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.model.ConfigChange;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DefaultConfig#getProperty} for present and missing keys, with and without the precomputed lookup, and
+ * {@link AbstractConfig#calcPropertyChanges} between two versions of a 10000 key namespace differing in 1% of the keys.
+ * The config reads from an in-memory repository. Run {@link #main} with the apollo-client test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DefaultConfigBenchmark {
+  private static final int KEY_COUNT = 10000;
+
+  @Param({"false", "true"})
+  private boolean precomputedLookup;
+
+  private String[] keys;
+  private String[] missingKeys;
+  private Properties previous;
+  private Properties current;
+  private DefaultConfig config;
+
+  @Setup
+  public void setUp() {
+    //read when the injector creates ConfigUtil, each param value runs in its own fork
+    System.setProperty("apollo.precomputedLookup.enabled", String.valueOf(precomputedLookup));
+
+    keys = new String[KEY_COUNT];
+    missingKeys = new String[KEY_COUNT];
+    previous = new Properties();
+    current = new Properties();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      keys[i] = "some.key." + i;
+      missingKeys[i] = "missing.key." + i;
+      previous.setProperty(keys[i], "someValue" + i);
+      current.setProperty(keys[i], i % 100 == 0 ? "anotherValue" + i : "someValue" + i);
+    }
+    config = new DefaultConfig("application", new FixedConfigRepository(previous));
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getProperty(ThreadIndex index) {
+    return config.getProperty(keys[index.next(KEY_COUNT)], null);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getMissingProperty(ThreadIndex index) {
+    return config.getProperty(missingKeys[index.next(KEY_COUNT)], "someDefault");
+  }
+
+  @Benchmark
+  public List<ConfigChange> calcPropertyChanges() {
+    return config.calcPropertyChanges("application", previous, current);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(DefaultConfigBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -3,6 +3,8 @@ package com.ctrip.framework.apollo.internals;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -10,6 +12,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.ctrip.framework.apollo.enums.ConfigSourceType;
+import com.ctrip.framework.apollo.handle.BooleanPropertyHandle;
+import com.ctrip.framework.apollo.handle.IntPropertyHandle;
+import com.ctrip.framework.apollo.handle.LongPropertyHandle;
+import com.ctrip.framework.apollo.handle.PropertyHandle;
+import com.ctrip.framework.apollo.handle.PropertyHandles;
 import com.ctrip.framework.apollo.util.OrderedProperties;
 import com.ctrip.framework.apollo.util.factory.PropertiesFactory;
 import com.google.common.collect.Maps;
@@ -22,7 +29,9 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.base.Function;
 import com.google.common.base.Splitter;
@@ -143,6 +152,82 @@ public class DefaultConfigTest {
     assertEquals(someSourceType, defaultConfig.getSourceType());
   }
 
+  @Test
+  public void testGetPropertyWithPrecomputedLookup() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtilWithPrecomputedLookup());
+
+    String someKey = "someKey";
+    String someSystemPropertyValue = "system-property-value";
+    String anotherSystemPropertyValue = "another-system-property-value";
+
+    String anotherKey = "anotherKey";
+    String someLocalFileValue = "local-file-value";
+    String anotherLocalFileValue = "another-local-file-value";
+
+    String lastKey = "lastKey";
+    String someResourceValue = "resource-value";
+
+    System.setProperty(someKey, someSystemPropertyValue);
+
+    someProperties = new Properties();
+    someProperties.setProperty(someKey, someLocalFileValue);
+    someProperties.setProperty(anotherKey, someLocalFileValue);
+    when(configRepository.getConfig()).thenReturn(someProperties);
+
+    File resourceFile = new File(someResourceDir, someNamespace + ".properties");
+    Files.write(anotherKey + "=" + someResourceValue, resourceFile, Charsets.UTF_8);
+    Files.append(System.getProperty("line.separator"), resourceFile, Charsets.UTF_8);
+    Files.append(lastKey + "=" + someResourceValue, resourceFile, Charsets.UTF_8);
+
+    DefaultConfig defaultConfig = new DefaultConfig(someNamespace, configRepository);
+
+    try {
+      assertEquals(someSystemPropertyValue, defaultConfig.getProperty(someKey, null));
+      assertEquals(someLocalFileValue, defaultConfig.getProperty(anotherKey, null));
+      assertEquals(someResourceValue, defaultConfig.getProperty(lastKey, null));
+
+      //system property changes are captured with the next config version
+      System.setProperty(someKey, anotherSystemPropertyValue);
+      assertEquals(someSystemPropertyValue, defaultConfig.getProperty(someKey, null));
+
+      Properties anotherProperties = new Properties();
+      anotherProperties.setProperty(anotherKey, anotherLocalFileValue);
+      defaultConfig.onRepositoryChange(someNamespace, anotherProperties);
+
+      assertEquals(anotherSystemPropertyValue, defaultConfig.getProperty(someKey, null));
+      assertEquals(anotherLocalFileValue, defaultConfig.getProperty(anotherKey, null));
+      assertEquals(someResourceValue, defaultConfig.getProperty(lastKey, null));
+    } finally {
+      System.clearProperty(someKey);
+    }
+  }
+
+  @Test
+  public void testGetPropertyWithPrecomputedLookupAndLiveSystemProperties() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtilWithPrecomputedLookupAndLiveSystemProperties());
+
+    String someKey = "someKey";
+    String someSystemPropertyValue = "system-property-value";
+    String someLocalFileValue = "local-file-value";
+
+    someProperties = new Properties();
+    someProperties.setProperty(someKey, someLocalFileValue);
+    when(configRepository.getConfig()).thenReturn(someProperties);
+
+    DefaultConfig defaultConfig = new DefaultConfig(someNamespace, configRepository);
+
+    assertEquals(someLocalFileValue, defaultConfig.getProperty(someKey, null));
+
+    System.setProperty(someKey, someSystemPropertyValue);
+    try {
+      assertEquals(someSystemPropertyValue, defaultConfig.getProperty(someKey, null));
+    } finally {
+      System.clearProperty(someKey);
+    }
+
+    assertEquals(someLocalFileValue, defaultConfig.getProperty(someKey, null));
+  }
+
   @Test
   public void testGetIntProperty() throws Exception {
     String someStringKey = "someStringKey";
@@ -879,6 +964,166 @@ public class DefaultConfigTest {
     }, Lists.<String>newArrayList()), Lists.newArrayList());
   }
 
+  @Test
+  public void testPropertyHandles() throws Exception {
+    String someIntKey = "someIntKey";
+    String someBooleanKey = "someBooleanKey";
+    String someArrayKey = "someArrayKey";
+    String someListKey = "someListKey";
+    String someMissingKey = "someMissingKey";
+
+    someProperties = new Properties();
+    someProperties.setProperty(someIntKey, "1");
+    someProperties.setProperty(someBooleanKey, "true");
+    someProperties.setProperty(someArrayKey, "a,b");
+    someProperties.setProperty(someListKey, "x, y");
+    when(configRepository.getConfig()).thenReturn(someProperties);
+
+    DefaultConfig defaultConfig = new DefaultConfig(someNamespace, configRepository);
+
+    IntPropertyHandle intHandle = PropertyHandles.intHandle(defaultConfig, someIntKey, -1);
+    BooleanPropertyHandle booleanHandle = PropertyHandles.booleanHandle(defaultConfig, someBooleanKey, false);
+    PropertyHandle<String[]> arrayHandle = PropertyHandles.arrayHandle(defaultConfig, someArrayKey, ",",
+        new String[0]);
+    PropertyHandle<List<String>> listHandle = PropertyHandles.handle(defaultConfig, someListKey,
+        new Function<String, List<String>>() {
+          @Override
+          public List<String> apply(String s) {
+            return Splitter.on(",").trimResults().splitToList(s);
+          }
+        }, Collections.<String>emptyList());
+    LongPropertyHandle missingHandle = PropertyHandles.longHandle(defaultConfig, someMissingKey, 10L);
+
+    assertEquals(1, intHandle.get());
+    assertTrue(booleanHandle.get());
+    assertArrayEquals(new String[]{"a", "b"}, arrayHandle.get());
+    assertEquals(Lists.newArrayList("x", "y"), listHandle.get());
+    assertEquals(10L, missingHandle.get());
+
+    Properties anotherProperties = new Properties();
+    anotherProperties.setProperty(someIntKey, "invalid");
+    anotherProperties.setProperty(someBooleanKey, "false");
+    anotherProperties.setProperty(someListKey, "z");
+    anotherProperties.setProperty(someMissingKey, "20");
+
+    defaultConfig.onRepositoryChange(someNamespace, anotherProperties);
+
+    assertEquals(-1, intHandle.get());
+    assertFalse(booleanHandle.get());
+    assertArrayEquals(new String[0], arrayHandle.get());
+    assertEquals(Lists.newArrayList("z"), listHandle.get());
+    assertEquals(20L, missingHandle.get());
+  }
+
+  @Test
+  public void testPropertyHandleIsRefreshedBeforeListenersAreNotified() throws Exception {
+    String someKey = "someKey";
+    String anotherValue = "anotherValue";
+
+    someProperties = new Properties();
+    someProperties.setProperty(someKey, "someValue");
+    when(configRepository.getConfig()).thenReturn(someProperties);
+
+    DefaultConfig defaultConfig = new DefaultConfig(someNamespace, configRepository);
+    final PropertyHandle<String> stringHandle = defaultConfig.stringHandle(someKey, null);
+    final SettableFuture<String> valueSeenByListener = SettableFuture.create();
+
+    defaultConfig.addChangeListener(new ConfigChangeListener() {
+      @Override
+      public void onChange(ConfigChangeEvent changeEvent) {
+        valueSeenByListener.set(stringHandle.get());
+      }
+    });
+
+    Properties anotherProperties = new Properties();
+    anotherProperties.setProperty(someKey, anotherValue);
+    defaultConfig.onRepositoryChange(someNamespace, anotherProperties);
+
+    assertEquals(anotherValue, valueSeenByListener.get(500, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testPropertyHandlesAreSharedAndReleased() throws Exception {
+    String someKey = "someKey";
+
+    someProperties = new Properties();
+    someProperties.setProperty(someKey, "1");
+    when(configRepository.getConfig()).thenReturn(someProperties);
+
+    DefaultConfig defaultConfig = new DefaultConfig(someNamespace, configRepository);
+
+    IntPropertyHandle intHandle = defaultConfig.intHandle(someKey, -1);
+    PropertyHandle<String[]> arrayHandle = defaultConfig.arrayHandle(someKey, ",", new String[]{"a"});
+
+    assertSame(intHandle, defaultConfig.intHandle(someKey, -1));
+    assertSame(arrayHandle, defaultConfig.arrayHandle(someKey, ",", new String[]{"a"}));
+    assertNotSame(intHandle, defaultConfig.intHandle(someKey, -2));
+    assertNotSame(arrayHandle, defaultConfig.arrayHandle(someKey, ";", new String[]{"a"}));
+
+    for (int i = 0; i < 100; i++) {
+      defaultConfig.handle(someKey, new Function<String, Integer>() {
+        @Override
+        public Integer apply(String input) {
+          return Integer.valueOf(input);
+        }
+      }, i);
+    }
+
+    //the handles nobody refers to any more are dropped
+    long deadline = System.currentTimeMillis() + 5000;
+    while (defaultConfig.getPropertyHandleCount() > 2 && System.currentTimeMillis() < deadline) {
+      System.gc();
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertEquals(2, defaultConfig.getPropertyHandleCount());
+    assertEquals(1, intHandle.get());
+    assertArrayEquals(new String[]{"1"}, arrayHandle.get());
+  }
+
+  @Test
+  public void testConcurrentCallersGetRefreshedHandles() throws Exception {
+    final int keyCount = 200;
+    someProperties = new Properties();
+    for (int i = 0; i < keyCount; i++) {
+      someProperties.setProperty("someKey" + i, String.valueOf(i));
+    }
+    when(configRepository.getConfig()).thenReturn(someProperties);
+    final DefaultConfig defaultConfig = new DefaultConfig(someNamespace, configRepository);
+    final AtomicInteger unrefreshed = new AtomicInteger();
+    int threads = 4;
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+
+    for (int t = 0; t < threads; t++) {
+      new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            for (int i = 0; i < keyCount; i++) {
+              if (PropertyHandles.intHandle(defaultConfig, "someKey" + i, -1).get() != i) {
+                unrefreshed.incrementAndGet();
+              }
+            }
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          } finally {
+            done.countDown();
+          }
+        }
+      }).start();
+    }
+    start.countDown();
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(0, unrefreshed.get());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPropertyHandlesOfUnsupportedConfig() throws Exception {
+    PropertyHandles.intHandle(mock(Config.class), "someKey", -1);
+  }
+
   @Test
   public void testLoadFromRepositoryFailedAndThenRecovered() {
     String someKey = "someKey";
@@ -945,6 +1190,21 @@ public class DefaultConfigTest {
     }
   }
 
+  public static class MockConfigUtilWithPrecomputedLookup extends MockConfigUtil {
+    @Override
+    public boolean isPrecomputedLookupEnabled() {
+      return true;
+    }
+  }
+
+  public static class MockConfigUtilWithPrecomputedLookupAndLiveSystemProperties
+      extends MockConfigUtilWithPrecomputedLookup {
+    @Override
+    public boolean isPrecomputedLookupLiveSystemPropertiesEnabled() {
+      return true;
+    }
+  }
+
   public static class MockConfigUtilWithSmallCache extends MockConfigUtil {
     @Override
     public long getMaxConfigCacheSize() {
@@ -0,0 +1,33 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.enums.ConfigSourceType;
+import java.util.Properties;
+
+/**
+ * A repository always returning the given properties, for the benchmarks of the config read paths.
+ */
+public class FixedConfigRepository extends AbstractConfigRepository {
+  private final Properties properties;
+
+  public FixedConfigRepository(Properties properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  public Properties getConfig() {
+    return properties;
+  }
+
+  @Override
+  public void setUpstreamRepository(ConfigRepository upstreamConfigRepository) {
+  }
+
+  @Override
+  public ConfigSourceType getSourceType() {
+    return ConfigSourceType.LOCAL;
+  }
+
+  @Override
+  protected void sync() {
+  }
+}
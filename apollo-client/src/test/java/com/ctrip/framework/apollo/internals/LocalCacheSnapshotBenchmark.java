@@ -0,0 +1,86 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.util.ImmutableProperties;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading a 2000 key namespace from the .properties local cache file with loading it from a
+ * {@link LocalCacheSnapshot}. Run {@link #main} with the apollo-client test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalCacheSnapshotBenchmark {
+  private static final int KEY_COUNT = 2000;
+
+  private File baseDir;
+  private File propertiesFile;
+  private File snapshotFile;
+
+  @Setup
+  public void setUp() throws IOException {
+    baseDir = Files.createTempDirectory("LocalCacheSnapshotBenchmark").toFile();
+    propertiesFile = new File(baseDir, "someApp+someCluster+someNamespace.properties");
+    snapshotFile = new File(baseDir, "someApp+someCluster+someNamespace.snapshot");
+
+    Properties properties = new Properties();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      properties.setProperty("some.key." + i, "someValue" + i);
+    }
+    try (OutputStream out = new FileOutputStream(propertiesFile)) {
+      properties.store(out, "Persisted by LocalCacheSnapshotBenchmark");
+    }
+    new LocalCacheSnapshot(ImmutableProperties.copyOf(properties)).writeTo(snapshotFile, true);
+  }
+
+  @TearDown
+  public void tearDown() {
+    propertiesFile.delete();
+    snapshotFile.delete();
+    baseDir.delete();
+  }
+
+  @Benchmark
+  public ImmutableProperties loadPropertiesFile() throws IOException {
+    Properties properties = new Properties();
+    try (InputStream in = new FileInputStream(propertiesFile)) {
+      properties.load(in);
+    }
+    return ImmutableProperties.copyOf(properties);
+  }
+
+  @Benchmark
+  public ImmutableProperties loadSnapshot() throws IOException {
+    return LocalCacheSnapshot.readFrom(snapshotFile).getProperties();
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(LocalCacheSnapshotBenchmark.class.getSimpleName()).build()).run();
+  }
+}
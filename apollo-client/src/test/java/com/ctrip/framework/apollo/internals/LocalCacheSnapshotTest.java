@@ -0,0 +1,100 @@
+package com.ctrip.framework.apollo.internals;
+
+import static org.junit.Assert.assertEquals;
+
+import com.ctrip.framework.apollo.util.ImmutableProperties;
+import com.google.common.collect.Lists;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LocalCacheSnapshotTest {
+  private File someBaseDir;
+  private File someFile;
+
+  @Before
+  public void setUp() throws Exception {
+    someBaseDir = Files.createTempDirectory("LocalCacheSnapshotTest").toFile();
+    someFile = new File(someBaseDir, "someApp+someCluster+someNamespace.snapshot");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    File[] files = someBaseDir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    someBaseDir.delete();
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    ImmutableProperties properties = new ImmutableProperties.Builder(3)
+        .put("b", "someValue")
+        .put("a", "another\nvalue with \u4e2d\u6587")
+        .put("c", "")
+        .build();
+
+    new LocalCacheSnapshot(properties).writeTo(someFile, true);
+
+    LocalCacheSnapshot snapshot = LocalCacheSnapshot.readFrom(someFile);
+
+    assertEquals(properties, snapshot.getProperties());
+    assertEquals(Lists.newArrayList("a", "b", "c"), Collections.list(snapshot.getProperties().keys()));
+    assertEquals(1, someBaseDir.listFiles().length);
+  }
+
+  @Test
+  public void testWriteAndReadEmpty() throws Exception {
+    new LocalCacheSnapshot(ImmutableProperties.empty()).writeTo(someFile, true);
+
+    LocalCacheSnapshot snapshot = LocalCacheSnapshot.readFrom(someFile);
+
+    assertEquals(0, snapshot.getProperties().size());
+  }
+
+  @Test
+  public void testReplaceWhileRead() throws Exception {
+    ImmutableProperties someProperties = new ImmutableProperties.Builder(1).put("someKey", "someValue").build();
+    ImmutableProperties anotherProperties = new ImmutableProperties.Builder(1).put("someKey", "anotherValue").build();
+    new LocalCacheSnapshot(someProperties).writeTo(someFile, true);
+
+    LocalCacheSnapshot snapshot = LocalCacheSnapshot.readFrom(someFile);
+    new LocalCacheSnapshot(anotherProperties).writeTo(someFile, true);
+
+    assertEquals(someProperties, snapshot.getProperties());
+    assertEquals(anotherProperties, LocalCacheSnapshot.readFrom(someFile).getProperties());
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadCorruptedSnapshot() throws Exception {
+    ImmutableProperties properties = new ImmutableProperties.Builder(1).put("someKey", "someValue").build();
+    new LocalCacheSnapshot(properties).writeTo(someFile, true);
+
+    try (RandomAccessFile file = new RandomAccessFile(someFile, "rw")) {
+      file.seek(file.length() - 10);
+      file.write('x');
+    }
+
+    LocalCacheSnapshot.readFrom(someFile);
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadTruncatedSnapshot() throws Exception {
+    ImmutableProperties properties = new ImmutableProperties.Builder(1).put("someKey", "someValue").build();
+    new LocalCacheSnapshot(properties).writeTo(someFile, true);
+
+    try (RandomAccessFile file = new RandomAccessFile(someFile, "rw")) {
+      file.setLength(file.length() / 2);
+    }
+
+    LocalCacheSnapshot.readFrom(someFile);
+  }
+}
@@ -2,7 +2,9 @@ package com.ctrip.framework.apollo.internals;
 
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -15,6 +17,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -195,6 +198,79 @@ public class LocalFileConfigRepositoryTest {
     assertEquals(anotherSourceType, localFileConfigRepository.getSourceType());
   }
 
+  @Test
+  public void testLoadConfigWithBinaryLocalCache() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtilWithBinaryLocalCache(someBaseDir));
+
+    LocalFileConfigRepository localRepo =
+        new LocalFileConfigRepository(someNamespace, upstreamRepo);
+
+    File cacheDir = new File(someBaseDir, "config-cache");
+    File snapshotFile = localRepo.assembleLocalCacheSnapshotFile(cacheDir, someNamespace);
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (!snapshotFile.isFile() && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertTrue(snapshotFile.isFile());
+    assertFalse(localRepo.assembleLocalCacheFile(cacheDir, someNamespace).exists());
+
+    LocalFileConfigRepository anotherLocalRepoWithNoFallback = new LocalFileConfigRepository(someNamespace);
+
+    assertEquals(someProperties, anotherLocalRepoWithNoFallback.getConfig());
+    assertEquals(ConfigSourceType.LOCAL, anotherLocalRepoWithNoFallback.getSourceType());
+  }
+
+  @Test
+  public void testBinaryLocalCacheRemovesPropertiesFile() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtilWithBinaryLocalCache(someBaseDir));
+    File cacheDir = new File(someBaseDir, "config-cache");
+    cacheDir.mkdirs();
+    File propertiesFile = new File(cacheDir, assembleLocalCacheFileName());
+    Properties staleProperties = new Properties();
+    staleProperties.setProperty("someKey", "staleValue");
+    try (FileOutputStream out = new FileOutputStream(propertiesFile)) {
+      staleProperties.store(out, "Persisted by LocalFileConfigRepositoryTest");
+    }
+
+    LocalFileConfigRepository localRepo = new LocalFileConfigRepository(someNamespace, upstreamRepo);
+
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (propertiesFile.exists() && System.currentTimeMillis() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+    assertFalse(propertiesFile.exists());
+    assertTrue(localRepo.assembleLocalCacheSnapshotFile(cacheDir, someNamespace).isFile());
+  }
+
+  @Test
+  public void testLoadConfigWithBinaryLocalCacheFallbackToPropertiesFile() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtilWithBinaryLocalCache(someBaseDir));
+    createLocalCachePropertyFile(someProperties);
+
+    LocalFileConfigRepository localRepo = new LocalFileConfigRepository(someNamespace);
+    localRepo.setLocalCacheDir(someBaseDir, true);
+
+    assertEquals(someProperties, localRepo.getConfig());
+  }
+
+  public static class MockConfigUtilWithBinaryLocalCache extends MockConfigUtil {
+    private final File defaultLocalCacheDir;
+
+    public MockConfigUtilWithBinaryLocalCache(File defaultLocalCacheDir) {
+      this.defaultLocalCacheDir = defaultLocalCacheDir;
+    }
+
+    @Override
+    public String getDefaultLocalCacheDir() {
+      return defaultLocalCacheDir.getAbsolutePath();
+    }
+
+    @Override
+    public boolean isBinaryLocalCacheEnabled() {
+      return true;
+    }
+  }
+
   public static class MockConfigUtil extends ConfigUtil {
     @Override
     public String getAppId() {
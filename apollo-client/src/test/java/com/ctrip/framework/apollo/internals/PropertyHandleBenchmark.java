@@ -0,0 +1,91 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.handle.BooleanPropertyHandle;
+import com.ctrip.framework.apollo.handle.IntPropertyHandle;
+import com.ctrip.framework.apollo.handle.PropertyHandle;
+import com.ctrip.framework.apollo.handle.PropertyHandles;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares property handles with the getXxxProperty paths of {@link DefaultConfig}.
+ * Run {@link #main} with the apollo-client test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PropertyHandleBenchmark {
+  private static final String INT_KEY = "some.int";
+  private static final String BOOLEAN_KEY = "some.boolean";
+  private static final String ARRAY_KEY = "some.array";
+
+  private DefaultConfig config;
+  private IntPropertyHandle intHandle;
+  private BooleanPropertyHandle booleanHandle;
+  private PropertyHandle<String[]> arrayHandle;
+
+  @Setup
+  public void setUp() {
+    Properties properties = new Properties();
+    properties.setProperty(INT_KEY, "5000");
+    properties.setProperty(BOOLEAN_KEY, "true");
+    properties.setProperty(ARRAY_KEY, "a,b,c");
+    config = new DefaultConfig("application", new FixedConfigRepository(properties));
+    intHandle = PropertyHandles.intHandle(config, INT_KEY, 5);
+    booleanHandle = PropertyHandles.booleanHandle(config, BOOLEAN_KEY, false);
+    arrayHandle = PropertyHandles.arrayHandle(config, ARRAY_KEY, ",", new String[0]);
+  }
+
+  @Benchmark
+  public int getIntProperty() {
+    return config.getIntProperty(INT_KEY, 5);
+  }
+
+  @Benchmark
+  public int intHandle() {
+    return intHandle.get();
+  }
+
+  @Benchmark
+  public boolean getBooleanProperty() {
+    return config.getBooleanProperty(BOOLEAN_KEY, false);
+  }
+
+  @Benchmark
+  public boolean booleanHandle() {
+    return booleanHandle.get();
+  }
+
+  @Benchmark
+  public String[] getArrayProperty() {
+    return config.getArrayProperty(ARRAY_KEY, ",", new String[0]);
+  }
+
+  @Benchmark
+  public String[] arrayHandle() {
+    return arrayHandle.get();
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(PropertyHandleBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,202 @@
+package com.ctrip.framework.apollo.internals;
+
+import com.ctrip.framework.apollo.build.MockInjector;
+import com.ctrip.framework.apollo.core.dto.ApolloConfig;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.ctrip.framework.apollo.util.http.DefaultHttpTransport;
+import com.ctrip.framework.apollo.util.http.HttpRequest;
+import com.ctrip.framework.apollo.util.http.HttpResponse;
+import com.ctrip.framework.apollo.util.http.HttpTransport;
+import com.ctrip.framework.apollo.util.http.HttpUtil;
+import com.ctrip.framework.apollo.util.http.PooledHttpTransport;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link RemoteConfigRepository#sync()} receiving a new release from the config service, without the network: the
+ * request goes through the default or the pooled {@link HttpTransport}, whose connection serves the {@link
+ * ApolloConfig} json from memory (gzipped when the pooled transport asks for it), and the repository decodes it into
+ * the properties handed to the downstream. Run {@link #main} with the apollo-client test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemoteConfigDecodingBenchmark {
+  @Param({"100", "2000"})
+  private int keyCount;
+
+  @Param({"default", "pooled"})
+  private String transport;
+
+  private RemoteConfigRepository repository;
+
+  @Setup
+  public void setUp() throws IOException {
+    Map<String, String> configurations = Maps.newHashMap();
+    for (int i = 0; i < keyCount; i++) {
+      configurations.put("some.key." + i, "someValue" + i);
+    }
+    ApolloConfig apolloConfig = new ApolloConfig("someAppId", "someCluster", "application", "someReleaseKey");
+    apolloConfig.setConfigurations(configurations);
+    final byte[] json = new Gson().toJson(apolloConfig).getBytes(StandardCharsets.UTF_8);
+    final byte[] gzippedJson = gzip(json);
+
+    System.setProperty("apollo.configService", "http://localhost:8080");
+    MockInjector.setInstance(ConfigUtil.class, new BenchmarkConfigUtil());
+    HttpTransport httpTransport;
+    if ("pooled".equals(transport)) {
+      httpTransport = new PooledHttpTransport() {
+        @Override
+        protected HttpURLConnection openConnection(HttpRequest httpRequest) throws IOException {
+          return new InMemoryHttpURLConnection(new URL(httpRequest.getUrl()), json, gzippedJson);
+        }
+      };
+    } else {
+      httpTransport = new DefaultHttpTransport() {
+        @Override
+        protected HttpURLConnection openConnection(HttpRequest httpRequest) throws IOException {
+          return new InMemoryHttpURLConnection(new URL(httpRequest.getUrl()), json, gzippedJson);
+        }
+      };
+    }
+    MockInjector.setInstance(HttpUtil.class, new TransportHttpUtil(httpTransport));
+    //the benchmark drives every fetch itself
+    MockInjector.setInstance(RemoteConfigLongPollService.class, new RemoteConfigLongPollService() {
+      @Override
+      public boolean submit(String namespace, RemoteConfigRepository remoteConfigRepository) {
+        return true;
+      }
+    });
+    repository = new RemoteConfigRepository("application");
+  }
+
+  @TearDown
+  public void tearDown() {
+    MockInjector.reset();
+    System.clearProperty("apollo.configService");
+  }
+
+  @Benchmark
+  public Properties sync() {
+    repository.sync();
+    return repository.getConfig();
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  private static class BenchmarkConfigUtil extends ConfigUtil {
+    @Override
+    public String getAppId() {
+      return "someAppId";
+    }
+
+    @Override
+    public int getLoadConfigQPS() {
+      return Integer.MAX_VALUE;
+    }
+  }
+
+  private static class TransportHttpUtil extends HttpUtil {
+    private final HttpTransport transport;
+
+    TransportHttpUtil(HttpTransport transport) {
+      this.transport = transport;
+    }
+
+    @Override
+    public <T> HttpResponse<T> doGet(HttpRequest httpRequest, Class<T> responseType) {
+      return transport.doGet(httpRequest, responseType);
+    }
+
+    @Override
+    public <T> HttpResponse<T> doGet(HttpRequest httpRequest, Type responseType) {
+      return transport.doGet(httpRequest, responseType);
+    }
+  }
+
+  /**
+   * Answers 200 with a body from memory, gzipped if the request accepts it.
+   */
+  private static class InMemoryHttpURLConnection extends HttpURLConnection {
+    private final byte[] body;
+    private final byte[] gzippedBody;
+    private boolean gzipped;
+
+    InMemoryHttpURLConnection(URL url, byte[] body, byte[] gzippedBody) {
+      super(url);
+      this.body = body;
+      this.gzippedBody = gzippedBody;
+    }
+
+    @Override
+    public void connect() {
+      gzipped = "gzip".equals(getRequestProperty("Accept-Encoding"));
+      connected = true;
+    }
+
+    @Override
+    public int getResponseCode() {
+      return HTTP_OK;
+    }
+
+    @Override
+    public String getContentEncoding() {
+      return gzipped ? "gzip" : null;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return new ByteArrayInputStream(gzipped ? gzippedBody : body);
+    }
+
+    @Override
+    public void disconnect() {
+    }
+
+    @Override
+    public boolean usingProxy() {
+      return false;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(RemoteConfigDecodingBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -68,6 +68,7 @@ public class RemoteConfigLongPollServiceTest {
     ServiceDTO serviceDTO = mock(ServiceDTO.class);
     when(serviceDTO.getHomepageUrl()).thenReturn(someServerUrl);
     when(configServiceLocator.getConfigServices()).thenReturn(Lists.newArrayList(serviceDTO));
+    when(configServiceLocator.chooseConfigService(any(List.class))).thenReturn(serviceDTO);
     MockInjector.setInstance(ConfigServiceLocator.class, configServiceLocator);
 
     MockInjector.setInstance(ConfigUtil.class, new MockConfigUtil());
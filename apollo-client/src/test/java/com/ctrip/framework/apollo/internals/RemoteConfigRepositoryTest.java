@@ -4,16 +4,19 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.ctrip.framework.apollo.build.ApolloInjector;
 import com.ctrip.framework.apollo.build.MockInjector;
 import com.ctrip.framework.apollo.core.dto.ApolloConfig;
 import com.ctrip.framework.apollo.core.dto.ApolloConfigNotification;
@@ -23,6 +26,7 @@ import com.ctrip.framework.apollo.core.signature.Signature;
 import com.ctrip.framework.apollo.enums.ConfigSourceType;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
 import com.ctrip.framework.apollo.exceptions.ApolloConfigStatusCodeException;
+import com.ctrip.framework.apollo.metrics.MetricsRegistry;
 import com.ctrip.framework.apollo.util.ConfigUtil;
 import com.ctrip.framework.apollo.util.OrderedProperties;
 import com.ctrip.framework.apollo.util.factory.PropertiesFactory;
@@ -40,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.servlet.http.HttpServletResponse;
 import org.junit.After;
 import org.junit.Before;
@@ -90,6 +95,13 @@ public class RemoteConfigRepositoryTest {
 
     when(serviceDTO.getHomepageUrl()).thenReturn(someServerUrl);
     when(configServiceLocator.getConfigServices()).thenReturn(Lists.newArrayList(serviceDTO));
+    when(configServiceLocator.rankConfigServices(any(List.class))).thenAnswer(new Answer<List<ServiceDTO>>() {
+      @Override
+      public List<ServiceDTO> answer(InvocationOnMock invocation) {
+        return Lists.newArrayList((List<ServiceDTO>) invocation.getArguments()[0]);
+      }
+    });
+    when(configServiceLocator.chooseConfigService(any(List.class))).thenReturn(serviceDTO);
     MockInjector.setInstance(ConfigServiceLocator.class, configServiceLocator);
 
     httpUtil = spy(new MockHttpUtil());
@@ -136,6 +148,46 @@ public class RemoteConfigRepositoryTest {
     remoteConfigLongPollService.stopLongPollingRefresh();
   }
 
+  @Test
+  public void testGetConfigAndListenersGetMutableCopies() throws Exception {
+    String someKey = "someKey";
+    String someValue = "someValue";
+    Map<String, String> configurations = Maps.newHashMap();
+    configurations.put(someKey, someValue);
+    ApolloConfig someApolloConfig = assembleApolloConfig(configurations);
+
+    when(someResponse.getStatusCode()).thenReturn(200);
+    when(someResponse.getBody()).thenReturn(someApolloConfig);
+
+    RemoteConfigRepository remoteConfigRepository = new RemoteConfigRepository(someNamespace);
+    final List<Properties> notified = Lists.newArrayList();
+    remoteConfigRepository.addChangeListener(new RepositoryChangeListener() {
+      @Override
+      public void onRepositoryChange(String namespace, Properties newProperties) {
+        newProperties.setProperty("listenerKey", "listenerValue");
+        notified.add(newProperties);
+      }
+    });
+
+    Properties config = remoteConfigRepository.getConfig();
+    config.setProperty("anotherKey", "anotherValue");
+    Properties cloned = (Properties) config.clone();
+    config.remove(someKey);
+
+    assertEquals(someValue, cloned.getProperty(someKey));
+    assertEquals(configurations, remoteConfigRepository.getConfig());
+
+    Map<String, String> newConfigurations = Maps.newHashMap(configurations);
+    newConfigurations.put(someKey, "anotherValue");
+    when(someResponse.getBody()).thenReturn(assembleApolloConfig(newConfigurations));
+    remoteConfigRepository.sync();
+
+    assertEquals(1, notified.size());
+    assertEquals("listenerValue", notified.get(0).getProperty("listenerKey"));
+    assertEquals(newConfigurations, remoteConfigRepository.getConfig());
+    remoteConfigLongPollService.stopLongPollingRefresh();
+  }
+
   @Test
   public void testLoadConfigWithOrderedProperties() throws Exception {
     String someKey = "someKey";
@@ -227,6 +279,26 @@ public class RemoteConfigRepositoryTest {
     remoteConfigRepository.getConfig();
   }
 
+  @Test
+  public void testNotFoundIsNotCountedAsFailure() throws Exception {
+    when(someResponse.getStatusCode()).thenReturn(404);
+    MetricsRegistry metricsRegistry = ApolloInjector.getInstance(MetricsRegistry.class);
+    long failuresBefore = metricsRegistry.counter("config.fetch.failure").getCount();
+    long notFoundBefore = metricsRegistry.counter("config.fetch.notFound").getCount();
+
+    RemoteConfigRepository remoteConfigRepository = new RemoteConfigRepository(someNamespace);
+    remoteConfigLongPollService.stopLongPollingRefresh();
+    try {
+      remoteConfigRepository.getConfig();
+      fail();
+    } catch (ApolloConfigException ex) {
+      //expected
+    }
+
+    assertEquals(failuresBefore, metricsRegistry.counter("config.fetch.failure").getCount());
+    assertTrue(metricsRegistry.counter("config.fetch.notFound").getCount() > notFoundBefore);
+  }
+
   @Test
   public void testRepositoryChangeListener() throws Exception {
     Map<String, String> configurations = ImmutableMap.of("someKey", "someValue");
@@ -254,6 +326,88 @@ public class RemoteConfigRepositoryTest {
     remoteConfigLongPollService.stopLongPollingRefresh();
   }
 
+  @Test
+  public void testLoadConfigWithHedgedRequest() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtilWithHedgedRequest());
+    final String slowServerUrl = "http://someSlowServer";
+    ServiceDTO slowService = mock(ServiceDTO.class);
+    when(slowService.getHomepageUrl()).thenReturn(slowServerUrl);
+    ServiceDTO fastService = mock(ServiceDTO.class);
+    when(fastService.getHomepageUrl()).thenReturn(someServerUrl);
+    when(configServiceLocator.getConfigServices()).thenReturn(Lists.newArrayList(slowService, fastService));
+    when(configServiceLocator.getHedgeDelayNanos(slowService)).thenReturn(TimeUnit.MILLISECONDS.toNanos(10));
+
+    Map<String, String> configurations = ImmutableMap.of("someKey", "someValue");
+    ApolloConfig someApolloConfig = assembleApolloConfig(configurations);
+
+    when(someResponse.getStatusCode()).thenReturn(200);
+    when(someResponse.getBody()).thenReturn(someApolloConfig);
+
+    final AtomicReference<HttpRequest> slowRequest = new AtomicReference<>();
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        HttpRequest request = (HttpRequest) invocation.getArguments()[0];
+        if (request.getUrl().startsWith(slowServerUrl)) {
+          slowRequest.set(request);
+          TimeUnit.SECONDS.sleep(5);
+        }
+        return invocation.callRealMethod();
+      }
+    }).when(httpUtil).doGet(any(HttpRequest.class), eq(ApolloConfig.class));
+
+    long start = System.nanoTime();
+    RemoteConfigRepository remoteConfigRepository = new RemoteConfigRepository(someNamespace);
+
+    assertEquals(configurations, remoteConfigRepository.getConfig());
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    verify(configServiceLocator, times(1)).recordLatency(eq(fastService), any(Long.class));
+    assertTrue(slowRequest.get().isAborted());
+    remoteConfigLongPollService.stopLongPollingRefresh();
+  }
+
+  @Test
+  public void testLoadConfigAfterStartupDeadline() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtilWithStartupDeadline());
+    Map<String, String> configurations = ImmutableMap.of("someKey", "someValue");
+    ApolloConfig someApolloConfig = assembleApolloConfig(configurations);
+
+    when(someResponse.getStatusCode()).thenReturn(200);
+    when(someResponse.getBody()).thenReturn(someApolloConfig);
+
+    final SettableFuture<Boolean> serverResponded = SettableFuture.create();
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        serverResponded.get();
+        return invocation.callRealMethod();
+      }
+    }).when(httpUtil).doGet(any(HttpRequest.class), eq(ApolloConfig.class));
+
+    RemoteConfigRepository remoteConfigRepository = new RemoteConfigRepository(someNamespace);
+
+    try {
+      remoteConfigRepository.getConfig();
+      fail("getConfig should not wait for the initial sync after the startup deadline");
+    } catch (ApolloConfigException ex) {
+      //expected
+    }
+
+    final SettableFuture<Properties> changedProperties = SettableFuture.create();
+    remoteConfigRepository.addChangeListener(new RepositoryChangeListener() {
+      @Override
+      public void onRepositoryChange(String namespace, Properties newProperties) {
+        changedProperties.set(newProperties);
+      }
+    });
+
+    serverResponded.set(true);
+
+    assertEquals(configurations, changedProperties.get(5, TimeUnit.SECONDS));
+    assertEquals(configurations, remoteConfigRepository.getConfig());
+    remoteConfigLongPollService.stopLongPollingRefresh();
+  }
+
   @Test
   public void testLongPollingRefresh() throws Exception {
     Map<String, String> configurations = ImmutableMap.of("someKey", "someValue");
@@ -310,6 +464,26 @@ public class RemoteConfigRepositoryTest {
     assertTrue(request.getUrl().contains("messages=%7B%22details%22%3A%7B%22someKey%22%3A1%7D%7D"));
   }
 
+  @Test
+  public void testStop() throws Exception {
+    Map<String, String> configurations = ImmutableMap.of("someKey", "someValue");
+    when(someResponse.getStatusCode()).thenReturn(200);
+    when(someResponse.getBody()).thenReturn(assembleApolloConfig(configurations));
+
+    RemoteConfigRepository remoteConfigRepository = new RemoteConfigRepository(someNamespace);
+    remoteConfigLongPollService.stopLongPollingRefresh();
+    RepositoryChangeListener someListener = mock(RepositoryChangeListener.class);
+    remoteConfigRepository.addChangeListener(someListener);
+
+    remoteConfigRepository.stop();
+    when(someResponse.getBody()).thenReturn(assembleApolloConfig(ImmutableMap.of("someKey", "anotherValue")));
+    remoteConfigRepository.onLongPollNotified(mock(ServiceDTO.class), null);
+    TimeUnit.MILLISECONDS.sleep(100);
+
+    verify(someListener, never()).onRepositoryChange(any(String.class), any(Properties.class));
+    assertEquals(configurations, remoteConfigRepository.getConfig());
+  }
+
   @Test
   public void testAssembleQueryConfigUrl() throws Exception {
     Gson gson = new Gson();
@@ -406,6 +580,20 @@ public class RemoteConfigRepositoryTest {
     }
   }
 
+  public static class MockConfigUtilWithStartupDeadline extends MockConfigUtil {
+    @Override
+    public long getStartupRemainingMillis() {
+      return 50;
+    }
+  }
+
+  public static class MockConfigUtilWithHedgedRequest extends MockConfigUtil {
+    @Override
+    public boolean isHedgedRequestEnabled() {
+      return true;
+    }
+  }
+
   public static class MockHttpUtil extends HttpUtil {
 
     @Override
@@ -0,0 +1,322 @@
+package com.ctrip.framework.apollo.internals;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ctrip.framework.apollo.build.MockInjector;
+import com.ctrip.framework.apollo.core.enums.Env;
+import com.ctrip.framework.apollo.enums.ConfigSourceType;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.ctrip.framework.apollo.util.ImmutableProperties;
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedConfigRepositoryTest {
+  private File someBaseDir;
+  private String someNamespace;
+  private File someSnapshotFile;
+  private File someLockFile;
+  private File someHeartbeatFile;
+  private ConfigUtil configUtil;
+
+  @Before
+  public void setUp() throws Exception {
+    someBaseDir = Files.createTempDirectory("SharedConfigRepositoryTest").toFile();
+    someNamespace = "someNamespace";
+    File someEnvDir = new File(someBaseDir, "DEV");
+    someSnapshotFile = new File(someEnvDir, "someApp+someCluster+someDC+someNamespace.snapshot");
+    someLockFile = new File(someEnvDir, "someApp+someCluster+someDC+someNamespace.lock");
+    someHeartbeatFile = new File(someEnvDir, "someApp+someCluster+someDC+someNamespace.heartbeat");
+
+    configUtil = mock(ConfigUtil.class);
+    when(configUtil.getSharedCacheDir()).thenReturn(someBaseDir.getAbsolutePath());
+    when(configUtil.getSharedCachePollIntervalInMillis()).thenReturn(50L);
+    when(configUtil.getSharedCacheInitialWaitInMillis()).thenReturn(1000L);
+    when(configUtil.getRefreshInterval()).thenReturn(1);
+    when(configUtil.getRefreshIntervalTimeUnit()).thenReturn(TimeUnit.SECONDS);
+    when(configUtil.getAppId()).thenReturn("someApp");
+    when(configUtil.getCluster()).thenReturn("someCluster");
+    when(configUtil.getDataCenter()).thenReturn("someDC");
+    when(configUtil.getApolloEnv()).thenReturn(Env.DEV);
+    MockInjector.setInstance(ConfigUtil.class, configUtil);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    MockInjector.reset();
+  }
+
+  @Test
+  public void testPublishAndWatch() throws Exception {
+    Properties someProperties = new Properties();
+    someProperties.setProperty("someKey", "someValue");
+    MockUpstreamRepository upstream = new MockUpstreamRepository(someProperties);
+
+    SharedConfigRepository publisher = createRepository(upstream);
+    SharedConfigRepository watcher = createRepository(null);
+    RepositoryChangeListener someListener = mock(RepositoryChangeListener.class);
+    watcher.addChangeListener(someListener);
+
+    assertTrue(publisher.isPublisher());
+    assertFalse(watcher.isPublisher());
+    assertEquals(ConfigSourceType.REMOTE, publisher.getSourceType());
+    assertEquals(ConfigSourceType.LOCAL, watcher.getSourceType());
+    assertTrue(someSnapshotFile.isFile());
+    assertTrue(someHeartbeatFile.isFile());
+    assertFalse(watcher.isPublisherStale());
+    assertEquals(someProperties, publisher.getConfig());
+    assertEquals(someProperties, watcher.getConfig());
+
+    Properties anotherProperties = new Properties();
+    anotherProperties.setProperty("someKey", "anotherValue");
+    upstream.change(anotherProperties);
+
+    assertEquals(anotherProperties, publisher.getConfig());
+    verify(someListener, timeout(2000)).onRepositoryChange(eq(someNamespace), eq(anotherProperties));
+    assertEquals(anotherProperties, watcher.getConfig());
+  }
+
+  @Test
+  public void testTakeOverWhenPublisherExits() throws Exception {
+    ImmutableProperties someProperties = new ImmutableProperties.Builder(1).put("someKey", "someValue").build();
+    Properties anotherProperties = new Properties();
+    anotherProperties.setProperty("someKey", "anotherValue");
+    final MockUpstreamRepository upstream = new MockUpstreamRepository(anotherProperties);
+
+    someLockFile.getParentFile().mkdirs();
+    FileChannel channel = FileChannel.open(someLockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock = channel.lock();
+    new LocalCacheSnapshot(someProperties).writeTo(someSnapshotFile, true);
+
+    final AtomicReference<String> takeOverThread = new AtomicReference<>();
+    SharedConfigRepository watcher = new SharedConfigRepository(someNamespace) {
+      @Override
+      ConfigRepository createUpstreamRepository() {
+        takeOverThread.set(Thread.currentThread().getName());
+        return upstream;
+      }
+    };
+    RepositoryChangeListener someListener = mock(RepositoryChangeListener.class);
+    watcher.addChangeListener(someListener);
+
+    assertFalse(watcher.isPublisher());
+    assertEquals(someProperties, watcher.getConfig());
+
+    lock.release();
+    channel.close();
+
+    verify(someListener, timeout(2000)).onRepositoryChange(eq(someNamespace), eq(anotherProperties));
+    assertTrue(watcher.isPublisher());
+    assertTrue(takeOverThread.get().contains("SharedConfigRepository-TakeOver"));
+    assertEquals(anotherProperties, LocalCacheSnapshot.readFrom(someSnapshotFile).getProperties());
+  }
+
+  @Test
+  public void testRepositoriesOfDifferentEnvsAreNotShared() throws Exception {
+    Properties someProperties = new Properties();
+    someProperties.setProperty("someKey", "someValue");
+    Properties anotherProperties = new Properties();
+    anotherProperties.setProperty("someKey", "anotherValue");
+
+    SharedConfigRepository someRepository = createRepository(new MockUpstreamRepository(someProperties));
+    when(configUtil.getApolloEnv()).thenReturn(Env.FAT);
+    SharedConfigRepository anotherRepository = createRepository(new MockUpstreamRepository(anotherProperties));
+
+    assertTrue(someRepository.isPublisher());
+    assertTrue(anotherRepository.isPublisher());
+    assertEquals(someProperties, someRepository.getConfig());
+    assertEquals(anotherProperties, anotherRepository.getConfig());
+    assertEquals(someProperties, LocalCacheSnapshot.readFrom(someSnapshotFile).getProperties());
+    assertNotEquals(someProperties, LocalCacheSnapshot.readFrom(
+        new File(new File(someBaseDir, "FAT"), someSnapshotFile.getName())).getProperties());
+  }
+
+  @Test
+  public void testLoadFromUpstreamWhilePublisherStale() throws Exception {
+    ImmutableProperties someProperties = new ImmutableProperties.Builder(1).put("someKey", "someValue").build();
+    Properties anotherProperties = new Properties();
+    anotherProperties.setProperty("someKey", "anotherValue");
+    Properties yetAnotherProperties = new Properties();
+    yetAnotherProperties.setProperty("someKey", "yetAnotherValue");
+    someLockFile.getParentFile().mkdirs();
+    FileChannel channel = FileChannel.open(someLockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock = channel.lock();
+    new LocalCacheSnapshot(someProperties).writeTo(someSnapshotFile, true);
+
+    try {
+      //takes over once the test releases the lock
+      MockUpstreamRepository fallback = new MockUpstreamRepository(anotherProperties);
+      SharedConfigRepository watcher = createRepository(fallback);
+      RepositoryChangeListener someListener = mock(RepositoryChangeListener.class);
+      watcher.addChangeListener(someListener);
+
+      assertFalse(watcher.isPublisherStale());
+      assertEquals(someProperties, watcher.getConfig());
+
+      Files.createFile(someHeartbeatFile.toPath());
+      Files.setLastModifiedTime(someHeartbeatFile.toPath(),
+          FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+
+      assertTrue(watcher.isPublisherStale());
+      verify(someListener, timeout(2000)).onRepositoryChange(eq(someNamespace), eq(anotherProperties));
+      assertEquals(anotherProperties, watcher.getConfig());
+      assertEquals(ConfigSourceType.REMOTE, watcher.getSourceType());
+      assertFalse(watcher.isPublisher());
+
+      fallback.change(yetAnotherProperties);
+
+      assertEquals(yetAnotherProperties, watcher.getConfig());
+
+      Files.setLastModifiedTime(someHeartbeatFile.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+
+      assertFalse(watcher.isPublisherStale());
+      verify(someListener, timeout(2000)).onRepositoryChange(eq(someNamespace), eq(someProperties));
+      assertEquals(ConfigSourceType.LOCAL, watcher.getSourceType());
+
+      fallback.change(anotherProperties);
+
+      assertEquals(someProperties, watcher.getConfig());
+    } finally {
+      lock.release();
+      channel.close();
+    }
+  }
+
+  @Test
+  public void testStopPublishingWhenLockFileReplaced() throws Exception {
+    Properties someProperties = new Properties();
+    someProperties.setProperty("someKey", "someValue");
+    Properties anotherProperties = new Properties();
+    anotherProperties.setProperty("someKey", "anotherValue");
+    MockUpstreamRepository upstream = new MockUpstreamRepository(someProperties);
+
+    SharedConfigRepository publisher = createRepository(upstream);
+
+    assertTrue(publisher.isPublisher());
+
+    Path anotherLockFile = Files.createTempFile(someLockFile.getParentFile().toPath(), "another", ".lock");
+    FileChannel channel = FileChannel.open(anotherLockFile, StandardOpenOption.WRITE);
+    FileLock lock = channel.lock();
+    Files.move(anotherLockFile, someLockFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    try {
+      long deadline = System.currentTimeMillis() + 2000;
+      while (publisher.isPublisher() && System.currentTimeMillis() < deadline) {
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+
+      assertFalse(publisher.isPublisher());
+      assertEquals(ConfigSourceType.LOCAL, publisher.getSourceType());
+
+      upstream.change(anotherProperties);
+
+      assertEquals(someProperties, publisher.getConfig());
+      assertEquals(someProperties, LocalCacheSnapshot.readFrom(someSnapshotFile).getProperties());
+    } finally {
+      lock.release();
+      channel.close();
+    }
+  }
+
+  @Test(expected = ApolloConfigException.class)
+  public void testFailFastWithoutSnapshot() throws Exception {
+    when(configUtil.getSharedCacheInitialWaitInMillis()).thenReturn(0L);
+    someLockFile.getParentFile().mkdirs();
+    FileChannel channel = FileChannel.open(someLockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock = channel.lock();
+
+    try {
+      SharedConfigRepository watcher = createRepository(null);
+
+      assertEquals(ConfigSourceType.NONE, watcher.getSourceType());
+
+      watcher.getConfig();
+    } finally {
+      lock.release();
+      channel.close();
+    }
+  }
+
+  @Test
+  public void testDirectoriesAreOwnerOnly() throws Exception {
+    Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    Files.setPosixFilePermissions(someBaseDir.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+    Properties someProperties = new Properties();
+    someProperties.setProperty("someKey", "someValue");
+
+    createRepository(new MockUpstreamRepository(someProperties));
+
+    assertEquals(PosixFilePermissions.fromString("rwx------"),
+        Files.getPosixFilePermissions(someBaseDir.toPath()));
+    assertEquals(PosixFilePermissions.fromString("rwx------"),
+        Files.getPosixFilePermissions(someSnapshotFile.getParentFile().toPath()));
+  }
+
+  private SharedConfigRepository createRepository(final ConfigRepository upstream) {
+    return new SharedConfigRepository(someNamespace) {
+      @Override
+      ConfigRepository createUpstreamRepository() {
+        if (upstream == null) {
+          fail("Should not load config from upstream");
+        }
+        return upstream;
+      }
+    };
+  }
+
+  private static class MockUpstreamRepository extends AbstractConfigRepository {
+    private volatile Properties properties;
+
+    MockUpstreamRepository(Properties properties) {
+      this.properties = properties;
+    }
+
+    void change(Properties newProperties) {
+      properties = newProperties;
+      fireRepositoryChange("someNamespace", newProperties);
+    }
+
+    @Override
+    public Properties getConfig() {
+      return properties;
+    }
+
+    @Override
+    public void setUpstreamRepository(ConfigRepository upstreamConfigRepository) {
+    }
+
+    @Override
+    public ConfigSourceType getSourceType() {
+      return ConfigSourceType.REMOTE;
+    }
+
+    @Override
+    protected void sync() {
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package com.ctrip.framework.apollo.internals;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per thread cursor of a benchmark over an array of keys, so the threads don't all read the same key.
+ */
+@State(Scope.Thread)
+public class ThreadIndex {
+  private int index;
+
+  /**
+   * @return the next index in [0, bound), wrapping around
+   */
+  public int next(int bound) {
+    index++;
+    if (index >= bound) {
+      index = 0;
+    }
+    return index;
+  }
+}
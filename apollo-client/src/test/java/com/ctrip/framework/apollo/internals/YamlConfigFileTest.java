@@ -1,6 +1,8 @@
 package com.ctrip.framework.apollo.internals;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.ctrip.framework.apollo.build.MockInjector;
@@ -231,4 +233,38 @@ public class YamlConfigFileTest {
     assertEquals(someSourceType, configFile.getSourceType());
     assertSame(someYamlProperties, configFile.asProperties());
   }
+
+  @Test
+  public void testOnRepositoryChangeWithSameOrInvalidContent() throws Exception {
+    String key = ConfigConsts.CONFIG_FILE_CONTENT_KEY;
+    String someValue = "someKey: 'someValue'";
+    String someInvalidValue = ",";
+    Properties someProperties = new Properties();
+    someProperties.setProperty(key, someValue);
+
+    Properties someYamlProperties = new Properties();
+    someYamlProperties.setProperty("someKey", "someValue");
+
+    when(configRepository.getConfig()).thenReturn(someProperties);
+    when(yamlParser.yamlToProperties(someValue)).thenReturn(someYamlProperties);
+    when(yamlParser.yamlToProperties(someInvalidValue)).thenThrow(new RuntimeException("some exception"));
+
+    YamlConfigFile configFile = new YamlConfigFile(someNamespace, configRepository);
+
+    assertSame(someYamlProperties, configFile.asProperties());
+
+    Properties sameProperties = new Properties();
+    sameProperties.setProperty(key, new String(someValue));
+    configFile.onRepositoryChange(someNamespace, sameProperties);
+
+    assertSame(someYamlProperties, configFile.asProperties());
+    verify(yamlParser, times(1)).yamlToProperties(someValue);
+
+    Properties invalidProperties = new Properties();
+    invalidProperties.setProperty(key, someInvalidValue);
+    configFile.onRepositoryChange(someNamespace, invalidProperties);
+
+    assertEquals(someInvalidValue, configFile.getContent());
+    assertSame(someYamlProperties, configFile.asProperties());
+  }
 }
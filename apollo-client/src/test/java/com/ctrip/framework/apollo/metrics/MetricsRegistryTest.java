@@ -0,0 +1,180 @@
+package com.ctrip.framework.apollo.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.ctrip.framework.apollo.build.MockInjector;
+import com.ctrip.framework.apollo.metrics.spi.MetricsExporter;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+  private MetricsRegistry metricsRegistry;
+
+  @Before
+  public void setUp() throws Exception {
+    metricsRegistry = new MetricsRegistry();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    metricsRegistry.close();
+    MockInjector.reset();
+  }
+
+  @Test
+  public void testCounterAndTimer() throws Exception {
+    final Counter counter = metricsRegistry.counter("someCounter");
+    final Timer timer = metricsRegistry.timer("someTimer");
+    int threads = 4;
+    final int times = 10000;
+    final CountDownLatch latch = new CountDownLatch(threads);
+
+    for (int i = 0; i < threads; i++) {
+      new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < times; j++) {
+            counter.inc();
+            timer.record(j);
+          }
+          latch.countDown();
+        }
+      }).start();
+    }
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    assertSame(counter, metricsRegistry.counter("someCounter"));
+    assertEquals(threads * times, counter.getCount());
+    assertEquals(threads * times, timer.getCount());
+    assertEquals(threads * (long) times * (times - 1) / 2, timer.getTotalNanos());
+    assertEquals(times - 1, timer.getMaxNanos());
+
+    Map<String, Number> metrics = metricsRegistry.getMetrics();
+    assertEquals((long) threads * times, metrics.get("someCounter"));
+    assertEquals((long) threads * times, metrics.get("someTimer.count"));
+    assertEquals(MetricsRegistry.toMillis(times - 1), metrics.get("someTimer.maxMillis"));
+    assertEquals((long) threads * times, metricsRegistry.getMetric("someCounter"));
+    assertEquals((long) threads * times, metricsRegistry.getMetric("someTimer.count"));
+    assertEquals(metrics.get("someTimer.totalMillis"), metricsRegistry.getMetric("someTimer.totalMillis"));
+    assertNull(metricsRegistry.getMetric("someTimer.other"));
+  }
+
+  @Test
+  public void testGaugesAndMetricSets() throws Exception {
+    metricsRegistry.register("someGauge", new Gauge() {
+      @Override
+      public Number getValue() {
+        return 1;
+      }
+    });
+    metricsRegistry.register("brokenGauge", new Gauge() {
+      @Override
+      public Number getValue() {
+        throw new IllegalStateException("some error");
+      }
+    });
+    metricsRegistry.register(new MetricSet() {
+      @Override
+      public Map<String, Number> getMetrics() {
+        return ImmutableMap.<String, Number>of("someSet.someMetric", 2.0);
+      }
+    });
+
+    Map<String, Number> metrics = metricsRegistry.getMetrics();
+
+    assertEquals(1, metrics.get("someGauge"));
+    assertEquals(2.0, metrics.get("someSet.someMetric"));
+    assertFalse(metrics.containsKey("brokenGauge"));
+    assertTrue(metrics.containsKey("listener.delivered"));
+    assertEquals(1, metricsRegistry.getMetric("someGauge"));
+    assertEquals(2.0, metricsRegistry.getMetric("someSet.someMetric"));
+    assertNull(metricsRegistry.getMetric("brokenGauge"));
+    assertNull(metricsRegistry.getMetric("missingMetric"));
+  }
+
+  @Test
+  public void testExposedAsMBean() throws Exception {
+    metricsRegistry.counter("someCounter").add(3);
+
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName = metricsRegistry.getObjectName();
+
+    assertTrue(objectName.toString().startsWith(MetricsRegistry.OBJECT_NAME_PREFIX + ","));
+    assertEquals(3L, mBeanServer.getAttribute(objectName, "someCounter"));
+
+    boolean found = false;
+    for (MBeanAttributeInfo attribute : mBeanServer.getMBeanInfo(objectName).getAttributes()) {
+      if (attribute.getName().equals("someCounter")) {
+        found = true;
+      }
+    }
+    assertTrue(found);
+
+    metricsRegistry.close();
+
+    assertNull(metricsRegistry.getObjectName());
+    assertFalse(mBeanServer.isRegistered(objectName));
+  }
+
+  @Test
+  public void testMBeanOfAnotherAppIsKept() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new ConfigUtil() {
+      @Override
+      public String getAppId() {
+        return "anotherApp";
+      }
+    });
+    MetricsRegistry anotherRegistry = new MetricsRegistry();
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    try {
+      assertNotEquals(metricsRegistry.getObjectName(), anotherRegistry.getObjectName());
+      assertTrue(mBeanServer.isRegistered(metricsRegistry.getObjectName()));
+      assertTrue(mBeanServer.isRegistered(anotherRegistry.getObjectName()));
+    } finally {
+      anotherRegistry.close();
+    }
+  }
+
+  @Test
+  public void testExport() throws Exception {
+    metricsRegistry.counter("someCounter").inc();
+    final List<Map<String, Number>> exported = Lists.newArrayList();
+    MetricsExporter brokenExporter = new MetricsExporter() {
+      @Override
+      public void export(Map<String, Number> metrics) {
+        throw new IllegalStateException("some error");
+      }
+    };
+    MetricsExporter someExporter = new MetricsExporter() {
+      @Override
+      public void export(Map<String, Number> metrics) {
+        exported.add(metrics);
+      }
+    };
+
+    metricsRegistry.export(Lists.newArrayList(brokenExporter, someExporter));
+
+    assertEquals(1, exported.size());
+    assertNotNull(exported.get(0).get("someCounter"));
+    assertEquals(1L, exported.get(0).get("someCounter"));
+  }
+}
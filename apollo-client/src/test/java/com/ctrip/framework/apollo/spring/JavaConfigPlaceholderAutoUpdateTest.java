@@ -699,7 +699,7 @@ public class JavaConfigPlaceholderAutoUpdateTest extends AbstractSpringIntegrati
   }
 
   @Test
-  public void testAutoUpdateWithNotSupportedNestedProperty() throws Exception {
+  public void testAutoUpdateWithNestedPropertyValueChanged() throws Exception {
     String someKeyValue = "someKeyValue";
     String anotherKeyValue = "anotherKeyValue";
     int someValue = 1234;
@@ -723,8 +723,36 @@ public class JavaConfigPlaceholderAutoUpdateTest extends AbstractSpringIntegrati
 
     TimeUnit.MILLISECONDS.sleep(100);
 
-    // Does not support this scenario
-    assertEquals(someValue, bean.getNestedProperty());
+    assertEquals(someNewValue, bean.getNestedProperty());
+  }
+
+  @Test
+  public void testAutoUpdateWithPropertyReferencingAnotherProperty() throws Exception {
+    int initialTimeout = 1000;
+    int initialBatch = 2000;
+    int newTimeout = 1001;
+
+    Properties properties = assembleProperties(TIMEOUT_PROPERTY, String.format("${%s}", SOME_KEY_PROPERTY),
+        SOME_KEY_PROPERTY, String.valueOf(initialTimeout), BATCH_PROPERTY, String.valueOf(initialBatch));
+
+    SimpleConfig config = prepareConfig(ConfigConsts.NAMESPACE_APPLICATION, properties);
+
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(AppConfig1.class);
+
+    TestJavaConfigBean bean = context.getBean(TestJavaConfigBean.class);
+
+    assertEquals(initialTimeout, bean.getTimeout());
+    assertEquals(initialBatch, bean.getBatch());
+
+    Properties newProperties = assembleProperties(TIMEOUT_PROPERTY, String.format("${%s}", SOME_KEY_PROPERTY),
+        SOME_KEY_PROPERTY, String.valueOf(newTimeout), BATCH_PROPERTY, String.valueOf(initialBatch));
+
+    config.onRepositoryChange(ConfigConsts.NAMESPACE_APPLICATION, newProperties);
+
+    TimeUnit.MILLISECONDS.sleep(100);
+
+    assertEquals(newTimeout, bean.getTimeout());
+    assertEquals(initialBatch, bean.getBatch());
   }
 
   @Test
@@ -0,0 +1,98 @@
+package com.ctrip.framework.apollo.spring.config;
+
+import com.ctrip.framework.apollo.internals.DefaultConfig;
+import com.ctrip.framework.apollo.internals.FixedConfigRepository;
+import com.ctrip.framework.apollo.internals.ThreadIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Property lookups through a Spring environment with two apollo namespaces in front of the system properties and
+ * environment variables, as set up by {@link PropertySourcesProcessor}: a key of the first namespace, a key of the
+ * second one, a key only in the system properties and a placeholder. The configs read from in-memory repositories.
+ * Run {@link #main} with the apollo-client test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigPropertySourceBenchmark {
+  private static final int KEY_COUNT = 1000;
+
+  private String[] applicationKeys;
+  private String[] commonKeys;
+  private String[] placeholders;
+  private StandardEnvironment environment;
+
+  @Setup
+  public void setUp() {
+    applicationKeys = new String[KEY_COUNT];
+    commonKeys = new String[KEY_COUNT];
+    placeholders = new String[KEY_COUNT];
+    Properties application = new Properties();
+    Properties common = new Properties();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      applicationKeys[i] = "application.key." + i;
+      commonKeys[i] = "common.key." + i;
+      placeholders[i] = "${" + applicationKeys[i] + "}/${" + commonKeys[i] + ":someDefault}";
+      application.setProperty(applicationKeys[i], "someValue" + i);
+      common.setProperty(commonKeys[i], "someValue" + i);
+    }
+    System.setProperty("some.system.key", "someValue");
+
+    CompositePropertySource composite = new CompositePropertySource(PropertySourcesConstants.APOLLO_PROPERTY_SOURCE_NAME);
+    composite.addPropertySource(new ConfigPropertySource("application",
+        new DefaultConfig("application", new FixedConfigRepository(application))));
+    composite.addPropertySource(new ConfigPropertySource("common",
+        new DefaultConfig("common", new FixedConfigRepository(common))));
+    environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(composite);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getPropertyFromFirstNamespace(ThreadIndex index) {
+    return environment.getProperty(applicationKeys[index.next(KEY_COUNT)]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getPropertyFromSecondNamespace(ThreadIndex index) {
+    return environment.getProperty(commonKeys[index.next(KEY_COUNT)]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getSystemProperty() {
+    return environment.getProperty("some.system.key");
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String resolvePlaceholders(ThreadIndex index) {
+    return environment.resolvePlaceholders(placeholders[index.next(KEY_COUNT)]);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(ConfigPropertySourceBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,90 @@
+package com.ctrip.framework.apollo.spring.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.ctrip.framework.apollo.build.MockInjector;
+import com.ctrip.framework.apollo.util.ConfigUtil;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+public class JsonValueParserTest {
+  private static final String somePlaceholder = "${someKey}";
+  private static final String someJson = "{\"a\":[1,2],\"b\":[3]}";
+  private static final Type someType = new TypeToken<Map<String, List<Integer>>>() {
+  }.getType();
+
+  @After
+  public void tearDown() throws Exception {
+    MockInjector.reset();
+  }
+
+  @Test
+  public void testParseOnceAndCopy() throws Exception {
+    JsonValueParser jsonValueParser = new JsonValueParser();
+
+    Object someValue = jsonValueParser.parse(somePlaceholder, someJson, someType);
+    Object anotherValue = jsonValueParser.parse(somePlaceholder, someJson, someType);
+
+    assertEquals(ImmutableMap.of("a", asList(1, 2), "b", asList(3)), someValue);
+    assertEquals(someValue, anotherValue);
+    assertNotSame(someValue, anotherValue);
+    assertEquals(1, jsonValueParser.getParseCount());
+    assertEquals(1, jsonValueParser.getHitCount());
+  }
+
+  @Test
+  public void testParseOnceAndShare() throws Exception {
+    MockInjector.setInstance(ConfigUtil.class, new MockConfigUtil());
+    JsonValueParser jsonValueParser = new JsonValueParser();
+
+    Object someValue = jsonValueParser.parse(somePlaceholder, someJson, someType);
+    Object anotherValue = jsonValueParser.parse(somePlaceholder, someJson, someType);
+    Object valueOfAnotherType = jsonValueParser.parse(somePlaceholder, someJson, Map.class);
+
+    assertSame(someValue, anotherValue);
+    assertEquals(2, jsonValueParser.getParseCount());
+    assertEquals(1, jsonValueParser.getHitCount());
+    assertEquals(ImmutableMap.of("a", asList(1.0, 2.0), "b", asList(3.0)), valueOfAnotherType);
+  }
+
+  @Test
+  public void testKeepOnlyCurrentJsonOfPlaceholder() throws Exception {
+    String anotherJson = "{\"a\":[4]}";
+    JsonValueParser jsonValueParser = new JsonValueParser();
+
+    jsonValueParser.parse(somePlaceholder, someJson, someType);
+    Object anotherValue = jsonValueParser.parse(somePlaceholder, anotherJson, someType);
+    jsonValueParser.parse(somePlaceholder, anotherJson, someType);
+    Object someValue = jsonValueParser.parse(somePlaceholder, someJson, someType);
+
+    assertEquals(ImmutableMap.of("a", asList(4)), anotherValue);
+    assertEquals(ImmutableMap.of("a", asList(1, 2), "b", asList(3)), someValue);
+    assertEquals(3, jsonValueParser.getParseCount());
+    assertEquals(1, jsonValueParser.getHitCount());
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void testParseInvalidJson() throws Exception {
+    new JsonValueParser().parse(somePlaceholder, "{\"a\":", someType);
+  }
+
+  private static List<Object> asList(Object... values) {
+    return Arrays.asList(values);
+  }
+
+  private static class MockConfigUtil extends ConfigUtil {
+    @Override
+    public boolean isJsonValueSharedInstanceEnabled() {
+      return true;
+    }
+  }
+}
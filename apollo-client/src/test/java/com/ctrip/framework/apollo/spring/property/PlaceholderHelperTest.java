@@ -3,9 +3,13 @@ package com.ctrip.framework.apollo.spring.property;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
+import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
 
 public class PlaceholderHelperTest {
 
@@ -77,6 +81,23 @@ public class PlaceholderHelperTest {
     assertTrue(placeholderHelper.extractPlaceholderKeys("some.key:100").isEmpty());
   }
 
+  @Test
+  public void testExtractResolvedPlaceholderKeys() throws Exception {
+    Map<String, Object> properties = ImmutableMap.<String, Object>of(
+        "some.key", "someValue",
+        "someValue.suffix", "${another.key}",
+        "circular.key", "${circular.key}");
+    MutablePropertySources propertySources = new MutablePropertySources();
+    propertySources.addFirst(new MapPropertySource("someSource", properties));
+
+    assertEquals(Sets.newHashSet("some.key", "someValue.suffix", "another.key"),
+        placeholderHelper.extractResolvedPlaceholderKeys(propertySources, "${${some.key}.suffix}"));
+    assertTrue(placeholderHelper.extractResolvedPlaceholderKeys(propertySources, "${missing.key:${some.key}}")
+        .containsAll(Sets.newHashSet("missing.key", "some.key")));
+    assertEquals(Sets.newHashSet("circular.key"),
+        placeholderHelper.extractResolvedPlaceholderKeys(propertySources, "${circular.key}"));
+  }
+
   private void check(String propertyString, String... expectedPlaceholders) {
     assertEquals(Sets.newHashSet(expectedPlaceholders), placeholderHelper.extractPlaceholderKeys(propertyString));
   }
@@ -0,0 +1,79 @@
+package com.ctrip.framework.apollo.spring.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+
+public class SpringValueDependencyIndexTest {
+  private Map<String, Object> properties;
+  private SpringValueDependencyIndex dependencyIndex;
+  private Field someField;
+
+  @Before
+  public void setUp() throws Exception {
+    properties = Maps.newHashMap();
+    MutablePropertySources propertySources = new MutablePropertySources();
+    propertySources.addFirst(new MapPropertySource("someSource", properties));
+    dependencyIndex = new SpringValueDependencyIndex(propertySources, new PlaceholderHelper());
+    someField = SomeBean.class.getDeclaredField("someValue");
+  }
+
+  @Test
+  public void testRetrackDropsKeysNoLongerRead() throws Exception {
+    properties.put("some.key", "${another.key}");
+    properties.put("another.key", "someValue");
+    SomeBean someBean = new SomeBean();
+    SpringValue someSpringValue = assembleSpringValue(someBean, "${some.key}");
+
+    dependencyIndex.track(Lists.newArrayList(someSpringValue));
+
+    assertEquals(Sets.newHashSet("some.key", "another.key"), dependencyIndex.getKeys());
+
+    properties.put("some.key", "${yet.another.key}");
+    properties.put("yet.another.key", "anotherValue");
+    dependencyIndex.retrack(someSpringValue);
+
+    assertEquals(Sets.newHashSet("some.key", "yet.another.key"), dependencyIndex.getKeys());
+    assertEquals(Collections.singleton(someSpringValue),
+        dependencyIndex.getDependents(Sets.newHashSet("yet.another.key")));
+    assertTrue(dependencyIndex.getDependents(Sets.newHashSet("another.key")).isEmpty());
+  }
+
+  @Test
+  public void testKeysOfCollectedSpringValuesAreDropped() throws Exception {
+    properties.put("some.key", "someValue");
+    properties.put("another.key", "anotherValue");
+    SomeBean someBean = new SomeBean();
+    SpringValue someSpringValue = assembleSpringValue(someBean, "${some.key}");
+    dependencyIndex.track(Lists.newArrayList(someSpringValue,
+        assembleSpringValue(new SomeBean(), "${another.key}")));
+
+    for (int i = 0; i < 50 && !dependencyIndex.getDependents(Sets.newHashSet("another.key")).isEmpty(); i++) {
+      System.gc();
+      TimeUnit.MILLISECONDS.sleep(20);
+    }
+
+    assertEquals(Sets.newHashSet("some.key"), dependencyIndex.getKeys());
+    assertEquals(Collections.singleton(someSpringValue),
+        dependencyIndex.getDependents(Sets.newHashSet("some.key", "another.key")));
+  }
+
+  private SpringValue assembleSpringValue(SomeBean bean, String placeholder) {
+    return new SpringValue("someKey", placeholder, bean, "someBean", someField, false);
+  }
+
+  private static class SomeBean {
+    private String someValue;
+  }
+}
@@ -0,0 +1,92 @@
+package com.ctrip.framework.apollo.spring.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.Sets;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanFactory;
+
+public class SpringValueRegistryTest {
+  private static final String someKey = "someKey";
+  private SpringValueRegistry springValueRegistry;
+  private BeanFactory someBeanFactory;
+  private Field someField;
+
+  @Before
+  public void setUp() throws Exception {
+    springValueRegistry = new SpringValueRegistry();
+    someBeanFactory = mock(BeanFactory.class);
+    someField = SomeBean.class.getDeclaredField("someValue");
+  }
+
+  @Test
+  public void testRegisterAndGet() throws Exception {
+    SomeBean someBean = new SomeBean();
+    SomeBean anotherBean = new SomeBean();
+    SpringValue someSpringValue = assembleSpringValue(someBean);
+    SpringValue anotherSpringValue = assembleSpringValue(anotherBean);
+
+    springValueRegistry.register(someBeanFactory, someKey, someSpringValue);
+    springValueRegistry.register(someBeanFactory, someKey, anotherSpringValue);
+
+    Collection<SpringValue> springValues = springValueRegistry.get(someBeanFactory, someKey);
+
+    assertEquals(2, springValues.size());
+    assertTrue(springValues.contains(someSpringValue));
+    assertTrue(springValues.contains(anotherSpringValue));
+    assertNull(springValueRegistry.get(someBeanFactory, "anotherKey"));
+    assertNull(springValueRegistry.get(mock(BeanFactory.class), someKey));
+  }
+
+  @Test
+  public void testSpringValueOfCollectedBeanIsRemoved() throws Exception {
+    SomeBean someBean = new SomeBean();
+    springValueRegistry.register(someBeanFactory, someKey, assembleSpringValue(someBean));
+    springValueRegistry.register(someBeanFactory, someKey, assembleSpringValue(new SomeBean()));
+
+    Collection<SpringValue> springValues = springValueRegistry.get(someBeanFactory, someKey);
+    for (int i = 0; i < 50 && springValues.size() > 1; i++) {
+      System.gc();
+      TimeUnit.MILLISECONDS.sleep(20);
+      springValues = springValueRegistry.get(someBeanFactory, someKey);
+    }
+
+    assertEquals(1, springValues.size());
+    assertSame(someBean, springValues.iterator().next().getTargetBean());
+  }
+
+  @Test
+  public void testWatch() throws Exception {
+    SomeBean someBean = new SomeBean();
+    SpringValue someSpringValue = assembleSpringValue(someBean);
+    SpringValue anotherSpringValue = assembleSpringValue(someBean);
+    springValueRegistry.register(someBeanFactory, someKey, someSpringValue);
+
+    Set<SpringValue> newSpringValues = springValueRegistry.watch(someBeanFactory);
+
+    assertEquals(Sets.newHashSet(someSpringValue), newSpringValues);
+
+    newSpringValues.clear();
+    springValueRegistry.register(someBeanFactory, "anotherKey", anotherSpringValue);
+    springValueRegistry.register(mock(BeanFactory.class), someKey, assembleSpringValue(someBean));
+
+    assertEquals(Sets.newHashSet(anotherSpringValue), newSpringValues);
+  }
+
+  private SpringValue assembleSpringValue(SomeBean bean) {
+    return new SpringValue(someKey, "${someKey}", bean, "someBean", someField, false);
+  }
+
+  private static class SomeBean {
+    private String someValue;
+  }
+}
@@ -3,6 +3,7 @@ package com.ctrip.framework.apollo.util;
 import com.ctrip.framework.apollo.core.ConfigConsts;
 
 import com.ctrip.framework.apollo.util.factory.PropertiesFactory;
+import com.google.common.collect.Sets;
 import java.io.File;
 import org.junit.After;
 import org.junit.Test;
@@ -29,6 +30,22 @@ public class ConfigUtilTest {
     System.clearProperty("apollo.autoUpdateInjectedSpringProperties");
     System.clearProperty("apollo.cacheDir");
     System.clearProperty(PropertiesFactory.APOLLO_PROPERTY_ORDER_ENABLE);
+    System.clearProperty("apollo.precomputedLookup.enabled");
+    System.clearProperty("apollo.pooledHttpTransport.enabled");
+    System.clearProperty("apollo.hedgedRequest.enabled");
+    System.clearProperty("apollo.localCache.binary.enabled");
+    System.clearProperty("apollo.staleWhileRevalidate.enabled");
+    System.clearProperty("apollo.staleWhileRevalidate.maxStalenessInSeconds");
+    System.clearProperty("apollo.staleWhileRevalidate.freshNamespaces");
+    System.clearProperty("apollo.precomputedLookup.liveSystemProperties");
+    System.clearProperty("apollo.startupTimeoutInMillis");
+    System.clearProperty("apollo.changeListener.threads");
+    System.clearProperty("apollo.jsonValue.sharedInstance.enabled");
+    System.clearProperty("apollo.metrics.jmx.enabled");
+    System.clearProperty("apollo.metrics.export.intervalInSeconds");
+    System.clearProperty("apollo.sharedCache.dir");
+    System.clearProperty("apollo.sharedCache.pollIntervalInMillis");
+    System.clearProperty("apollo.sharedCache.initialWaitInMillis");
   }
 
   @Test
@@ -236,4 +253,150 @@ public class ConfigUtilTest {
     assertEquals(propertiesOrdered,
         configUtil.isPropertiesOrderEnabled());
   }
+
+  @Test
+  public void testCustomizePrecomputedLookup() {
+    ConfigUtil configUtil = new ConfigUtil();
+
+    assertFalse(configUtil.isPrecomputedLookupEnabled());
+    assertFalse(configUtil.isPrecomputedLookupLiveSystemPropertiesEnabled());
+
+    System.setProperty("apollo.precomputedLookup.enabled", "true");
+    System.setProperty("apollo.precomputedLookup.liveSystemProperties", "true");
+
+    configUtil = new ConfigUtil();
+
+    assertTrue(configUtil.isPrecomputedLookupEnabled());
+    assertTrue(configUtil.isPrecomputedLookupLiveSystemPropertiesEnabled());
+  }
+
+  @Test
+  public void testCustomizeStartupTimeout() {
+    assertEquals(0, new ConfigUtil().getStartupRemainingMillis());
+
+    long someStartupTimeout = 60000;
+    System.setProperty("apollo.startupTimeoutInMillis", String.valueOf(someStartupTimeout));
+
+    long remainingMillis = new ConfigUtil().getStartupRemainingMillis();
+
+    assertTrue(remainingMillis > 0 && remainingMillis <= someStartupTimeout);
+  }
+
+  @Test
+  public void testCustomizePooledHttpTransport() {
+    assertFalse(new ConfigUtil().isPooledHttpTransportEnabled());
+
+    System.setProperty("apollo.pooledHttpTransport.enabled", "true");
+
+    assertTrue(new ConfigUtil().isPooledHttpTransportEnabled());
+  }
+
+  @Test
+  public void testCustomizeHedgedRequest() {
+    assertFalse(new ConfigUtil().isHedgedRequestEnabled());
+
+    System.setProperty("apollo.hedgedRequest.enabled", "true");
+
+    assertTrue(new ConfigUtil().isHedgedRequestEnabled());
+  }
+
+  @Test
+  public void testCustomizeBinaryLocalCache() {
+    assertFalse(new ConfigUtil().isBinaryLocalCacheEnabled());
+
+    System.setProperty("apollo.localCache.binary.enabled", "true");
+
+    assertTrue(new ConfigUtil().isBinaryLocalCacheEnabled());
+  }
+
+  @Test
+  public void testCustomizeStaleWhileRevalidate() {
+    ConfigUtil configUtil = new ConfigUtil();
+    assertFalse(configUtil.isStaleWhileRevalidateEnabled());
+    assertEquals(0, configUtil.getStaleWhileRevalidateMaxStalenessInSeconds());
+    assertTrue(configUtil.getStaleWhileRevalidateFreshNamespaces().isEmpty());
+
+    System.setProperty("apollo.staleWhileRevalidate.enabled", "true");
+    System.setProperty("apollo.staleWhileRevalidate.maxStalenessInSeconds", "3600");
+    System.setProperty("apollo.staleWhileRevalidate.freshNamespaces", "someNamespace, anotherNamespace");
+
+    configUtil = new ConfigUtil();
+
+    assertTrue(configUtil.isStaleWhileRevalidateEnabled());
+    assertEquals(3600, configUtil.getStaleWhileRevalidateMaxStalenessInSeconds());
+    assertEquals(Sets.newHashSet("someNamespace", "anotherNamespace"),
+        configUtil.getStaleWhileRevalidateFreshNamespaces());
+  }
+
+  @Test
+  public void testCustomizeChangeListenerThreads() {
+    int someThreads = 2;
+    System.setProperty("apollo.changeListener.threads", String.valueOf(someThreads));
+
+    ConfigUtil configUtil = new ConfigUtil();
+
+    assertEquals(someThreads, configUtil.getChangeListenerThreads());
+  }
+
+  @Test
+  public void testCustomizeInvalidChangeListenerThreads() {
+    System.setProperty("apollo.changeListener.threads", "-1");
+
+    ConfigUtil configUtil = new ConfigUtil();
+
+    assertTrue(configUtil.getChangeListenerThreads() > 0);
+  }
+
+  @Test
+  public void testCustomizeJsonValueSharedInstance() {
+    assertFalse(new ConfigUtil().isJsonValueSharedInstanceEnabled());
+
+    System.setProperty("apollo.jsonValue.sharedInstance.enabled", "true");
+
+    assertTrue(new ConfigUtil().isJsonValueSharedInstanceEnabled());
+  }
+
+  @Test
+  public void testCustomizeMetricsJmxEnabled() {
+    assertTrue(new ConfigUtil().isMetricsJmxEnabled());
+
+    System.setProperty("apollo.metrics.jmx.enabled", "false");
+
+    assertFalse(new ConfigUtil().isMetricsJmxEnabled());
+  }
+
+  @Test
+  public void testCustomizeMetricsExportInterval() {
+    assertEquals(60, new ConfigUtil().getMetricsExportIntervalInSeconds());
+
+    System.setProperty("apollo.metrics.export.intervalInSeconds", "10");
+
+    assertEquals(10, new ConfigUtil().getMetricsExportIntervalInSeconds());
+
+    System.setProperty("apollo.metrics.export.intervalInSeconds", "invalid");
+
+    assertEquals(60, new ConfigUtil().getMetricsExportIntervalInSeconds());
+  }
+
+  @Test
+  public void testCustomizeSharedCache() {
+    ConfigUtil configUtil = new ConfigUtil();
+
+    assertNull(configUtil.getSharedCacheDir());
+    assertEquals(1000, configUtil.getSharedCachePollIntervalInMillis());
+    assertEquals(5000, configUtil.getSharedCacheInitialWaitInMillis());
+
+    System.setProperty("apollo.sharedCache.dir", " /dev/shm/apollo ");
+    System.setProperty("apollo.sharedCache.pollIntervalInMillis", "200");
+    System.setProperty("apollo.sharedCache.initialWaitInMillis", "0");
+    configUtil = new ConfigUtil();
+
+    assertEquals("/dev/shm/apollo", configUtil.getSharedCacheDir());
+    assertEquals(200, configUtil.getSharedCachePollIntervalInMillis());
+    assertEquals(0, configUtil.getSharedCacheInitialWaitInMillis());
+
+    System.setProperty("apollo.sharedCache.pollIntervalInMillis", "-1");
+
+    assertEquals(1000, new ConfigUtil().getSharedCachePollIntervalInMillis());
+  }
 }
@@ -0,0 +1,87 @@
+package com.ctrip.framework.apollo.util;
+
+import static org.junit.Assert.*;
+
+import com.google.common.collect.Lists;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImmutablePropertiesTest {
+
+  private Properties source;
+
+  @Before
+  public void setUp() {
+    source = new OrderedProperties();
+    for (int i = 0; i < 100; i++) {
+      source.setProperty("key" + i, "value" + (i % 10));
+    }
+  }
+
+  @Test
+  public void testCopyOf() {
+    ImmutableProperties properties = ImmutableProperties.copyOf(source);
+
+    assertEquals(100, properties.size());
+    assertEquals("value3", properties.getProperty("key13"));
+    assertEquals("value3", properties.get("key13"));
+    assertNull(properties.getProperty("missing"));
+    assertEquals("default", properties.getProperty("missing", "default"));
+    assertTrue(properties.containsKey("key99"));
+    assertFalse(properties.containsKey(1));
+    assertTrue(properties.containsValue("value9"));
+    assertEquals(source, properties);
+    assertEquals(properties, source);
+    assertEquals(new Properties() {{
+      putAll(source);
+    }}.hashCode(), properties.hashCode());
+  }
+
+  @Test
+  public void testCopyOfKeepsOrderAndDeduplicatesValues() {
+    ImmutableProperties properties = ImmutableProperties.copyOf(source);
+
+    assertEquals(Lists.newArrayList(source.stringPropertyNames()),
+        Lists.newArrayList(properties.stringPropertyNames()));
+    int i = 0;
+    for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+      assertEquals("key" + i, entry.getKey());
+      i++;
+    }
+    assertSame(properties.getProperty("key1"), properties.getProperty("key11"));
+  }
+
+  @Test
+  public void testCopyOfImmutablePropertiesReturnsSameInstance() {
+    ImmutableProperties properties = ImmutableProperties.copyOf(source);
+
+    assertSame(properties, ImmutableProperties.copyOf(properties));
+    assertSame(ImmutableProperties.empty(), ImmutableProperties.copyOf(new Properties()));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetProperty() {
+    ImmutableProperties.copyOf(source).setProperty("key1", "another");
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testRemoveFromKeySet() {
+    ImmutableProperties.copyOf(source).stringPropertyNames().remove("key1");
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    ImmutableProperties properties = ImmutableProperties.copyOf(source);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    properties.store(out, null);
+
+    Properties loaded = new Properties();
+    loaded.load(new ByteArrayInputStream(out.toByteArray()));
+
+    assertEquals(properties, loaded);
+  }
+}
@@ -0,0 +1,110 @@
+package com.ctrip.framework.apollo.util.http;
+
+import com.ctrip.framework.apollo.core.dto.ApolloConfig;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares {@link DefaultHttpTransport} with {@link PooledHttpTransport} fetching a 2000 key namespace from a local
+ * server, which gzips the response when asked to. Run {@link #main} with the apollo-client test classpath, adding
+ * -prof gc shows the allocation difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpTransportBenchmark {
+  private static final int KEY_COUNT = 2000;
+
+  private HttpServer server;
+  private HttpRequest request;
+  private HttpTransport defaultTransport;
+  private HttpTransport pooledTransport;
+
+  @Setup
+  public void setUp() throws IOException {
+    Map<String, String> configurations = Maps.newHashMap();
+    for (int i = 0; i < KEY_COUNT; i++) {
+      configurations.put("some.key." + i, "someValue" + i);
+    }
+    ApolloConfig apolloConfig = new ApolloConfig("someAppId", "someCluster", "someNamespace", "someReleaseKey");
+    apolloConfig.setConfigurations(configurations);
+    final byte[] plain = new Gson().toJson(apolloConfig).getBytes(StandardCharsets.UTF_8);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(plain);
+    }
+    final byte[] gzipped = compressed.toByteArray();
+
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/configs", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        byte[] body = plain;
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+          exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+          body = gzipped;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      }
+    });
+    server.start();
+
+    request = new HttpRequest(
+        String.format("http://localhost:%d/configs/someAppId/someCluster/someNamespace", server.getAddress().getPort()));
+    defaultTransport = new DefaultHttpTransport();
+    pooledTransport = new PooledHttpTransport();
+  }
+
+  @TearDown
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Benchmark
+  public ApolloConfig defaultTransport() {
+    return defaultTransport.<ApolloConfig>doGet(request, ApolloConfig.class).getBody();
+  }
+
+  @Benchmark
+  public ApolloConfig pooledTransport() {
+    return pooledTransport.<ApolloConfig>doGet(request, ApolloConfig.class).getBody();
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(HttpTransportBenchmark.class.getSimpleName()).build()).run();
+  }
+}
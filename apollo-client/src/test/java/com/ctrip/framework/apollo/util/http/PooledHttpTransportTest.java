@@ -0,0 +1,160 @@
+package com.ctrip.framework.apollo.util.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.ctrip.framework.apollo.BaseIntegrationTest;
+import com.ctrip.framework.apollo.core.dto.ApolloConfig;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigException;
+import com.ctrip.framework.apollo.exceptions.ApolloConfigStatusCodeException;
+import com.google.common.collect.Maps;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.ContextHandler;
+import org.junit.Test;
+
+public class PooledHttpTransportTest extends BaseIntegrationTest {
+  private static final String SOME_PATH = "/configs/someAppId/someCluster/someNamespace";
+
+  @Test
+  public void testDoGetWithGzipResponse() throws Exception {
+    ApolloConfig someConfig = assembleApolloConfig(100);
+    AtomicReference<String> acceptEncoding = new AtomicReference<>();
+    Server server = startServerWithHandlers(mockHandler(HttpServletResponse.SC_OK, someConfig, true, acceptEncoding));
+
+    HttpResponse<ApolloConfig> response = new PooledHttpTransport()
+        .doGet(new HttpRequest(server.getURI().resolve(SOME_PATH).toString()), ApolloConfig.class);
+
+    assertEquals(200, response.getStatusCode());
+    assertEquals(someConfig.getConfigurations(), response.getBody().getConfigurations());
+    assertEquals("gzip", acceptEncoding.get());
+  }
+
+  @Test
+  public void testDoGetWithPlainResponse() throws Exception {
+    ApolloConfig someConfig = assembleApolloConfig(10);
+    Server server = startServerWithHandlers(mockHandler(HttpServletResponse.SC_OK, someConfig, false,
+        new AtomicReference<String>()));
+
+    HttpResponse<ApolloConfig> response = new PooledHttpTransport()
+        .doGet(new HttpRequest(server.getURI().resolve(SOME_PATH).toString()), ApolloConfig.class);
+
+    assertEquals(someConfig.getConfigurations(), response.getBody().getConfigurations());
+  }
+
+  @Test
+  public void testDoGetWithNotModified() throws Exception {
+    Server server = startServerWithHandlers(mockHandler(HttpServletResponse.SC_NOT_MODIFIED, null, false,
+        new AtomicReference<String>()));
+
+    HttpResponse<ApolloConfig> response = new PooledHttpTransport()
+        .doGet(new HttpRequest(server.getURI().resolve(SOME_PATH).toString()), ApolloConfig.class);
+
+    assertEquals(304, response.getStatusCode());
+    assertNull(response.getBody());
+  }
+
+  @Test
+  public void testDoGetWithNotFound() throws Exception {
+    Server server = startServerWithHandlers(mockHandler(HttpServletResponse.SC_NOT_FOUND, null, false,
+        new AtomicReference<String>()));
+
+    try {
+      new PooledHttpTransport()
+          .doGet(new HttpRequest(server.getURI().resolve(SOME_PATH).toString()), ApolloConfig.class);
+      fail();
+    } catch (ApolloConfigStatusCodeException ex) {
+      assertEquals(404, ex.getStatusCode());
+    }
+  }
+
+  @Test
+  public void testAbortWhileWaitingForResponse() throws Exception {
+    final CountDownLatch requestReceived = new CountDownLatch(1);
+    ContextHandler context = new ContextHandler(SOME_PATH);
+    context.setHandler(new AbstractHandler() {
+      @Override
+      public void handle(String target, Request baseRequest, HttpServletRequest request,
+          HttpServletResponse response) throws IOException {
+        requestReceived.countDown();
+        try {
+          TimeUnit.SECONDS.sleep(5);
+        } catch (InterruptedException ex) {
+          //ignore
+        }
+        baseRequest.setHandled(true);
+      }
+    });
+    Server server = startServerWithHandlers(context);
+    final HttpRequest request = new HttpRequest(server.getURI().resolve(SOME_PATH).toString());
+
+    Executors.newSingleThreadExecutor().submit(new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        requestReceived.await();
+        request.abort();
+        return null;
+      }
+    });
+
+    long start = System.nanoTime();
+    try {
+      new PooledHttpTransport().doGet(request, ApolloConfig.class);
+      fail();
+    } catch (ApolloConfigException ex) {
+      assertTrue(request.isAborted());
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+  }
+
+  private ContextHandler mockHandler(final int statusCode, final ApolloConfig result, final boolean gzip,
+      final AtomicReference<String> acceptEncoding) {
+    ContextHandler context = new ContextHandler(SOME_PATH);
+    context.setHandler(new AbstractHandler() {
+      @Override
+      public void handle(String target, Request baseRequest, HttpServletRequest request,
+          HttpServletResponse response) throws IOException {
+        acceptEncoding.set(request.getHeader("Accept-Encoding"));
+        response.setContentType("application/json;charset=UTF-8");
+        response.setStatus(statusCode);
+        if (statusCode == HttpServletResponse.SC_OK) {
+          byte[] body = gson.toJson(result).getBytes(StandardCharsets.UTF_8);
+          OutputStream out = response.getOutputStream();
+          if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            out = new GZIPOutputStream(out);
+          }
+          out.write(body);
+          out.close();
+        }
+        baseRequest.setHandled(true);
+      }
+    });
+    return context;
+  }
+
+  private ApolloConfig assembleApolloConfig(int size) {
+    Map<String, String> configurations = Maps.newHashMap();
+    for (int i = 0; i < size; i++) {
+      configurations.put("someKey" + i, "someValue" + i);
+    }
+    ApolloConfig apolloConfig = new ApolloConfig("someAppId", "someCluster", "someNamespace", "someReleaseKey");
+    apolloConfig.setConfigurations(configurations);
+    return apolloConfig;
+  }
+}
@@ -0,0 +1,60 @@
+package com.ctrip.framework.apollo.util.yaml;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flattens a yaml namespace of nested maps and lists into properties with {@link YamlParser#yamlToProperties}. Run
+ * {@link #main} with the apollo-client test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YamlParserBenchmark {
+  @Param({"100", "2000"})
+  private int serviceCount;
+
+  private final YamlParser yamlParser = new YamlParser();
+  private String yaml;
+
+  @Setup
+  public void setUp() {
+    StringBuilder sb = new StringBuilder("services:\n");
+    for (int i = 0; i < serviceCount; i++) {
+      sb.append("  service").append(i).append(":\n");
+      sb.append("    url: http://localhost:").append(8000 + i).append("/api\n");
+      sb.append("    timeout: ").append(i % 10 * 100).append('\n');
+      sb.append("    enabled: ").append(i % 2 == 0).append('\n');
+      sb.append("    tags:\n");
+      sb.append("      - someTag").append(i).append('\n');
+      sb.append("      - anotherTag").append(i).append('\n');
+    }
+    yaml = sb.toString();
+  }
+
+  @Benchmark
+  public Properties yamlToProperties() {
+    return yamlParser.yamlToProperties(yaml);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(YamlParserBenchmark.class.getSimpleName()).build()).run();
+  }
+}
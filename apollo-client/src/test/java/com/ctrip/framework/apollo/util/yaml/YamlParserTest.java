@@ -46,6 +46,7 @@ public class YamlParserTest {
     test("case5.yaml");
     test("case6.yaml");
     test("case7.yaml");
+    test("case10.yaml");
   }
 
   @Test(expected = ParserException.class)
@@ -0,0 +1,17 @@
+package com.ctrip.framework.apollo.common.config;
+
+/**
+ * Listener of a {@link RefreshablePropertySource} property change, registered per key.
+ */
+@FunctionalInterface
+public interface RefreshablePropertyChangeListener {
+
+  /**
+   * Invoked on the refresh thread after the new value is visible in the property source.
+   *
+   * @param key the changed key
+   * @param oldValue the previous value, null if the key was added
+   * @param newValue the current value, null if the key was removed
+   */
+  void onChange(String key, Object oldValue, Object newValue);
+}
@@ -1,11 +1,31 @@
 package com.ctrip.framework.apollo.common.config;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import com.ctrip.framework.apollo.tracer.Tracer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.env.MapPropertySource;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class RefreshablePropertySource extends MapPropertySource {
+  private static final Logger logger = LoggerFactory.getLogger(RefreshablePropertySource.class);
+
+  /**
+   * 每隔多少次 refresh 做一次全量对账，其余的 refresh 只加载 watermark 之后修改过的记录
+   */
+  public static final int FULL_REFRESH_INTERVAL_IN_TICKS = 10;
 
+  private final Map<String, List<RefreshablePropertyChangeListener>> listeners = Maps.newConcurrentMap();
+  private int ticksSinceFullRefresh = FULL_REFRESH_INTERVAL_IN_TICKS;
+  private Date watermark;
 
   public RefreshablePropertySource(String name, Map<String, Object> source) {
     super(name, source);
@@ -21,4 +41,84 @@ public abstract class RefreshablePropertySource extends MapPropertySource {
    */
   protected abstract void refresh();
 
+  /**
+   * Register a listener which is notified when the value of the key changes.
+   */
+  public void addChangeListener(String key, RefreshablePropertyChangeListener listener) {
+    listeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  /**
+   * @return 本次 refresh 是否需要全量加载，第一次 refresh 总是全量加载
+   */
+  protected boolean isFullRefreshDue() {
+    if (ticksSinceFullRefresh >= FULL_REFRESH_INTERVAL_IN_TICKS) {
+      ticksSinceFullRefresh = 1;
+      return true;
+    }
+    ticksSinceFullRefresh++;
+    return false;
+  }
+
+  /**
+   * @return 已加载记录中最大的修改时间，增量加载时查询不早于该时间的记录
+   */
+  protected Date getWatermark() {
+    return watermark == null ? new Date(0) : watermark;
+  }
+
+  protected void advanceWatermark(Date lastModifiedTime) {
+    if (lastModifiedTime != null && (watermark == null || lastModifiedTime.after(watermark))) {
+      watermark = lastModifiedTime;
+    }
+  }
+
+  /**
+   * 更新一个属性，value 为 null 时移除该属性；值有变化时通知监听该 key 的 listener
+   */
+  protected void updateProperty(String key, Object value) {
+    Object oldValue = value == null ? this.source.remove(key) : this.source.put(key, value);
+    if (Objects.equals(oldValue, value)) {
+      return;
+    }
+
+    if (oldValue == null) {
+      logger.info("Load config from DB : {} = {}", key, value);
+    } else if (value == null) {
+      logger.info("Remove config from DB : {}. Old value = {}", key, oldValue);
+    } else {
+      logger.info("Load config from DB : {} = {}. Old value = {}", key, value, oldValue);
+    }
+
+    fireChange(key, oldValue, value);
+  }
+
+  /**
+   * 全量对账：更新 configs 中的属性，并移除已经不存在的属性
+   */
+  protected void reconcile(Map<String, Object> configs) {
+    for (Map.Entry<String, Object> config : configs.entrySet()) {
+      updateProperty(config.getKey(), config.getValue());
+    }
+    for (String key : Lists.newArrayList(this.source.keySet())) {
+      if (!configs.containsKey(key)) {
+        updateProperty(key, null);
+      }
+    }
+  }
+
+  private void fireChange(String key, Object oldValue, Object newValue) {
+    List<RefreshablePropertyChangeListener> keyListeners = listeners.get(key);
+    if (keyListeners == null) {
+      return;
+    }
+    for (RefreshablePropertyChangeListener listener : keyListeners) {
+      try {
+        listener.onChange(key, oldValue, newValue);
+      } catch (Throwable ex) {
+        logger.error("Notify change of {} failed", key, ex);
+        Tracer.logError(ex);
+      }
+    }
+  }
 }
@@ -0,0 +1,58 @@
+package com.ctrip.framework.apollo.common.dto;
+
+import java.util.List;
+
+/**
+ * 批量发布请求，一次事务内发布多个 Namespace
+ */
+public class BatchReleaseDTO {
+
+  private String releaseName;
+  private String releaseComment;
+  private String operator;
+  private boolean isEmergencyPublish;
+  /**
+   * 待发布的 Namespace 集合，仅使用 appId 、clusterName 、namespaceName
+   */
+  private List<NamespaceDTO> namespaces;
+
+  public String getReleaseName() {
+    return releaseName;
+  }
+
+  public void setReleaseName(String releaseName) {
+    this.releaseName = releaseName;
+  }
+
+  public String getReleaseComment() {
+    return releaseComment;
+  }
+
+  public void setReleaseComment(String releaseComment) {
+    this.releaseComment = releaseComment;
+  }
+
+  public String getOperator() {
+    return operator;
+  }
+
+  public void setOperator(String operator) {
+    this.operator = operator;
+  }
+
+  public boolean isEmergencyPublish() {
+    return isEmergencyPublish;
+  }
+
+  public void setEmergencyPublish(boolean emergencyPublish) {
+    isEmergencyPublish = emergencyPublish;
+  }
+
+  public List<NamespaceDTO> getNamespaces() {
+    return namespaces;
+  }
+
+  public void setNamespaces(List<NamespaceDTO> namespaces) {
+    this.namespaces = namespaces;
+  }
+}
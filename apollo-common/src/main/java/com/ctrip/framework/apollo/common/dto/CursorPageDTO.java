@@ -0,0 +1,47 @@
+package com.ctrip.framework.apollo.common.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于游标（keyset）的分页结果，不统计总数
+ *
+ * 查询下一页时把 cursor 原样传回，每一页的查询代价与第一页相同
+ */
+public class CursorPageDTO<T> {
+  private final List<T> content;
+  private final int size;
+  private final long cursor;
+
+  public CursorPageDTO(List<T> content, int size, long cursor) {
+    this.content = content;
+    this.size = size;
+    this.cursor = cursor;
+  }
+
+  public List<T> getContent() {
+    return Collections.unmodifiableList(content);
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return 本页最后一条记录的 id ，作为下一页的游标
+   */
+  public long getCursor() {
+    return cursor;
+  }
+
+  public boolean hasContent() {
+    return content != null && content.size() > 0;
+  }
+
+  /**
+   * 本页已满时可能还有下一页
+   */
+  public boolean hasMore() {
+    return content != null && content.size() >= size;
+  }
+}
@@ -0,0 +1,125 @@
+package com.ctrip.framework.apollo.common.utils;
+
+import com.ctrip.framework.apollo.common.exception.BeanUtilsException;
+import com.google.common.collect.Lists;
+
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 针对一对 (source, target) 类型预先解析好的属性拷贝器，跳过 source 中为 null 的属性
+ *
+ * 拷贝规则与 {@link org.springframework.beans.BeanUtils#copyProperties(Object, Object)} 一致：
+ * target 有 setter ，source 有同名 getter ，且 getter 返回类型可以赋值给 setter 参数类型。
+ * getter/setter 在第一次使用时解析为 {@link MethodHandle} 并按类型对缓存，之后不再反射查找。
+ */
+final class BeanCopier {
+  private static final Map<Key, BeanCopier> COPIERS = new ConcurrentHashMap<>();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final MethodHandle[] getters;
+  private final MethodHandle[] setters;
+  private final String[] propertyNames;
+
+  private BeanCopier(List<MethodHandle> getters, List<MethodHandle> setters, List<String> propertyNames) {
+    this.getters = getters.toArray(new MethodHandle[0]);
+    this.setters = setters.toArray(new MethodHandle[0]);
+    this.propertyNames = propertyNames.toArray(new String[0]);
+  }
+
+  static BeanCopier of(Class<?> sourceClass, Class<?> targetClass) {
+    return COPIERS.computeIfAbsent(new Key(sourceClass, targetClass), BeanCopier::create);
+  }
+
+  void copyNonNullProperties(Object source, Object target) {
+    for (int i = 0; i < getters.length; i++) {
+      try {
+        Object value = (Object) getters[i].invokeExact(source);
+        if (value != null) {
+          setters[i].invokeExact(target, value);
+        }
+      } catch (Throwable ex) {
+        throw new BeanUtilsException(new IllegalStateException(
+            "Could not copy property '" + propertyNames[i] + "' from source to target", ex));
+      }
+    }
+  }
+
+  private static BeanCopier create(Key key) {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    List<MethodHandle> getters = Lists.newArrayList();
+    List<MethodHandle> setters = Lists.newArrayList();
+    List<String> propertyNames = Lists.newArrayList();
+
+    for (PropertyDescriptor targetPd : org.springframework.beans.BeanUtils.getPropertyDescriptors(key.target)) {
+      Method writeMethod = targetPd.getWriteMethod();
+      if (writeMethod == null) {
+        continue;
+      }
+      PropertyDescriptor sourcePd = org.springframework.beans.BeanUtils
+          .getPropertyDescriptor(key.source, targetPd.getName());
+      if (sourcePd == null) {
+        continue;
+      }
+      Method readMethod = sourcePd.getReadMethod();
+      if (readMethod == null
+          || !ClassUtils.isAssignable(writeMethod.getParameterTypes()[0], readMethod.getReturnType())) {
+        continue;
+      }
+      try {
+        getters.add(lookup.unreflect(accessible(readMethod)).asType(GETTER_TYPE));
+        setters.add(lookup.unreflect(accessible(writeMethod)).asType(SETTER_TYPE));
+        propertyNames.add(targetPd.getName());
+      } catch (IllegalAccessException ex) {
+        throw new BeanUtilsException(ex);
+      }
+    }
+
+    return new BeanCopier(getters, setters, propertyNames);
+  }
+
+  private static Method accessible(Method method) {
+    if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+      method.setAccessible(true);
+    }
+    return method;
+  }
+
+  private static final class Key {
+    private final Class<?> source;
+    private final Class<?> target;
+
+    private Key(Class<?> source, Class<?> target) {
+      this.source = source;
+      this.target = target;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return source == key.source && target == key.target;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(source, target);
+    }
+  }
+}
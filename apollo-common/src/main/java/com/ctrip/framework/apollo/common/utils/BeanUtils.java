@@ -2,11 +2,11 @@ package com.ctrip.framework.apollo.common.utils;
 
 import com.ctrip.framework.apollo.common.exception.BeanUtilsException;
 
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.util.CollectionUtils;
 
-import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -15,9 +15,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class BeanUtils {
+  private static final MethodType FIELD_GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final Map<Class<?>, Map<String, MethodHandle>> FIELD_GETTERS = new ConcurrentHashMap<>();
 
   /**
    * <pre>
@@ -38,7 +41,9 @@ public class BeanUtils {
   }
 
   /**
-   * 封装{@link org.springframework.beans.BeanUtils#copyProperties}，惯用与直接将转换结果返回
+   * 封装{@link org.springframework.beans.BeanUtils#copyProperties}，惯用与直接将转换结果返回，src 中为 null 的属性不拷贝
+   *
+   * 每对 (src, clazz) 类型的属性访问器只解析一次，见 {@link BeanCopier}
    *
    * <pre>
    *      UserBean userBean = new UserBean("username");
@@ -55,25 +60,10 @@ public class BeanUtils {
     } catch (Exception e) {
       throw new BeanUtilsException(e);
     }
-    org.springframework.beans.BeanUtils.copyProperties(src, instance, getNullPropertyNames(src));
+    BeanCopier.of(src.getClass(), clazz).copyNonNullProperties(src, instance);
     return instance;
   }
 
-  private static String[] getNullPropertyNames(Object source) {
-    final BeanWrapper src = new BeanWrapperImpl(source);
-    PropertyDescriptor[] pds = src.getPropertyDescriptors();
-
-    Set<String> emptyNames = new HashSet<>();
-    for (PropertyDescriptor pd : pds) {
-      Object srcValue = src.getPropertyValue(pd.getName());
-      if (srcValue == null) {
-          emptyNames.add(pd.getName());
-      }
-    }
-    String[] result = new String[emptyNames.size()];
-    return emptyNames.toArray(result);
-  }
-
   /**
    * 用于将一个列表转换为列表中的对象的某个属性映射到列表中的对象
    *
@@ -91,16 +81,11 @@ public class BeanUtils {
       return map;
     }
     try {
-      Class<?> clazz = list.get(0).getClass();
-      Field field = deepFindField(clazz, key);
-      if (field == null) {
-          throw new IllegalArgumentException("Could not find the key");
-      }
-      field.setAccessible(true);
+      MethodHandle getter = findFieldGetter(list.get(0).getClass(), key);
       for (Object o : list) {
-        map.put((K) field.get(o), (V) o);
+        map.put((K) (Object) getter.invokeExact(o), (V) o);
       }
-    } catch (Exception e) {
+    } catch (Throwable e) {
       throw new BeanUtilsException(e);
     }
     return map;
@@ -121,18 +106,13 @@ public class BeanUtils {
       return map;
     }
     try {
-      Class<?> clazz = list.get(0).getClass();
-      Field field = deepFindField(clazz, key);
-      if (field == null) {
-          throw new IllegalArgumentException("Could not find the key");
-      }
-      field.setAccessible(true);
+      MethodHandle getter = findFieldGetter(list.get(0).getClass(), key);
       for (Object o : list) {
-        K k = (K) field.get(o);
+        K k = (K) (Object) getter.invokeExact(o);
         map.computeIfAbsent(k, k1 -> new ArrayList<>());
         map.get(k).add((V) o);
       }
-    } catch (Exception e) {
+    } catch (Throwable e) {
       throw new BeanUtilsException(e);
     }
     return map;
@@ -153,22 +133,36 @@ public class BeanUtils {
       return set;
     }
     try {
-      Class<?> clazz = list.get(0).getClass();
-      Field field = deepFindField(clazz, key);
-      if (field == null) {
-          throw new IllegalArgumentException("Could not find the key");
-      }
-      field.setAccessible(true);
+      MethodHandle getter = findFieldGetter(list.get(0).getClass(), key);
       for (Object o : list) {
-        set.add((K)field.get(o));
+        set.add((K) (Object) getter.invokeExact(o));
       }
-    } catch (Exception e) {
+    } catch (Throwable e) {
       throw new BeanUtilsException(e);
     }
     return set;
   }
 
 
+  /**
+   * 按 (clazz, key) 缓存字段的读取方法，避免每次都沿继承链反射查找字段
+   */
+  private static MethodHandle findFieldGetter(Class<?> clazz, String key) throws IllegalAccessException {
+    Map<String, MethodHandle> getters = FIELD_GETTERS.computeIfAbsent(clazz, c -> new ConcurrentHashMap<>());
+    MethodHandle getter = getters.get(key);
+    if (getter != null) {
+      return getter;
+    }
+    Field field = deepFindField(clazz, key);
+    if (field == null) {
+      throw new IllegalArgumentException("Could not find the key");
+    }
+    field.setAccessible(true);
+    getter = MethodHandles.lookup().unreflectGetter(field).asType(FIELD_GETTER_TYPE);
+    getters.put(key, getter);
+    return getter;
+  }
+
   private static Field deepFindField(Class<?> clazz, String key) {
     Field field = null;
     while (!clazz.getName().equals(Object.class.getName())) {
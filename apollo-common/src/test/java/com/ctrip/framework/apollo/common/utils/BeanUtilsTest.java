@@ -0,0 +1,164 @@
+package com.ctrip.framework.apollo.common.utils;
+
+import com.ctrip.framework.apollo.common.dto.ItemDTO;
+import com.ctrip.framework.apollo.common.exception.BeanUtilsException;
+import com.google.common.collect.Lists;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BeanUtilsTest {
+
+  @Test
+  public void testTransform() throws Exception {
+    Date someDate = new Date();
+    ItemDTO source = new ItemDTO("someKey", "someValue", "someComment", 3);
+    source.setId(1);
+    source.setNamespaceId(2);
+    source.setDataChangeCreatedTime(someDate);
+
+    ItemDTO target = BeanUtils.transform(ItemDTO.class, source);
+
+    assertEquals(1, target.getId());
+    assertEquals(2, target.getNamespaceId());
+    assertEquals("someKey", target.getKey());
+    assertEquals("someValue", target.getValue());
+    assertEquals("someComment", target.getComment());
+    assertEquals(3, target.getLineNum());
+    assertSame(someDate, target.getDataChangeCreatedTime());
+    assertNull(target.getDataChangeCreatedBy());
+  }
+
+  @Test
+  public void testTransformSkipsNullProperties() throws Exception {
+    WrapperBean source = new WrapperBean();
+    source.setKey(null);
+    source.setId(null);
+    source.setLineNum(5);
+
+    DefaultValueBean target = BeanUtils.transform(DefaultValueBean.class, source);
+
+    assertEquals("defaultKey", target.getKey());
+    assertEquals(100L, target.getId());
+    assertEquals(5, target.getLineNum());
+  }
+
+  @Test
+  public void testTransformWithWrapperAndPrimitiveTypes() throws Exception {
+    WrapperBean source = new WrapperBean();
+    source.setKey("someKey");
+    source.setId(1L);
+    source.setLineNum(2);
+
+    DefaultValueBean target = BeanUtils.transform(DefaultValueBean.class, source);
+    WrapperBean back = BeanUtils.transform(WrapperBean.class, target);
+
+    assertEquals("someKey", target.getKey());
+    assertEquals(1L, target.getId());
+    assertEquals(Long.valueOf(1L), back.getId());
+    assertEquals(Integer.valueOf(2), back.getLineNum());
+  }
+
+  @Test
+  public void testBatchTransform() throws Exception {
+    List<ItemDTO> items = BeanUtils.batchTransform(ItemDTO.class,
+        Lists.newArrayList(new ItemDTO("a", "1", null, 1), new ItemDTO("b", "2", null, 2)));
+
+    assertEquals(2, items.size());
+    assertEquals("a", items.get(0).getKey());
+    assertEquals("b", items.get(1).getKey());
+  }
+
+  @Test
+  public void testMapByKeyAndToPropertySet() throws Exception {
+    ItemDTO someItem = new ItemDTO("a", "1", null, 1);
+    someItem.setId(1);
+    ItemDTO anotherItem = new ItemDTO("b", "2", null, 2);
+    anotherItem.setId(2);
+    someItem.setDataChangeCreatedBy("someUser");
+    anotherItem.setDataChangeCreatedBy("someUser");
+    List<ItemDTO> items = Lists.newArrayList(someItem, anotherItem);
+
+    Map<Long, ItemDTO> byId = BeanUtils.mapByKey("id", items);
+    Set<String> keys = BeanUtils.toPropertySet("key", items);
+    Map<String, List<ItemDTO>> byUser = BeanUtils.aggByKeyToList("dataChangeCreatedBy", items);
+
+    assertSame(someItem, byId.get(1L));
+    assertSame(anotherItem, byId.get(2L));
+    assertEquals(2, keys.size());
+    assertEquals(items, byUser.get("someUser"));
+  }
+
+  @Test(expected = BeanUtilsException.class)
+  public void testMapByKeyWithUnknownKey() throws Exception {
+    BeanUtils.mapByKey("unknown", Lists.newArrayList(new ItemDTO()));
+  }
+
+  public static class WrapperBean {
+    private String key;
+    private Long id;
+    private Integer lineNum;
+
+    public String getKey() {
+      return key;
+    }
+
+    public void setKey(String key) {
+      this.key = key;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+
+    public Integer getLineNum() {
+      return lineNum;
+    }
+
+    public void setLineNum(Integer lineNum) {
+      this.lineNum = lineNum;
+    }
+  }
+
+  public static class DefaultValueBean {
+    private String key = "defaultKey";
+    private long id = 100L;
+    private int lineNum;
+
+    public String getKey() {
+      return key;
+    }
+
+    public void setKey(String key) {
+      this.key = key;
+    }
+
+    public long getId() {
+      return id;
+    }
+
+    public void setId(long id) {
+      this.id = id;
+    }
+
+    public int getLineNum() {
+      return lineNum;
+    }
+
+    public void setLineNum(int lineNum) {
+      this.lineNum = lineNum;
+    }
+  }
+}
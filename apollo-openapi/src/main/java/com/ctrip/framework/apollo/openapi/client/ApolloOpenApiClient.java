@@ -6,6 +6,7 @@ import com.ctrip.framework.apollo.openapi.client.service.ClusterOpenApiService;
 import com.ctrip.framework.apollo.openapi.client.service.ItemOpenApiService;
 import com.ctrip.framework.apollo.openapi.client.service.NamespaceOpenApiService;
 import com.ctrip.framework.apollo.openapi.client.service.ReleaseOpenApiService;
+import com.ctrip.framework.apollo.openapi.dto.NamespaceBatchReleaseDTO;
 import com.ctrip.framework.apollo.openapi.dto.NamespaceReleaseDTO;
 import com.ctrip.framework.apollo.openapi.dto.OpenAppDTO;
 import com.ctrip.framework.apollo.openapi.dto.OpenAppNamespaceDTO;
@@ -177,6 +178,15 @@ public class ApolloOpenApiClient {
     return releaseService.publishNamespace(appId, env, clusterName, namespaceName, releaseDTO);
   }
 
+  /**
+   * publish the namespace in multiple clusters within one transaction
+   * @return the released configurations, in the order of the cluster names
+   */
+  public List<OpenReleaseDTO> publishNamespaces(String appId, String env, String namespaceName,
+      NamespaceBatchReleaseDTO releaseDTO) {
+    return releaseService.publishNamespaces(appId, env, namespaceName, releaseDTO);
+  }
+
   /**
    * @return the latest active release information or <code>null</code> if not found
    */
@@ -1,15 +1,21 @@
 package com.ctrip.framework.apollo.openapi.client.service;
 
 import com.ctrip.framework.apollo.core.ConfigConsts;
+import com.ctrip.framework.apollo.openapi.dto.NamespaceBatchReleaseDTO;
 import com.ctrip.framework.apollo.openapi.dto.NamespaceReleaseDTO;
 import com.ctrip.framework.apollo.openapi.dto.OpenReleaseDTO;
 import com.google.common.base.Strings;
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Type;
+import java.util.List;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.util.EntityUtils;
 
 public class ReleaseOpenApiService extends AbstractOpenApiService {
+  private static final Type OPEN_RELEASE_DTO_LIST_TYPE = new TypeToken<List<OpenReleaseDTO>>() {
+  }.getType();
 
   public ReleaseOpenApiService(CloseableHttpClient client, String baseUrl, Gson gson) {
     super(client, baseUrl, gson);
@@ -41,6 +47,29 @@ public class ReleaseOpenApiService extends AbstractOpenApiService {
     }
   }
 
+  public List<OpenReleaseDTO> publishNamespaces(String appId, String env, String namespaceName,
+      NamespaceBatchReleaseDTO releaseDTO) {
+    if (Strings.isNullOrEmpty(namespaceName)) {
+      namespaceName = ConfigConsts.NAMESPACE_APPLICATION;
+    }
+
+    checkNotEmpty(appId, "App id");
+    checkNotEmpty(env, "Env");
+    checkNotEmpty(releaseDTO.getReleaseTitle(), "Release title");
+    checkNotEmpty(releaseDTO.getReleasedBy(), "Released by");
+
+    String path = String.format("envs/%s/apps/%s/namespaces/%s/releases/batch",
+        escapePath(env), escapePath(appId), escapePath(namespaceName));
+
+    try (CloseableHttpResponse response = post(path, releaseDTO)) {
+      return gson.fromJson(EntityUtils.toString(response.getEntity()), OPEN_RELEASE_DTO_LIST_TYPE);
+    } catch (Throwable ex) {
+      throw new RuntimeException(String
+          .format("Release namespace: %s for appId: %s, clusters: %s in env: %s failed", namespaceName, appId,
+              releaseDTO.getClusterNames(), env), ex);
+    }
+  }
+
   public OpenReleaseDTO getLatestActiveRelease(String appId, String env, String clusterName, String namespaceName) {
     if (Strings.isNullOrEmpty(clusterName)) {
       clusterName = ConfigConsts.CLUSTER_NAME_DEFAULT;
@@ -0,0 +1,16 @@
+package com.ctrip.framework.apollo.openapi.dto;
+
+import java.util.List;
+
+public class NamespaceBatchReleaseDTO extends NamespaceReleaseDTO {
+
+  private List<String> clusterNames;
+
+  public List<String> getClusterNames() {
+    return clusterNames;
+  }
+
+  public void setClusterNames(List<String> clusterNames) {
+    this.clusterNames = clusterNames;
+  }
+}
@@ -5,7 +5,9 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.ctrip.framework.apollo.openapi.dto.NamespaceBatchReleaseDTO;
 import com.ctrip.framework.apollo.openapi.dto.NamespaceReleaseDTO;
+import com.google.common.collect.Lists;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
@@ -75,6 +77,45 @@ public class ReleaseOpenApiServiceTest extends AbstractOpenApiServiceTest {
     releaseOpenApiService.publishNamespace(someAppId, someEnv, someCluster, someNamespace, namespaceReleaseDTO);
   }
 
+  @Test
+  public void testPublishNamespaces() throws Exception {
+    String someReleaseTitle = "someReleaseTitle";
+    String someReleasedBy = "someReleasedBy";
+
+    NamespaceBatchReleaseDTO namespaceBatchReleaseDTO = new NamespaceBatchReleaseDTO();
+    namespaceBatchReleaseDTO.setReleaseTitle(someReleaseTitle);
+    namespaceBatchReleaseDTO.setReleasedBy(someReleasedBy);
+    namespaceBatchReleaseDTO.setClusterNames(Lists.newArrayList(someCluster, "anotherCluster"));
+
+    StringEntity responseEntity = new StringEntity("[{}, {}]");
+    when(someHttpResponse.getEntity()).thenReturn(responseEntity);
+
+    final ArgumentCaptor<HttpPost> request = ArgumentCaptor.forClass(HttpPost.class);
+
+    assertEquals(2,
+        releaseOpenApiService.publishNamespaces(someAppId, someEnv, someNamespace, namespaceBatchReleaseDTO).size());
+
+    verify(httpClient, times(1)).execute(request.capture());
+
+    HttpPost post = request.getValue();
+
+    assertEquals(String
+        .format("%s/envs/%s/apps/%s/namespaces/%s/releases/batch", someBaseUrl, someEnv, someAppId, someNamespace),
+        post.getURI().toString());
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testPublishNamespacesWithError() throws Exception {
+    NamespaceBatchReleaseDTO namespaceBatchReleaseDTO = new NamespaceBatchReleaseDTO();
+    namespaceBatchReleaseDTO.setReleaseTitle("someReleaseTitle");
+    namespaceBatchReleaseDTO.setReleasedBy("someReleasedBy");
+    namespaceBatchReleaseDTO.setClusterNames(Lists.newArrayList(someCluster));
+
+    when(statusLine.getStatusCode()).thenReturn(400);
+
+    releaseOpenApiService.publishNamespaces(someAppId, someEnv, someNamespace, namespaceBatchReleaseDTO);
+  }
+
   @Test
   public void testGetLatestActiveRelease() throws Exception {
     final ArgumentCaptor<HttpGet> request = ArgumentCaptor.forClass(HttpGet.class);
@@ -7,19 +7,24 @@ import com.ctrip.framework.apollo.common.utils.RequestPrecondition;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
 import com.ctrip.framework.apollo.openapi.auth.ConsumerPermissionValidator;
+import com.ctrip.framework.apollo.openapi.dto.NamespaceBatchReleaseDTO;
 import com.ctrip.framework.apollo.openapi.dto.NamespaceGrayDelReleaseDTO;
 import com.ctrip.framework.apollo.openapi.dto.NamespaceReleaseDTO;
 import com.ctrip.framework.apollo.openapi.dto.OpenReleaseDTO;
 import com.ctrip.framework.apollo.openapi.util.OpenApiBeanUtils;
+import com.ctrip.framework.apollo.portal.entity.model.NamespaceBatchReleaseModel;
 import com.ctrip.framework.apollo.portal.entity.model.NamespaceGrayDelReleaseModel;
 import com.ctrip.framework.apollo.portal.entity.model.NamespaceReleaseModel;
 import com.ctrip.framework.apollo.portal.service.NamespaceBranchService;
 import com.ctrip.framework.apollo.portal.service.ReleaseService;
 import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
 import com.ctrip.framework.apollo.portal.spi.UserService;
+import java.util.List;
+import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.CollectionUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -74,6 +79,32 @@ public class ReleaseController {
     return OpenApiBeanUtils.transformFromReleaseDTO(releaseService.publish(releaseModel));
   }
 
+  @PreAuthorize(value = "@consumerPermissionValidator.hasReleaseNamespacePermission(#request, #appId, #namespaceName, #env)")
+  @PostMapping(value = "/apps/{appId}/namespaces/{namespaceName}/releases/batch")
+  public List<OpenReleaseDTO> createReleases(@PathVariable String appId, @PathVariable String env,
+                                             @PathVariable String namespaceName,
+                                             @RequestBody NamespaceBatchReleaseDTO model,
+                                             HttpServletRequest request) {
+    RequestPrecondition.checkArguments(!StringUtils.isContainEmpty(model.getReleasedBy(), model
+            .getReleaseTitle()),
+        "Params(releaseTitle and releasedBy) can not be empty");
+    RequestPrecondition.checkArguments(!CollectionUtils.isEmpty(model.getClusterNames()),
+        "Params(clusterNames) can not be empty");
+
+    if (userService.findByUserId(model.getReleasedBy()) == null) {
+      throw new BadRequestException("user(releaseBy) not exists");
+    }
+
+    NamespaceBatchReleaseModel releaseModel = BeanUtils.transform(NamespaceBatchReleaseModel.class, model);
+
+    releaseModel.setAppId(appId);
+    releaseModel.setEnv(Env.fromString(env).toString());
+    releaseModel.setNamespaceName(namespaceName);
+
+    return releaseService.batchPublish(releaseModel).stream().map(OpenApiBeanUtils::transformFromReleaseDTO)
+        .collect(Collectors.toList());
+  }
+
   @GetMapping(value = "/apps/{appId}/clusters/{clusterName}/namespaces/{namespaceName}/releases/latest")
   public OpenReleaseDTO loadLatestActiveRelease(@PathVariable String appId, @PathVariable String env,
                                                 @PathVariable String clusterName, @PathVariable
@@ -325,6 +325,11 @@ public class AdminServiceAPI {
       return response;
     }
 
+    public List<ReleaseDTO> createReleases(Env env, BatchReleaseDTO batchRelease) {
+      ReleaseDTO[] releases = restTemplate.post(env, "releases/batch", batchRelease, ReleaseDTO[].class);
+      return Arrays.asList(releases);
+    }
+
     public ReleaseDTO createGrayDeletionRelease(String appId, Env env, String clusterName, String namespace,
                                     String releaseName, String releaseComment, String operator,
                                     boolean isEmergencyPublish, Set<String> grayDelKeys) {
@@ -382,6 +387,17 @@ public class AdminServiceAPI {
 
       return Arrays.asList(commitDTOs);
     }
+
+    private ParameterizedTypeReference<CursorPageDTO<CommitDTO>> cursorPageCommitDtoType =
+        new ParameterizedTypeReference<CursorPageDTO<CommitDTO>>() {
+        };
+
+    public CursorPageDTO<CommitDTO> findWithCursor(String appId, Env env, String clusterName, String namespaceName,
+        long cursor, int size) {
+      return restTemplate.get(env,
+          "apps/{appId}/clusters/{clusterName}/namespaces/{namespaceName}/commit/cursor?cursor={cursor}&size={size}",
+          cursorPageCommitDtoType, appId, clusterName, namespaceName, cursor, size).getBody();
+    }
   }
 
   @Service
@@ -403,6 +419,10 @@ public class AdminServiceAPI {
         pageInstanceDtoType =
         new ParameterizedTypeReference<PageDTO<InstanceDTO>>() {
         };
+    private ParameterizedTypeReference<CursorPageDTO<InstanceDTO>>
+        cursorPageInstanceDtoType =
+        new ParameterizedTypeReference<CursorPageDTO<InstanceDTO>>() {
+        };
 
     public PageDTO<InstanceDTO> getByRelease(Env env, long releaseId, int page, int size) {
       ResponseEntity<PageDTO<InstanceDTO>>
@@ -414,6 +434,12 @@ public class AdminServiceAPI {
 
     }
 
+    public CursorPageDTO<InstanceDTO> getByReleaseWithCursor(Env env, long releaseId, long cursor, int size) {
+      return restTemplate
+          .get(env, "/instances/by-release/cursor?releaseId={releaseId}&cursor={cursor}&size={size}",
+              cursorPageInstanceDtoType, releaseId, cursor, size).getBody();
+    }
+
     public List<InstanceDTO> getByReleasesNotIn(String appId, Env env, String clusterName, String namespaceName,
         Set<Long> releaseIds) {
 
@@ -439,6 +465,15 @@ public class AdminServiceAPI {
       return entity.getBody();
     }
 
+    public CursorPageDTO<InstanceDTO> getByNamespaceWithCursor(String appId, Env env, String clusterName,
+        String namespaceName, String instanceAppId, long cursor, int size) {
+      return restTemplate.get(env,
+          "/instances/by-namespace/cursor?appId={appId}"
+              + "&clusterName={clusterName}&namespaceName={namespaceName}&instanceAppId={instanceAppId}"
+              + "&cursor={cursor}&size={size}",
+          cursorPageInstanceDtoType, appId, clusterName, namespaceName, instanceAppId, cursor, size).getBody();
+    }
+
     public int getInstanceCountByNamespace(String appId, Env env, String clusterName, String namespaceName) {
       Integer
           count =
@@ -503,6 +538,9 @@ public class AdminServiceAPI {
     private ParameterizedTypeReference<PageDTO<ReleaseHistoryDTO>> type =
         new ParameterizedTypeReference<PageDTO<ReleaseHistoryDTO>>() {
         };
+    private ParameterizedTypeReference<CursorPageDTO<ReleaseHistoryDTO>> cursorPageType =
+        new ParameterizedTypeReference<CursorPageDTO<ReleaseHistoryDTO>>() {
+        };
 
 
     //调用apollo-adminService接口
@@ -513,6 +551,13 @@ public class AdminServiceAPI {
           type, appId, clusterName, namespaceName, page, size).getBody();
     }
 
+    public CursorPageDTO<ReleaseHistoryDTO> findReleaseHistoriesByNamespaceWithCursor(String appId, Env env,
+        String clusterName, String namespaceName, long cursor, int size) {
+      return restTemplate.get(env,
+          "/apps/{appId}/clusters/{clusterName}/namespaces/{namespaceName}/releases/histories/cursor?cursor={cursor}&size={size}",
+          cursorPageType, appId, clusterName, namespaceName, cursor, size).getBody();
+    }
+
     public PageDTO<ReleaseHistoryDTO> findByReleaseIdAndOperation(Env env, long releaseId, int operation, int page,
         int size) {
       return restTemplate.get(env,
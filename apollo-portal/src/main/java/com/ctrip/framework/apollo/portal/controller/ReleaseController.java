@@ -3,10 +3,12 @@ package com.ctrip.framework.apollo.portal.controller;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.common.exception.BadRequestException;
 import com.ctrip.framework.apollo.common.exception.NotFoundException;
+import com.ctrip.framework.apollo.common.utils.RequestPrecondition;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.portal.component.PermissionValidator;
 import com.ctrip.framework.apollo.portal.component.config.PortalConfig;
 import com.ctrip.framework.apollo.portal.entity.bo.ReleaseBO;
+import com.ctrip.framework.apollo.portal.entity.model.NamespaceBatchReleaseModel;
 import com.ctrip.framework.apollo.portal.entity.model.NamespaceReleaseModel;
 import com.ctrip.framework.apollo.portal.entity.vo.ReleaseCompareResult;
 import com.ctrip.framework.apollo.portal.listener.ConfigPublishEvent;
@@ -94,6 +96,41 @@ public class ReleaseController {
     return createdRelease;
   }
 
+  /**
+   * 批量发布同一 Namespace 在多个 Cluster 下的配置
+   */
+  @PreAuthorize(value = "@permissionValidator.hasReleaseNamespacePermission(#appId, #namespaceName, #env)")
+  @PostMapping(value = "/apps/{appId}/envs/{env}/namespaces/{namespaceName}/releases/batch")
+  public List<ReleaseDTO> createReleases(@PathVariable String appId,
+                                         @PathVariable String env, @PathVariable String namespaceName,
+                                         @RequestBody NamespaceBatchReleaseModel model) {
+    model.setAppId(appId);
+    model.setEnv(env);
+    model.setNamespaceName(namespaceName);
+
+    RequestPrecondition.checkModel(!model.isInvalid());
+
+    if (model.isEmergencyPublish() && !portalConfig.isEmergencyPublishAllowed(Env.valueOf(env))) {
+      throw new BadRequestException(String.format("Env: %s is not supported emergency publish now", env));
+    }
+
+    List<ReleaseDTO> createdReleases = releaseService.batchPublish(model);
+
+    for (ReleaseDTO createdRelease : createdReleases) {
+      ConfigPublishEvent event = ConfigPublishEvent.instance();
+      event.withAppId(appId)
+          .withCluster(createdRelease.getClusterName())
+          .withNamespace(namespaceName)
+          .withReleaseId(createdRelease.getId())
+          .setNormalPublishEvent(true)
+          .setEnv(Env.valueOf(env));
+
+      publisher.publishEvent(event);
+    }
+
+    return createdReleases;
+  }
+
   @PreAuthorize(value = "@permissionValidator.hasReleaseNamespacePermission(#appId, #namespaceName, #env)")
   @PostMapping(value = "/apps/{appId}/envs/{env}/clusters/{clusterName}/namespaces/{namespaceName}/branches/{branchName}/releases")
   public ReleaseDTO createGrayRelease(@PathVariable String appId,
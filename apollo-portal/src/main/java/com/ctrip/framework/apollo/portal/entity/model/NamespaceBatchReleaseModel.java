@@ -0,0 +1,93 @@
+package com.ctrip.framework.apollo.portal.entity.model;
+
+
+import com.ctrip.framework.apollo.core.utils.StringUtils;
+import com.ctrip.framework.apollo.portal.environment.Env;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+
+/**
+ * 同一个 Namespace 在多个 Cluster 下的批量发布
+ */
+public class NamespaceBatchReleaseModel implements Verifiable {
+
+  private String appId;
+  private String env;
+  private String namespaceName;
+  private List<String> clusterNames;
+  private String releaseTitle;
+  private String releaseComment;
+  private String releasedBy;
+  private boolean isEmergencyPublish;
+
+  @Override
+  public boolean isInvalid() {
+    return StringUtils.isContainEmpty(appId, env, namespaceName, releaseTitle) || CollectionUtils
+        .isEmpty(clusterNames);
+  }
+
+  public String getAppId() {
+    return appId;
+  }
+
+  public void setAppId(String appId) {
+    this.appId = appId;
+  }
+
+  public Env getEnv() {
+    return Env.valueOf(env);
+  }
+
+  public void setEnv(String env) {
+    this.env = env;
+  }
+
+  public String getNamespaceName() {
+    return namespaceName;
+  }
+
+  public void setNamespaceName(String namespaceName) {
+    this.namespaceName = namespaceName;
+  }
+
+  public List<String> getClusterNames() {
+    return clusterNames;
+  }
+
+  public void setClusterNames(List<String> clusterNames) {
+    this.clusterNames = clusterNames;
+  }
+
+  public String getReleaseTitle() {
+    return releaseTitle;
+  }
+
+  public void setReleaseTitle(String releaseTitle) {
+    this.releaseTitle = releaseTitle;
+  }
+
+  public String getReleaseComment() {
+    return releaseComment;
+  }
+
+  public void setReleaseComment(String releaseComment) {
+    this.releaseComment = releaseComment;
+  }
+
+  public String getReleasedBy() {
+    return releasedBy;
+  }
+
+  public void setReleasedBy(String releasedBy) {
+    this.releasedBy = releasedBy;
+  }
+
+  public boolean isEmergencyPublish() {
+    return isEmergencyPublish;
+  }
+
+  public void setEmergencyPublish(boolean emergencyPublish) {
+    isEmergencyPublish = emergencyPublish;
+  }
+}
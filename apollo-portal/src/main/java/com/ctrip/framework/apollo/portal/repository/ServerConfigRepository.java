@@ -5,6 +5,11 @@ import com.ctrip.framework.apollo.portal.entity.po.ServerConfig;
 
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.Date;
+import java.util.List;
+
 public interface ServerConfigRepository extends PagingAndSortingRepository<ServerConfig, Long> {
   ServerConfig findByKey(String key);
+
+  List<ServerConfig> findByDataChangeLastModifiedTimeGreaterThanEqual(Date date);
 }
@@ -6,13 +6,10 @@ import com.ctrip.framework.apollo.common.config.RefreshablePropertySource;
 import com.ctrip.framework.apollo.portal.entity.po.ServerConfig;
 import com.ctrip.framework.apollo.portal.repository.ServerConfigRepository;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
-import java.util.Objects;
 
 
 /**
@@ -20,7 +17,6 @@ import java.util.Objects;
  */
 @Component
 public class PortalDBPropertySource extends RefreshablePropertySource {
-  private static final Logger logger = LoggerFactory.getLogger(PortalDBPropertySource.class);
 
   @Autowired
   private ServerConfigRepository serverConfigRepository;
@@ -35,20 +31,21 @@ public class PortalDBPropertySource extends RefreshablePropertySource {
 
   @Override
   protected void refresh() {
-    Iterable<ServerConfig> dbConfigs = serverConfigRepository.findAll();
+    if (isFullRefreshDue()) {
+      Iterable<ServerConfig> dbConfigs = serverConfigRepository.findAll();
 
-    for (ServerConfig config: dbConfigs) {
-      String key = config.getKey();
-      Object value = config.getValue();
-
-      if (this.source.isEmpty()) {
-        logger.info("Load config from DB : {} = {}", key, value);
-      } else if (!Objects.equals(this.source.get(key), value)) {
-        logger.info("Load config from DB : {} = {}. Old value = {}", key,
-                    value, this.source.get(key));
+      Map<String, Object> newConfigs = Maps.newHashMap();
+      for (ServerConfig config : dbConfigs) {
+        advanceWatermark(config.getDataChangeLastModifiedTime());
+        newConfigs.put(config.getKey(), config.getValue());
       }
+      reconcile(newConfigs);
+      return;
+    }
 
-      this.source.put(key, value);
+    for (ServerConfig config : serverConfigRepository.findByDataChangeLastModifiedTimeGreaterThanEqual(getWatermark())) {
+      advanceWatermark(config.getDataChangeLastModifiedTime());
+      updateProperty(config.getKey(), config.getValue());
     }
   }
 
@@ -1,7 +1,9 @@
 package com.ctrip.framework.apollo.portal.service;
 
 import com.ctrip.framework.apollo.common.constants.GsonType;
+import com.ctrip.framework.apollo.common.dto.BatchReleaseDTO;
 import com.ctrip.framework.apollo.common.dto.ItemChangeSets;
+import com.ctrip.framework.apollo.common.dto.NamespaceDTO;
 import com.ctrip.framework.apollo.common.dto.ReleaseDTO;
 import com.ctrip.framework.apollo.portal.environment.Env;
 import com.ctrip.framework.apollo.core.utils.StringUtils;
@@ -9,6 +11,7 @@ import com.ctrip.framework.apollo.portal.api.AdminServiceAPI;
 import com.ctrip.framework.apollo.portal.constant.TracerEventType;
 import com.ctrip.framework.apollo.portal.entity.bo.KVEntity;
 import com.ctrip.framework.apollo.portal.entity.bo.ReleaseBO;
+import com.ctrip.framework.apollo.portal.entity.model.NamespaceBatchReleaseModel;
 import com.ctrip.framework.apollo.portal.entity.model.NamespaceGrayDelReleaseModel;
 import com.ctrip.framework.apollo.portal.entity.model.NamespaceReleaseModel;
 import com.ctrip.framework.apollo.portal.entity.vo.ReleaseCompareResult;
@@ -16,6 +19,7 @@ import com.ctrip.framework.apollo.portal.enums.ChangeType;
 import com.ctrip.framework.apollo.portal.spi.UserInfoHolder;
 import com.ctrip.framework.apollo.tracer.Tracer;
 import com.google.common.base.Objects;
+import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -62,6 +66,42 @@ public class ReleaseService {
     return releaseDTO;
   }
 
+  /**
+   * 批量发布同一 Namespace 在多个 Cluster 下的配置，调用一次 Admin-Service API ，在同一事务内完成
+   */
+  public List<ReleaseDTO> batchPublish(NamespaceBatchReleaseModel model) {
+    Env env = model.getEnv();
+    String appId = model.getAppId();
+    String namespaceName = model.getNamespaceName();
+    String releaseBy = StringUtils.isEmpty(model.getReleasedBy()) ?
+                       userInfoHolder.getUser().getUserId() : model.getReleasedBy();
+
+    List<NamespaceDTO> namespaces = Lists.newArrayListWithCapacity(model.getClusterNames().size());
+    for (String clusterName : model.getClusterNames()) {
+      NamespaceDTO namespace = new NamespaceDTO();
+      namespace.setAppId(appId);
+      namespace.setClusterName(clusterName);
+      namespace.setNamespaceName(namespaceName);
+      namespaces.add(namespace);
+    }
+
+    BatchReleaseDTO batchRelease = new BatchReleaseDTO();
+    batchRelease.setReleaseName(model.getReleaseTitle());
+    batchRelease.setReleaseComment(model.getReleaseComment());
+    batchRelease.setOperator(releaseBy);
+    batchRelease.setEmergencyPublish(model.isEmergencyPublish());
+    batchRelease.setNamespaces(namespaces);
+
+    List<ReleaseDTO> releases = releaseAPI.createReleases(env, batchRelease);
+
+    for (String clusterName : model.getClusterNames()) {
+      Tracer.logEvent(TracerEventType.RELEASE_NAMESPACE,
+                      String.format("%s+%s+%s+%s", appId, env, clusterName, namespaceName));
+    }
+
+    return releases;
+  }
+
   //gray deletion release
   public ReleaseDTO publish(NamespaceGrayDelReleaseModel model, String releaseBy) {
     Env env = model.getEnv();